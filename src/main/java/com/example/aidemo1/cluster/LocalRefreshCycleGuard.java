@@ -0,0 +1,36 @@
+package com.example.aidemo1.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Single-node {@link RefreshCycleGuard}: a cycle runs whenever it is due.
+ *
+ * <p>The start of each cycle is kept in memory, so schedulers may check more often
+ * than the cycle interval, as they do in cluster mode. Active unless
+ * {@code exchange.refresh.cluster.enabled} is set.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "exchange.refresh.cluster.enabled", havingValue = "false", matchIfMissing = true)
+public class LocalRefreshCycleGuard implements RefreshCycleGuard {
+
+    private final Map<String, Instant> lastStarted = new ConcurrentHashMap<>();
+
+    @Override
+    public OptionalInt runIfDue(String cycleName, Duration interval, IntSupplier cycle) {
+        Instant now = Instant.now();
+        Instant started = lastStarted.get(cycleName);
+        if (started != null && started.plus(interval).isAfter(now)) {
+            return OptionalInt.empty();
+        }
+        lastStarted.put(cycleName, now);
+        return OptionalInt.of(cycle.getAsInt());
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.aidemo1.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out base-currency partitions of the refresh cycle to replicas.
+ *
+ * <p>Every base currency has a row in {@code refresh_partition_lease}. A node claims
+ * partitions that are due (not refreshed within the interval) and not leased by
+ * another node, using {@code SELECT ... FOR UPDATE SKIP LOCKED} so concurrent claims
+ * never block on or return the same rows. A claim writes a lease that expires after
+ * {@code lease-seconds}. While a node refreshes its partitions it renews their leases
+ * every third of the lease ({@link #keepAlive}), so a partition that runs longer than one
+ * lease - up to the cycle deadline - is never claimed by a second node meanwhile.</p>
+ *
+ * <h2>Failure handling</h2>
+ * <ul>
+ *   <li>Completed partitions record {@code last_refreshed_at} and drop their lease.</li>
+ *   <li>Failed partitions are released with a short back-off ({@code retry-delay-seconds}),
+ *       after which any node may retry them.</li>
+ *   <li>A refresh that throws releases all partitions it claimed.</li>
+ *   <li>If a node dies, its leases are no longer renewed and expire, and surviving nodes
+ *       claim the partitions.</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.refresh.sharding.interval-seconds} (default 3600)</li>
+ *   <li>{@code exchange.refresh.sharding.lease-seconds} (default 600, renewed while in flight)</li>
+ *   <li>{@code exchange.refresh.sharding.retry-delay-seconds} (default 300)</li>
+ *   <li>{@code exchange.refresh.sharding.claim-batch-size} (default 4)</li>
+ * </ul>
+ *
+ * <p>Active when {@code exchange.refresh.mode=sharded}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.refresh.mode", havingValue = "sharded")
+public class PartitionLeaseManager {
+
+    private static final String SEED_PARTITIONS_SQL =
+            "INSERT INTO refresh_partition_lease (base_currency) SELECT code FROM currency "
+            + "ON CONFLICT (base_currency) DO NOTHING";
+
+    private static final String SELECT_CLAIMABLE_SQL =
+            "SELECT base_currency FROM refresh_partition_lease "
+            + "WHERE (lease_expires_at IS NULL OR lease_expires_at < now()) "
+            + "AND (last_refreshed_at IS NULL OR last_refreshed_at < now() - make_interval(secs => ?)) "
+            + "ORDER BY last_refreshed_at NULLS FIRST, base_currency "
+            + "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE refresh_partition_lease SET lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?) "
+            + "WHERE base_currency = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE refresh_partition_lease SET last_refreshed_at = now(), lease_owner = NULL, lease_expires_at = NULL "
+            + "WHERE base_currency = ? AND lease_owner = ?";
+
+    private static final String RENEW_SQL =
+            "UPDATE refresh_partition_lease SET lease_expires_at = now() + make_interval(secs => ?) "
+            + "WHERE base_currency = ? AND lease_owner = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE refresh_partition_lease SET lease_owner = NULL, lease_expires_at = now() + make_interval(secs => ?) "
+            + "WHERE base_currency = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final long intervalSeconds;
+    private final long leaseSeconds;
+    private final long retryDelaySeconds;
+    private final int claimBatchSize;
+    private final ScheduledExecutorService renewer;
+
+    public PartitionLeaseManager(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${exchange.refresh.cluster.node-id:}") String nodeId,
+            @Value("${exchange.refresh.sharding.interval-seconds:3600}") long intervalSeconds,
+            @Value("${exchange.refresh.sharding.lease-seconds:600}") long leaseSeconds,
+            @Value("${exchange.refresh.sharding.retry-delay-seconds:300}") long retryDelaySeconds,
+            @Value("${exchange.refresh.sharding.claim-batch-size:4}") int claimBatchSize) {
+        if (claimBatchSize < 1) {
+            throw new IllegalArgumentException("Claim batch size must be positive");
+        }
+        if (leaseSeconds < 3) {
+            throw new IllegalArgumentException("Lease must be at least 3 seconds");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.intervalSeconds = intervalSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.retryDelaySeconds = retryDelaySeconds;
+        this.claimBatchSize = claimBatchSize;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "partition-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops renewing leases; unrenewed leases expire and other nodes take the partitions over.
+     */
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * Claims up to {@code claim-batch-size} due partitions for this node.
+     *
+     * @return the claimed base currencies; empty when nothing is due or everything is leased
+     */
+    public List<String> claim() {
+        jdbcTemplate.update(SEED_PARTITIONS_SQL);
+
+        List<String> claimed = transactionTemplate.execute(status -> {
+            List<String> bases = jdbcTemplate.queryForList(SELECT_CLAIMABLE_SQL, String.class,
+                    intervalSeconds, claimBatchSize);
+            for (String base : bases) {
+                jdbcTemplate.update(LEASE_SQL, nodeId, leaseSeconds, base);
+            }
+            return bases;
+        });
+
+        if (claimed != null && !claimed.isEmpty()) {
+            log.debug("Node {} claimed refresh partitions {}", nodeId, claimed);
+        }
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Renews this node's lease on the given partitions every third of {@code lease-seconds}
+     * until the returned handle is closed. Use it around the refresh of claimed partitions.
+     *
+     * @param bases the claimed base currencies
+     * @return a handle that stops the renewal when closed
+     */
+    public LeaseRenewal keepAlive(List<String> bases) {
+        long periodSeconds = leaseSeconds / 3;
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> renew(bases),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return () -> renewal.cancel(false);
+    }
+
+    /**
+     * Extends this node's lease on the given partitions by {@code lease-seconds}. A partition
+     * whose lease has meanwhile passed to another node is not touched.
+     *
+     * @param bases the leased base currencies
+     */
+    void renew(List<String> bases) {
+        try {
+            for (String base : bases) {
+                if (jdbcTemplate.update(RENEW_SQL, leaseSeconds, base, nodeId) == 0) {
+                    log.warn("Node {} lost its lease on refresh partition {}", nodeId, base);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep renewing: the next attempt is still well within the lease
+            log.warn("Node {} failed to renew leases on {}: {}", nodeId, bases, e.getMessage());
+        }
+    }
+
+    /**
+     * Marks partitions as refreshed and drops this node's lease on them.
+     *
+     * @param bases the completed base currencies
+     */
+    public void complete(List<String> bases) {
+        for (String base : bases) {
+            jdbcTemplate.update(COMPLETE_SQL, base, nodeId);
+        }
+    }
+
+    /**
+     * Gives up this node's lease on partitions that could not be refreshed. They become
+     * claimable again after the retry delay.
+     *
+     * @param bases the failed base currencies
+     */
+    public void release(List<String> bases) {
+        for (String base : bases) {
+            jdbcTemplate.update(RELEASE_SQL, retryDelaySeconds, base, nodeId);
+        }
+        if (!bases.isEmpty()) {
+            log.warn("Node {} released refresh partitions {} for retry in {} s", nodeId, bases, retryDelaySeconds);
+        }
+    }
+
+    /**
+     * Returns the id this node uses as lease owner.
+     *
+     * @return the node id
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Running lease renewal started by {@link #keepAlive}.
+     */
+    @FunctionalInterface
+    public interface LeaseRenewal extends AutoCloseable {
+
+        /**
+         * Stops renewing the leases; does not release them.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.aidemo1.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+/**
+ * Cluster-wide {@link RefreshCycleGuard} based on PostgreSQL advisory locks.
+ *
+ * <p>Every replica's scheduler checks frequently ({@code exchange.refresh.full.check-interval-ms}).
+ * A check tries {@code pg_try_advisory_lock} for the cycle on a dedicated connection.
+ * The node that gets the lock reads the shared marker in {@code refresh_cycle_marker}
+ * and runs the cycle only if it is due. The lock is held, on the same connection,
+ * until the cycle has finished and the marker has been updated. Marker times are
+ * stored in UTC, so nodes in different JVM time zones agree on when a cycle is due.</p>
+ *
+ * <h2>Failover</h2>
+ * <p>Advisory locks belong to the database session. If the leader dies mid-cycle,
+ * its connection closes and PostgreSQL releases the lock. The next node to acquire it
+ * sees a cycle that was started but never completed and runs it immediately instead
+ * of waiting for the next interval.</p>
+ *
+ * <p>Enabled via {@code exchange.refresh.cluster.enabled}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.refresh.cluster.enabled", havingValue = "true")
+public class PostgresAdvisoryRefreshCycleGuard implements RefreshCycleGuard {
+
+    /**
+     * First key of the two-key advisory lock, so refresh locks do not collide with other users.
+     */
+    static final int LOCK_NAMESPACE = 0x52465348;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?, ?)";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?, ?)";
+
+    private static final String SELECT_MARKER_SQL =
+            "SELECT last_started_at, last_completed_at FROM refresh_cycle_marker WHERE cycle_name = ?";
+
+    private static final String MARK_STARTED_SQL =
+            "INSERT INTO refresh_cycle_marker (cycle_name, last_started_at, started_by) VALUES (?, ?, ?) "
+            + "ON CONFLICT (cycle_name) DO UPDATE SET last_started_at = EXCLUDED.last_started_at, "
+            + "started_by = EXCLUDED.started_by";
+
+    private static final String MARK_COMPLETED_SQL =
+            "UPDATE refresh_cycle_marker SET last_completed_at = ?, completed_by = ?, refreshed_pairs = ? "
+            + "WHERE cycle_name = ?";
+
+    private final DataSource dataSource;
+    private final String nodeId;
+
+    public PostgresAdvisoryRefreshCycleGuard(
+            DataSource dataSource,
+            @Value("${exchange.refresh.cluster.node-id:}") String nodeId) {
+        this.dataSource = dataSource;
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        log.info("Cluster refresh leader election enabled, node id {}", this.nodeId);
+    }
+
+    @Override
+    public OptionalInt runIfDue(String cycleName, Duration interval, IntSupplier cycle) {
+        int lockKey = cycleName.hashCode();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+
+            if (!tryLock(connection, lockKey)) {
+                log.debug("Refresh cycle {} is running on another node", cycleName);
+                return OptionalInt.empty();
+            }
+
+            try {
+                LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+                if (!isDue(connection, cycleName, interval, now)) {
+                    log.debug("Refresh cycle {} is not due yet", cycleName);
+                    return OptionalInt.empty();
+                }
+
+                markStarted(connection, cycleName, now);
+                log.info("Node {} acquired refresh cycle {}", nodeId, cycleName);
+
+                int refreshed;
+                try {
+                    refreshed = cycle.getAsInt();
+                } catch (RuntimeException e) {
+                    // A failed cycle counts as attempted; it is retried at the next interval, not on every check
+                    markCompleted(connection, cycleName, 0);
+                    throw e;
+                }
+                markCompleted(connection, cycleName, refreshed);
+                return OptionalInt.of(refreshed);
+            } finally {
+                unlock(connection, lockKey);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Refresh leader election failed for cycle " + cycleName, e);
+        }
+    }
+
+    private boolean isDue(Connection connection, String cycleName, Duration interval, LocalDateTime now)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_MARKER_SQL)) {
+            statement.setString(1, cycleName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return true;
+                }
+                LocalDateTime startedAt = resultSet.getObject(1, LocalDateTime.class);
+                LocalDateTime completedAt = resultSet.getObject(2, LocalDateTime.class);
+                if (startedAt == null) {
+                    return true;
+                }
+                if (completedAt == null || completedAt.isBefore(startedAt)) {
+                    // We hold the lock, so the node that started this cycle is gone
+                    log.warn("Refresh cycle {} started at {} never completed, taking over", cycleName, startedAt);
+                    return true;
+                }
+                return !startedAt.plus(interval).isAfter(now);
+            }
+        }
+    }
+
+    private void markStarted(Connection connection, String cycleName, LocalDateTime now) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MARK_STARTED_SQL)) {
+            statement.setString(1, cycleName);
+            statement.setObject(2, now);
+            statement.setString(3, nodeId);
+            statement.executeUpdate();
+        }
+    }
+
+    private void markCompleted(Connection connection, String cycleName, int refreshed) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MARK_COMPLETED_SQL)) {
+            statement.setObject(1, LocalDateTime.now(ZoneOffset.UTC));
+            statement.setString(2, nodeId);
+            statement.setInt(3, refreshed);
+            statement.setString(4, cycleName);
+            statement.executeUpdate();
+        }
+    }
+
+    private boolean tryLock(Connection connection, int lockKey) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, lockKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection, int lockKey) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UNLOCK_SQL)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, lockKey);
+            statement.execute();
+        }
+    }
+}
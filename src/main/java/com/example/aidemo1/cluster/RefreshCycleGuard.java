@@ -0,0 +1,25 @@
+package com.example.aidemo1.cluster;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+/**
+ * Decides whether this node runs a scheduled refresh cycle.
+ *
+ * <p>With a single node every cycle runs locally ({@link LocalRefreshCycleGuard}).
+ * With several replicas, {@link PostgresAdvisoryRefreshCycleGuard} makes sure exactly
+ * one node runs each cycle.</p>
+ */
+public interface RefreshCycleGuard {
+
+    /**
+     * Runs the cycle if this node may run it now.
+     *
+     * @param cycleName identifies the cycle across nodes
+     * @param interval  minimum time between the starts of two completed cycles
+     * @param cycle     the refresh to run; returns the number of refreshed pairs
+     * @return the cycle's result, or empty if it was skipped on this node
+     */
+    OptionalInt runIfDue(String cycleName, Duration interval, IntSupplier cycle);
+}
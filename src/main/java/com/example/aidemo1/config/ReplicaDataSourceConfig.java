@@ -0,0 +1,116 @@
+package com.example.aidemo1.config;
+
+import com.example.aidemo1.datasource.ReplicaHealthMonitor;
+import com.example.aidemo1.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuration of read-replica routing.
+ *
+ * <p>When {@code exchange.datasource.replicas.enabled=true}, read-only transactions
+ * ({@code @Transactional(readOnly = true)}, as on the query services) run on the
+ * replicas listed in {@code exchange.datasource.replicas.urls}; all other work,
+ * including Liquibase and every write, runs on the primary
+ * ({@code spring.datasource.*}).</p>
+ *
+ * <h2>Replica Lag</h2>
+ * <p>A replica serves reads only while its replication lag is at most
+ * {@code exchange.datasource.replicas.max-lag-ms} (default 5000). The limit must stay
+ * far below the rate freshness window: a replica a few seconds behind may miss a rate
+ * the primary just stored, and a conversion that finds no fresh rate there fetches it
+ * from every provider again. Failing replicas are ejected until they answer again.</p>
+ *
+ * <h2>Local Testing</h2>
+ * <p>Run a primary and a streaming replica (for example on ports 5432 and 5433) and set
+ * {@code DB_REPLICAS_ENABLED=true} and
+ * {@code SPRING_DATASOURCE_REPLICA_URLS=jdbc:postgresql://localhost:5433/aidemo}.</p>
+ *
+ * @see ReplicaRoutingDataSource
+ * @see ReplicaHealthMonitor
+ */
+@Configuration
+@ConditionalOnProperty(name = "exchange.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Connection pool of the primary, configured by {@code spring.datasource.*}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Routes between the primary and read-only replica pools.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${exchange.datasource.replicas.urls:}") String urls,
+            @Value("${exchange.datasource.replicas.username:}") String username,
+            @Value("${exchange.datasource.replicas.password:}") String password,
+            @Value("${exchange.datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${exchange.datasource.replicas.max-lag-ms:5000}") long maxLagMs) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        List<String> replicaUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Do not fail startup when a replica is down; the health monitor ejects it
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, replica));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, Duration.ofMillis(maxLagMs));
+    }
+
+    /**
+     * The application data source. The proxy defers taking a connection until the first
+     * statement, by which time the transaction's read-only flag is known to the router.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Periodic health and lag checks of the replicas.
+     */
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            @Value("${exchange.datasource.replicas.check-timeout-seconds:2}") int checkTimeoutSeconds) {
+        return new ReplicaHealthMonitor(replicaRoutingDataSource.getReplicas(), checkTimeoutSeconds);
+    }
+}
@@ -33,6 +33,7 @@ import org.springframework.security.web.SecurityFilterChain;
  * <ul>
  *   <li>GET /api/v1/currencies - List all currencies</li>
  *   <li>GET /api/v1/currencies/exchange-rates - Get exchange rates</li>
+ *   <li>GET /api/v1/currencies/trend - Get rate trends</li>
  *   <li>/mock/provider1/** - Mock Provider 1 endpoints</li>
  *   <li>/mock/provider2/** - Mock Provider 2 endpoints</li>
  *   <li>/swagger-ui/** - Swagger UI</li>
@@ -83,6 +84,7 @@ public class SecurityConfig {
                 // Public GET endpoints for currencies
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/v1/currencies").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/v1/currencies/exchange-rates").permitAll()
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/v1/currencies/trend").permitAll()
                 
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
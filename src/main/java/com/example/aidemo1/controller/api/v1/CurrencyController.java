@@ -1,26 +1,47 @@
 package com.example.aidemo1.controller.api.v1;
 
 import com.example.aidemo1.dto.request.AddCurrencyRequest;
+import com.example.aidemo1.dto.request.TrendRequest;
 import com.example.aidemo1.dto.response.CurrencyResponse;
 import com.example.aidemo1.dto.response.ExchangeRateResponse;
+import com.example.aidemo1.dto.response.RateHistoryResponse;
+import com.example.aidemo1.dto.response.RecentHistoryResponse;
+import com.example.aidemo1.dto.response.RefreshJobResponse;
+import com.example.aidemo1.dto.response.TrendResponse;
 import com.example.aidemo1.entity.Currency;
-import com.example.aidemo1.entity.ExchangeRate;
 import com.example.aidemo1.service.CurrencyService;
 import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.RateExportService;
+import com.example.aidemo1.service.RateHistoryService;
+import com.example.aidemo1.service.RateTrendService;
+import com.example.aidemo1.service.export.AcceptEncoding;
+import com.example.aidemo1.service.export.ExportFormat;
+import com.example.aidemo1.service.export.RateExportFilter;
+import com.example.aidemo1.service.refresh.RefreshJob;
+import com.example.aidemo1.service.refresh.RefreshJobService;
+import com.example.aidemo1.service.refresh.RefreshProgress;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for currency and exchange rate operations.
@@ -43,6 +64,10 @@ public class CurrencyController {
 
     private final CurrencyService currencyService;
     private final ExchangeRateService exchangeRateService;
+    private final RefreshJobService refreshJobService;
+    private final RateTrendService rateTrendService;
+    private final RateHistoryService rateHistoryService;
+    private final RateExportService rateExportService;
 
     /**
      * Get all currencies.
@@ -55,10 +80,7 @@ public class CurrencyController {
     public ResponseEntity<List<CurrencyResponse>> getCurrencies() {
         log.info("GET /api/v1/currencies - Fetching all currencies");
         
-        List<Currency> currencies = currencyService.getAllCurrencies();
-        List<CurrencyResponse> response = currencies.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<CurrencyResponse> response = currencyService.listCurrencies();
         
         log.info("GET /api/v1/currencies - Returning {} currencies", response.size());
         return ResponseEntity.ok(response);
@@ -107,29 +129,240 @@ public class CurrencyController {
         String fromUpper = from.trim().toUpperCase();
         String toUpper = to.trim().toUpperCase();
         
-        // Get exchange rate entity using cache-first strategy (Cache → Database → Providers)
-        ExchangeRate rateEntity = exchangeRateService.getExchangeRateEntity(fromUpper, toUpper);
-        
-        // Calculate converted amount
-        BigDecimal convertedAmount = exchangeRateService.getExchangeRate(fromUpper, toUpper, amount);
-        
-        // Build response using cached data (no additional database query)
-        ExchangeRateResponse response = ExchangeRateResponse.builder()
-                .from(fromUpper)
-                .to(toUpper)
-                .amount(amount)
-                .rate(rateEntity.getRate())
-                .convertedAmount(convertedAmount)
-                .provider(rateEntity.getProvider())
-                .timestamp(rateEntity.getTimestamp())
-                .build();
+        // One rate lookup (Database → Providers), read as a projection
+        ExchangeRateResponse response = exchangeRateService.convert(fromUpper, toUpper, amount);
         
         log.info("GET /api/v1/currencies/exchange-rates - Successfully calculated: {} {} = {} {} (rate: {}, provider: {})",
-                amount, fromUpper, convertedAmount, toUpper, rateEntity.getRate(), rateEntity.getProvider());
+                amount, fromUpper, response.getConvertedAmount(), toUpper, response.getRate(), response.getProvider());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the rate trend of a currency pair.
+     * 
+     * <p>Public endpoint - no authentication required.</p>
+     * 
+     * <p>Request parameters:</p>
+     * <ul>
+     *   <li>from - Source currency code (3 letters, e.g., USD)</li>
+     *   <li>to - Target currency code (3 letters, e.g., EUR)</li>
+     *   <li>period - Length of the trend ending now, ISO-8601 (default P30D)</li>
+     *   <li>granularity - Width of one point, ISO-8601 (default PT1H)</li>
+     * </ul>
+     * 
+     * <p>Example: GET /api/v1/currencies/trend?from=USD&to=EUR&period=P1Y&granularity=P1D</p>
+     *
+     * @param request the pair, period and granularity
+     * @return OHLC points with percent change, minimum and maximum
+     */
+    @GetMapping("/trend")
+    public ResponseEntity<TrendResponse> getTrend(@Valid TrendRequest request) {
+        log.info("GET /api/v1/currencies/trend - from={}, to={}, period={}, granularity={}",
+                request.getFrom(), request.getTo(), request.getPeriod(), request.getGranularity());
+        
+        TrendResponse response = rateTrendService.getTrend(request);
+        
+        log.info("GET /api/v1/currencies/trend - Returning {} points from {} rollups",
+                response.getPoints().size(), response.getSource());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get one page of the stored rate history of a currency pair, most recent first.
+     * 
+     * <p>Requires authentication.</p>
+     * 
+     * <p>Request parameters:</p>
+     * <ul>
+     *   <li>from - Source currency code (3 letters, e.g., USD)</li>
+     *   <li>to - Target currency code (3 letters, e.g., EUR)</li>
+     *   <li>cursor - {@code nextCursor} of the previous page; omit for the first page</li>
+     *   <li>size - Page size (default 100)</li>
+     * </ul>
+     * 
+     * <p>Example: GET /api/v1/currencies/history?from=USD&to=EUR&size=100</p>
+     *
+     * @param from source currency code
+     * @param to target currency code
+     * @param cursor position after the previous page
+     * @param size page size
+     * @return the page and the cursor of the next page
+     */
+    @GetMapping("/history")
+    public ResponseEntity<RateHistoryResponse> getHistory(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        String fromUpper = from.trim().toUpperCase();
+        String toUpper = to.trim().toUpperCase();
+        log.info("GET /api/v1/currencies/history - from={}, to={}, size={}, cursor={}",
+                fromUpper, toUpper, size, cursor != null);
+        
+        RateHistoryResponse response = rateHistoryService.getHistoryPage(fromUpper, toUpper, cursor, size);
+        
+        log.info("GET /api/v1/currencies/history - Returning {} rates", response.getRates().size());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the stored rate of a currency pair that was in effect at a point in time:
+     * the most recent rate quoted at or before it.
+     * 
+     * <p>Requires authentication.</p>
+     * 
+     * <p>Example: GET /api/v1/currencies/history/at?from=USD&to=EUR&at=2026-10-18T12:00:00</p>
+     *
+     * @param from source currency code
+     * @param to target currency code
+     * @param at the point in time (ISO-8601 date-time)
+     * @return the rate in effect at that time
+     */
+    @GetMapping("/history/at")
+    public ResponseEntity<RateHistoryResponse.Entry> getRateAt(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        String fromUpper = from.trim().toUpperCase();
+        String toUpper = to.trim().toUpperCase();
+        log.info("GET /api/v1/currencies/history/at - from={}, to={}, at={}", fromUpper, toUpper, at);
+        
+        return ResponseEntity.ok(rateHistoryService.getRateAt(fromUpper, toUpper, at));
+    }
+
+    /**
+     * Get the rates of a currency pair over the last hours, most recent first, with their average.
+     * 
+     * <p>Requires authentication.</p>
+     * 
+     * <p>Request parameters:</p>
+     * <ul>
+     *   <li>from - Source currency code (3 letters, e.g., USD)</li>
+     *   <li>to - Target currency code (3 letters, e.g., EUR)</li>
+     *   <li>hours - Lookback in hours (default 24, at most {@code exchange.recent.window-hours})</li>
+     * </ul>
+     * 
+     * <p>Example: GET /api/v1/currencies/history/recent?from=USD&to=EUR&hours=24</p>
+     *
+     * @param from source currency code
+     * @param to target currency code
+     * @param hours lookback in hours
+     * @return the recent rates and their moving average
+     */
+    @GetMapping("/history/recent")
+    public ResponseEntity<RecentHistoryResponse> getRecentHistory(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "24") int hours) {
+        String fromUpper = from.trim().toUpperCase();
+        String toUpper = to.trim().toUpperCase();
+        log.info("GET /api/v1/currencies/history/recent - from={}, to={}, hours={}", fromUpper, toUpper, hours);
         
+        RecentHistoryResponse response = rateHistoryService.getRecentHistory(fromUpper, toUpper,
+                Duration.ofHours(hours));
+        
+        log.info("GET /api/v1/currencies/history/recent - Returning {} rates from {}",
+                response.getRates().size(), response.getSource());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Stream the whole stored rate history of a currency pair as a JSON array, most recent first.
+     * 
+     * <p>Requires authentication.</p>
+     * 
+     * <p>The response is written while rows are read from the database, so server
+     * memory does not grow with the length of the history.</p>
+     * 
+     * <p>Example: GET /api/v1/currencies/history/stream?from=USD&to=EUR</p>
+     *
+     * @param from source currency code
+     * @param to target currency code
+     * @return the streamed history
+     */
+    @GetMapping("/history/stream")
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @RequestParam String from,
+            @RequestParam String to) {
+        String fromUpper = from.trim().toUpperCase();
+        String toUpper = to.trim().toUpperCase();
+        log.info("GET /api/v1/currencies/history/stream - from={}, to={}", fromUpper, toUpper);
+        
+        StreamingResponseBody body = output -> rateHistoryService.streamHistory(fromUpper, toUpper, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Export stored rates as CSV or NDJSON, in (timestamp, id) order.
+     *
+     * <p>Restricted endpoint - requires ADMIN role.</p>
+     *
+     * <p>Request parameters (all optional):</p>
+     * <ul>
+     *   <li>pairs - Currency pairs, e.g. USD/EUR (repeatable or comma-separated)</li>
+     *   <li>providers - Provider names (repeatable or comma-separated)</li>
+     *   <li>since / until - Time range (ISO-8601 date-time, until exclusive)</li>
+     *   <li>afterTimestamp / afterId - Timestamp and id of the last row received, to resume an export
+     *       with the rows after it; rows stored meanwhile with an earlier timestamp are not included</li>
+     *   <li>format - csv (default) or ndjson</li>
+     * </ul>
+     *
+     * <p>The response is written while rows are read from a database cursor, and is
+     * gzip-compressed on the fly when the client accepts gzip with a non-zero quality.
+     * The response always varies by {@code Accept-Encoding}.</p>
+     *
+     * <p>Example: GET /api/v1/currencies/history/export?pairs=USD/EUR&since=2026-10-01T00:00:00&format=ndjson</p>
+     *
+     * @param pairs currency pairs to include
+     * @param providers provider names to include
+     * @param since earliest timestamp, inclusive
+     * @param until latest timestamp, exclusive
+     * @param afterTimestamp timestamp of the last row already received
+     * @param afterId id of the last row already received
+     * @param format output format
+     * @param acceptEncoding the client's accepted encodings
+     * @return the streamed export
+     */
+    @GetMapping("/history/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(required = false) List<String> pairs,
+            @RequestParam(required = false) List<String> providers,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTimestamp,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RateExportFilter filter = new RateExportFilter(RateExportFilter.parsePairs(pairs), providers,
+                since, until, afterTimestamp, afterId);
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        log.info("GET /api/v1/currencies/history/export - format={}, gzip={}, {}", exportFormat, gzip, filter);
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024);
+                rateExportService.export(filter, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                rateExportService.export(filter, exportFormat, output);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("rates." + exportFormat.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     /**
      * Add a new currency to the system.
      * 
@@ -163,45 +396,119 @@ public class CurrencyController {
     }
 
     /**
-     * Refresh all exchange rates by fetching fresh data from providers.
+     * Add several currencies to the system at once.
      * 
      * <p>Restricted endpoint - requires ADMIN role.</p>
      * 
-     * <p>This endpoint:</p>
-     * <ul>
-     *   <li>Fetches rates from all configured providers</li>
-     *   <li>Saves all rates to the database</li>
-     *   <li>Updates Redis cache with best rates</li>
-     *   <li>Returns the count of successfully refreshed currency pairs</li>
-     * </ul>
+     * <p>All currencies are added in one transaction: if any code is invalid or
+     * already exists, none are added. Rates for the new currencies are fetched in
+     * the background right after the request, covering only the pairs that
+     * involve them.</p>
+     * 
+     * <p>Request body example:</p>
+     * <pre>
+     * [
+     *   { "code": "CHF" },
+     *   { "code": "JPY", "name": "Japanese Yen" }
+     * ]
+     * </pre>
+     *
+     * @param requests the currencies to add
+     * @return the created currencies with HTTP 201 status
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CurrencyResponse>> addCurrencies(
+            @RequestBody @NotEmpty(message = "At least one currency is required")
+            List<@Valid AddCurrencyRequest> requests) {
+        log.info("POST /api/v1/currencies/bulk - Adding {} currencies", requests.size());
+        
+        List<String> codes = requests.stream()
+                .map(AddCurrencyRequest::getCode)
+                .collect(Collectors.toList());
+        List<CurrencyResponse> response = currencyService.addCurrencies(codes).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        
+        log.info("POST /api/v1/currencies/bulk - Successfully added {} currencies", response.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Start a refresh of all exchange rates in the background.
+     * 
+     * <p>Restricted endpoint - requires ADMIN role.</p>
+     * 
+     * <p>The refresh runs as a job; the response is returned immediately with
+     * HTTP 202 and the job's status URL in the {@code Location} header. If a
+     * refresh (manual or scheduled) is already running, its job is returned
+     * instead of starting another one.</p>
      * 
      * <p>Response example:</p>
      * <pre>
      * {
-     *   "message": "Successfully refreshed exchange rates",
-     *   "refreshedPairs": 12,
-     *   "timestamp": "2025-10-15T13:45:00"
+     *   "jobId": "6f1c2a0e-...",
+     *   "status": "RUNNING",
+     *   "totalPairs": 0,
+     *   "refreshedPairs": 0,
+     *   ...
      * }
      * </pre>
      *
-     * @return success message with count of refreshed pairs
+     * @return the running refresh job with HTTP 202 status
      */
     @PostMapping("/refresh")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> refreshRates() {
+    public ResponseEntity<RefreshJobResponse> refreshRates() {
         log.info("POST /api/v1/currencies/refresh - Triggering manual rate refresh");
         
-        // Refresh all rates
-        int refreshedCount = exchangeRateService.refreshAllRates();
+        RefreshJob job = exchangeRateService.startRefreshJob();
+        
+        log.info("POST /api/v1/currencies/refresh - Refresh job {} running", job.getId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/currencies/refresh/" + job.getId()))
+                .body(mapToResponse(job));
+    }
+
+    /**
+     * Get the status of a refresh job.
+     * 
+     * <p>Restricted endpoint - requires ADMIN role.</p>
+     * 
+     * <p>Reports pairs refreshed, failed and remaining, throughput and an ETA.</p>
+     *
+     * @param jobId the job id returned when the refresh was started
+     * @return the job status, or HTTP 404 for unknown or expired jobs
+     */
+    @GetMapping("/refresh/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RefreshJobResponse> getRefreshJob(@PathVariable String jobId) {
+        log.info("GET /api/v1/currencies/refresh/{} - Fetching refresh job status", jobId);
         
-        // Build response
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Successfully refreshed exchange rates");
-        response.put("refreshedPairs", refreshedCount);
-        response.put("timestamp", java.time.LocalDateTime.now());
+        return refreshJobService.find(jobId)
+                .map(job -> ResponseEntity.ok(mapToResponse(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a running refresh job.
+     * 
+     * <p>Restricted endpoint - requires ADMIN role.</p>
+     * 
+     * <p>Rates already refreshed by the job stay stored. Cancelling a finished
+     * job has no effect.</p>
+     *
+     * @param jobId the job id returned when the refresh was started
+     * @return the job status with HTTP 202, or HTTP 404 for unknown or expired jobs
+     */
+    @DeleteMapping("/refresh/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RefreshJobResponse> cancelRefreshJob(@PathVariable String jobId) {
+        log.info("DELETE /api/v1/currencies/refresh/{} - Cancelling refresh job", jobId);
         
-        log.info("POST /api/v1/currencies/refresh - Successfully refreshed {} currency pairs", refreshedCount);
-        return ResponseEntity.ok(response);
+        return refreshJobService.cancel(jobId)
+                .map(job -> ResponseEntity.accepted().body(mapToResponse(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -218,4 +525,27 @@ public class CurrencyController {
                 .updatedAt(currency.getUpdatedAt())
                 .build();
     }
+
+    /**
+     * Helper method to map a refresh job to RefreshJobResponse DTO.
+     *
+     * @param job the refresh job
+     * @return the refresh job response DTO
+     */
+    private RefreshJobResponse mapToResponse(RefreshJob job) {
+        RefreshProgress progress = job.getProgress();
+        Duration eta = job.getEstimatedRemaining();
+        return RefreshJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .totalPairs(progress.totalPairs())
+                .refreshedPairs(progress.refreshedPairs())
+                .failedPairs(progress.failedPairs())
+                .remainingPairs(progress.remainingPairs())
+                .pairsPerSecond(job.getPairsPerSecond())
+                .etaSeconds(eta != null ? eta.toSeconds() : null)
+                .build();
+    }
 }
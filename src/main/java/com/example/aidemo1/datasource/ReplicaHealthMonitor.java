@@ -0,0 +1,73 @@
+package com.example.aidemo1.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Checks the health and replication lag of every replica of a {@link ReplicaRoutingDataSource}.
+ *
+ * <p>Each check runs a query on the replica that reports how far its replay is behind:
+ * zero when it has replayed everything it received, otherwise the age of the last
+ * replayed transaction. A replica whose check fails is ejected from routing until a
+ * later check succeeds; a replica lagging more than the allowed lag stays connected
+ * but serves no reads until it catches up.</p>
+ *
+ * <p>Runs every {@code exchange.datasource.replicas.check-interval-ms} (default 5000),
+ * the first time when scheduling starts. Startup never waits on a replica: until a
+ * replica's first check succeeds it counts as unhealthy and reads go to the primary.</p>
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final List<ReplicaRoutingDataSource.Replica> replicas;
+    private final int queryTimeoutSeconds;
+
+    /**
+     * Creates the monitor; replicas are first checked by the scheduled run.
+     *
+     * @param replicas            the replicas to check
+     * @param queryTimeoutSeconds timeout of one check
+     */
+    public ReplicaHealthMonitor(List<ReplicaRoutingDataSource.Replica> replicas, int queryTimeoutSeconds) {
+        this.replicas = replicas;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    /**
+     * Updates the health and lag of every replica.
+     */
+    @Scheduled(fixedDelayString = "${exchange.datasource.replicas.check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : replicas) {
+            check(replica);
+        }
+    }
+
+    void check(ReplicaRoutingDataSource.Replica replica) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+            jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+            Number lagMillis = jdbcTemplate.queryForObject(LAG_SQL, Number.class);
+            Duration lag = Duration.ofMillis(lagMillis != null ? lagMillis.longValue() : 0);
+            replica.markHealthy(lag);
+            if (!wasHealthy) {
+                log.info("Replica {} is available (lag {} ms)", replica.getName(), lag.toMillis());
+            }
+        } catch (RuntimeException e) {
+            replica.markUnhealthy();
+            if (wasHealthy) {
+                log.warn("Replica {} ejected from read routing: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.aidemo1.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to PostgreSQL replicas and everything else to the primary.
+ *
+ * <p>A connection is taken from a replica when the current transaction is read-only
+ * ({@code @Transactional(readOnly = true)}) and at least one replica is eligible:
+ * reported healthy by {@link ReplicaHealthMonitor} and lagging behind the primary by
+ * no more than {@code maxLag}. Eligible replicas are used round-robin. Without an
+ * eligible replica, reads go to the primary.</p>
+ *
+ * <p>The read-only flag of a transaction is only known after the transaction manager
+ * has begun the transaction, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * defers choosing a target until the first statement.</p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param primary  the primary data source, used for writes and as fallback
+     * @param replicas the replicas
+     * @param maxLag   the largest replication lag at which a replica still serves reads
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Returns the replicas, for health monitoring.
+     *
+     * @return the replicas
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the replica data sources. The primary is owned by its own bean.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<Replica> eligible = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isEligible(maxLag)) {
+                eligible.add(replica);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return PRIMARY;
+        }
+        return eligible.get(Math.floorMod(next.getAndIncrement(), eligible.size())).getName();
+    }
+
+    /**
+     * A replica data source with its last observed health and replication lag.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile Duration lag = Duration.ZERO;
+
+        /**
+         * Creates a replica that is not used until its first successful health check.
+         *
+         * @param name       the routing key and log name
+         * @param dataSource the replica data source
+         */
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public Duration getLag() {
+            return lag;
+        }
+
+        void markHealthy(Duration lag) {
+            this.lag = lag;
+            this.healthy = true;
+        }
+
+        void markUnhealthy() {
+            this.healthy = false;
+        }
+
+        boolean isEligible(Duration maxLag) {
+            return healthy && lag.compareTo(maxLag) <= 0;
+        }
+    }
+}
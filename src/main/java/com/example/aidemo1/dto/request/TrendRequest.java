@@ -0,0 +1,54 @@
+package com.example.aidemo1.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for the rate trend of a currency pair.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendRequest {
+
+    /**
+     * Source currency code (ISO 4217 format).
+     * Example: USD, EUR, GBP
+     */
+    @NotBlank(message = "Source currency (from) is required")
+    @Size(min = 3, max = 3, message = "Currency code must be exactly 3 characters")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency code must be 3 uppercase letters (ISO 4217)")
+    private String from;
+
+    /**
+     * Target currency code (ISO 4217 format).
+     * Example: USD, EUR, GBP
+     */
+    @NotBlank(message = "Target currency (to) is required")
+    @Size(min = 3, max = 3, message = "Currency code must be exactly 3 characters")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency code must be 3 uppercase letters (ISO 4217)")
+    private String to;
+
+    /**
+     * Length of the trend, ending now, as an ISO-8601 period.
+     * Example: P1D, P30D, P6M, P1Y
+     */
+    @Builder.Default
+    @Pattern(regexp = "^P(\\d+[YMWD])+$", message = "Period must be an ISO-8601 period such as P30D or P1Y")
+    private String period = "P30D";
+
+    /**
+     * Width of one point of the series, as an ISO-8601 duration of whole minutes.
+     * Example: PT15M, PT1H, PT4H, P1D
+     */
+    @Builder.Default
+    @Pattern(regexp = "^P(\\d+D)?(T(\\d+H)?(\\d+M)?)?$",
+            message = "Granularity must be an ISO-8601 duration of whole minutes such as PT15M, PT1H or P1D")
+    private String granularity = "PT1H";
+}
@@ -0,0 +1,50 @@
+package com.example.aidemo1.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for one page of a currency pair's rate history.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateHistoryResponse {
+
+    private String from;
+
+    private String to;
+
+    /**
+     * Stored rates, most recent first.
+     */
+    private List<Entry> rates;
+
+    /**
+     * Token for the next (older) page; null on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * One stored rate.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        private BigDecimal rate;
+
+        private String provider;
+
+        private LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.aidemo1.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for the recent rate history of a currency pair.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecentHistoryResponse {
+
+    private String from;
+
+    private String to;
+
+    /**
+     * Start of the lookback; the history runs from here to now.
+     */
+    private LocalDateTime since;
+
+    /**
+     * Mean of the rates since {@link #since}; null if there are none.
+     */
+    private BigDecimal movingAverage;
+
+    /**
+     * Where the rates were read from: MEMORY or DATABASE.
+     */
+    private String source;
+
+    /**
+     * Rates since {@link #since}, most recent first.
+     */
+    private List<RateHistoryResponse.Entry> rates;
+}
@@ -0,0 +1,65 @@
+package com.example.aidemo1.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for the status of a background refresh job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshJobResponse {
+
+    /**
+     * Job identifier, used in the status and cancel URLs.
+     */
+    private String jobId;
+
+    /**
+     * RUNNING, COMPLETED, CANCELLED or FAILED.
+     */
+    private String status;
+
+    private Instant startedAt;
+
+    /**
+     * Null while the job is running.
+     */
+    private Instant finishedAt;
+
+    /**
+     * Currency pairs in the refresh (0 until the currencies are loaded).
+     */
+    private int totalPairs;
+
+    /**
+     * Currency pairs refreshed successfully so far.
+     */
+    private int refreshedPairs;
+
+    /**
+     * Currency pairs that could not be refreshed.
+     */
+    private int failedPairs;
+
+    /**
+     * Currency pairs not processed yet.
+     */
+    private int remainingPairs;
+
+    /**
+     * Processed pairs per second since the job started.
+     */
+    private double pairsPerSecond;
+
+    /**
+     * Estimated seconds until completion; null when unknown or finished.
+     */
+    private Long etaSeconds;
+}
@@ -0,0 +1,90 @@
+package com.example.aidemo1.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for the rate trend of a currency pair.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendResponse {
+
+    private String from;
+
+    private String to;
+
+    /**
+     * Start of the first point (inclusive).
+     */
+    private LocalDateTime start;
+
+    /**
+     * End of the trend (exclusive).
+     */
+    private LocalDateTime end;
+
+    /**
+     * Width of one point, as an ISO-8601 duration.
+     * Example: PT1H
+     */
+    private String granularity;
+
+    /**
+     * Rollup the series was computed from: MINUTE, HOUR or DAY.
+     */
+    private String source;
+
+    /**
+     * Change from the first open to the last close, in percent; null without data.
+     */
+    private BigDecimal changePercent;
+
+    /**
+     * Lowest rate in the trend; null without data.
+     */
+    private BigDecimal min;
+
+    /**
+     * Highest rate in the trend; null without data.
+     */
+    private BigDecimal max;
+
+    /**
+     * One point per interval that has quotes, oldest first.
+     */
+    private List<Point> points;
+
+    /**
+     * Open/high/low/close of one interval.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+
+        private LocalDateTime start;
+
+        private BigDecimal open;
+
+        private BigDecimal high;
+
+        private BigDecimal low;
+
+        private BigDecimal close;
+
+        /**
+         * Number of stored quotes in the interval.
+         */
+        private long samples;
+    }
+}
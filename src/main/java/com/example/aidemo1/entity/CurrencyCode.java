@@ -0,0 +1,31 @@
+package com.example.aidemo1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dictionary entry mapping a currency code to the small id stored in {@code exchange_rate}.
+ *
+ * <p>Entries are only ever added, never changed or removed, so an id keeps its
+ * meaning for all stored history, including rates of currencies that were deleted
+ * from {@link Currency}. Entries are maintained by
+ * {@link com.example.aidemo1.persistence.RateDictionary}.</p>
+ */
+@Entity
+@Table(name = "currency_code")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(name = "code", nullable = false, unique = true, length = 3)
+    private String code;
+}
@@ -0,0 +1,56 @@
+package com.example.aidemo1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A currency pair the refresh cycle keeps warm, with its own refresh policy.
+ *
+ * <p>Pairs that are not in the catalog are still converted, but their rates are
+ * only fetched on demand, when a conversion finds no fresh rate.</p>
+ */
+@Entity
+@Table(name = "currency_pair_catalog", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_currency_pair_catalog_pair",
+            columnNames = {"base_currency", "target_currency"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyPairCatalogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "target_currency", nullable = false, length = 3)
+    private String targetCurrency;
+
+    /**
+     * How long a stored rate counts as fresh for conversions.
+     */
+    @Column(name = "ttl_seconds", nullable = false)
+    private int ttlSeconds;
+
+    /**
+     * Minimum time between two scheduled refreshes of the pair.
+     */
+    @Column(name = "refresh_interval_seconds", nullable = false)
+    private int refreshIntervalSeconds;
+
+    /**
+     * Comma-separated provider names allowed for the pair; empty allows all providers.
+     */
+    @Column(name = "allowed_providers", length = 500)
+    private String allowedProviders;
+
+    @Column(name = "enabled", nullable = false)
+    private boolean enabled;
+}
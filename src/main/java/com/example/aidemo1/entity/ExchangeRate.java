@@ -5,11 +5,13 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
+import com.example.aidemo1.persistence.CurrencyIdConverter;
+import com.example.aidemo1.persistence.ProviderIdConverter;
+import com.example.aidemo1.persistence.ScaledRateConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,12 +19,30 @@ import java.time.LocalDateTime;
 /**
  * Entity representing an exchange rate between two currencies.
  * Stores rate information from different providers with timestamps.
+ *
+ * <p>Ids come from the {@code exchange_rate_seq} sequence with a pooled
+ * optimizer (allocation size 50), so Hibernate can assign ids without a
+ * round trip per row and group inserts into JDBC batches.</p>
+ *
+ * <p>On PostgreSQL the table is range-partitioned by month on {@code timestamp};
+ * its primary key is {@code (id, timestamp)}, ids remain unique through the sequence.</p>
+ *
+ * <h2>Row Format</h2>
+ * <p>Rows are stored compactly (changelog 019): currencies and provider as {@code SMALLINT}
+ * ids of the {@code currency_code} and {@code rate_provider} dictionaries, and the rate as
+ * a fixed-point {@code BIGINT}. The attribute converters translate on the way in and out,
+ * so the entity, JPQL and derived queries still use codes, names and {@link BigDecimal}
+ * rates. Native SQL must use the stored columns; the legacy columns are kept for the
+ * previous release until changelog 020 drops them.</p>
  */
 @Entity
 @Table(name = "exchange_rate", indexes = {
-    @Index(name = "idx_exchange_rate_currencies", columnList = "base_currency, target_currency"),
+    @Index(name = "idx_exchange_rate_currencies", columnList = "base_currency_id, target_currency_id"),
     @Index(name = "idx_exchange_rate_timestamp", columnList = "timestamp DESC"),
-    @Index(name = "idx_exchange_rate_period", columnList = "base_currency, target_currency, timestamp")
+    @Index(name = "idx_exchange_rate_period", columnList = "base_currency_id, target_currency_id, timestamp"),
+    @Index(name = "idx_exchange_rate_provider_period",
+            columnList = "base_currency_id, target_currency_id, provider_id, timestamp DESC"),
+    @Index(name = "idx_exchange_rate_best", columnList = "base_currency_id, target_currency_id, timestamp DESC, rate_value")
 })
 @Data
 @Builder
@@ -31,34 +51,35 @@ import java.time.LocalDateTime;
 public class ExchangeRate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rate_seq")
+    @SequenceGenerator(name = "exchange_rate_seq", sequenceName = "exchange_rate_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Base currency is required")
     @Size(min = 3, max = 3, message = "Base currency code must be exactly 3 characters")
-    @Column(name = "base_currency", nullable = false, length = 3)
+    @Convert(converter = CurrencyIdConverter.class)
+    @Column(name = "base_currency_id", nullable = false)
     private String baseCurrency;
 
     @NotBlank(message = "Target currency is required")
     @Size(min = 3, max = 3, message = "Target currency code must be exactly 3 characters")
-    @Column(name = "target_currency", nullable = false, length = 3)
+    @Convert(converter = CurrencyIdConverter.class)
+    @Column(name = "target_currency_id", nullable = false)
     private String targetCurrency;
 
     @NotNull(message = "Exchange rate is required")
     @Positive(message = "Exchange rate must be positive")
-    @Column(name = "rate", nullable = false, precision = 19, scale = 6)
+    @Convert(converter = ScaledRateConverter.class)
+    @Column(name = "rate_value", nullable = false)
     private BigDecimal rate;
 
     @NotBlank(message = "Provider is required")
     @Size(max = 50, message = "Provider name cannot exceed 50 characters")
-    @Column(name = "provider", nullable = false, length = 50)
+    @Convert(converter = ProviderIdConverter.class)
+    @Column(name = "provider_id", nullable = false)
     private String provider;
 
     @NotNull(message = "Timestamp is required")
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
-
-    @CreationTimestamp
-    @Column(name = "created_at", nullable = false, updatable = false)
-    private LocalDateTime createdAt;
 }
\ No newline at end of file
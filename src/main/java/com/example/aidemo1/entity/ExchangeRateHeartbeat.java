@@ -0,0 +1,54 @@
+package com.example.aidemo1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * "Unchanged since" marker for a provider's quote on a currency pair.
+ *
+ * <p>When a provider returns the same rate with the same provider timestamp as the
+ * last stored {@link ExchangeRate}, no new history row is written. Instead the single
+ * heartbeat row for (pair, provider) records when the quote was last confirmed and
+ * how many times it was seen since it was stored.</p>
+ */
+@Entity
+@Table(name = "exchange_rate_heartbeat", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_exchange_rate_heartbeat_pair_provider",
+            columnNames = {"base_currency", "target_currency", "provider"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateHeartbeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "target_currency", nullable = false, length = 3)
+    private String targetCurrency;
+
+    @Column(name = "provider", nullable = false, length = 50)
+    private String provider;
+
+    /**
+     * Id of the stored exchange rate row that is still current.
+     */
+    @Column(name = "rate_id")
+    private Long rateId;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    @Column(name = "seen_count", nullable = false)
+    private long seenCount;
+}
@@ -0,0 +1,86 @@
+package com.example.aidemo1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Newest stored quote of a provider for a currency pair.
+ *
+ * <p>One row per (pair, provider), upserted whenever rates are stored, so the current
+ * rate of a pair is found by a primary-key lookup over a handful of provider rows
+ * instead of a search of the {@link ExchangeRate} history.</p>
+ */
+@Entity
+@Table(name = "exchange_rate_latest")
+@IdClass(ExchangeRateLatest.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateLatest {
+
+    @Id
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Id
+    @Column(name = "target_currency", nullable = false, length = 3)
+    private String targetCurrency;
+
+    @Id
+    @Column(name = "provider", nullable = false, length = 50)
+    private String provider;
+
+    /**
+     * Id of the {@link ExchangeRate} row holding this quote.
+     */
+    @Column(name = "rate_id")
+    private Long rateId;
+
+    @Column(name = "rate", nullable = false, precision = 19, scale = 6)
+    private BigDecimal rate;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Returns the quote as a detached exchange rate.
+     *
+     * @return the exchange rate with the id of its history row
+     */
+    public ExchangeRate toExchangeRate() {
+        return ExchangeRate.builder()
+                .id(rateId)
+                .baseCurrency(baseCurrency)
+                .targetCurrency(targetCurrency)
+                .rate(rate)
+                .provider(provider)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    /**
+     * Primary key: currency pair and provider.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String baseCurrency;
+
+        private String targetCurrency;
+
+        private String provider;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aidemo1.entity;
+
+import com.example.aidemo1.rollup.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Open/high/low/close summary of all stored quotes of a currency pair in one time bucket.
+ *
+ * <p>Rows exist per minute, hour and day and are maintained incrementally as rates
+ * are stored, so long-range history can be read from a few hundred rollups instead
+ * of millions of raw {@link ExchangeRate} rows, and survives pruning of raw rows.</p>
+ */
+@Entity
+@Table(name = "exchange_rate_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_exchange_rate_rollup_bucket",
+            columnNames = {"base_currency", "target_currency", "granularity", "bucket_start"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "target_currency", nullable = false, length = 3)
+    private String targetCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "open_rate", nullable = false, precision = 19, scale = 6)
+    private BigDecimal openRate;
+
+    @Column(name = "high_rate", nullable = false, precision = 19, scale = 6)
+    private BigDecimal highRate;
+
+    @Column(name = "low_rate", nullable = false, precision = 19, scale = 6)
+    private BigDecimal lowRate;
+
+    @Column(name = "close_rate", nullable = false, precision = 19, scale = 6)
+    private BigDecimal closeRate;
+
+    /**
+     * Timestamp of the quote that set {@link #openRate}.
+     */
+    @Column(name = "open_at", nullable = false)
+    private LocalDateTime openAt;
+
+    /**
+     * Timestamp of the quote that set {@link #closeRate}.
+     */
+    @Column(name = "close_at", nullable = false)
+    private LocalDateTime closeAt;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    /**
+     * Comma-separated, sorted names of the providers that quoted in the bucket.
+     */
+    @Column(name = "providers", nullable = false, length = 500)
+    private String providers;
+
+    @Column(name = "provider_count", nullable = false)
+    private int providerCount;
+}
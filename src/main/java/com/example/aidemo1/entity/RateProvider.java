@@ -0,0 +1,29 @@
+package com.example.aidemo1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dictionary entry mapping a provider name to the small id stored in {@code exchange_rate}.
+ *
+ * <p>Entries are only ever added, never changed or removed. Entries are maintained by
+ * {@link com.example.aidemo1.persistence.RateDictionary}.</p>
+ */
+@Entity
+@Table(name = "rate_provider")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateProvider {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(name = "name", nullable = false, unique = true, length = 50)
+    private String name;
+}
@@ -0,0 +1,52 @@
+package com.example.aidemo1.exception;
+
+/**
+ * Exception thrown when an outbound provider call is rejected by the
+ * adaptive concurrency limiter.
+ *
+ * <p>The limiter rejects calls instead of queueing them once the number of
+ * in-flight requests to a provider reaches its current limit. The rejection
+ * is a load-shedding signal rather than a provider failure, so it is not
+ * retried by the providers' {@code @Retryable} policy.</p>
+ *
+ * <p>Because it extends {@link ExternalProviderException}, the rate aggregator
+ * treats a rejected provider like a failed one and continues with the
+ * remaining providers.</p>
+ *
+ * @see com.example.aidemo1.integration.limiter.AdaptiveConcurrencyLimiter
+ */
+public class ConcurrencyLimitExceededException extends ExternalProviderException {
+
+    private final String providerName;
+    private final int limit;
+
+    /**
+     * Constructs a new exception for the given provider and limit.
+     *
+     * @param providerName the provider whose limit was reached
+     * @param limit the concurrency limit in effect when the call was rejected
+     */
+    public ConcurrencyLimitExceededException(String providerName, int limit) {
+        super(String.format("Concurrency limit of %d reached for provider '%s'", limit, providerName));
+        this.providerName = providerName;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the provider whose limit was reached.
+     *
+     * @return the provider name
+     */
+    public String getProviderName() {
+        return providerName;
+    }
+
+    /**
+     * Returns the concurrency limit in effect when the call was rejected.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
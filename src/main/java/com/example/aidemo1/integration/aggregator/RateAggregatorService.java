@@ -3,12 +3,16 @@ package com.example.aidemo1.integration.aggregator;
 import com.example.aidemo1.entity.ExchangeRate;
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.integration.provider.ExchangeRateProvider;
-import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.persistence.ExchangeRateWriter;
+import com.example.aidemo1.service.refresh.PairCatalog;
+import com.example.aidemo1.tickstore.TickStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 /**
@@ -25,10 +29,23 @@ import java.util.stream.Collectors;
  *   <li>Tie-breaker: Highest provider priority (prefer real providers over mocks)</li>
  * </ol>
  * 
+ * <h2>Provider Selection</h2>
+ * <p>Pairs in the {@link PairCatalog} may restrict which providers are queried;
+ * all other pairs use every provider that supports them.</p>
+ * 
  * <h2>Error Handling</h2>
  * <p>If a provider fails, the aggregator logs the error and continues with
  * other providers. If all providers fail, an exception is thrown.</p>
  * 
+ * <h2>Transactions</h2>
+ * <p>The aggregator is deliberately not transactional. Provider calls, including
+ * their retry back-off, run without a database connection; the fetched rates are
+ * handed to the {@link ExchangeRateWriter}, which persists them in its own short
+ * write transaction.</p>
+ * 
+ * <p>When the {@link TickStore} is enabled, fetched rates are appended to it before
+ * they are handed to the writer.</p>
+ * 
  * <h2>Usage Example</h2>
  * <pre>{@code
  * // Fetch from all providers and get the best rate
@@ -47,7 +64,9 @@ import java.util.stream.Collectors;
 public class RateAggregatorService {
     
     private final List<ExchangeRateProvider> providers;
-    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateWriter exchangeRateWriter;
+    private final PairCatalog pairCatalog;
+    private final TickStore tickStore;
     
     /**
      * Constructs the rate aggregator with all available providers.
@@ -56,12 +75,18 @@ public class RateAggregatorService {
      * allowing dynamic provider registration without code changes.</p>
      * 
      * @param providers list of all available exchange rate providers
-     * @param exchangeRateRepository repository for persisting rates
+     * @param exchangeRateWriter write path for persisting fetched rates
+     * @param pairCatalog per-pair provider restrictions
+     * @param tickStore the local tick store, if enabled
      */
     public RateAggregatorService(List<ExchangeRateProvider> providers,
-                                  ExchangeRateRepository exchangeRateRepository) {
+                                  ExchangeRateWriter exchangeRateWriter,
+                                  PairCatalog pairCatalog,
+                                  ObjectProvider<TickStore> tickStore) {
         this.providers = providers;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateWriter = exchangeRateWriter;
+        this.pairCatalog = pairCatalog;
+        this.tickStore = tickStore.getIfAvailable();
         log.info("RateAggregatorService initialized with {} providers: {}", 
                 providers.size(), 
                 providers.stream()
@@ -76,74 +101,24 @@ public class RateAggregatorService {
      * collects their rates, persists all rates to the database, and returns the
      * best rate according to the selection logic.</p>
      * 
+     * <p>No transaction is held while providers are queried; persistence is
+     * delegated to the {@link ExchangeRateWriter} once all providers have answered,
+     * and completes before this method returns.</p>
+     * 
      * @param from the base currency code (e.g., "USD")
      * @param to the target currency code (e.g., "EUR")
      * @return the best exchange rate from all providers
      * @throws ExternalProviderException if all providers fail
      * @throws IllegalArgumentException if currency codes are invalid
      */
-    @Transactional
     public ExchangeRate fetchAndAggregate(String from, String to) {
-        validateCurrencyCodes(from, to);
-        
-        log.info("Aggregating rates for {} -> {} from {} providers", from, to, providers.size());
-        
-        // Filter providers that support this currency pair
-        List<ExchangeRateProvider> supportingProviders = providers.stream()
-                .filter(provider -> provider.supports(from, to))
-                .sorted(Comparator.comparingInt(ExchangeRateProvider::getPriority).reversed())
-                .collect(Collectors.toList());
-        
-        if (supportingProviders.isEmpty()) {
-            throw new ExternalProviderException(
-                    String.format("No providers support currency pair %s -> %s", from, to));
-        }
-        
-        log.debug("Found {} providers supporting {} -> {}: {}", 
-                supportingProviders.size(), from, to,
-                supportingProviders.stream()
-                        .map(ExchangeRateProvider::getProviderName)
-                        .collect(Collectors.joining(", ")));
-        
-        // Fetch rates from all supporting providers
-        List<ExchangeRate> fetchedRates = new ArrayList<>();
-        Map<String, Exception> failures = new HashMap<>();
+        List<ExchangeRate> fetchedRates = fetchFromSupportingProviders(from, to);
         
-        for (ExchangeRateProvider provider : supportingProviders) {
-            try {
-                log.debug("Fetching rate from provider: {}", provider.getProviderName());
-                ExchangeRate rate = provider.fetchRate(from, to);
-                fetchedRates.add(rate);
-                log.debug("Successfully fetched rate from {}: {}", 
-                        provider.getProviderName(), rate.getRate());
-            } catch (Exception e) {
-                log.warn("Provider {} failed for {} -> {}: {}", 
-                        provider.getProviderName(), from, to, e.getMessage());
-                failures.put(provider.getProviderName(), e);
-            }
-        }
+        // Written through: the caller's freshness check must see these rates
+        store(fetchedRates, true);
+        log.info("Stored {} rates for {} -> {}", fetchedRates.size(), from, to);
         
-        // Check if we got any rates
-        if (fetchedRates.isEmpty()) {
-            String errorDetails = failures.entrySet().stream()
-                    .map(entry -> entry.getKey() + ": " + entry.getValue().getMessage())
-                    .collect(Collectors.joining("; "));
-            throw new ExternalProviderException(
-                    String.format("All providers failed for %s -> %s. Failures: %s", 
-                            from, to, errorDetails));
-        }
-        
-        // Save all fetched rates to database
-        List<ExchangeRate> savedRates = exchangeRateRepository.saveAll(fetchedRates);
-        log.info("Saved {} rates to database for {} -> {}", savedRates.size(), from, to);
-        
-        // Select and return the best rate
-        ExchangeRate bestRate = selectBestRate(savedRates);
-        log.info("Best rate for {} -> {}: {} from {} (priority: {})", 
-                from, to, bestRate.getRate(), bestRate.getProvider(),
-                getBestRateProvider(bestRate, supportingProviders).map(ExchangeRateProvider::getPriority).orElse(-1));
-        
-        return bestRate;
+        return selectAndLogBestRate(from, to, fetchedRates);
     }
     
     /**
@@ -152,15 +127,22 @@ public class RateAggregatorService {
      * <p>This method is useful for batch operations, such as refreshing
      * all supported currency pairs during scheduled updates.</p>
      * 
+     * <p>Rates for all targets are collected first and handed to the
+     * {@link ExchangeRateWriter} as one batch, which lets the write path use
+     * bulk ingest instead of one small insert per pair.</p>
+     * 
+     * <p>The refresh stops when its thread is interrupted (cycle deadline or job
+     * cancellation): no further providers are queried and none of the fetched rates
+     * are stored.</p>
+     * 
      * @param from the base currency code
      * @param targets list of target currency codes
      * @return map of target currency to best exchange rate
+     * @throws CancellationException if the thread was interrupted
      */
-    @Transactional
     public Map<String, ExchangeRate> fetchAndAggregateMultiple(String from, List<String> targets) {
         validateCurrencyCode(from, "Base currency");
-
-
+        
         if (targets == null || targets.isEmpty()) {
             throw new IllegalArgumentException("Target currencies list cannot be null or empty");
         }
@@ -169,17 +151,30 @@ public class RateAggregatorService {
         
         Map<String, ExchangeRate> results = new HashMap<>();
         Map<String, Exception> failures = new HashMap<>();
+        List<ExchangeRate> batch = new ArrayList<>();
         
         for (String target : targets) {
+            abortIfInterrupted(from, batch);
             try {
-                ExchangeRate rate = fetchAndAggregate(from, target);
-                results.put(target, rate);
+                List<ExchangeRate> fetchedRates = fetchFromSupportingProviders(from, target);
+                batch.addAll(fetchedRates);
+                results.put(target, selectAndLogBestRate(from, target, fetchedRates));
             } catch (Exception e) {
+                if (isInterruption(e)) {
+                    Thread.currentThread().interrupt();
+                }
+                abortIfInterrupted(from, batch);
                 log.error("Failed to aggregate rate for {} -> {}: {}", from, target, e.getMessage());
                 failures.put(target, e);
             }
         }
         
+        abortIfInterrupted(from, batch);
+        if (!batch.isEmpty()) {
+            store(batch, false);
+            log.info("Stored {} rates for {} -> {} targets", batch.size(), from, results.size());
+        }
+        
         log.info("Successfully aggregated {} out of {} currency pairs", 
                 results.size(), targets.size());
         
@@ -192,6 +187,33 @@ public class RateAggregatorService {
         return results;
     }
     
+    /**
+     * Stops a multi-pair refresh whose thread has been interrupted, discarding its rates.
+     * 
+     * @param from the base currency code
+     * @param batch the rates fetched so far
+     * @throws CancellationException if the thread is interrupted
+     */
+    private static void abortIfInterrupted(String from, List<ExchangeRate> batch) {
+        if (Thread.currentThread().isInterrupted()) {
+            log.warn("Refresh of {} interrupted, discarding {} fetched rates", from, batch.size());
+            throw new CancellationException("Refresh of " + from + " was interrupted");
+        }
+    }
+    
+    /**
+     * Tells whether a provider failure was caused by interrupting its thread, which
+     * HTTP clients report as I/O errors and may clear the interrupt status for.
+     */
+    private static boolean isInterruption(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Fetches rates from all providers without persisting (useful for testing).
      * 
@@ -216,6 +238,114 @@ public class RateAggregatorService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Appends fetched rates to the tick store, if enabled, and hands them to the writer.
+     * A tick store failure is logged and does not keep the rates from the database.
+     * 
+     * @param rates the fetched rates
+     * @param immediate whether the rates must be persisted before returning
+     */
+    private void store(List<ExchangeRate> rates, boolean immediate) {
+        if (tickStore != null) {
+            try {
+                tickStore.append(rates);
+            } catch (RuntimeException e) {
+                log.warn("Failed to append {} rates to the tick store: {}", rates.size(), e.getMessage());
+            }
+        }
+        if (immediate) {
+            exchangeRateWriter.writeNow(rates);
+        } else {
+            exchangeRateWriter.write(rates);
+        }
+    }
+    
+    /**
+     * Queries every provider supporting the pair and allowed for it by the
+     * {@link PairCatalog}, in priority order.
+     * 
+     * @param from the base currency code
+     * @param to the target currency code
+     * @return the successfully fetched rates, never empty
+     * @throws ExternalProviderException if no allowed provider supports the pair or all providers fail
+     * @throws IllegalArgumentException if currency codes are invalid
+     */
+    private List<ExchangeRate> fetchFromSupportingProviders(String from, String to) {
+        validateCurrencyCodes(from, to);
+        
+        log.info("Aggregating rates for {} -> {} from {} providers", from, to, providers.size());
+        
+        // Filter providers that support this currency pair and are allowed for it
+        List<ExchangeRateProvider> supportingProviders = providers.stream()
+                .filter(provider -> provider.supports(from, to))
+                .filter(provider -> pairCatalog.allowsProvider(from, to, provider.getProviderName()))
+                .sorted(Comparator.comparingInt(ExchangeRateProvider::getPriority).reversed())
+                .collect(Collectors.toList());
+        
+        if (supportingProviders.isEmpty()) {
+            throw new ExternalProviderException(
+                    String.format("No providers support currency pair %s -> %s", from, to));
+        }
+        
+        log.debug("Found {} providers supporting {} -> {}: {}", 
+                supportingProviders.size(), from, to,
+                supportingProviders.stream()
+                        .map(ExchangeRateProvider::getProviderName)
+                        .collect(Collectors.joining(", ")));
+        
+        // Fetch rates from all supporting providers
+        List<ExchangeRate> fetchedRates = new ArrayList<>();
+        Map<String, Exception> failures = new HashMap<>();
+        
+        for (ExchangeRateProvider provider : supportingProviders) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                log.debug("Fetching rate from provider: {}", provider.getProviderName());
+                ExchangeRate rate = provider.fetchRate(from, to);
+                fetchedRates.add(rate);
+                log.debug("Successfully fetched rate from {}: {}", 
+                        provider.getProviderName(), rate.getRate());
+            } catch (Exception e) {
+                if (isInterruption(e)) {
+                    Thread.currentThread().interrupt();
+                }
+                log.warn("Provider {} failed for {} -> {}: {}", 
+                        provider.getProviderName(), from, to, e.getMessage());
+                failures.put(provider.getProviderName(), e);
+            }
+        }
+        
+        // Check if we got any rates
+        if (fetchedRates.isEmpty()) {
+            String errorDetails = failures.entrySet().stream()
+                    .map(entry -> entry.getKey() + ": " + entry.getValue().getMessage())
+                    .collect(Collectors.joining("; "));
+            throw new ExternalProviderException(
+                    String.format("All providers failed for %s -> %s. Failures: %s", 
+                            from, to, errorDetails));
+        }
+        
+        return fetchedRates;
+    }
+    
+    /**
+     * Selects the best rate for a pair and logs the choice.
+     * 
+     * @param from the base currency code
+     * @param to the target currency code
+     * @param fetchedRates the rates fetched for the pair
+     * @return the best exchange rate
+     */
+    private ExchangeRate selectAndLogBestRate(String from, String to, List<ExchangeRate> fetchedRates) {
+        ExchangeRate bestRate = selectBestRate(fetchedRates);
+        log.info("Best rate for {} -> {}: {} from {} (priority: {})", 
+                from, to, bestRate.getRate(), bestRate.getProvider(),
+                getProviderPriority(bestRate.getProvider()));
+        return bestRate;
+    }
+    
     /**
      * Selects the best rate from a list of rates.
      * 
@@ -264,20 +394,6 @@ public class RateAggregatorService {
                 .orElse(0);
     }
     
-    /**
-     * Gets the provider instance for a given rate.
-     * 
-     * @param rate the exchange rate
-     * @param availableProviders list of providers to search
-     * @return Optional containing the provider if found
-     */
-    private Optional<ExchangeRateProvider> getBestRateProvider(
-            ExchangeRate rate, List<ExchangeRateProvider> availableProviders) {
-        return availableProviders.stream()
-                .filter(p -> p.getProviderName().equals(rate.getProvider()))
-                .findFirst();
-    }
-    
     /**
      * Validates both currency codes.
      * 
@@ -2,6 +2,8 @@ package com.example.aidemo1.integration.client;
 
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.integration.dto.external.FixerResponse;
+import com.example.aidemo1.integration.limiter.AdaptiveConcurrencyLimiter;
+import com.example.aidemo1.integration.limiter.ConcurrencyLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -16,20 +18,29 @@ import org.springframework.web.util.UriComponentsBuilder;
  * 
  * <p>Handles all HTTP requests to Fixer.io and converts responses
  * to internal DTOs.</p>
+ * 
+ * <p>Outbound calls pass through the provider's {@link AdaptiveConcurrencyLimiter};
+ * calls beyond the current limit fail fast with
+ * {@link com.example.aidemo1.exception.ConcurrencyLimitExceededException}.</p>
  */
 @Slf4j
 @Component
 public class FixerClient {
     
+    private static final String PROVIDER_NAME = "Fixer";
+    
     private final RestTemplate restTemplate;
+    private final AdaptiveConcurrencyLimiter limiter;
     private final String baseUrl;
     private final String apiKey;
     
     public FixerClient(
             RestTemplate restTemplate,
+            ConcurrencyLimiterRegistry limiterRegistry,
             @Value("${exchange.provider.fixer.base-url}") String baseUrl,
             @Value("${exchange.provider.fixer.api-key}") String apiKey) {
         this.restTemplate = restTemplate;
+        this.limiter = limiterRegistry.forProvider(PROVIDER_NAME);
         this.baseUrl = baseUrl;
         this.apiKey = apiKey;
     }
@@ -53,7 +64,8 @@ public class FixerClient {
         log.debug("Calling Fixer.io API: {} -> {}", from, to);
         
         try {
-            FixerResponse response = restTemplate.getForObject(url, FixerResponse.class);
+            FixerResponse response = limiter.execute(
+                    () -> restTemplate.getForObject(url, FixerResponse.class));
             
             if (response == null) {
                 throw new ExternalProviderException("Fixer.io returned null response");
@@ -2,6 +2,8 @@ package com.example.aidemo1.integration.client;
 
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.integration.dto.external.MockProviderResponse;
+import com.example.aidemo1.integration.limiter.AdaptiveConcurrencyLimiter;
+import com.example.aidemo1.integration.limiter.ConcurrencyLimiterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -23,6 +25,10 @@ import org.springframework.web.util.UriComponentsBuilder;
  * <p>Base URL is configured via {@code mock.provider1.base-url} property
  * with a default of {@code http://localhost:8080}.</p>
  * 
+ * <h2>Concurrency</h2>
+ * <p>Calls pass through the provider's {@link AdaptiveConcurrencyLimiter} and
+ * fail fast once the adaptive limit is reached.</p>
+ * 
  * <h2>Usage Example</h2>
  * <pre>{@code
  * MockProvider1Client client = ...;
@@ -38,19 +44,23 @@ public class MockProvider1Client {
     private static final String RATE_ENDPOINT = "/mock/provider1/rate";
     
     private final RestTemplate restTemplate;
+    private final AdaptiveConcurrencyLimiter limiter;
     private final String baseUrl;
     
     /**
      * Constructs a new MockProvider1Client with the specified base URL.
      * 
      * @param restTemplate the REST template for HTTP calls
+     * @param limiterRegistry registry providing the provider's concurrency limiter
      * @param baseUrl the base URL of the mock provider endpoint
      */
     public MockProvider1Client(
             RestTemplate restTemplate,
+            ConcurrencyLimiterRegistry limiterRegistry,
             @Value("${mock.provider1.base-url:http://localhost:8080}") String baseUrl
     ) {
         this.restTemplate = restTemplate;
+        this.limiter = limiterRegistry.forProvider(PROVIDER_NAME);
         this.baseUrl = baseUrl;
     }
     
@@ -83,7 +93,8 @@ public class MockProvider1Client {
         log.debug("Calling {}: {}", PROVIDER_NAME, url);
         
         try {
-            MockProviderResponse response = restTemplate.getForObject(url, MockProviderResponse.class);
+            MockProviderResponse response = limiter.execute(
+                    () -> restTemplate.getForObject(url, MockProviderResponse.class));
             
             if (response == null) {
                 throw new ExternalProviderException(
@@ -0,0 +1,255 @@
+package com.example.aidemo1.integration.limiter;
+
+import com.example.aidemo1.exception.ConcurrencyLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Gradient-based adaptive concurrency limiter for a single provider.
+ *
+ * <p>The limiter keeps a long-term baseline of the provider's round-trip time
+ * and compares every new sample against it. While latency stays near the
+ * baseline the limit grows by a small queue allowance ({@code sqrt(limit)});
+ * when latency rises above the tolerated ratio the limit shrinks in proportion
+ * to the gradient {@code baseline / sample}. Timeouts, 5xx responses and
+ * 429 responses are treated as overload and cut the limit multiplicatively.</p>
+ *
+ * <p>Calls beyond the current limit are rejected immediately with
+ * {@link ConcurrencyLimitExceededException} rather than queued, which keeps
+ * a degraded provider from building an unbounded backlog of blocked threads.</p>
+ *
+ * <h2>Usage Example</h2>
+ * <pre>{@code
+ * FixerResponse response = limiter.execute(
+ *         () -> restTemplate.getForObject(url, FixerResponse.class));
+ * }</pre>
+ *
+ * @see ConcurrencyLimiterRegistry
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Number of samples over which the long-term RTT baseline is averaged.
+     */
+    private static final int BASELINE_WINDOW = 600;
+
+    /**
+     * Multiplicative decrease applied when a call signals overload.
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final Settings settings;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile double estimatedLimit;
+    private double baselineRttNanos;
+
+    /**
+     * Tuning parameters of the limiter.
+     *
+     * @param initialLimit limit used before any latency has been observed
+     * @param minLimit lower bound of the limit
+     * @param maxLimit upper bound of the limit
+     * @param rttTolerance ratio of sample to baseline RTT tolerated before the limit shrinks
+     * @param smoothing weight of each new limit estimate (0..1]
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit,
+                           double rttTolerance, double smoothing) {
+
+        public Settings {
+            if (minLimit < 1 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("Limit bounds must satisfy 1 <= min <= max");
+            }
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Initial limit must lie within [min, max]");
+            }
+            if (rttTolerance < 1.0) {
+                throw new IllegalArgumentException("RTT tolerance must be at least 1.0");
+            }
+            if (smoothing <= 0.0 || smoothing > 1.0) {
+                throw new IllegalArgumentException("Smoothing must be in (0, 1]");
+            }
+        }
+    }
+
+    /**
+     * Creates a limiter using {@link System#nanoTime()} as its clock.
+     *
+     * @param name the provider name, used in logs and rejection messages
+     * @param settings tuning parameters
+     */
+    public AdaptiveConcurrencyLimiter(String name, Settings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    /**
+     * Creates a limiter with an explicit clock (used in tests).
+     *
+     * @param name the provider name
+     * @param settings tuning parameters
+     * @param clock monotonic nanosecond clock
+     */
+    AdaptiveConcurrencyLimiter(String name, Settings settings, LongSupplier clock) {
+        this.name = name;
+        this.settings = settings;
+        this.clock = clock;
+        this.estimatedLimit = settings.initialLimit();
+    }
+
+    /**
+     * Executes the call if a permit is available, recording its latency.
+     *
+     * @param call the outbound call to execute
+     * @param <T> the result type
+     * @return the result of the call
+     * @throws ConcurrencyLimitExceededException if the current limit is reached
+     */
+    public <T> T execute(Supplier<T> call) {
+        int limit = getLimit();
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            log.debug("Rejected call to {}: {} in flight, limit {}", name, inFlight.get(), limit);
+            throw new ConcurrencyLimitExceededException(name, limit);
+        }
+
+        long start = clock.getAsLong();
+        try {
+            T result = call.get();
+            onSample(clock.getAsLong() - start, inFlight.get());
+            return result;
+        } catch (RuntimeException e) {
+            if (isOverloadSignal(e)) {
+                onDropped();
+            }
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the limit, rounded down
+     */
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return in-flight call count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the total number of calls rejected because the limit was reached.
+     *
+     * @return rejected call count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the total number of calls that signalled provider overload.
+     *
+     * @return dropped call count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the provider name this limiter guards.
+     *
+     * @return the provider name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Updates the limit from a successful call's round-trip time.
+     *
+     * @param rttNanos observed round-trip time
+     * @param inFlightAtCompletion number of calls in flight when the sample completed
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        double rtt = Math.max(1, rttNanos);
+
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = rtt;
+        } else {
+            baselineRttNanos += (rtt - baselineRttNanos) / BASELINE_WINDOW;
+            // Let the baseline recover quickly after a long period of elevated latency
+            if (baselineRttNanos / rtt > 2.0) {
+                baselineRttNanos = (baselineRttNanos + rtt) / 2;
+            }
+        }
+
+        double limit = estimatedLimit;
+        double gradient = Math.max(0.5, Math.min(1.0, settings.rttTolerance() * baselineRttNanos / rtt));
+
+        // Rising latency shrinks the limit at any load, but only probe upwards
+        // when the current limit is actually being used
+        if (gradient >= 1.0 && inFlightAtCompletion < limit / 2) {
+            return;
+        }
+
+        double queueAllowance = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueAllowance;
+        newLimit = limit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+
+        setLimit(newLimit);
+    }
+
+    /**
+     * Applies a multiplicative decrease after an overload signal.
+     */
+    synchronized void onDropped() {
+        dropped.increment();
+        setLimit(estimatedLimit * BACKOFF_RATIO);
+    }
+
+    private void setLimit(double newLimit) {
+        double clamped = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+        if ((int) clamped != (int) estimatedLimit) {
+            log.debug("Concurrency limit for {} changed: {} -> {}", name, (int) estimatedLimit, (int) clamped);
+        }
+        estimatedLimit = clamped;
+    }
+
+    /**
+     * Determines whether a failure indicates that the provider is overloaded.
+     *
+     * <p>Timeouts and connection errors, server errors and explicit rate limiting
+     * count as overload. Other client errors (bad request, authentication) say
+     * nothing about provider capacity and leave the limit unchanged.</p>
+     *
+     * @param e the failure
+     * @return {@code true} if the limit should back off
+     */
+    private boolean isOverloadSignal(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.aidemo1.integration.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates and tracks one {@link AdaptiveConcurrencyLimiter} per provider.
+ *
+ * <p>Each provider client obtains its limiter by name at construction time.
+ * The registry binds the limiter's state to Micrometer so it is visible
+ * under {@code /actuator/metrics}:</p>
+ * <ul>
+ *   <li>{@code provider.concurrency.limit} - current adaptive limit</li>
+ *   <li>{@code provider.concurrency.inflight} - calls currently in flight</li>
+ *   <li>{@code provider.concurrency.rejected} - calls rejected at the limit</li>
+ *   <li>{@code provider.concurrency.dropped} - calls that signalled overload</li>
+ * </ul>
+ * <p>All meters are tagged with {@code provider}.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code http.client.concurrency.initial-limit} (default 20)</li>
+ *   <li>{@code http.client.concurrency.min-limit} (default 1)</li>
+ *   <li>{@code http.client.concurrency.max-limit} (default 200)</li>
+ *   <li>{@code http.client.concurrency.rtt-tolerance} (default 1.5)</li>
+ *   <li>{@code http.client.concurrency.smoothing} (default 0.2)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter.Settings settings;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${http.client.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${http.client.concurrency.min-limit:1}") int minLimit,
+            @Value("${http.client.concurrency.max-limit:200}") int maxLimit,
+            @Value("${http.client.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${http.client.concurrency.smoothing:0.2}") double smoothing) {
+        this.meterRegistry = meterRegistry;
+        this.settings = new AdaptiveConcurrencyLimiter.Settings(
+                initialLimit, minLimit, maxLimit, rttTolerance, smoothing);
+    }
+
+    /**
+     * Returns the limiter for a provider, creating and registering it on first use.
+     *
+     * @param providerName the provider name (used as the {@code provider} metric tag)
+     * @return the provider's limiter
+     */
+    public AdaptiveConcurrencyLimiter forProvider(String providerName) {
+        return limiters.computeIfAbsent(providerName, this::createLimiter);
+    }
+
+    /**
+     * Returns all limiters created so far.
+     *
+     * @return unmodifiable view of the registered limiters
+     */
+    public Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableCollection(limiters.values());
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String providerName) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(providerName, settings);
+
+        Gauge.builder("provider.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for outbound provider calls")
+                .tag("provider", providerName)
+                .register(meterRegistry);
+        Gauge.builder("provider.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Outbound provider calls currently in flight")
+                .tag("provider", providerName)
+                .register(meterRegistry);
+        FunctionCounter.builder("provider.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Outbound provider calls rejected by the concurrency limiter")
+                .tag("provider", providerName)
+                .register(meterRegistry);
+        FunctionCounter.builder("provider.concurrency.dropped", limiter, AdaptiveConcurrencyLimiter::getDroppedCount)
+                .description("Outbound provider calls that signalled overload")
+                .tag("provider", providerName)
+                .register(meterRegistry);
+
+        log.info("Created adaptive concurrency limiter for {} (initial limit {}, bounds [{}, {}])",
+                providerName, settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        return limiter;
+    }
+}
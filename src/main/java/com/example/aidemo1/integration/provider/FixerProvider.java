@@ -1,6 +1,7 @@
 package com.example.aidemo1.integration.provider;
 
 import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.exception.ConcurrencyLimitExceededException;
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.exception.UnsupportedCurrencyPairException;
 import com.example.aidemo1.integration.client.FixerClient;
@@ -39,6 +40,7 @@ public class FixerProvider implements ExchangeRateProvider {
     @Override
     @Retryable(
             retryFor = ExternalProviderException.class,
+            noRetryFor = ConcurrencyLimitExceededException.class,
             maxAttempts = 3,
             backoff = @Backoff(delay = 1000, multiplier = 2)
     )
@@ -77,7 +79,8 @@ public class FixerProvider implements ExchangeRateProvider {
                     .timestamp(timestamp)
                     .build();
                     
-        } catch (UnsupportedCurrencyPairException | IllegalArgumentException e) {
+        } catch (UnsupportedCurrencyPairException | IllegalArgumentException
+                 | ConcurrencyLimitExceededException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error fetching rate from {}: {}", PROVIDER_NAME, e.getMessage());
@@ -1,6 +1,7 @@
 package com.example.aidemo1.integration.provider;
 
 import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.exception.ConcurrencyLimitExceededException;
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.exception.UnsupportedCurrencyPairException;
 import com.example.aidemo1.integration.client.MockProvider2Client;
@@ -50,6 +51,7 @@ public class MockProvider2 implements ExchangeRateProvider {
     @Override
     @Retryable(
             retryFor = ExternalProviderException.class,
+            noRetryFor = ConcurrencyLimitExceededException.class,
             maxAttempts = 2,
             backoff = @Backoff(delay = 500)
     )
@@ -83,7 +85,8 @@ public class MockProvider2 implements ExchangeRateProvider {
                     .timestamp(timestamp)
                     .build();
                     
-        } catch (UnsupportedCurrencyPairException | IllegalArgumentException e) {
+        } catch (UnsupportedCurrencyPairException | IllegalArgumentException
+                 | ConcurrencyLimitExceededException e) {
             throw e;
         } catch (Exception e) {
             log.error("Failed to fetch rate from {}: {}", PROVIDER_NAME, e.getMessage());
@@ -0,0 +1,168 @@
+package com.example.aidemo1.persistence;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liquibase change that builds an index on a partitioned table without blocking writes.
+ *
+ * <p>{@code CREATE INDEX} on a partitioned table locks out inserts until every partition
+ * is indexed, and {@code CONCURRENTLY} is not supported there. This change creates the
+ * index on the parent only ({@code ON ONLY}, initially invalid), builds the index of each
+ * partition {@code CONCURRENTLY} and attaches it; the parent index becomes valid once all
+ * partitions are attached. Partitions created later get the index automatically.</p>
+ *
+ * <p>The change is restartable: attached partitions are skipped, and an invalid index left
+ * by an interrupted concurrent build is dropped and rebuilt. Its changeSet must use
+ * {@code runInTransaction: false}. PostgreSQL only.</p>
+ *
+ * <h2>Parameters</h2>
+ * <ul>
+ *   <li>{@code tableName} - the partitioned table</li>
+ *   <li>{@code indexName} - the parent index; partition indexes are named after their partition</li>
+ *   <li>{@code columns} - the index column list, e.g. {@code base_currency_id, timestamp DESC}</li>
+ *   <li>{@code include} - optional {@code INCLUDE} column list</li>
+ * </ul>
+ */
+@Getter
+@Setter
+public class ConcurrentPartitionIndexChange implements CustomTaskChange {
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = ?::regclass ORDER BY c.relname";
+
+    private static final String ATTACHED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_index x ON x.indexrelid = i.inhrelid "
+            + "WHERE i.inhparent = ?::regclass AND x.indrelid = ?::regclass)";
+
+    private static final String INDEX_VALID_SQL =
+            "SELECT x.indisvalid FROM pg_class c JOIN pg_index x ON x.indexrelid = c.oid "
+            + "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace";
+
+    private String tableName;
+    private String indexName;
+    private String columns;
+    private String include;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        try {
+            execute(((JdbcConnection) database.getConnection()).getUnderlyingConnection());
+        } catch (SQLException e) {
+            throw new CustomChangeException("Could not build index " + indexName + " on " + tableName, e);
+        }
+    }
+
+    void execute(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS " + indexName + " ON ONLY " + tableName + indexSpec());
+            for (String partition : partitions(connection)) {
+                if (isAttached(connection, partition)) {
+                    continue;
+                }
+                String partitionIndex = partitionIndexName(partition);
+                Boolean valid = isValid(connection, partitionIndex);
+                if (Boolean.FALSE.equals(valid)) {
+                    // Left behind by an interrupted concurrent build
+                    statement.execute("DROP INDEX CONCURRENTLY " + partitionIndex);
+                }
+                if (!Boolean.TRUE.equals(valid)) {
+                    statement.execute("CREATE INDEX CONCURRENTLY " + partitionIndex + " ON " + partition + indexSpec());
+                }
+                statement.execute("ALTER INDEX " + indexName + " ATTACH PARTITION " + partitionIndex);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Names the index of a partition after the partition, e.g. {@code idx_exchange_rate_period}
+     * on {@code exchange_rate_p202610} becomes {@code exchange_rate_p202610_period}.
+     */
+    String partitionIndexName(String partition) {
+        String prefix = "idx_" + tableName;
+        String suffix = indexName.startsWith(prefix) ? indexName.substring(prefix.length()) : "_" + indexName;
+        return partition + suffix;
+    }
+
+    private String indexSpec() {
+        return " (" + columns + ")" + (include == null || include.isBlank() ? "" : " INCLUDE (" + include + ")");
+    }
+
+    private List<String> partitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_SQL)) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitions.add(resultSet.getString(1));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private boolean isAttached(Connection connection, String partition) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ATTACHED_SQL)) {
+            statement.setString(1, indexName);
+            statement.setString(2, partition);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Returns whether an index is valid, or null if it does not exist.
+     */
+    private Boolean isValid(Connection connection, String index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INDEX_VALID_SQL)) {
+            statement.setString(1, index);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBoolean(1) : null;
+            }
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Index " + indexName + " built concurrently on the partitions of " + tableName;
+    }
+
+    @Override
+    public void setUp() {
+        // No resources to prepare
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // Reads no files
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("tableName", tableName);
+        errors.checkRequiredField("indexName", indexName);
+        errors.checkRequiredField("columns", columns);
+        return errors;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.aidemo1.persistence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a currency code as its {@code SMALLINT} id in {@code currency_code}.
+ * Created by Hibernate through the Spring bean container, so the dictionary is injected.
+ *
+ * @see RateDictionary
+ */
+@Converter
+public class CurrencyIdConverter implements AttributeConverter<String, Short> {
+
+    private final RateDictionary dictionary;
+
+    public CurrencyIdConverter(RateDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String code) {
+        return code != null ? dictionary.currencyId(code) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id != null ? dictionary.currencyCode(id) : null;
+    }
+}
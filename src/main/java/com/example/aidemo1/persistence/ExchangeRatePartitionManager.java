@@ -0,0 +1,270 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.rollup.RollupBackfillJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maintains the monthly range partitions of {@code exchange_rate}.
+ *
+ * <p>The table is partitioned by month on {@code timestamp} (changelog 015), one
+ * partition {@code exchange_rate_pYYYYMM} per month plus a default partition for
+ * out-of-range timestamps. The table that existed before partitioning was attached
+ * as one partition {@code exchange_rate_before_pYYYYMM}, holding every row before
+ * the cut-over month in its name; monthly partitions start at that month. Queries
+ * that bound {@code timestamp} only scan the partitions covering that range.</p>
+ *
+ * <h2>Maintenance</h2>
+ * <ul>
+ *   <li>Partitions for the current month and the next {@code months-ahead} months are
+ *       created in advance, so inserts normally never fall into the default partition.</li>
+ *   <li>Rows with far-future timestamps do land in the default partition, and PostgreSQL
+ *       refuses to create a partition while the default one holds rows of its range. Such
+ *       rows are moved: the default partition is detached, the month partition created,
+ *       the rows moved into it and the default partition re-attached, in one transaction.</li>
+ *   <li>Retention is opt-in: only with {@code retention-months} set, partitions that lie entirely before the
+ *       retention window are detached and dropped, the pre-partitioning one once every
+ *       month before its cut-over has left the window. This replaces a row-by-row
+ *       {@code DELETE} with a cheap catalog operation. When rollups are enabled, the
+ *       rollups of a partition are rebuilt from its rows right before it is dropped,
+ *       so the pruned history stays available to the trend endpoint at minute resolution.
+ *       The history, point-in-time and export endpoints read raw rows only, so dropped
+ *       months disappear from them; keep at least 24 months when enabling retention.</li>
+ * </ul>
+ *
+ * <p>Runs at startup and on {@code exchange.persistence.partitioning.maintenance-cron}
+ * (default daily at 03:15). Creating partitions is idempotent, so every replica may run it.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.persistence.partitioning.months-ahead} (default 3)</li>
+ *   <li>{@code exchange.persistence.partitioning.retention-months} (default 0, keep everything)</li>
+ * </ul>
+ *
+ * <p>Enabled via {@code exchange.persistence.partitioning.enabled}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.persistence.partitioning.enabled", havingValue = "true")
+public class ExchangeRatePartitionManager {
+
+    static final String PARTITION_PREFIX = "exchange_rate_p";
+
+    static final String BEFORE_PREFIX = "exchange_rate_before_p";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String CREATE_PARTITION_SQL =
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF exchange_rate FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'exchange_rate'::regclass ORDER BY c.relname";
+
+    private static final String DEFAULT_PARTITION = "exchange_rate_default";
+
+    private static final String OLDEST_RATE_SQL = "SELECT MIN(timestamp) FROM %s";
+
+    private static final String DEFAULT_HAS_ROWS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM exchange_rate_default WHERE timestamp >= ? AND timestamp < ?)";
+
+    private static final String MOVE_DEFAULT_ROWS_SQL =
+            "WITH moved AS (DELETE FROM exchange_rate_default WHERE timestamp >= ? AND timestamp < ? RETURNING *) "
+            + "INSERT INTO exchange_rate SELECT * FROM moved";
+
+    private static final String ATTACH_DEFAULT_SQL = "ALTER TABLE exchange_rate ATTACH PARTITION exchange_rate_default DEFAULT";
+    private static final String DETACH_PARTITION_SQL = "ALTER TABLE exchange_rate DETACH PARTITION %s";
+    private static final String DROP_PARTITION_SQL = "DROP TABLE %s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RollupBackfillJob rollupBackfill;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public ExchangeRatePartitionManager(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectProvider<RollupBackfillJob> rollupBackfill,
+            @Value("${exchange.persistence.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${exchange.persistence.partitioning.retention-months:0}") int retentionMonths) {
+        if (monthsAhead < 1) {
+            throw new IllegalArgumentException("Partitions must be created at least one month ahead");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupBackfill = rollupBackfill.getIfAvailable();
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Creates upcoming partitions and drops expired ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${exchange.persistence.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.error("Exchange rate partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    void maintain(YearMonth currentMonth) {
+        createPartitions(currentMonth);
+        if (retentionMonths > 0) {
+            dropExpiredPartitions(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Creates the missing partitions of the current month and the configured months ahead,
+     * taking over rows of their range from the default partition.
+     *
+     * @param currentMonth the current month
+     */
+    void createPartitions(YearMonth currentMonth) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class));
+        YearMonth cutover = existing.stream()
+                .map(ExchangeRatePartitionManager::cutoverMonth)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        for (int offset = 0; offset <= monthsAhead; offset++) {
+            YearMonth month = currentMonth.plusMonths(offset);
+            String partition = partitionName(month);
+            if (existing.contains(partition) || (cutover != null && month.isBefore(cutover))) {
+                // Months before the cut-over belong to the pre-partitioning partition
+                continue;
+            }
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (existing.contains(DEFAULT_PARTITION)
+                    && Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEFAULT_HAS_ROWS_SQL, Boolean.class, from, to))) {
+                createPartitionFromDefault(month, from, to);
+            } else {
+                jdbcTemplate.execute(createPartitionSql(month));
+            }
+        }
+        log.debug("Ensured exchange_rate partitions up to {}", currentMonth.plusMonths(monthsAhead));
+    }
+
+    /**
+     * Creates a month partition while the default partition holds rows of its range, and
+     * moves those rows into it. Inserts into {@code exchange_rate} wait for the transaction.
+     */
+    private void createPartitionFromDefault(YearMonth month, LocalDateTime from, LocalDateTime to) {
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(String.format(DETACH_PARTITION_SQL, DEFAULT_PARTITION));
+            jdbcTemplate.execute(createPartitionSql(month));
+            int rows = jdbcTemplate.update(MOVE_DEFAULT_ROWS_SQL, from, to);
+            jdbcTemplate.execute(ATTACH_DEFAULT_SQL);
+            return rows;
+        });
+        log.warn("Moved {} exchange_rate rows from the default partition into new partition {}",
+                moved, partitionName(month));
+    }
+
+    private static String createPartitionSql(YearMonth month) {
+        return String.format(CREATE_PARTITION_SQL, partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Detaches and drops partitions of months before the oldest retained month.
+     *
+     * @param oldestRetainedMonth the first month to keep
+     * @return the dropped partitions
+     */
+    List<String> dropExpiredPartitions(YearMonth oldestRetainedMonth) {
+        List<String> dropped = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            YearMonth month = partitionMonth(partition);
+            YearMonth cutover = cutoverMonth(partition);
+            if (month != null && month.isBefore(oldestRetainedMonth)) {
+                drop(partition, month, month);
+                dropped.add(partition);
+            } else if (cutover != null && !cutover.isAfter(oldestRetainedMonth)) {
+                Timestamp oldest = jdbcTemplate.queryForObject(String.format(OLDEST_RATE_SQL, partition), Timestamp.class);
+                YearMonth firstMonth = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : null;
+                drop(partition, firstMonth, cutover.minusMonths(1));
+                dropped.add(partition);
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.info("Dropped exchange_rate partitions older than {}: {}", oldestRetainedMonth, dropped);
+        }
+        return dropped;
+    }
+
+    /**
+     * Detaches and drops a partition, rebuilding the rollups of its months first.
+     *
+     * @param partition  the partition table name
+     * @param firstMonth the first month holding rows, or null for an empty partition
+     * @param lastMonth  the last month of the partition, inclusive
+     */
+    private void drop(String partition, YearMonth firstMonth, YearMonth lastMonth) {
+        if (rollupBackfill != null && firstMonth != null) {
+            rollupBackfill.backfill(firstMonth, lastMonth);
+        }
+        jdbcTemplate.execute(String.format(DETACH_PARTITION_SQL, partition));
+        jdbcTemplate.execute(String.format(DROP_PARTITION_SQL, partition));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Parses the month of a monthly partition.
+     *
+     * @param partition the partition table name
+     * @return the month, or null for the default partition and unknown tables
+     */
+    static YearMonth partitionMonth(String partition) {
+        return parseMonth(partition, PARTITION_PREFIX);
+    }
+
+    /**
+     * Parses the cut-over month of the pre-partitioning partition, which holds all rows
+     * before that month.
+     *
+     * @param partition the partition table name
+     * @return the cut-over month, or null for every other partition
+     */
+    static YearMonth cutoverMonth(String partition) {
+        return parseMonth(partition, BEFORE_PREFIX);
+    }
+
+    private static YearMonth parseMonth(String partition, String prefix) {
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+
+import java.util.List;
+
+/**
+ * Write path for exchange rates fetched from providers.
+ *
+ * <p>The rate aggregator fetches rates outside of any database transaction
+ * and hands the results to a writer. Implementations decide how and when the
+ * rates reach the database; callers must not rely on the rates being
+ * persisted (or having an id assigned) when {@link #write(List)} returns.</p>
+ *
+ * @see TransactionalExchangeRateWriter
+ */
+public interface ExchangeRateWriter {
+
+    /**
+     * Persists the given rates.
+     *
+     * @param rates the rates to persist; an empty list is a no-op
+     */
+    void write(List<ExchangeRate> rates);
+
+    /**
+     * Persists the given rates before returning.
+     *
+     * <p>Used on the request path, where the caller reads the rates back right
+     * away (a conversion's freshness check). Writers that defer persistence
+     * override this to write through.</p>
+     *
+     * @param rates the rates to persist; an empty list is a no-op
+     */
+    default void writeNow(List<ExchangeRate> rates) {
+        write(rates);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.entity.ExchangeRateLatest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code exchange_rate_latest} in step with {@code exchange_rate}.
+ *
+ * <p>Stored rates are reduced to the newest quote per (pair, provider) and upserted
+ * with {@code INSERT ... ON CONFLICT DO UPDATE}. The update only applies when the
+ * quote is not older than the stored one, so out-of-order writes never move a row
+ * back in time. Rows are upserted in key order, so concurrent writers lock them in
+ * the same order and cannot deadlock.</p>
+ *
+ * <p>Called by {@link TransactionalExchangeRateWriter} inside the transaction that
+ * stores the rates. The table is seeded from history by changelog 017; when this
+ * writer is enabled, current-rate lookups read {@link ExchangeRateLatest} instead of
+ * searching the history.</p>
+ *
+ * <p>Enabled via {@code exchange.persistence.latest.enabled}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.persistence.latest.enabled", havingValue = "true")
+public class LatestRateUpserter {
+
+    static final String UPSERT_SQL =
+            "INSERT INTO exchange_rate_latest AS l "
+            + "(base_currency, target_currency, provider, rate_id, rate, timestamp, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (base_currency, target_currency, provider) DO UPDATE SET "
+            + "rate_id = EXCLUDED.rate_id, rate = EXCLUDED.rate, timestamp = EXCLUDED.timestamp, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE EXCLUDED.timestamp >= l.timestamp";
+
+    private static final Comparator<ExchangeRateLatest.Key> KEY_ORDER = Comparator
+            .comparing(ExchangeRateLatest.Key::getBaseCurrency)
+            .thenComparing(ExchangeRateLatest.Key::getTargetCurrency)
+            .thenComparing(ExchangeRateLatest.Key::getProvider);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LatestRateUpserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upserts the newest of the stored rates per pair and provider.
+     *
+     * @param rates the stored rates
+     */
+    public void upsert(List<ExchangeRate> rates) {
+        if (rates.isEmpty()) {
+            return;
+        }
+
+        Map<ExchangeRateLatest.Key, ExchangeRate> newest = newestByKey(rates);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(newest.size());
+        for (ExchangeRate rate : newest.values()) {
+            rows.add(new Object[] {
+                rate.getBaseCurrency(), rate.getTargetCurrency(), rate.getProvider(), rate.getId(),
+                rate.getRate(), Timestamp.valueOf(rate.getTimestamp()), now
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        log.debug("Upserted {} latest rates from {} stored rates", rows.size(), rates.size());
+    }
+
+    /**
+     * Reduces rates to the newest one per pair and provider, in key order.
+     *
+     * @param rates the rates
+     * @return the newest rate per key
+     */
+    static Map<ExchangeRateLatest.Key, ExchangeRate> newestByKey(List<ExchangeRate> rates) {
+        Map<ExchangeRateLatest.Key, ExchangeRate> newest = new TreeMap<>(KEY_ORDER);
+        for (ExchangeRate rate : rates) {
+            newest.merge(new ExchangeRateLatest.Key(rate.getBaseCurrency(), rate.getTargetCurrency(), rate.getProvider()),
+                    rate, (current, candidate) -> candidate.getTimestamp().isBefore(current.getTimestamp())
+                            ? current : candidate);
+        }
+        return newest;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.aidemo1.persistence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a provider name as its {@code SMALLINT} id in {@code rate_provider}.
+ * Created by Hibernate through the Spring bean container, so the dictionary is injected.
+ *
+ * @see RateDictionary
+ */
+@Converter
+public class ProviderIdConverter implements AttributeConverter<String, Short> {
+
+    private final RateDictionary dictionary;
+
+    public ProviderIdConverter(RateDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String name) {
+        return name != null ? dictionary.providerId(name) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id != null ? dictionary.providerName(id) : null;
+    }
+}
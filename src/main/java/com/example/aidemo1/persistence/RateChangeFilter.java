@@ -0,0 +1,210 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.entity.ExchangeRateHeartbeat;
+import com.example.aidemo1.entity.ExchangeRateLatest;
+import com.example.aidemo1.repository.ExchangeRateHeartbeatRepository;
+import com.example.aidemo1.repository.ExchangeRateLatestRepository;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops fetched rates that repeat the last stored quote of the same provider.
+ *
+ * <p>A rate is unchanged when its value (compared numerically) and its provider
+ * timestamp equal those of the last stored rate for the same (pair, provider).
+ * Such a quote carries no new information for history or trend queries, so instead
+ * of a new {@code exchange_rate} row it only bumps the
+ * {@link ExchangeRateHeartbeat} for that key. Heartbeats are upserted in one
+ * statement each, so two writers seeing a quote for the first time do not race
+ * on the heartbeat's unique key.</p>
+ *
+ * <h2>Last stored values</h2>
+ * <p>The last stored quote per key is kept in memory. A key that has not been
+ * seen yet is seeded from the newest stored row of that provider, read from
+ * {@code exchange_rate_latest} when {@link LatestRateUpserter} maintains it. Newly stored
+ * quotes are remembered only after the surrounding transaction commits, so a
+ * rolled-back write never suppresses a later retry.</p>
+ *
+ * <p>Enabled via {@code exchange.persistence.dedup.enabled}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.persistence.dedup.enabled", havingValue = "true")
+public class RateChangeFilter {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateHeartbeatRepository heartbeatRepository;
+    private final ExchangeRateLatestRepository latestRepository;
+    private final boolean latestTableEnabled;
+    private final Map<QuoteKey, StoredQuote> lastStored = new ConcurrentHashMap<>();
+
+    private final Counter changedCounter;
+    private final Counter unchangedCounter;
+
+    public RateChangeFilter(ExchangeRateRepository exchangeRateRepository,
+                            ExchangeRateHeartbeatRepository heartbeatRepository,
+                            ExchangeRateLatestRepository latestRepository,
+                            ObjectProvider<LatestRateUpserter> latestUpserter,
+                            MeterRegistry meterRegistry) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.heartbeatRepository = heartbeatRepository;
+        this.latestRepository = latestRepository;
+        this.latestTableEnabled = latestUpserter.getIfAvailable() != null;
+        this.changedCounter = Counter.builder("exchange.rate.dedup.changed")
+                .description("Fetched exchange rates stored because the quote changed")
+                .register(meterRegistry);
+        this.unchangedCounter = Counter.builder("exchange.rate.dedup.unchanged")
+                .description("Fetched exchange rates recorded as heartbeats instead of new rows")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the rates that differ from the last stored quote and records heartbeats
+     * for the rest. Must be called inside the transaction that stores the returned rates.
+     *
+     * @param rates the fetched rates
+     * @return the rates that need to be stored, in input order
+     */
+    public List<ExchangeRate> filterChanged(List<ExchangeRate> rates) {
+        List<ExchangeRate> changed = new ArrayList<>(rates.size());
+        Map<QuoteKey, StoredQuote> pending = new HashMap<>();
+        Map<QuoteKey, Heartbeat> heartbeats = new LinkedHashMap<>();
+
+        for (ExchangeRate rate : rates) {
+            QuoteKey key = QuoteKey.of(rate);
+            StoredQuote previous = pending.containsKey(key) ? pending.get(key) : lastStoredQuote(key);
+
+            if (previous != null && previous.matches(rate)) {
+                heartbeats.computeIfAbsent(key, k -> new Heartbeat(previous.rateId())).seen();
+                continue;
+            }
+
+            changed.add(rate);
+            pending.put(key, new StoredQuote(null, rate.getRate(), rate.getTimestamp()));
+        }
+
+        recordHeartbeats(heartbeats);
+        rememberAfterCommit(changed);
+
+        changedCounter.increment(changed.size());
+        unchangedCounter.increment(rates.size() - changed.size());
+        if (changed.size() < rates.size()) {
+            log.debug("Skipped {} of {} unchanged exchange rates", rates.size() - changed.size(), rates.size());
+        }
+        return changed;
+    }
+
+    /**
+     * Forgets all remembered quotes; they are re-seeded from the database on next use.
+     */
+    public void clear() {
+        lastStored.clear();
+    }
+
+    private StoredQuote lastStoredQuote(QuoteKey key) {
+        StoredQuote cached = lastStored.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<ExchangeRate> stored = latestTableEnabled
+                ? latestRepository.findById(new ExchangeRateLatest.Key(
+                        key.baseCurrency(), key.targetCurrency(), key.provider()))
+                        .map(ExchangeRateLatest::toExchangeRate)
+                : exchangeRateRepository.findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+                        key.baseCurrency(), key.targetCurrency(), key.provider());
+        if (stored.isEmpty()) {
+            return null;
+        }
+        StoredQuote quote = StoredQuote.of(stored.get());
+        lastStored.putIfAbsent(key, quote);
+        return quote;
+    }
+
+    private void recordHeartbeats(Map<QuoteKey, Heartbeat> heartbeats) {
+        LocalDateTime seenAt = LocalDateTime.now();
+        // Upsert in key order so concurrent writers lock heartbeat rows in the same order
+        heartbeats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(QuoteKey.ORDER))
+                .forEach(entry -> heartbeatRepository.upsertSeen(entry.getKey().baseCurrency(),
+                        entry.getKey().targetCurrency(), entry.getKey().provider(), entry.getValue().rateId,
+                        seenAt, entry.getValue().count));
+    }
+
+    private void rememberAfterCommit(List<ExchangeRate> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(stored);
+            }
+        });
+    }
+
+    private void remember(List<ExchangeRate> stored) {
+        for (ExchangeRate rate : stored) {
+            lastStored.merge(QuoteKey.of(rate), StoredQuote.of(rate),
+                    (current, candidate) -> candidate.timestamp().isBefore(current.timestamp()) ? current : candidate);
+        }
+    }
+
+    private record QuoteKey(String baseCurrency, String targetCurrency, String provider) {
+
+        static final Comparator<QuoteKey> ORDER = Comparator.comparing(QuoteKey::baseCurrency)
+                .thenComparing(QuoteKey::targetCurrency)
+                .thenComparing(QuoteKey::provider);
+
+        static QuoteKey of(ExchangeRate rate) {
+            return new QuoteKey(rate.getBaseCurrency(), rate.getTargetCurrency(), rate.getProvider());
+        }
+    }
+
+    private record StoredQuote(Long rateId, BigDecimal rate, LocalDateTime timestamp) {
+
+        static StoredQuote of(ExchangeRate rate) {
+            return new StoredQuote(rate.getId(), rate.getRate(), rate.getTimestamp());
+        }
+
+        boolean matches(ExchangeRate candidate) {
+            return rate.compareTo(candidate.getRate()) == 0 && timestamp.equals(candidate.getTimestamp());
+        }
+    }
+
+    private static final class Heartbeat {
+
+        private final Long rateId;
+        private long count;
+
+        Heartbeat(Long rateId) {
+            this.rateId = rateId;
+        }
+
+        void seen() {
+            count++;
+        }
+    }
+}
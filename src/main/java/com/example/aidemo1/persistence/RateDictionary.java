@@ -0,0 +1,226 @@
+package com.example.aidemo1.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of the currency codes and provider names stored in {@code exchange_rate}.
+ *
+ * <p>{@code exchange_rate} stores {@code SMALLINT} ids that reference {@code currency_code}
+ * and {@code rate_provider} (changelog 019). Both dictionaries are tiny and insert-only, so
+ * they are cached in full; a cache miss reloads the table, and a value that is still
+ * unknown is added.</p>
+ *
+ * <h2>Connections</h2>
+ * <p>Dictionary reads and inserts use the caller's connection when a transaction is
+ * active ({@link DataSourceUtils}), and a connection of their own otherwise. They never
+ * take a second pool connection while the caller holds one, which could deadlock an
+ * exhausted pool. A value added inside a transaction commits with the rows that
+ * reference it; if the transaction rolls back, the value is evicted from the cache
+ * again. The insert runs under a savepoint: when another node adds the same value at
+ * the same time, the unique violation is rolled back to the savepoint instead of
+ * aborting the caller's transaction, and the reload picks up the other node's id.
+ * Inside a read-only transaction unknown values are not added; {@link #UNKNOWN_ID}
+ * is returned instead, which matches no stored row.</p>
+ */
+@Slf4j
+@Component
+public class RateDictionary {
+
+    /**
+     * Id of values that are not in the dictionary, returned to read-only callers.
+     */
+    public static final short UNKNOWN_ID = -1;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final Dictionary currencies;
+    private final Dictionary providers;
+
+    public RateDictionary(DataSource dataSource) {
+        this.currencies = new Dictionary(dataSource, "currency_code", "code");
+        this.providers = new Dictionary(dataSource, "rate_provider", "name");
+    }
+
+    /**
+     * Returns the id of a currency code, adding the code if it is new.
+     *
+     * @param code the currency code
+     * @return its id, or {@link #UNKNOWN_ID} for an unknown code in a read-only transaction
+     */
+    public short currencyId(String code) {
+        return currencies.idOf(code);
+    }
+
+    /**
+     * Returns the currency code of an id.
+     *
+     * @param id the id
+     * @return the currency code
+     * @throws IllegalStateException if the id is not in the dictionary
+     */
+    public String currencyCode(short id) {
+        return currencies.valueOf(id);
+    }
+
+    /**
+     * Returns the id of a provider name, adding the name if it is new.
+     *
+     * @param name the provider name
+     * @return its id, or {@link #UNKNOWN_ID} for an unknown name in a read-only transaction
+     */
+    public short providerId(String name) {
+        return providers.idOf(name);
+    }
+
+    /**
+     * Returns the provider name of an id.
+     *
+     * @param id the id
+     * @return the provider name
+     * @throws IllegalStateException if the id is not in the dictionary
+     */
+    public String providerName(short id) {
+        return providers.valueOf(id);
+    }
+
+    private static final class Dictionary {
+
+        private final DataSource dataSource;
+        private final String table;
+        private final String loadSql;
+        private final String insertSql;
+        private final Map<String, Short> ids = new ConcurrentHashMap<>();
+        private final Map<Short, String> values = new ConcurrentHashMap<>();
+
+        Dictionary(DataSource dataSource, String table, String column) {
+            this.dataSource = dataSource;
+            this.table = table;
+            this.loadSql = "SELECT id, " + column + " FROM " + table;
+            this.insertSql = "INSERT INTO " + table + " (" + column + ") VALUES (?)";
+        }
+
+        short idOf(String value) {
+            Short id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                reload();
+                id = ids.get(value);
+                if (id != null) {
+                    return id;
+                }
+                if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    return UNKNOWN_ID;
+                }
+                insert(value);
+                reload();
+                Short added = ids.get(value);
+                if (added == null) {
+                    throw new IllegalStateException("Could not add '" + value + "' to " + table);
+                }
+                evictOnRollback(value, added);
+                log.info("Added '{}' to {} with id {}", value, table, added);
+                return added;
+            }
+        }
+
+        private void evictOnRollback(String value, short id) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        ids.remove(value, id);
+                        values.remove(id, value);
+                    }
+                }
+            });
+        }
+
+        String valueOf(short id) {
+            String value = values.get(id);
+            if (value != null) {
+                return value;
+            }
+            synchronized (this) {
+                reload();
+                value = values.get(id);
+            }
+            if (value == null) {
+                throw new IllegalStateException("Unknown id " + id + " in " + table);
+            }
+            return value;
+        }
+
+        private void reload() {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(loadSql)) {
+                while (resultSet.next()) {
+                    short id = resultSet.getShort(1);
+                    String value = resultSet.getString(2);
+                    ids.put(value, id);
+                    values.put(id, value);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not load " + table, e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+
+        private void insert(String value) {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            Savepoint savepoint = null;
+            try {
+                // A failed statement aborts a PostgreSQL transaction, up to the last savepoint
+                if (!connection.getAutoCommit()) {
+                    savepoint = connection.setSavepoint();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                    statement.setString(1, value);
+                    statement.executeUpdate();
+                }
+                if (savepoint != null) {
+                    connection.releaseSavepoint(savepoint);
+                }
+            } catch (SQLException e) {
+                rollbackTo(connection, savepoint, e);
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw new IllegalStateException("Could not add '" + value + "' to " + table, e);
+                }
+                log.debug("'{}' was added to {} concurrently by another instance", value, table);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+
+        private static void rollbackTo(Connection connection, Savepoint savepoint, SQLException failure) {
+            if (savepoint == null) {
+                return;
+            }
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+}
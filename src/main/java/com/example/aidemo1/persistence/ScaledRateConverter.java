@@ -0,0 +1,54 @@
+package com.example.aidemo1.persistence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Stores a rate as a fixed-point {@code BIGINT}: the rate times 10^{@value #SCALE}.
+ *
+ * <p>Six decimal places match the former {@code DECIMAL(19, 6)} column; an 8-byte
+ * integer replaces a variable-length numeric and compares without numeric arithmetic.
+ * Rates with more decimal places are rounded half-up.</p>
+ */
+@Converter
+public class ScaledRateConverter implements AttributeConverter<BigDecimal, Long> {
+
+    /**
+     * Decimal places kept for stored rates.
+     */
+    public static final int SCALE = 6;
+
+    @Override
+    public Long convertToDatabaseColumn(BigDecimal rate) {
+        return rate != null ? toScaled(rate) : null;
+    }
+
+    @Override
+    public BigDecimal convertToEntityAttribute(Long value) {
+        return value != null ? fromScaled(value) : null;
+    }
+
+    /**
+     * Converts a rate to its stored fixed-point value.
+     *
+     * @param rate the rate
+     * @return the rate times 10^{@value #SCALE}
+     * @throws ArithmeticException if the rate does not fit into a {@code BIGINT}
+     */
+    public static long toScaled(BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a stored fixed-point value back to the rate.
+     *
+     * @param value the stored value
+     * @return the rate with {@value #SCALE} decimal places
+     */
+    public static BigDecimal fromScaled(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.recent.RecentRateStore;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.rollup.ExchangeRateRollupWriter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Synchronous {@link ExchangeRateWriter} that stores rates in short write transactions.
+ *
+ * <p>The transactions only span the inserts themselves, so a JDBC connection
+ * is borrowed from the pool for the duration of the inserts and not while
+ * providers are being queried.</p>
+ *
+ * <h2>Chunking</h2>
+ * <p>A batch is committed in chunks of {@code exchange.persistence.write-chunk-size}
+ * rates (default 500), each in its own transaction. Within a chunk the persistence
+ * context is flushed and cleared after every {@code flush-size} rates (default 50,
+ * matching {@code hibernate.jdbc.batch_size}), so no more than that many entities
+ * are ever managed at once and heap use does not grow with the size of a refresh.
+ * If a chunk fails, the chunks before it stay committed and the failure is rethrown.</p>
+ *
+ * <p>Batches of at least {@code exchange.persistence.copy.min-batch-size} rates
+ * (default 200) are streamed through {@link PostgresCopyRateIngester} when it is
+ * enabled; smaller batches go through {@code saveAll}.</p>
+ *
+ * <p>When {@link RateChangeFilter} is enabled, quotes identical to the last stored
+ * quote of the same provider are recorded as heartbeats and not inserted again.</p>
+ *
+ * <p>When {@link LatestRateUpserter} and {@link ExchangeRateRollupWriter} are enabled,
+ * the inserted rates of a chunk update {@code exchange_rate_latest} and are merged
+ * into their OHLC rollups in the same transaction.</p>
+ *
+ * <p>When {@link RecentRateStore} is enabled, the inserted rates of a chunk are added
+ * to it once the chunk's transaction has committed, so rolled-back rates and quotes
+ * dropped by the change filter never reach it.</p>
+ */
+@Slf4j
+@Component
+public class TransactionalExchangeRateWriter implements ExchangeRateWriter {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final PostgresCopyRateIngester copyIngester;
+    private final RateChangeFilter changeFilter;
+    private final LatestRateUpserter latestUpserter;
+    private final ExchangeRateRollupWriter rollupWriter;
+    private final RecentRateStore recentRates;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int copyMinBatchSize;
+    private final int chunkSize;
+    private final int flushSize;
+
+    public TransactionalExchangeRateWriter(
+            ExchangeRateRepository exchangeRateRepository,
+            ObjectProvider<PostgresCopyRateIngester> copyIngester,
+            ObjectProvider<RateChangeFilter> changeFilter,
+            ObjectProvider<LatestRateUpserter> latestUpserter,
+            ObjectProvider<ExchangeRateRollupWriter> rollupWriter,
+            ObjectProvider<RecentRateStore> recentRates,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            @Value("${exchange.persistence.copy.min-batch-size:200}") int copyMinBatchSize,
+            @Value("${exchange.persistence.write-chunk-size:500}") int chunkSize,
+            @Value("${exchange.persistence.flush-size:50}") int flushSize) {
+        if (chunkSize < 1 || flushSize < 1) {
+            throw new IllegalArgumentException("Write chunk and flush sizes must be positive");
+        }
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.copyIngester = copyIngester.getIfAvailable();
+        this.changeFilter = changeFilter.getIfAvailable();
+        this.latestUpserter = latestUpserter.getIfAvailable();
+        this.rollupWriter = rollupWriter.getIfAvailable();
+        this.recentRates = recentRates.getIfAvailable();
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.copyMinBatchSize = copyMinBatchSize;
+        this.chunkSize = chunkSize;
+        this.flushSize = flushSize;
+    }
+
+    @Override
+    public void write(List<ExchangeRate> rates) {
+        if (rates == null || rates.isEmpty()) {
+            return;
+        }
+
+        int committed = 0;
+        for (int from = 0; from < rates.size(); from += chunkSize) {
+            List<ExchangeRate> chunk = rates.subList(from, Math.min(from + chunkSize, rates.size()));
+            try {
+                transactionTemplate.execute(status -> writeChunk(chunk));
+            } catch (RuntimeException e) {
+                log.error("Writing exchange rates failed after {} of {} rates were committed: {}",
+                        committed, rates.size(), e.getMessage());
+                throw e;
+            }
+            committed += chunk.size();
+        }
+    }
+
+    /**
+     * Stores one chunk inside the current transaction.
+     *
+     * @param rates the chunk
+     * @return the number of rows inserted
+     */
+    private int writeChunk(List<ExchangeRate> rates) {
+        if (changeFilter != null) {
+            rates = changeFilter.filterChanged(rates);
+            if (rates.isEmpty()) {
+                return 0;
+            }
+        }
+
+        if (copyIngester != null && rates.size() >= copyMinBatchSize) {
+            int inserted = copyIngester.ingest(rates);
+            log.debug("Bulk ingested {} exchange rates", inserted);
+            updateDerivedTables(rates);
+            return inserted;
+        }
+
+        for (int from = 0; from < rates.size(); from += flushSize) {
+            exchangeRateRepository.saveAll(rates.subList(from, Math.min(from + flushSize, rates.size())));
+            // Send the JDBC batch and detach the saved entities so the context stays small
+            entityManager.flush();
+            entityManager.clear();
+        }
+        log.debug("Saved {} exchange rates", rates.size());
+        updateDerivedTables(rates);
+        return rates.size();
+    }
+
+    private void updateDerivedTables(List<ExchangeRate> rates) {
+        if (latestUpserter != null) {
+            latestUpserter.upsert(rates);
+        }
+        if (rollupWriter != null) {
+            rollupWriter.record(rates);
+        }
+        if (recentRates != null) {
+            recordAfterCommit(rates);
+        }
+    }
+
+    private void recordAfterCommit(List<ExchangeRate> rates) {
+        List<ExchangeRate> inserted = List.copyOf(rates);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentRates.record(inserted);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentRates.record(inserted);
+            }
+        });
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous write-behind {@link ExchangeRateWriter}.
+ *
+ * <p>Fetched rates are placed on a bounded in-memory queue and the caller returns
+ * immediately. A single flusher thread drains the queue in batches of up to
+ * {@code batch-size} rates (or whatever has accumulated after
+ * {@code flush-interval-ms}) and persists each batch through the
+ * {@link TransactionalExchangeRateWriter}. Together with sequence-based ids and
+ * JDBC batching this turns a refresh cycle into a handful of multi-row inserts.</p>
+ *
+ * <h2>Backpressure</h2>
+ * <p>If the queue stays full for longer than {@code offer-timeout-ms}, the
+ * rates that did not fit are written synchronously on the caller's thread.
+ * Producers are therefore slowed down to the database's pace instead of
+ * rates being dropped or memory growing without bound.</p>
+ *
+ * <h2>Request path</h2>
+ * <p>{@link #writeNow(List)} bypasses the queue. Rates fetched on a conversion's
+ * cache miss are written before the request returns, so the next freshness check
+ * finds them instead of fanning out to the providers again.</p>
+ *
+ * <h2>Failures</h2>
+ * <p>A batch whose flush fails is retried up to {@code max-retries} times, backing
+ * off by {@code flush-interval-ms} per attempt; while the flusher waits, producers
+ * fill the queue and fall back to synchronous writes. Retries are counted in
+ * {@code exchange.rate.write_behind.retried}, and batches given up on in
+ * {@code exchange.rate.write_behind.failed}.</p>
+ *
+ * <h2>Shutdown</h2>
+ * <p>On context shutdown the flusher is stopped and every queued rate is
+ * flushed before the persistence layer is closed.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.persistence.write-behind.enabled} - activates this writer</li>
+ *   <li>{@code exchange.persistence.write-behind.capacity} (default 10000)</li>
+ *   <li>{@code exchange.persistence.write-behind.batch-size} (default 500)</li>
+ *   <li>{@code exchange.persistence.write-behind.flush-interval-ms} (default 1000)</li>
+ *   <li>{@code exchange.persistence.write-behind.offer-timeout-ms} (default 100)</li>
+ *   <li>{@code exchange.persistence.write-behind.max-retries} (default 3)</li>
+ * </ul>
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "exchange.persistence.write-behind.enabled", havingValue = "true")
+public class WriteBehindExchangeRateWriter implements ExchangeRateWriter {
+
+    private final TransactionalExchangeRateWriter delegate;
+    private final BlockingQueue<ExchangeRate> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final int maxRetries;
+
+    private final Counter flushedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Counter backpressureCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindExchangeRateWriter(
+            TransactionalExchangeRateWriter delegate,
+            MeterRegistry meterRegistry,
+            @Value("${exchange.persistence.write-behind.capacity:10000}") int capacity,
+            @Value("${exchange.persistence.write-behind.batch-size:500}") int batchSize,
+            @Value("${exchange.persistence.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${exchange.persistence.write-behind.offer-timeout-ms:100}") long offerTimeoutMs,
+            @Value("${exchange.persistence.write-behind.max-retries:3}") int maxRetries) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Write-behind capacity and batch size must be positive");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Write-behind retries must not be negative");
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxRetries = maxRetries;
+
+        Gauge.builder("exchange.rate.write_behind.queue", queue, BlockingQueue::size)
+                .description("Exchange rates waiting to be persisted")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("exchange.rate.write_behind.flushed")
+                .description("Exchange rates persisted by the write-behind flusher")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("exchange.rate.write_behind.retried")
+                .description("Exchange rates whose flush failed and was retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("exchange.rate.write_behind.failed")
+                .description("Exchange rates lost because a flush failed after all retries")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("exchange.rate.write_behind.backpressure")
+                .description("Exchange rates written synchronously because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the background flusher thread.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "rate-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind rate writer started (capacity {}, batch size {}, flush interval {} ms)",
+                queue.remainingCapacity() + queue.size(), batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Stops the flusher and persists everything still queued.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(flushIntervalMs * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int remaining = queue.size();
+        while (!queue.isEmpty()) {
+            flush(drainBatch(null));
+        }
+        log.info("Write-behind rate writer stopped, flushed {} remaining rates on shutdown", remaining);
+    }
+
+    @Override
+    public void write(List<ExchangeRate> rates) {
+        if (rates == null || rates.isEmpty()) {
+            return;
+        }
+        if (!running) {
+            delegate.write(rates);
+            return;
+        }
+
+        int queued = 0;
+        try {
+            while (queued < rates.size()
+                    && queue.offer(rates.get(queued), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (queued < rates.size()) {
+            List<ExchangeRate> overflow = new ArrayList<>(rates.subList(queued, rates.size()));
+            log.warn("Write-behind queue full, writing {} rates synchronously", overflow.size());
+            backpressureCounter.increment(overflow.size());
+            delegate.write(overflow);
+        }
+    }
+
+    /**
+     * Writes the rates synchronously, bypassing the queue.
+     *
+     * @param rates the rates to persist; an empty list is a no-op
+     */
+    @Override
+    public void writeNow(List<ExchangeRate> rates) {
+        if (rates == null || rates.isEmpty()) {
+            return;
+        }
+        delegate.write(rates);
+    }
+
+    /**
+     * Returns the number of rates currently waiting to be flushed.
+     *
+     * @return queue depth
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void runFlushLoop() {
+        while (running) {
+            try {
+                ExchangeRate first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    flush(drainBatch(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<ExchangeRate> drainBatch(ExchangeRate first) {
+        List<ExchangeRate> batch = new ArrayList<>(batchSize);
+        if (first != null) {
+            batch.add(first);
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        return batch;
+    }
+
+    private void flush(List<ExchangeRate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                delegate.write(batch);
+                flushedCounter.increment(batch.size());
+                log.debug("Flushed {} exchange rates", batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxRetries) {
+                    failedCounter.increment(batch.size());
+                    log.error("Failed to flush {} exchange rates after {} attempts: {}",
+                            batch.size(), attempt + 1, e.getMessage(), e);
+                    return;
+                }
+                retriedCounter.increment(batch.size());
+                log.warn("Failed to flush {} exchange rates (attempt {}), retrying: {}",
+                        batch.size(), attempt + 1, e.getMessage());
+                if (!backOff(attempt + 1)) {
+                    failedCounter.increment(batch.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(flushIntervalMs * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while retrying a flush, dropping the batch");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.aidemo1.recent;
+
+/**
+ * Recent rates of one currency pair in a ring of parallel primitive arrays.
+ *
+ * <p>An entry is an epoch second, a rate scaled by 10^6 and a provider id: 18 bytes,
+ * against well over 100 for an {@code ExchangeRate} entity with its boxed and
+ * {@code BigDecimal} fields. Entries are kept in timestamp order; a late entry is
+ * moved into place from the newest end, which for the usual almost-ordered ingest is
+ * a short shift.</p>
+ *
+ * <p>The arrays start small and double up to {@code maxCapacity}. Entries older than
+ * the window (relative to the newest entry) are evicted, and once the ring is at its
+ * maximum capacity a new entry overwrites the oldest one.</p>
+ *
+ * <p>All methods synchronize on the ring.</p>
+ */
+final class RateRing {
+
+    static final int BYTES_PER_ENTRY = Long.BYTES + Long.BYTES + Short.BYTES;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Receives entries, oldest first.
+     */
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long epochSecond, long scaledRate, short providerId);
+    }
+
+    private final int maxCapacity;
+    private final long windowSeconds;
+    private long[] epochSeconds;
+    private long[] scaledRates;
+    private short[] providerIds;
+    private int head;
+    private int size;
+
+    RateRing(int maxCapacity, long windowSeconds) {
+        this.maxCapacity = maxCapacity;
+        this.windowSeconds = windowSeconds;
+        int capacity = Math.min(INITIAL_CAPACITY, maxCapacity);
+        this.epochSeconds = new long[capacity];
+        this.scaledRates = new long[capacity];
+        this.providerIds = new short[capacity];
+    }
+
+    /**
+     * Adds an entry in timestamp order.
+     *
+     * @return false if the entry is outside the window or older than a full ring and was dropped
+     */
+    synchronized boolean add(long epochSecond, long scaledRate, short providerId) {
+        long newest = size == 0 ? epochSecond : Math.max(epochSecond, epochSecondAt(size - 1));
+        evictBefore(newest - windowSeconds);
+        if (epochSecond < newest - windowSeconds) {
+            return false;
+        }
+        if (size == epochSeconds.length) {
+            if (epochSeconds.length < maxCapacity) {
+                grow();
+            } else if (epochSecond < epochSecondAt(0)) {
+                return false;
+            } else {
+                head = (head + 1) % epochSeconds.length;
+                size--;
+            }
+        }
+
+        int position = size;
+        while (position > 0 && epochSecondAt(position - 1) > epochSecond) {
+            copy(position - 1, position);
+            position--;
+        }
+        int slot = slot(position);
+        epochSeconds[slot] = epochSecond;
+        scaledRates[slot] = scaledRate;
+        providerIds[slot] = providerId;
+        size++;
+        return true;
+    }
+
+    /**
+     * Passes the entries at or after a time to a visitor, oldest first.
+     *
+     * @return the number of entries visited
+     */
+    synchronized int forEachSince(long sinceEpochSecond, EntryVisitor visitor) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochSecondAt(middle) < sinceEpochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int position = low; position < size; position++) {
+            int slot = slot(position);
+            visitor.visit(epochSeconds[slot], scaledRates[slot], providerIds[slot]);
+        }
+        return size - low;
+    }
+
+    /**
+     * Adds the entries of another ring that are newer than this ring's newest entry.
+     *
+     * @return this ring
+     */
+    RateRing absorbNewer(RateRing other) {
+        synchronized (this) {
+            long newest = size == 0 ? Long.MIN_VALUE : epochSecondAt(size - 1);
+            other.forEachSince(newest + 1, this::add);
+        }
+        return this;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the heap size of the ring's arrays.
+     *
+     * @return bytes allocated for entries
+     */
+    synchronized long memoryBytes() {
+        return (long) epochSeconds.length * BYTES_PER_ENTRY;
+    }
+
+    private void evictBefore(long cutoff) {
+        while (size > 0 && epochSeconds[head] < cutoff) {
+            head = (head + 1) % epochSeconds.length;
+            size--;
+        }
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min((long) epochSeconds.length * 2, maxCapacity);
+        long[] grownSeconds = new long[capacity];
+        long[] grownRates = new long[capacity];
+        short[] grownProviders = new short[capacity];
+        for (int position = 0; position < size; position++) {
+            int slot = slot(position);
+            grownSeconds[position] = epochSeconds[slot];
+            grownRates[position] = scaledRates[slot];
+            grownProviders[position] = providerIds[slot];
+        }
+        epochSeconds = grownSeconds;
+        scaledRates = grownRates;
+        providerIds = grownProviders;
+        head = 0;
+    }
+
+    private void copy(int fromPosition, int toPosition) {
+        int from = slot(fromPosition);
+        int to = slot(toPosition);
+        epochSeconds[to] = epochSeconds[from];
+        scaledRates[to] = scaledRates[from];
+        providerIds[to] = providerIds[from];
+    }
+
+    private long epochSecondAt(int position) {
+        return epochSeconds[slot(position)];
+    }
+
+    private int slot(int position) {
+        return (head + position) % epochSeconds.length;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.aidemo1.recent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One rate read from the {@link RecentRateStore}.
+ *
+ * @param timestamp when the rate was quoted, to the second
+ * @param rate      the rate
+ * @param provider  the provider name
+ */
+public record RecentRate(LocalDateTime timestamp, BigDecimal rate, String provider) {
+}
@@ -0,0 +1,373 @@
+package com.example.aidemo1.recent;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.persistence.ScaledRateConverter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory store of the recent rates of every currency pair.
+ *
+ * <p>Each pair's rates of the last {@code exchange.recent.window-hours} (default 72)
+ * are kept in a {@link RateRing} of primitive arrays, so "last N hours" history and
+ * moving averages are answered without a query and without materializing
+ * {@link ExchangeRate} entities.</p>
+ *
+ * <h2>Filling</h2>
+ * <p>Once the application is ready, the window is loaded from {@code exchange_rate} in
+ * one ordered pass; until then {@link #covers(Duration)} is false and callers read the
+ * database. Afterwards:</p>
+ * <ul>
+ *   <li>the writer records the rates it inserted once their transaction has committed,
+ *       so this node's own rates are visible at once</li>
+ *   <li>every {@code exchange.recent.refresh-interval-ms} (default 30000) rows inserted
+ *       since the last refresh are read by id, which brings in the rates written by
+ *       other nodes. Each refresh re-reads the ids of the one before, so rows of a write
+ *       transaction that committed after a higher id are not missed; only a transaction
+ *       open for longer than a refresh interval can be. Ids seen since then are tracked,
+ *       so no rate is added twice</li>
+ * </ul>
+ * <p>If refreshing fails for three intervals in a row the rings are stale and
+ * {@link #covers(Duration)} is false until a refresh succeeds again.</p>
+ *
+ * <h2>Memory</h2>
+ * <p>An entry takes {@value RateRing#BYTES_PER_ENTRY} bytes. A ring grows by doubling
+ * up to {@code exchange.recent.max-entries-per-pair} (default 100000, 1.8 MB) and then
+ * overwrites its oldest entries. The allocated bytes of each pair are published as the
+ * {@code exchange.recent.memory} gauge, tagged with the pair.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.recent.enabled", havingValue = "true")
+public class RecentRateStore {
+
+    static final String LOAD_SQL =
+            "SELECT e.id, b.code AS base_currency, t.code AS target_currency, e.timestamp, e.rate_value, "
+            + "p.name AS provider FROM exchange_rate e "
+            + "JOIN currency_code b ON b.id = e.base_currency_id "
+            + "JOIN currency_code t ON t.id = e.target_currency_id "
+            + "JOIN rate_provider p ON p.id = e.provider_id "
+            + "WHERE e.timestamp >= ? ORDER BY e.timestamp";
+
+    static final String REFRESH_SQL =
+            "SELECT e.id, b.code AS base_currency, t.code AS target_currency, e.timestamp, e.rate_value, "
+            + "p.name AS provider FROM exchange_rate e "
+            + "JOIN currency_code b ON b.id = e.base_currency_id "
+            + "JOIN currency_code t ON t.id = e.target_currency_id "
+            + "JOIN rate_provider p ON p.id = e.provider_id "
+            + "WHERE e.id > ? AND e.timestamp >= ? ORDER BY e.id";
+
+    private static final int STALE_AFTER_REFRESHES = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Duration window;
+    private final int maxEntriesPerPair;
+    private final int loadFetchSize;
+    private final Duration refreshInterval;
+    private final Map<String, RateRing> rings = new ConcurrentHashMap<>();
+    private final List<String> providerNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Short> providerIds = new ConcurrentHashMap<>();
+
+    // Ids up to confirmedId are in the rings or were missed for good; seenIds holds those above it
+    private final Set<Long> seenIds = new HashSet<>();
+    private long confirmedId;
+    private long pendingId;
+
+    private volatile boolean loaded;
+    private volatile long refreshedAt;
+
+    public RecentRateStore(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${exchange.recent.window-hours:72}") int windowHours,
+            @Value("${exchange.recent.max-entries-per-pair:100000}") int maxEntriesPerPair,
+            @Value("${exchange.recent.load-fetch-size:5000}") int loadFetchSize,
+            @Value("${exchange.recent.refresh-interval-ms:30000}") long refreshIntervalMs) {
+        if (windowHours < 1 || maxEntriesPerPair < 1 || refreshIntervalMs < 1) {
+            throw new IllegalArgumentException("Recent rate window, ring size and refresh interval must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.window = Duration.ofHours(windowHours);
+        this.maxEntriesPerPair = maxEntriesPerPair;
+        this.loadFetchSize = loadFetchSize;
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+    }
+
+    /**
+     * Records stored rates. Rates already read by a refresh are skipped.
+     *
+     * @param rates the committed rates; an empty list is a no-op
+     */
+    public synchronized void record(List<ExchangeRate> rates) {
+        if (rates == null) {
+            return;
+        }
+        for (ExchangeRate rate : rates) {
+            if (rate.getId() != null && !markSeen(rate.getId())) {
+                continue;
+            }
+            ring(rings, rate.getBaseCurrency(), rate.getTargetCurrency()).add(
+                    toEpochSecond(rate.getTimestamp()),
+                    ScaledRateConverter.toScaled(rate.getRate()),
+                    providerId(rate.getProvider()));
+        }
+    }
+
+    /**
+     * Tells whether a lookback ending now can be answered from memory.
+     *
+     * @param lookback how far back the query reaches
+     * @return true once the store is loaded, while it is refreshed, if the lookback fits in the window
+     */
+    public boolean covers(Duration lookback) {
+        return loaded && lookback.compareTo(window) <= 0
+                && System.nanoTime() - refreshedAt <= refreshInterval.multipliedBy(STALE_AFTER_REFRESHES).toNanos();
+    }
+
+    /**
+     * Returns a pair's rates quoted at or after a time, most recent first.
+     *
+     * @param base   base currency code
+     * @param target target currency code
+     * @param since  the oldest timestamp to include
+     * @return the rates
+     */
+    public List<RecentRate> since(String base, String target, LocalDateTime since) {
+        RateRing ring = rings.get(key(base, target));
+        if (ring == null) {
+            return List.of();
+        }
+        List<RecentRate> rates = new ArrayList<>();
+        ring.forEachSince(toEpochSecond(since), (epochSecond, scaledRate, providerId) -> rates.add(new RecentRate(
+                LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC),
+                ScaledRateConverter.fromScaled(scaledRate),
+                providerNames.get(providerId))));
+        Collections.reverse(rates);
+        return rates;
+    }
+
+    /**
+     * Returns the mean of a pair's rates quoted at or after a time.
+     *
+     * @param base   base currency code
+     * @param target target currency code
+     * @param since  the oldest timestamp to include
+     * @return the mean at six decimal places, or empty if there are no such rates
+     */
+    public Optional<BigDecimal> movingAverage(String base, String target, LocalDateTime since) {
+        RateRing ring = rings.get(key(base, target));
+        if (ring == null) {
+            return Optional.empty();
+        }
+        long[] sum = new long[1];
+        int count = ring.forEachSince(toEpochSecond(since), (epochSecond, scaledRate, providerId) -> sum[0] += scaledRate);
+        if (count == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(ScaledRateConverter.fromScaled(sum[0]).divide(BigDecimal.valueOf(count),
+                ScaledRateConverter.SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Returns the bytes allocated for a pair's ring.
+     *
+     * @param base   base currency code
+     * @param target target currency code
+     * @return the ring's size in bytes, 0 if the pair has none
+     */
+    public long memoryBytes(String base, String target) {
+        RateRing ring = rings.get(key(base, target));
+        return ring == null ? 0 : ring.memoryBytes();
+    }
+
+    /**
+     * Loads the window from {@code exchange_rate} and merges it with the rates recorded so far.
+     * If loading fails the store stays unloaded and recent history is read from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(window));
+        Map<String, RateRing> fromDatabase = new HashMap<>();
+        long[] rows = new long[1];
+        long[] maxId = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(loadFetchSize);
+                statement.setTimestamp(1, since);
+                return statement;
+            }, resultSet -> {
+                ring(fromDatabase, resultSet.getString("base_currency"), resultSet.getString("target_currency")).add(
+                        toEpochSecond(resultSet.getTimestamp("timestamp").toLocalDateTime()),
+                        resultSet.getLong("rate_value"),
+                        providerId(resultSet.getString("provider")));
+                maxId[0] = Math.max(maxId[0], resultSet.getLong("id"));
+                rows[0]++;
+            }));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not load recent rates, recent history will be read from the database: {}",
+                    e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            fromDatabase.forEach((key, ring) -> {
+                rings.merge(key, ring, (recorded, loadedRing) -> loadedRing.absorbNewer(recorded));
+                registerGauge(key);
+            });
+            confirmedId = Math.max(confirmedId, maxId[0]);
+            pendingId = confirmedId;
+            seenIds.removeIf(id -> id <= confirmedId);
+            refreshedAt = System.nanoTime();
+            loaded = true;
+        }
+        log.info("Loaded {} recent rates of {} pairs in {} ms", rows[0], fromDatabase.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Adds the rows inserted since the last refresh, including those written by other nodes.
+     * A failed refresh is logged and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${exchange.recent.refresh-interval-ms:30000}",
+            initialDelayString = "${exchange.recent.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        long afterId;
+        synchronized (this) {
+            afterId = confirmedId;
+        }
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(window));
+        List<StoredRate> stored = new ArrayList<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(REFRESH_SQL,
+                    (RowCallbackHandler) resultSet -> stored.add(new StoredRate(resultSet.getLong("id"),
+                            resultSet.getString("base_currency"), resultSet.getString("target_currency"),
+                            toEpochSecond(resultSet.getTimestamp("timestamp").toLocalDateTime()),
+                            resultSet.getLong("rate_value"), resultSet.getString("provider"))),
+                    afterId, since));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Could not refresh recent rates: {}", e.getMessage());
+            return;
+        }
+
+        int added = 0;
+        long maxId = afterId;
+        synchronized (this) {
+            for (StoredRate rate : stored) {
+                maxId = Math.max(maxId, rate.id());
+                if (markSeen(rate.id())) {
+                    ring(rings, rate.base(), rate.target()).add(rate.epochSecond(), rate.scaledRate(),
+                            providerId(rate.provider()));
+                    added++;
+                }
+            }
+            confirm(maxId);
+            refreshedAt = System.nanoTime();
+        }
+        log.debug("Refreshed recent rates: {} rows read, {} added", stored.size(), added);
+    }
+
+    /**
+     * Marks the id of a rate about to be added to the rings.
+     *
+     * @return false if the rate is already in the rings
+     */
+    private boolean markSeen(long id) {
+        return id <= confirmedId || seenIds.add(id);
+    }
+
+    /**
+     * Confirms the ids read by the previous refresh and remembers the newest id of this one.
+     */
+    private void confirm(long newestId) {
+        confirmedId = Math.max(confirmedId, pendingId);
+        pendingId = Math.max(pendingId, newestId);
+        seenIds.removeIf(id -> id <= confirmedId);
+    }
+
+    private RateRing ring(Map<String, RateRing> pairs, String base, String target) {
+        String key = key(base, target);
+        RateRing ring = pairs.get(key);
+        if (ring == null) {
+            ring = new RateRing(maxEntriesPerPair, window.toSeconds());
+            pairs.put(key, ring);
+            if (pairs == rings) {
+                registerGauge(key);
+            }
+        }
+        return ring;
+    }
+
+    private void registerGauge(String key) {
+        Gauge.builder("exchange.recent.memory", rings, all -> {
+                    RateRing ring = all.get(key);
+                    return ring == null ? 0 : ring.memoryBytes();
+                })
+                .description("Bytes allocated for the recent rates of a currency pair")
+                .baseUnit("bytes")
+                .tag("pair", key)
+                .register(meterRegistry);
+    }
+
+    private short providerId(String name) {
+        return providerIds.computeIfAbsent(name, n -> {
+            synchronized (providerNames) {
+                providerNames.add(n);
+                return (short) (providerNames.size() - 1);
+            }
+        });
+    }
+
+    private static String key(String base, String target) {
+        return base + "/" + target;
+    }
+
+    private static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record StoredRate(long id, String base, String target, long epochSecond, long scaledRate,
+                              String provider) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.CurrencyPairCatalogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for CurrencyPairCatalogEntry entity.
+ * Provides the pairs kept warm by the refresh cycle.
+ */
+@Repository
+public interface CurrencyPairCatalogRepository extends JpaRepository<CurrencyPairCatalogEntry, Long> {
+
+    /**
+     * Find all enabled catalog entries.
+     *
+     * @return the enabled entries, in no particular order
+     */
+    List<CurrencyPairCatalogEntry> findByEnabledTrue();
+}
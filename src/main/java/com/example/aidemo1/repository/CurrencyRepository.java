@@ -1,6 +1,7 @@
 package com.example.aidemo1.repository;
 
 import com.example.aidemo1.entity.Currency;
+import com.example.aidemo1.repository.projection.CurrencySummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -51,4 +52,12 @@ public interface CurrencyRepository extends JpaRepository<Currency, Long> {
      * @return list of all currencies sorted by code
      */
     List<Currency> findAllByOrderByCodeAsc();
+
+    /**
+     * Get all currencies ordered by code as {@link CurrencySummary} projections,
+     * without materializing entities.
+     *
+     * @return summaries of all currencies sorted by code
+     */
+    List<CurrencySummary> findAllSummariesByOrderByCodeAsc();
 }
@@ -0,0 +1,63 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.ExchangeRateHeartbeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for ExchangeRateHeartbeat entity.
+ * Tracks unchanged provider quotes without writing new exchange rate rows.
+ */
+@Repository
+public interface ExchangeRateHeartbeatRepository extends JpaRepository<ExchangeRateHeartbeat, Long> {
+
+    /**
+     * Find the heartbeat for a provider's quote on a currency pair.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param provider the provider name
+     * @return Optional containing the heartbeat if the quote was ever confirmed unchanged
+     */
+    Optional<ExchangeRateHeartbeat> findByBaseCurrencyAndTargetCurrencyAndProvider(
+        String baseCurrency,
+        String targetCurrency,
+        String provider
+    );
+
+    /**
+     * Record that a quote was seen unchanged, creating the heartbeat if it does not exist.
+     *
+     * <p>A single {@code INSERT ... ON CONFLICT DO UPDATE}, so concurrent writers seeing
+     * the same quote for the first time cannot collide on the unique key. Requires PostgreSQL.</p>
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param provider the provider name
+     * @param rateId id of the stored rate that is still current
+     * @param seenAt when the quote was seen
+     * @param seenCount how many times it was seen in this batch
+     * @return number of inserted or updated rows
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO exchange_rate_heartbeat AS h " +
+           "(base_currency, target_currency, provider, rate_id, last_seen_at, seen_count) " +
+           "VALUES (:base, :target, :provider, :rateId, :seenAt, :seenCount) " +
+           "ON CONFLICT (base_currency, target_currency, provider) DO UPDATE SET " +
+           "rate_id = EXCLUDED.rate_id, last_seen_at = EXCLUDED.last_seen_at, " +
+           "seen_count = CASE WHEN h.rate_id IS NOT DISTINCT FROM EXCLUDED.rate_id " +
+           "THEN h.seen_count + EXCLUDED.seen_count ELSE EXCLUDED.seen_count END")
+    int upsertSeen(@Param("base") String baseCurrency,
+                   @Param("target") String targetCurrency,
+                   @Param("provider") String provider,
+                   @Param("rateId") Long rateId,
+                   @Param("seenAt") LocalDateTime seenAt,
+                   @Param("seenCount") long seenCount);
+}
@@ -0,0 +1,45 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.ExchangeRateLatest;
+import com.example.aidemo1.repository.projection.RateQuote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for ExchangeRateLatest entity.
+ * Rows are written by {@link com.example.aidemo1.persistence.LatestRateUpserter}
+ * with native upserts; this repository only reads them.
+ */
+@Repository
+public interface ExchangeRateLatestRepository extends JpaRepository<ExchangeRateLatest, ExchangeRateLatest.Key> {
+
+    /**
+     * Find the best current rate for a currency pair: the newest quote of any provider,
+     * the lowest rate among quotes with the same timestamp. Reads at most one row per
+     * provider through the primary key.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @return Optional containing the current rate if any provider has quoted the pair
+     */
+    Optional<ExchangeRateLatest> findFirstByBaseCurrencyAndTargetCurrencyOrderByTimestampDescRateAsc(
+        String baseCurrency,
+        String targetCurrency
+    );
+
+    /**
+     * Find the best current rate for a currency pair as a {@link RateQuote} projection,
+     * without materializing an entity.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @return Optional containing the current quote if any provider has quoted the pair
+     * @see #findFirstByBaseCurrencyAndTargetCurrencyOrderByTimestampDescRateAsc
+     */
+    Optional<RateQuote> findFirstQuoteByBaseCurrencyAndTargetCurrencyOrderByTimestampDescRateAsc(
+        String baseCurrency,
+        String targetCurrency
+    );
+}
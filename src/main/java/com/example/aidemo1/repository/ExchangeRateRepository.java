@@ -1,6 +1,8 @@
 package com.example.aidemo1.repository;
 
 import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.repository.projection.RateQuote;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,9 +15,10 @@ import java.util.Optional;
 /**
  * Repository interface for ExchangeRate entity.
  * Provides CRUD operations and custom queries for exchange rate management.
+ * Best-rate queries are implemented in {@link ExchangeRateRepositoryImpl}.
  */
 @Repository
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long>, ExchangeRateRepositoryCustom {
 
     /**
      * Find the most recent exchange rate for a currency pair.
@@ -29,6 +32,67 @@ public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long
         String targetCurrency
     );
 
+    /**
+     * Find the most recent exchange rate for a currency pair no older than a given time.
+     * The lower bound on timestamp lets PostgreSQL prune the monthly partitions
+     * that cannot contain a match.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param since the oldest acceptable timestamp
+     * @return Optional containing the most recent rate since the given time if found
+     */
+    Optional<ExchangeRate> findFirstByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+        String baseCurrency,
+        String targetCurrency,
+        LocalDateTime since
+    );
+
+    /**
+     * Find the most recent rate for a currency pair no older than a given time, as a
+     * {@link RateQuote} projection: only the quote columns are selected and no entity
+     * is materialized.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param since the oldest acceptable timestamp
+     * @return Optional containing the most recent quote since the given time if found
+     */
+    Optional<RateQuote> findFirstQuoteByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+        String baseCurrency,
+        String targetCurrency,
+        LocalDateTime since
+    );
+
+    /**
+     * Find the most recent exchange rate for a currency pair quoted at or before a given time.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param at the point in time
+     * @return Optional containing the rate in effect at that time if found
+     */
+    Optional<ExchangeRate> findFirstByBaseCurrencyAndTargetCurrencyAndTimestampLessThanEqualOrderByTimestampDescIdDesc(
+        String baseCurrency,
+        String targetCurrency,
+        LocalDateTime at
+    );
+
+    /**
+     * Find the most recent exchange rate from a specific provider for a currency pair.
+     * Used to seed change detection before new quotes are stored.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param provider the provider name
+     * @return Optional containing the provider's most recent rate if found
+     */
+    Optional<ExchangeRate> findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+        String baseCurrency,
+        String targetCurrency,
+        String provider
+    );
+
     /**
      * Find all exchange rates for a currency pair within a time range.
      *
@@ -75,34 +139,62 @@ public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long
     );
 
     /**
-     * Find the best (lowest) rate for a currency pair from all providers at the latest timestamp.
+     * Find all rates for a currency pair, ordered by timestamp descending.
+     * Loads the whole history of the pair; use {@link #findHistoryPage} or
+     * {@link com.example.aidemo1.service.RateHistoryService#streamHistory} instead.
      *
      * @param baseCurrency the base currency code
      * @param targetCurrency the target currency code
-     * @return Optional containing the best rate if found
+     * @return list of all rates for the currency pair, most recent first
+     * @deprecated unbounded; page or stream the history instead
      */
-    // NOTE: JPQL does not support LIMIT. To ensure only one result is returned, implement this query in a custom repository using setMaxResults(1).
-    @Query("SELECT e FROM ExchangeRate e WHERE e.baseCurrency = :base AND e.targetCurrency = :target " +
-           "AND e.timestamp = (SELECT MAX(e2.timestamp) FROM ExchangeRate e2 WHERE e2.baseCurrency = :base AND e2.targetCurrency = :target) " +
-           "ORDER BY e.rate ASC")
-    Optional<ExchangeRate> findBestRate(@Param("base") String baseCurrency,
-                                       @Param("target") String targetCurrency);
+    @Deprecated
+    List<ExchangeRate> findByBaseCurrencyAndTargetCurrencyOrderByTimestampDesc(
+        String baseCurrency,
+        String targetCurrency
+    );
 
     /**
-     * Find all rates for a currency pair, ordered by timestamp descending.
+     * Find the first page of a currency pair's history, most recent first.
      *
      * @param baseCurrency the base currency code
      * @param targetCurrency the target currency code
-     * @return list of all rates for the currency pair, most recent first
+     * @param limit the page size
+     * @return up to {@code limit} rates, ordered by timestamp and id descending
      */
-    List<ExchangeRate> findByBaseCurrencyAndTargetCurrencyOrderByTimestampDesc(
+    List<ExchangeRate> findByBaseCurrencyAndTargetCurrencyOrderByTimestampDescIdDesc(
         String baseCurrency,
-        String targetCurrency
+        String targetCurrency,
+        Limit limit
     );
 
+    /**
+     * Find the page of a currency pair's history that follows a given row (keyset pagination).
+     * The position is given by the (timestamp, id) of the last row of the previous page, so
+     * every page is an index range scan on (base_currency_id, target_currency_id, timestamp)
+     * regardless of how deep it is.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param timestamp the timestamp of the last row of the previous page
+     * @param id the id of the last row of the previous page
+     * @param limit the page size
+     * @return up to {@code limit} older rates, ordered by timestamp and id descending
+     */
+    @Query("SELECT e FROM ExchangeRate e WHERE e.baseCurrency = :base AND e.targetCurrency = :target " +
+           "AND (e.timestamp < :timestamp OR (e.timestamp = :timestamp AND e.id < :id)) " +
+           "ORDER BY e.timestamp DESC, e.id DESC")
+    List<ExchangeRate> findHistoryPage(@Param("base") String baseCurrency,
+                                       @Param("target") String targetCurrency,
+                                       @Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") Long id,
+                                       Limit limit);
+
     /**
      * Delete all rates older than a specified time.
-     * Useful for cleaning up old historical data.
+     * Deletes row by row; on a partitioned PostgreSQL table, retention is handled by
+     * {@link com.example.aidemo1.persistence.ExchangeRatePartitionManager}, which drops
+     * whole partitions instead.
      *
      * @param cutoffTime the cutoff time
      */
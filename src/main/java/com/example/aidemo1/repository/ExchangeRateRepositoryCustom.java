@@ -0,0 +1,40 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Best-rate queries over the exchange rate history.
+ * The best current rate of a pair is the lowest rate among the quotes with the
+ * pair's newest timestamp.
+ */
+public interface ExchangeRateRepositoryCustom {
+
+    /**
+     * Find the best current rate for a currency pair.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @return Optional containing the best rate if the pair has any rates
+     */
+    Optional<ExchangeRate> findBestRate(String baseCurrency, String targetCurrency);
+
+    /**
+     * Find the best current rate for each of the given currency pairs in one query.
+     *
+     * @param pairs the currency pairs
+     * @return one rate per pair that has rates, ordered by base and target currency
+     */
+    List<ExchangeRate> findBestRates(Collection<CurrencyPair> pairs);
+
+    /**
+     * Find the best current rate for every currency pair in one query.
+     *
+     * @return one rate per stored pair, ordered by base and target currency
+     */
+    List<ExchangeRate> findAllBestRates();
+}
@@ -0,0 +1,100 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based best-rate queries for {@link ExchangeRateRepository}.
+ *
+ * <p>All queries walk {@code idx_exchange_rate_best}, which orders a pair's rows by
+ * {@code timestamp DESC, rate_value ASC} and covers every mapped column of
+ * {@code exchange_rate}, so the first index entry of a pair is its best current
+ * rate and is read without visiting the table:</p>
+ * <ul>
+ *   <li>one pair: the first row in index order ({@code setMaxResults(1)})</li>
+ *   <li>a list of pairs: one {@code LATERAL ... LIMIT 1} probe per pair</li>
+ *   <li>all pairs: {@code DISTINCT ON (base_currency_id, target_currency_id)} over the index</li>
+ * </ul>
+ *
+ * <p>The native queries translate currency codes through the {@code currency_code}
+ * dictionary; the results are mapped to entities, whose converters decode the rows.
+ * The list and all-pairs queries are PostgreSQL-specific. They select the mapped
+ * columns only, so they stay covered while changelog 019 keeps the legacy columns.</p>
+ *
+ * <p>The index is built on the compact columns by changelog 019 (as
+ * {@code idx_exchange_rate_best_ids}, renamed by changelog 020). It replaces the index
+ * changelog 018 used to build on the legacy columns, which 020 drops with them.</p>
+ */
+public class ExchangeRateRepositoryImpl implements ExchangeRateRepositoryCustom {
+
+    private static final String BEST_RATE_JPQL =
+            "SELECT e FROM ExchangeRate e WHERE e.baseCurrency = :base AND e.targetCurrency = :target "
+            + "ORDER BY e.timestamp DESC, e.rate ASC";
+
+    private static final String COLUMNS =
+            "id, base_currency_id, target_currency_id, rate_value, provider_id, timestamp";
+
+    static final String BEST_RATES_SQL =
+            "SELECT r.* FROM (VALUES %s) AS p (base_currency, target_currency) "
+            + "JOIN currency_code b ON b.code = p.base_currency "
+            + "JOIN currency_code t ON t.code = p.target_currency "
+            + "CROSS JOIN LATERAL (SELECT " + COLUMNS + " FROM exchange_rate e "
+            + "WHERE e.base_currency_id = b.id AND e.target_currency_id = t.id "
+            + "ORDER BY e.timestamp DESC, e.rate_value ASC LIMIT 1) r "
+            + "ORDER BY p.base_currency, p.target_currency";
+
+    static final String ALL_BEST_RATES_SQL =
+            "SELECT r.* FROM (SELECT DISTINCT ON (base_currency_id, target_currency_id) " + COLUMNS
+            + " FROM exchange_rate "
+            + "ORDER BY base_currency_id, target_currency_id, timestamp DESC, rate_value ASC) r "
+            + "JOIN currency_code b ON b.id = r.base_currency_id "
+            + "JOIN currency_code t ON t.id = r.target_currency_id "
+            + "ORDER BY b.code, t.code";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<ExchangeRate> findBestRate(String baseCurrency, String targetCurrency) {
+        return entityManager.createQuery(BEST_RATE_JPQL, ExchangeRate.class)
+                .setParameter("base", baseCurrency)
+                .setParameter("target", targetCurrency)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ExchangeRate> findBestRates(Collection<CurrencyPair> pairs) {
+        if (pairs.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < pairs.size(); i++) {
+            values.append(i == 0 ? "" : ", ").append("(CAST(?").append(2 * i + 1)
+                    .append(" AS VARCHAR(3)), CAST(?").append(2 * i + 2).append(" AS VARCHAR(3)))");
+        }
+        Query query = entityManager.createNativeQuery(String.format(BEST_RATES_SQL, values), ExchangeRate.class);
+        int position = 1;
+        for (CurrencyPair pair : pairs) {
+            query.setParameter(position++, pair.base());
+            query.setParameter(position++, pair.target());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ExchangeRate> findAllBestRates() {
+        return entityManager.createNativeQuery(ALL_BEST_RATES_SQL, ExchangeRate.class).getResultList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.entity.ExchangeRateRollup;
+import com.example.aidemo1.rollup.RollupGranularity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Repository interface for ExchangeRateRollup entity.
+ * Rollups are written by {@link com.example.aidemo1.rollup.ExchangeRateRollupWriter}
+ * with native upserts; this repository only reads them.
+ */
+@Repository
+public interface ExchangeRateRollupRepository extends JpaRepository<ExchangeRateRollup, Long> {
+
+    /**
+     * Stream the rollups of a currency pair at one granularity within a time range.
+     * Served by the {@code uk_exchange_rate_rollup_bucket} index. Rows are fetched in
+     * batches and not kept in the persistence context, so the stream must be consumed
+     * inside a transaction and closed afterwards.
+     *
+     * @param baseCurrency the base currency code
+     * @param targetCurrency the target currency code
+     * @param granularity the rollup granularity
+     * @param start the first bucket start (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return the rollups, ordered by bucket start ascending
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM ExchangeRateRollup r WHERE r.baseCurrency = :base AND r.targetCurrency = :target " +
+           "AND r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end " +
+           "ORDER BY r.bucketStart ASC")
+    Stream<ExchangeRateRollup> streamBuckets(@Param("base") String baseCurrency,
+                                             @Param("target") String targetCurrency,
+                                             @Param("granularity") RollupGranularity granularity,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,19 @@
+package com.example.aidemo1.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a currency for listings, selected directly into this record
+ * instead of materializing a managed entity.
+ *
+ * @param code      the currency code (ISO 4217)
+ * @param name      the human-readable name
+ * @param createdAt when the currency was created
+ * @param updatedAt when the currency was last updated
+ */
+public record CurrencySummary(
+        String code,
+        String name,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
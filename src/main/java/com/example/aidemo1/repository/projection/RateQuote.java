@@ -0,0 +1,35 @@
+package com.example.aidemo1.repository.projection;
+
+import com.example.aidemo1.entity.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of one stored rate: the columns a conversion needs, selected
+ * directly into this record instead of materializing a managed entity.
+ *
+ * @param baseCurrency   the base currency code
+ * @param targetCurrency the target currency code
+ * @param rate           the exchange rate
+ * @param provider       the provider that quoted the rate
+ * @param timestamp      when the rate was quoted
+ */
+public record RateQuote(
+        String baseCurrency,
+        String targetCurrency,
+        BigDecimal rate,
+        String provider,
+        LocalDateTime timestamp) {
+
+    /**
+     * Creates the quote of a rate that is already loaded, e.g. one just fetched from the providers.
+     *
+     * @param rate the rate
+     * @return its quote
+     */
+    public static RateQuote of(ExchangeRate rate) {
+        return new RateQuote(rate.getBaseCurrency(), rate.getTargetCurrency(), rate.getRate(),
+                rate.getProvider(), rate.getTimestamp());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.aidemo1.rollup;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Maintains {@code exchange_rate_rollup} incrementally as rates are stored.
+ *
+ * <p>A batch of stored rates is folded in memory into one partial summary per
+ * (pair, granularity, bucket), and every summary is merged into its row with a
+ * single upsert: high/low take the extremes, open/close the quote with the
+ * earliest/latest timestamp, sample counts add up and provider lists are unioned.
+ * A refresh batch of N pairs therefore costs at most 3N upserts, independent of
+ * the number of providers.</p>
+ *
+ * <p>Called by the {@link com.example.aidemo1.persistence.TransactionalExchangeRateWriter}
+ * inside the transaction that stores the rates, so rollups and raw rows commit together.</p>
+ *
+ * <p>Enabled via {@code exchange.rollup.enabled}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.rollup.enabled", havingValue = "true")
+public class ExchangeRateRollupWriter {
+
+    static final String MERGED_PROVIDERS =
+            "ARRAY(SELECT DISTINCT p FROM unnest(string_to_array(r.providers, ',') "
+            + "|| string_to_array(EXCLUDED.providers, ',')) AS p ORDER BY p)";
+
+    static final String UPSERT_SQL =
+            "INSERT INTO exchange_rate_rollup AS r (base_currency, target_currency, granularity, bucket_start, "
+            + "open_rate, high_rate, low_rate, close_rate, open_at, close_at, sample_count, providers, provider_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (base_currency, target_currency, granularity, bucket_start) DO UPDATE SET "
+            + "open_rate = CASE WHEN EXCLUDED.open_at < r.open_at THEN EXCLUDED.open_rate ELSE r.open_rate END, "
+            + "open_at = LEAST(r.open_at, EXCLUDED.open_at), "
+            + "close_rate = CASE WHEN EXCLUDED.close_at >= r.close_at THEN EXCLUDED.close_rate ELSE r.close_rate END, "
+            + "close_at = GREATEST(r.close_at, EXCLUDED.close_at), "
+            + "high_rate = GREATEST(r.high_rate, EXCLUDED.high_rate), "
+            + "low_rate = LEAST(r.low_rate, EXCLUDED.low_rate), "
+            + "sample_count = r.sample_count + EXCLUDED.sample_count, "
+            + "providers = array_to_string(" + MERGED_PROVIDERS + ", ','), "
+            + "provider_count = cardinality(" + MERGED_PROVIDERS + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExchangeRateRollupWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Merges stored rates into their minute, hour and day rollups.
+     *
+     * @param rates the stored rates
+     */
+    public void record(List<ExchangeRate> rates) {
+        if (rates.isEmpty()) {
+            return;
+        }
+
+        Collection<Bucket> buckets = summarize(rates);
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            rows.add(bucket.toRow());
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        log.debug("Merged {} rates into {} rollup buckets", rates.size(), rows.size());
+    }
+
+    /**
+     * Folds rates into one partial summary per pair, granularity and bucket.
+     *
+     * @param rates the rates
+     * @return the partial summaries
+     */
+    static Collection<Bucket> summarize(List<ExchangeRate> rates) {
+        Map<BucketKey, Bucket> buckets = new LinkedHashMap<>();
+        for (ExchangeRate rate : rates) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                BucketKey key = new BucketKey(rate.getBaseCurrency(), rate.getTargetCurrency(), granularity,
+                        granularity.bucketStart(rate.getTimestamp()));
+                buckets.computeIfAbsent(key, Bucket::new).add(rate);
+            }
+        }
+        return buckets.values();
+    }
+
+    record BucketKey(String base, String target, RollupGranularity granularity, LocalDateTime bucketStart) {
+    }
+
+    /**
+     * Partial OHLC summary of one bucket.
+     */
+    static final class Bucket {
+
+        private final BucketKey key;
+        private final TreeSet<String> providers = new TreeSet<>();
+        private BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private LocalDateTime openAt;
+        private LocalDateTime closeAt;
+        private long samples;
+
+        Bucket(BucketKey key) {
+            this.key = key;
+        }
+
+        void add(ExchangeRate rate) {
+            BigDecimal value = rate.getRate();
+            LocalDateTime at = rate.getTimestamp();
+            if (openAt == null || at.isBefore(openAt)) {
+                open = value;
+                openAt = at;
+            }
+            if (closeAt == null || !at.isBefore(closeAt)) {
+                close = value;
+                closeAt = at;
+            }
+            high = high == null ? value : high.max(value);
+            low = low == null ? value : low.min(value);
+            providers.add(rate.getProvider());
+            samples++;
+        }
+
+        BucketKey key() {
+            return key;
+        }
+
+        BigDecimal open() {
+            return open;
+        }
+
+        BigDecimal high() {
+            return high;
+        }
+
+        BigDecimal low() {
+            return low;
+        }
+
+        BigDecimal close() {
+            return close;
+        }
+
+        long samples() {
+            return samples;
+        }
+
+        int providerCount() {
+            return providers.size();
+        }
+
+        Object[] toRow() {
+            return new Object[] {
+                key.base(), key.target(), key.granularity().name(), Timestamp.valueOf(key.bucketStart()),
+                open, high, low, close, Timestamp.valueOf(openAt), Timestamp.valueOf(closeAt),
+                samples, String.join(",", providers), providers.size()
+            };
+        }
+    }
+}
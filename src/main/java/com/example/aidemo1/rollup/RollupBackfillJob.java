@@ -0,0 +1,208 @@
+package com.example.aidemo1.rollup;
+
+import com.example.aidemo1.cluster.RefreshCycleGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@code exchange_rate_rollup} rows from existing {@code exchange_rate} history.
+ *
+ * <p>The backfill aggregates raw rows in SQL one calendar month at a time, each month
+ * in its own transaction, so it reads one {@code exchange_rate} partition per step and
+ * can be interrupted and rerun. Buckets that are still open - those containing the
+ * current time - are left to the incremental {@link ExchangeRateRollupWriter}. Closed
+ * buckets are merged with existing rows the same way the writer merges them, so a
+ * late incremental upsert running concurrently is never overwritten.</p>
+ *
+ * <p>Every month whose buckets are all closed is recorded in
+ * {@code rollup_backfill_progress} (changelog 021) in the same transaction as its
+ * rollups. With {@code exchange.rollup.backfill-on-startup}, each startup backfills in
+ * the background the months of the stored history that are not recorded yet, so a
+ * backfill interrupted by a restart resumes after its last finished month, and
+ * incremental rollups written in the meantime do not hide the missing history. The
+ * startup backfill runs through the {@link RefreshCycleGuard}, so with several
+ * replicas only one of them performs it.</p>
+ *
+ * <p>Enabled via {@code exchange.rollup.enabled}; requires PostgreSQL.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.rollup.enabled", havingValue = "true")
+public class RollupBackfillJob {
+
+    static final String BACKFILL_SQL =
+            "INSERT INTO exchange_rate_rollup AS r (base_currency, target_currency, granularity, bucket_start, "
+            + "open_rate, high_rate, low_rate, close_rate, open_at, close_at, sample_count, providers, provider_count) "
+            + "SELECT b.code, t.code, ?, date_trunc(?, e.timestamp) AS bucket, "
+            // rate_value is the rate times 10^6 (ScaledRateConverter)
+            + "(array_agg(e.rate_value ORDER BY e.timestamp, e.id))[1] * 0.000001, "
+            + "MAX(e.rate_value) * 0.000001, MIN(e.rate_value) * 0.000001, "
+            + "(array_agg(e.rate_value ORDER BY e.timestamp DESC, e.id DESC))[1] * 0.000001, "
+            + "MIN(e.timestamp), MAX(e.timestamp), COUNT(*), "
+            + "string_agg(DISTINCT p.name, ',' ORDER BY p.name), COUNT(DISTINCT e.provider_id) "
+            + "FROM exchange_rate e "
+            + "JOIN currency_code b ON b.id = e.base_currency_id "
+            + "JOIN currency_code t ON t.id = e.target_currency_id "
+            + "JOIN rate_provider p ON p.id = e.provider_id "
+            + "WHERE e.timestamp >= ? AND e.timestamp < ? "
+            + "GROUP BY b.code, t.code, bucket "
+            + "ON CONFLICT (base_currency, target_currency, granularity, bucket_start) DO UPDATE SET "
+            + "open_rate = CASE WHEN EXCLUDED.open_at < r.open_at THEN EXCLUDED.open_rate ELSE r.open_rate END, "
+            + "open_at = LEAST(r.open_at, EXCLUDED.open_at), "
+            + "close_rate = CASE WHEN EXCLUDED.close_at >= r.close_at THEN EXCLUDED.close_rate ELSE r.close_rate END, "
+            + "close_at = GREATEST(r.close_at, EXCLUDED.close_at), "
+            + "high_rate = GREATEST(r.high_rate, EXCLUDED.high_rate), "
+            + "low_rate = LEAST(r.low_rate, EXCLUDED.low_rate), "
+            // The backfill counts every stored row of the bucket, the incremental rows included
+            + "sample_count = GREATEST(r.sample_count, EXCLUDED.sample_count), "
+            + "providers = array_to_string(" + ExchangeRateRollupWriter.MERGED_PROVIDERS + ", ','), "
+            + "provider_count = cardinality(" + ExchangeRateRollupWriter.MERGED_PROVIDERS + ")";
+
+    static final String CYCLE_NAME = "rollup-backfill";
+
+    static final String MARK_COMPLETED_SQL =
+            "INSERT INTO rollup_backfill_progress (month, completed_at) VALUES (?, ?) "
+            + "ON CONFLICT (month) DO UPDATE SET completed_at = EXCLUDED.completed_at";
+
+    private static final String OLDEST_RATE_SQL = "SELECT MIN(timestamp) FROM exchange_rate";
+    private static final String COMPLETED_MONTHS_SQL = "SELECT month FROM rollup_backfill_progress";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RefreshCycleGuard refreshCycleGuard;
+    private final boolean backfillOnStartup;
+
+    public RollupBackfillJob(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            RefreshCycleGuard refreshCycleGuard,
+            @Value("${exchange.rollup.backfill-on-startup:false}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.refreshCycleGuard = refreshCycleGuard;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    /**
+     * Starts a background backfill of the months not backfilled yet. Only the node that
+     * wins the cluster guard backfills; the others skip it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                // The recorded progress decides; a zero interval only serializes the nodes
+                refreshCycleGuard.runIfDue(CYCLE_NAME, Duration.ZERO, this::backfillPending);
+            } catch (RuntimeException e) {
+                log.error("Rollup backfill failed: {}", e.getMessage(), e);
+            }
+        }, "rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Backfills rollups for the months of the stored history not recorded as completed.
+     *
+     * @return the number of months processed
+     */
+    public int backfillPending() {
+        return backfillPending(LocalDateTime.now());
+    }
+
+    int backfillPending(LocalDateTime now) {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_RATE_SQL, Timestamp.class);
+        if (oldest == null) {
+            log.info("No exchange rates stored, nothing to backfill");
+            return 0;
+        }
+        Set<YearMonth> completed = jdbcTemplate.queryForList(COMPLETED_MONTHS_SQL, Date.class).stream()
+                .map(month -> YearMonth.from(month.toLocalDate()))
+                .collect(Collectors.toSet());
+        int months = 0;
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); !month.isAfter(YearMonth.from(now));
+                month = month.plusMonths(1)) {
+            if (!completed.contains(month)) {
+                months += backfill(month, month, now);
+            }
+        }
+        if (months == 0) {
+            log.debug("Rollups of all stored months are backfilled already");
+        }
+        return months;
+    }
+
+    /**
+     * Backfills rollups for a range of months, one transaction per month. Months whose
+     * buckets are all closed are recorded as completed in the same transaction.
+     *
+     * @param firstMonth the first month to backfill
+     * @param lastMonth  the last month to backfill, inclusive
+     * @return the number of months processed
+     */
+    public int backfill(YearMonth firstMonth, YearMonth lastMonth) {
+        return backfill(firstMonth, lastMonth, LocalDateTime.now());
+    }
+
+    int backfill(YearMonth firstMonth, YearMonth lastMonth, LocalDateTime now) {
+        int months = 0;
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            YearMonth backfilled = month;
+            Integer rows = transactionTemplate.execute(status -> {
+                int upserted = backfillRange(from, to, now);
+                if (isClosed(to, now)) {
+                    jdbcTemplate.update(MARK_COMPLETED_SQL, Date.valueOf(backfilled.atDay(1)), Timestamp.valueOf(now));
+                }
+                return upserted;
+            });
+            log.info("Backfilled {} rollup rows for {}", rows, month);
+            months++;
+        }
+        return months;
+    }
+
+    /**
+     * Tells whether every bucket before an instant is closed, so backfilling up to it is final.
+     */
+    private static boolean isClosed(LocalDateTime to, LocalDateTime now) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (to.isAfter(granularity.bucketStart(now))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int backfillRange(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        int rows = 0;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            // Stop before the open bucket, which the incremental writer is still filling
+            LocalDateTime until = granularity.bucketStart(now);
+            LocalDateTime end = to.isBefore(until) ? to : until;
+            if (end.isAfter(from)) {
+                rows += jdbcTemplate.update(BACKFILL_SQL, granularity.name(), granularity.getSqlUnit(),
+                        Timestamp.valueOf(from), Timestamp.valueOf(end));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.aidemo1.rollup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket size of an {@code exchange_rate_rollup} row.
+ */
+public enum RollupGranularity {
+
+    MINUTE(ChronoUnit.MINUTES, "minute"),
+    HOUR(ChronoUnit.HOURS, "hour"),
+    DAY(ChronoUnit.DAYS, "day");
+
+    private final ChronoUnit unit;
+    private final String sqlUnit;
+
+    RollupGranularity(ChronoUnit unit, String sqlUnit) {
+        this.unit = unit;
+        this.sqlUnit = sqlUnit;
+    }
+
+    /**
+     * Returns the start of the bucket containing a timestamp.
+     *
+     * @param timestamp the timestamp
+     * @return the bucket start
+     */
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    /**
+     * Returns the length of one bucket.
+     *
+     * @return the bucket length
+     */
+    public Duration getBucketLength() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Returns the coarsest granularity whose buckets tile an interval exactly,
+     * e.g. HOUR for four hours and DAY for a week.
+     *
+     * @param interval the interval, a positive whole number of minutes
+     * @return the coarsest granularity dividing the interval
+     * @throws IllegalArgumentException if the interval is not a positive whole number of minutes
+     */
+    public static RollupGranularity coarsestFor(Duration interval) {
+        RollupGranularity[] granularities = values();
+        for (int i = granularities.length - 1; i >= 0; i--) {
+            Duration length = granularities[i].getBucketLength();
+            if (interval.compareTo(length) >= 0 && interval.toNanos() % length.toNanos() == 0) {
+                return granularities[i];
+            }
+        }
+        throw new IllegalArgumentException("Granularity must be a positive whole number of minutes: " + interval);
+    }
+
+    /**
+     * Returns the PostgreSQL {@code date_trunc} field for this granularity.
+     *
+     * @return the field name
+     */
+    public String getSqlUnit() {
+        return sqlUnit;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.cluster.RefreshCycleGuard;
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.DemandTier;
+import com.example.aidemo1.service.refresh.PairAccessTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Demand-driven replacement for the hourly full refresh.
+ *
+ * <p>Instead of refreshing all N² pairs every hour, this scheduler refreshes pairs
+ * according to how often they are converted, as tracked by {@link PairAccessTracker}.</p>
+ *
+ * <h2>Tiers</h2>
+ * <ul>
+ *   <li><strong>Hot:</strong> refreshed on every tick (default every 5 minutes)</li>
+ *   <li><strong>Warm:</strong> refreshed every {@code warm-interval-ticks} ticks (default 12, i.e. hourly).
+ *       A pair that is warm on any tick is kept until the next warm refresh, so it is
+ *       refreshed even if its score has decayed by the time that refresh is due.</li>
+ *   <li><strong>Cold:</strong> not refreshed; a conversion that finds no rate younger than
+ *       one hour fetches it from the providers, as before</li>
+ * </ul>
+ *
+ * <h2>Multiple Replicas</h2>
+ * <p>Each tick goes through the {@link RefreshCycleGuard}, like the full refresh.
+ * Every node checks every {@code exchange.refresh.demand.check-interval-ms}, and a
+ * tick that is due runs on the one node that holds the cluster-wide lock, using that
+ * node's conversion counts. Conversions on other nodes still fetch a stale pair's
+ * rate themselves, so their demand is served, just not refreshed ahead of time.</p>
+ *
+ * <p>Active when {@code exchange.refresh.mode=demand}, as shipped in
+ * {@code application.properties}. Without the property the mode is {@code full}
+ * and {@link ExchangeRateScheduler} runs instead.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.refresh.mode", havingValue = "demand")
+public class DemandRefreshScheduler {
+
+    private static final String CYCLE_NAME = "demand-refresh";
+
+    private final ExchangeRateService exchangeRateService;
+    private final PairAccessTracker pairAccessTracker;
+    private final RefreshCycleGuard refreshCycleGuard;
+    private final int warmIntervalTicks;
+    private final Duration tickInterval;
+    private final Set<CurrencyPair> pendingWarm = new LinkedHashSet<>();
+
+    private long tick;
+
+    /**
+     * Constructs the scheduler with required dependencies.
+     *
+     * @param exchangeRateService service for refreshing exchange rates
+     * @param pairAccessTracker   per-pair conversion counters
+     * @param refreshCycleGuard   decides whether this node runs a tick
+     * @param warmIntervalTicks   ticks between refreshes of warm pairs
+     * @param tickMs              time between two ticks
+     */
+    public DemandRefreshScheduler(ExchangeRateService exchangeRateService,
+                                  PairAccessTracker pairAccessTracker,
+                                  RefreshCycleGuard refreshCycleGuard,
+                                  @Value("${exchange.refresh.demand.warm-interval-ticks:12}") int warmIntervalTicks,
+                                  @Value("${exchange.refresh.demand.tick-ms:300000}") long tickMs) {
+        if (warmIntervalTicks < 1) {
+            throw new IllegalArgumentException("Warm interval must be at least one tick");
+        }
+        this.exchangeRateService = exchangeRateService;
+        this.pairAccessTracker = pairAccessTracker;
+        this.refreshCycleGuard = refreshCycleGuard;
+        this.warmIntervalTicks = warmIntervalTicks;
+        this.tickInterval = Duration.ofMillis(tickMs);
+        log.info("DemandRefreshScheduler initialized. Warm pairs refreshed every {} ticks.", warmIntervalTicks);
+    }
+
+    /**
+     * Runs a tick if one is due and no other node runs it.
+     */
+    @Scheduled(fixedRateString = "${exchange.refresh.demand.check-interval-ms:${exchange.refresh.demand.tick-ms:300000}}",
+            initialDelayString = "${exchange.refresh.demand.tick-ms:300000}")
+    public void refreshByDemand() {
+        try {
+            OptionalInt refreshed = refreshCycleGuard.runIfDue(CYCLE_NAME, tickInterval, this::runTick);
+            if (refreshed.isEmpty()) {
+                log.debug("Demand refresh tick skipped on this node");
+            }
+        } catch (Exception e) {
+            log.error("Demand refresh failed: {}", e.getMessage(), e);
+            // Do not rethrow - allow scheduler to continue running
+        }
+    }
+
+    /**
+     * Refreshes hot pairs, and warm pairs when their interval is due.
+     *
+     * @return the number of refreshed pairs
+     */
+    private int runTick() {
+        Map<DemandTier, List<CurrencyPair>> tiers = pairAccessTracker.rollTiers();
+        List<CurrencyPair> hot = tiers.getOrDefault(DemandTier.HOT, List.of());
+        List<CurrencyPair> warm = tiers.getOrDefault(DemandTier.WARM, List.of());
+        boolean warmDue = tick++ % warmIntervalTicks == 0;
+        pendingWarm.addAll(warm);
+        hot.forEach(pendingWarm::remove);
+
+        List<CurrencyPair> due = new ArrayList<>(hot);
+        int warmCount = pendingWarm.size();
+        if (warmDue) {
+            due.addAll(pendingWarm);
+            pendingWarm.clear();
+        }
+        if (due.isEmpty()) {
+            log.debug("Demand refresh tick: no pairs due (hot {}, warm {})", hot.size(), warmCount);
+            return 0;
+        }
+
+        int refreshed = exchangeRateService.refreshPairs(due);
+        log.info("Demand refresh: {} of {} pairs refreshed (hot {}, warm {}{})",
+                refreshed, due.size(), hot.size(), warmCount, warmDue ? "" : " deferred");
+        return refreshed;
+    }
+}
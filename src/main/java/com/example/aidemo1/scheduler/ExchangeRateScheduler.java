@@ -1,12 +1,16 @@
 package com.example.aidemo1.scheduler;
 
+import com.example.aidemo1.cluster.RefreshCycleGuard;
 import com.example.aidemo1.service.ExchangeRateService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.OptionalInt;
 
 /**
  * Scheduled task for refreshing exchange rates from external providers.
@@ -17,11 +21,18 @@ import java.time.format.DateTimeFormatter;
  *
  * <h2>Schedule Configuration</h2>
  * <ul>
- *   <li><strong>Frequency:</strong> Every hour (0 0 * * * *)</li>
- *   <li><strong>Initial Delay:</strong> 60 seconds after application startup</li>
+ *   <li><strong>Frequency:</strong> One cycle per hour, checked every {@code exchange.refresh.full.check-interval-ms}</li>
+ *   <li><strong>Initial Delay:</strong> 10 seconds after application startup</li>
  *   <li><strong>Thread Pool:</strong> Configured in application.properties (pool size: 5)</li>
  * </ul>
  *
+ * <h2>Multiple Replicas</h2>
+ * <p>Each run goes through a {@link RefreshCycleGuard}. With
+ * {@code exchange.refresh.cluster.enabled} the scheduler checks every
+ * {@code exchange.refresh.full.check-interval-ms} and only the node holding the
+ * cluster-wide lock runs a cycle that is due, so replicas do not repeat each
+ * other's provider calls and writes.</p>
+ *
  * <h2>Error Handling</h2>
  * <p>Exceptions are caught and logged to prevent the scheduler from stopping.
  * If a refresh fails, the scheduler will retry on the next scheduled execution.</p>
@@ -35,44 +46,63 @@ import java.time.format.DateTimeFormatter;
  *   <li>If error occurs, log the exception and continue</li>
  * </ol>
  *
+ * <p>Active in the default refresh mode {@code exchange.refresh.mode=full};
+ * {@link DemandRefreshScheduler} and {@link ShardedRefreshScheduler} replace it
+ * in {@code demand} and {@code sharded} mode.</p>
+ *
  * @see ExchangeRateService#refreshAllRates()
  * @see Scheduled
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "exchange.refresh.mode", havingValue = "full", matchIfMissing = true)
 public class ExchangeRateScheduler {
 
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private static final String CYCLE_NAME = "full-refresh";
+    private static final Duration REFRESH_INTERVAL = Duration.ofHours(1);
+
     private final ExchangeRateService exchangeRateService;
+    private final RefreshCycleGuard refreshCycleGuard;
 
     /**
      * Constructs the scheduler with required dependencies.
      *
      * @param exchangeRateService service for refreshing exchange rates
+     * @param refreshCycleGuard decides whether this node runs a cycle
      */
-    public ExchangeRateScheduler(ExchangeRateService exchangeRateService) {
+    public ExchangeRateScheduler(ExchangeRateService exchangeRateService, RefreshCycleGuard refreshCycleGuard) {
         this.exchangeRateService = exchangeRateService;
-        log.info("ExchangeRateScheduler initialized. Scheduled to run every hour at the top of the hour.");
+        this.refreshCycleGuard = refreshCycleGuard;
+        log.info("ExchangeRateScheduler initialized. Full refresh cycles run every {}.", REFRESH_INTERVAL);
     }
 
     /**
      * Scheduled task to refresh all exchange rates.
      *
-     * <p>This method runs every hour (3600000ms) with an initial delay of 10 seconds after startup.</p>
+     * <p>This method runs every {@code check-interval-ms} with an initial delay of 10 seconds
+     * after startup; the guard skips cycles that are not due or are running elsewhere.</p>
      *
      * <p>Note: By default, Spring's @Scheduled annotation runs tasks sequentially
      * in a single thread, so concurrent executions are prevented automatically.</p>
      */
-    @Scheduled(fixedRate = 3600000, initialDelay = 10000) // Every hour, starting 10 seconds after startup
+    @Scheduled(fixedRateString = "${exchange.refresh.full.check-interval-ms:3600000}", initialDelay = 10000)
     public void refreshExchangeRates() {
         LocalDateTime startTime = LocalDateTime.now();
-        log.info("=== Starting scheduled exchange rate refresh at {} ===",
-                startTime.format(TIME_FORMATTER));
 
         try {
-            // Call the service to refresh all rates
-            int refreshedCount = exchangeRateService.refreshAllRates();
+            // Call the service to refresh all rates, unless another node runs this cycle
+            OptionalInt result = refreshCycleGuard.runIfDue(CYCLE_NAME, REFRESH_INTERVAL, () -> {
+                log.info("=== Starting scheduled exchange rate refresh at {} ===",
+                        startTime.format(TIME_FORMATTER));
+                return exchangeRateService.refreshAllRates();
+            });
+            if (result.isEmpty()) {
+                log.debug("Scheduled exchange rate refresh skipped on this node");
+                return;
+            }
+            int refreshedCount = result.getAsInt();
 
             LocalDateTime endTime = LocalDateTime.now();
             long durationSeconds = java.time.Duration.between(startTime, endTime).getSeconds();
@@ -90,7 +120,7 @@ public class ExchangeRateScheduler {
             log.error("Error occurred at: {}", errorTime.format(TIME_FORMATTER));
             log.error("Duration before failure: {} seconds", durationSeconds);
             log.error("Error details: {}", e.getMessage(), e);
-            log.warn("Scheduler will retry on next scheduled execution (in 1 hour)");
+            log.warn("Scheduler will retry when the next cycle is due");
 
             // Do not rethrow - allow scheduler to continue running
         }
@@ -0,0 +1,113 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.entity.Currency;
+import com.example.aidemo1.repository.CurrencyRepository;
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.CurrencyAddedEvent;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.RefreshPriority;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches the rates of newly added currencies right after they are committed.
+ *
+ * <p>Without this, a new currency has no rates until the next refresh cycle, and
+ * the only way to get them sooner is a full refresh of all N² pairs. Instead, each
+ * {@link CurrencyAddedEvent} triggers a refresh of only the pairs that involve the
+ * new codes: 2(N−1) pairs for a single new currency.</p>
+ *
+ * <p>The refresh runs asynchronously on its own thread, so the add request returns
+ * immediately, and with {@link RefreshPriority#HIGH}, so it does not queue behind
+ * a running full cycle.</p>
+ */
+@Slf4j
+@Component
+public class NewCurrencyRefreshListener {
+
+    private final ExchangeRateService exchangeRateService;
+    private final CurrencyRepository currencyRepository;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs the listener with required dependencies.
+     *
+     * @param exchangeRateService service for refreshing exchange rates
+     * @param currencyRepository  repository for the currently supported currencies
+     */
+    public NewCurrencyRefreshListener(ExchangeRateService exchangeRateService,
+                                      CurrencyRepository currencyRepository) {
+        this.exchangeRateService = exchangeRateService;
+        this.currencyRepository = currencyRepository;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "currency-added-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the refresh of the new currencies' pairs once the add has committed.
+     *
+     * @param event the added currencies
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCurrencyAdded(CurrencyAddedEvent event) {
+        log.info("Currencies {} added, scheduling refresh of their pairs", event.codes());
+        executor.execute(() -> refreshNewPairs(event.codes()));
+    }
+
+    /**
+     * Stops the refresh thread, interrupting a running refresh.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Refreshes every pair between the new currencies and all supported currencies, in both directions.
+     *
+     * @param newCodes the added currency codes
+     * @return the number of currency pairs successfully refreshed
+     */
+    int refreshNewPairs(List<String> newCodes) {
+        List<String> allCodes = currencyRepository.findAllByOrderByCodeAsc().stream()
+                .map(Currency::getCode)
+                .toList();
+
+        Set<CurrencyPair> pairs = new LinkedHashSet<>();
+        for (String newCode : newCodes) {
+            for (String code : allCodes) {
+                if (!code.equals(newCode)) {
+                    pairs.add(new CurrencyPair(newCode, code));
+                    pairs.add(new CurrencyPair(code, newCode));
+                }
+            }
+        }
+
+        if (pairs.isEmpty()) {
+            log.info("No pairs to refresh for new currencies {}", newCodes);
+            return 0;
+        }
+
+        try {
+            int refreshed = exchangeRateService.refreshPairs(new ArrayList<>(pairs), RefreshPriority.HIGH);
+            log.info("Refreshed {} of {} pairs for new currencies {}", refreshed, pairs.size(), newCodes);
+            return refreshed;
+        } catch (Exception e) {
+            log.error("Refresh of new currencies {} failed: {}", newCodes, e.getMessage(), e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.RefreshMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sharded refresh: every replica works on the refresh cycle at the same time.
+ *
+ * <p>On each check every node claims due base-currency partitions through
+ * {@link com.example.aidemo1.cluster.PartitionLeaseManager} and refreshes them
+ * until none are left, so cycle time shrinks as replicas are added. A partition is
+ * due again one interval after it was last refreshed.</p>
+ *
+ * <p>Active when {@code exchange.refresh.mode=sharded}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.refresh.mode", havingValue = "sharded")
+public class ShardedRefreshScheduler {
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Constructs the scheduler with required dependencies.
+     *
+     * @param exchangeRateService service for refreshing exchange rates
+     */
+    public ShardedRefreshScheduler(ExchangeRateService exchangeRateService) {
+        this.exchangeRateService = exchangeRateService;
+        log.info("ShardedRefreshScheduler initialized. Refresh partitions are shared across replicas.");
+    }
+
+    /**
+     * Claims and refreshes due partitions.
+     */
+    @Scheduled(fixedDelayString = "${exchange.refresh.full.check-interval-ms:60000}", initialDelay = 10000)
+    public void refreshClaimedPartitions() {
+        try {
+            int refreshed = exchangeRateService.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+            if (refreshed > 0) {
+                log.info("Sharded refresh: {} currency pairs refreshed on this node", refreshed);
+            }
+        } catch (Exception e) {
+            log.error("Sharded refresh failed: {}", e.getMessage(), e);
+            // Do not rethrow - leases expire and the partitions are retried
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.aidemo1.service;
 
+import com.example.aidemo1.dto.response.CurrencyResponse;
 import com.example.aidemo1.entity.Currency;
 
 import java.util.List;
@@ -17,6 +18,14 @@ public interface CurrencyService {
      */
     List<Currency> getAllCurrencies();
 
+    /**
+     * Lists all currencies for the API, reading only the listed columns
+     * instead of loading entities.
+     *
+     * @return all currencies, ordered by currency code
+     */
+    List<CurrencyResponse> listCurrencies();
+
     /**
      * Adds a new currency to the database.
      * Validates the currency code format (3 uppercase letters, ISO 4217).
@@ -28,6 +37,17 @@ public interface CurrencyService {
      */
     Currency addCurrency(String currencyCode);
 
+    /**
+     * Adds several new currencies in one transaction.
+     * Every code is validated like in {@link #addCurrency(String)}; if any code is
+     * invalid, duplicated in the request or already exists, none are added.
+     *
+     * @param currencyCodes the 3-letter currency codes to add
+     * @return the newly created currencies, in request order
+     * @throws IllegalArgumentException if the list is empty or any currency code is invalid or already exists
+     */
+    List<Currency> addCurrencies(List<String> currencyCodes);
+
     /**
      * Checks if a currency exists in the database.
      *
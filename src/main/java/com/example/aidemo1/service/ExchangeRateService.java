@@ -1,8 +1,14 @@
 package com.example.aidemo1.service;
 
+import com.example.aidemo1.dto.response.ExchangeRateResponse;
 import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.RefreshJob;
+import com.example.aidemo1.service.refresh.RefreshMode;
+import com.example.aidemo1.service.refresh.RefreshPriority;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 
 /**
  * Service interface for exchange rate operations.
@@ -38,6 +44,22 @@ public interface ExchangeRateService {
      */
     BigDecimal getExchangeRate(String from, String to, BigDecimal amount);
 
+    /**
+     * Converts an amount and describes the rate used, with a single rate lookup.
+     * 
+     * <p>Uses the same lookup strategy as {@link #getExchangeRate}, but the stored rate
+     * is read as a projection of the needed columns rather than as an entity.</p>
+     *
+     * @param from   the base currency code (e.g., "USD")
+     * @param to     the target currency code (e.g., "EUR")
+     * @param amount the amount to convert
+     * @return the converted amount with the rate, provider and timestamp
+     * @throws com.example.aidemo1.exception.CurrencyNotFoundException if currency doesn't exist
+     * @throws com.example.aidemo1.exception.ExchangeRateNotFoundException if rate cannot be obtained
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    ExchangeRateResponse convert(String from, String to, BigDecimal amount);
+
     /**
      * Gets the exchange rate entity for a currency pair using cache-first strategy.
      * 
@@ -69,12 +91,63 @@ public interface ExchangeRateService {
      *   <li>Returns the count of successfully refreshed pairs</li>
      * </ul>
      * 
-     * <p>Typically called by a scheduler on a regular interval.</p>
+     * <p>Typically called by a scheduler on a regular interval. Blocks until the
+     * refresh has finished; if a refresh is already running, waits for that one
+     * instead of starting another.</p>
      *
      * @return the number of currency pairs successfully refreshed
      */
     int refreshAllRates();
 
+    /**
+     * Starts a full refresh in the background, or joins the one already running.
+     * 
+     * <p>The returned job reports progress, can be cancelled through
+     * {@link com.example.aidemo1.service.refresh.RefreshJobService} and can be
+     * awaited for its result.</p>
+     *
+     * @return the running refresh job
+     */
+    RefreshJob startRefreshJob();
+
+    /**
+     * Refreshes exchange rates for the partitions selected by the mode.
+     * 
+     * <p>{@link RefreshMode#ALL} is equivalent to {@link #refreshAllRates()}.
+     * {@link RefreshMode#CLAIMED_PARTITIONS} repeatedly claims due base-currency
+     * partitions shared with other replicas and refreshes only those, until none
+     * are left to claim.</p>
+     *
+     * @param mode which partitions to process
+     * @return the number of currency pairs successfully refreshed by this node
+     * @throws IllegalStateException if claimed partitions are requested but sharding is not enabled
+     */
+    int refreshAllRates(RefreshMode mode);
+
+    /**
+     * Refreshes exchange rates for the given currency pairs only.
+     * 
+     * <p>Used by demand-driven scheduling to refresh frequently converted pairs
+     * more often than the full cycle. Pairs are refreshed in parallel, grouped
+     * by base currency.</p>
+     *
+     * @param pairs the currency pairs to refresh
+     * @return the number of currency pairs successfully refreshed
+     */
+    int refreshPairs(Collection<CurrencyPair> pairs);
+
+    /**
+     * Refreshes exchange rates for the given currency pairs on the pool for the given priority.
+     * 
+     * <p>{@link RefreshPriority#HIGH} is used for the pairs of newly added currencies,
+     * which should not wait for a running full cycle.</p>
+     *
+     * @param pairs    the currency pairs to refresh
+     * @param priority which refresh pool runs the pairs
+     * @return the number of currency pairs successfully refreshed
+     */
+    int refreshPairs(Collection<CurrencyPair> pairs, RefreshPriority priority);
+
     /**
      * Gets the best (lowest) exchange rate for a currency pair without caching.
      * 
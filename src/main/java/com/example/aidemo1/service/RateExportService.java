@@ -0,0 +1,26 @@
+package com.example.aidemo1.service;
+
+import com.example.aidemo1.service.export.ExportFormat;
+import com.example.aidemo1.service.export.RateExportFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for bulk exports of the stored rate history.
+ */
+public interface RateExportService {
+
+    /**
+     * Writes the selected rows in (timestamp, id) order.
+     * Rows are read through a forward-only database cursor and written as they arrive,
+     * so memory use does not depend on the size of the export.
+     *
+     * @param filter the rows to export
+     * @param format the output format
+     * @param output the stream to write to; not closed
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    long export(RateExportFilter filter, ExportFormat format, OutputStream output) throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.example.aidemo1.service;
+
+import com.example.aidemo1.dto.response.RateHistoryResponse;
+import com.example.aidemo1.dto.response.RecentHistoryResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Service interface for the stored rate history of a currency pair.
+ * Reads are bounded: the history is either paged with a cursor or streamed.
+ */
+public interface RateHistoryService {
+
+    /**
+     * Returns one page of a pair's history, most recent first.
+     *
+     * @param from   base currency code
+     * @param to     target currency code
+     * @param cursor token from the previous page, or null for the first page
+     * @param size   the page size
+     * @return the page with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is invalid or the size is out of range
+     */
+    RateHistoryResponse getHistoryPage(String from, String to, String cursor, int size);
+
+    /**
+     * Writes a pair's whole history as a JSON array, most recent first.
+     * Rates are read incrementally (through a database cursor, or from the tick store)
+     * and written one by one, so memory use does not depend on the length of the history.
+     *
+     * @param from   base currency code
+     * @param to     target currency code
+     * @param output the stream to write to; not closed
+     * @return the number of rates written
+     * @throws IOException if writing fails
+     */
+    long streamHistory(String from, String to, OutputStream output) throws IOException;
+
+    /**
+     * Returns the most recent stored rate of a pair quoted at or before a point in time.
+     *
+     * @param from base currency code
+     * @param to   target currency code
+     * @param at   the point in time
+     * @return the rate in effect at that time
+     * @throws com.example.aidemo1.exception.ExchangeRateNotFoundException if no rate that old is stored
+     */
+    RateHistoryResponse.Entry getRateAt(String from, String to, LocalDateTime at);
+
+    /**
+     * Returns a pair's rates of the last hours, most recent first, with their mean.
+     * Served from the in-memory recent rate store when it is enabled and loaded.
+     *
+     * @param from     base currency code
+     * @param to       target currency code
+     * @param lookback how far back to go, at most the recent window
+     * @return the recent rates and their moving average
+     * @throws IllegalArgumentException if the lookback is not positive or exceeds the window
+     */
+    RecentHistoryResponse getRecentHistory(String from, String to, Duration lookback);
+}
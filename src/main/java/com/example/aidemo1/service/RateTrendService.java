@@ -0,0 +1,23 @@
+package com.example.aidemo1.service;
+
+import com.example.aidemo1.dto.request.TrendRequest;
+import com.example.aidemo1.dto.response.TrendResponse;
+
+/**
+ * Service interface for rate trends.
+ * Serves time-bucketed OHLC series of a currency pair from the rollup tables.
+ */
+public interface RateTrendService {
+
+    /**
+     * Computes the trend of a currency pair over a period ending now.
+     * The series is read from the coarsest rollup whose buckets tile the requested
+     * granularity, so a one-year daily trend reads one row per day.
+     *
+     * @param request the pair, period and granularity
+     * @return the series with its percent change, minimum and maximum
+     * @throws IllegalArgumentException if the period or granularity is invalid,
+     *                                  or the trend would exceed the maximum number of points
+     */
+    TrendResponse getTrend(TrendRequest request);
+}
@@ -0,0 +1,54 @@
+package com.example.aidemo1.service.export;
+
+import java.util.Locale;
+
+/**
+ * Content-coding negotiation for exports, following the {@code Accept-Encoding}
+ * rules of RFC 9110: a coding with {@code q=0} is refused, and {@code *} stands
+ * for every coding the header does not list.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Tells whether a client accepts gzip-compressed responses.
+     *
+     * @param header the {@code Accept-Encoding} header, may be null
+     * @return true if gzip, {@code x-gzip} or {@code *} is listed with a non-zero quality;
+     *         an explicit gzip entry takes precedence over {@code *}
+     */
+    public static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String entry : header.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = quality(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == Boolean.TRUE || accepted;
+            } else if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.aidemo1.service.export;
+
+import java.util.Locale;
+
+/**
+ * Output format of a rate history export.
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma-separated values with a header line.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Parses a format name, ignoring case.
+     *
+     * @param name the format name
+     * @return the format
+     * @throws IllegalArgumentException if the name is not a known format
+     */
+    public static ExportFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + name + " (expected csv or ndjson)", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.aidemo1.service.export;
+
+import com.example.aidemo1.service.refresh.CurrencyPair;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selection of {@code exchange_rate} rows to export.
+ *
+ * <p>Empty lists and null bounds do not restrict the export. Rows are exported in
+ * (timestamp, id) order; {@code afterTimestamp} and {@code afterId}, taken from the
+ * last row received, resume an interrupted export with the rows that follow it in that
+ * order. Timestamps are the providers' quote times, so a row stored after the export
+ * started with a timestamp before the resume point is not included.</p>
+ *
+ * @param pairs          the currency pairs to include
+ * @param providers      the provider names to include
+ * @param since          the earliest timestamp, inclusive
+ * @param until          the latest timestamp, exclusive
+ * @param afterTimestamp the timestamp of the last row already received
+ * @param afterId        the id of the last row already received
+ */
+public record RateExportFilter(
+        List<CurrencyPair> pairs,
+        List<String> providers,
+        LocalDateTime since,
+        LocalDateTime until,
+        LocalDateTime afterTimestamp,
+        Long afterId) {
+
+    public RateExportFilter {
+        pairs = pairs == null ? List.of() : List.copyOf(pairs);
+        providers = providers == null ? List.of() : List.copyOf(providers);
+        if ((afterTimestamp == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterTimestamp and afterId must be given together");
+        }
+        if (since != null && until != null && !since.isBefore(until)) {
+            throw new IllegalArgumentException("since must be before until");
+        }
+    }
+
+    /**
+     * Parses pairs written as {@code BASE/TARGET}, e.g. {@code USD/EUR}.
+     *
+     * @param values the pairs; may be null
+     * @return the parsed pairs
+     * @throws IllegalArgumentException if a value is not a pair of three-letter codes
+     */
+    public static List<CurrencyPair> parsePairs(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .map(value -> {
+                    String[] codes = value.trim().toUpperCase().split("/");
+                    if (codes.length != 2 || !codes[0].matches("[A-Z]{3}") || !codes[1].matches("[A-Z]{3}")) {
+                        throw new IllegalArgumentException("Invalid currency pair: " + value + " (expected e.g. USD/EUR)");
+                    }
+                    return new CurrencyPair(codes[0], codes[1]);
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.aidemo1.service.history;
+
+import com.example.aidemo1.entity.ExchangeRate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a currency pair's history: the (timestamp, id) of the last row of a page.
+ *
+ * <p>Clients receive it as an opaque URL-safe token and pass it back unchanged to
+ * get the next page.</p>
+ *
+ * @param timestamp the timestamp of the last row
+ * @param id        the id of the last row
+ */
+public record HistoryCursor(LocalDateTime timestamp, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Returns the cursor positioned after a rate.
+     *
+     * @param rate the last rate of a page
+     * @return the cursor
+     */
+    public static HistoryCursor after(ExchangeRate rate) {
+        return new HistoryCursor(rate.getTimestamp(), rate.getId());
+    }
+
+    /**
+     * Encodes the cursor as a token.
+     *
+     * @return the URL-safe token
+     */
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+}
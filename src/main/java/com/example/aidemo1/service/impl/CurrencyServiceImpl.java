@@ -1,13 +1,18 @@
 package com.example.aidemo1.service.impl;
 
+import com.example.aidemo1.dto.response.CurrencyResponse;
 import com.example.aidemo1.entity.Currency;
 import com.example.aidemo1.repository.CurrencyRepository;
 import com.example.aidemo1.service.CurrencyService;
+import com.example.aidemo1.service.refresh.CurrencyAddedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -16,6 +21,10 @@ import java.util.regex.Pattern;
 /**
  * Implementation of CurrencyService.
  * Manages currency operations including validation and database interactions.
+ * Publishes a {@link CurrencyAddedEvent} for every add request, so the rates of
+ * the new currencies are fetched once the transaction commits.
+ * The API listing reads {@link com.example.aidemo1.repository.projection.CurrencySummary}
+ * projections, so no managed entities are created for it.
  */
 @Service
 @Transactional(readOnly = true)
@@ -26,14 +35,17 @@ public class CurrencyServiceImpl implements CurrencyService {
     private static final int CURRENCY_CODE_LENGTH = 3;
 
     private final CurrencyRepository currencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructor injection for dependencies.
      *
      * @param currencyRepository the currency repository
+     * @param eventPublisher     publishes {@link CurrencyAddedEvent}s
      */
-    public CurrencyServiceImpl(CurrencyRepository currencyRepository) {
+    public CurrencyServiceImpl(CurrencyRepository currencyRepository, ApplicationEventPublisher eventPublisher) {
         this.currencyRepository = Objects.requireNonNull(currencyRepository, "CurrencyRepository must not be null");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "ApplicationEventPublisher must not be null");
     }
 
     @Override
@@ -44,33 +56,57 @@ public class CurrencyServiceImpl implements CurrencyService {
         return currencies;
     }
 
+    @Override
+    public List<CurrencyResponse> listCurrencies() {
+        var currencies = currencyRepository.findAllSummariesByOrderByCodeAsc().stream()
+                .map(summary -> CurrencyResponse.builder()
+                        .code(summary.code())
+                        .name(summary.name())
+                        .createdAt(summary.createdAt())
+                        .updatedAt(summary.updatedAt())
+                        .build())
+                .toList();
+        logger.debug("Listed {} currencies", currencies.size());
+        return currencies;
+    }
+
     @Override
     @Transactional
     public Currency addCurrency(String currencyCode) {
         logger.debug("Adding new currency with code: {}", currencyCode);
 
-        // Validate input
-        validateCurrencyCode(currencyCode);
+        var savedCurrency = createCurrency(currencyCode);
+        logger.info("Successfully added currency: {}", savedCurrency.getCode());
 
-        // Normalize to uppercase
-        var normalizedCode = currencyCode.toUpperCase(Locale.ROOT);
+        eventPublisher.publishEvent(new CurrencyAddedEvent(List.of(savedCurrency.getCode())));
+        return savedCurrency;
+    }
 
-        // Check if currency already exists
-        if (currencyRepository.existsByCode(normalizedCode)) {
-            logger.warn("Currency already exists: {}", normalizedCode);
-            throw new IllegalArgumentException("Currency already exists: " + normalizedCode);
+    @Override
+    @Transactional
+    public List<Currency> addCurrencies(List<String> currencyCodes) {
+        if (currencyCodes == null || currencyCodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one currency code is required");
+        }
+        logger.debug("Adding {} new currencies: {}", currencyCodes.size(), currencyCodes);
+
+        // Reject duplicates within the request before touching the database
+        var distinctCodes = new LinkedHashSet<String>();
+        for (String currencyCode : currencyCodes) {
+            validateCurrencyCode(currencyCode);
+            if (!distinctCodes.add(currencyCode.toUpperCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Duplicate currency code in request: " + currencyCode);
+            }
         }
 
-        // Create and save currency
-        var currency = Currency.builder()
-                .code(normalizedCode)
-                .name(getCurrencyName(normalizedCode))
-                .build();
-
-        var savedCurrency = currencyRepository.save(currency);
-        logger.info("Successfully added currency: {}", savedCurrency.getCode());
+        var savedCurrencies = new ArrayList<Currency>(distinctCodes.size());
+        for (String currencyCode : distinctCodes) {
+            savedCurrencies.add(createCurrency(currencyCode));
+        }
+        logger.info("Successfully added {} currencies: {}", savedCurrencies.size(), distinctCodes);
 
-        return savedCurrency;
+        eventPublisher.publishEvent(new CurrencyAddedEvent(List.copyOf(distinctCodes)));
+        return savedCurrencies;
     }
 
     @Override
@@ -86,6 +122,35 @@ public class CurrencyServiceImpl implements CurrencyService {
         return exists;
     }
 
+    /**
+     * Validates, normalizes and saves a single currency.
+     *
+     * @param currencyCode the currency code to add
+     * @return the saved currency
+     * @throws IllegalArgumentException if the currency code is invalid or already exists
+     */
+    private Currency createCurrency(String currencyCode) {
+        // Validate input
+        validateCurrencyCode(currencyCode);
+
+        // Normalize to uppercase
+        var normalizedCode = currencyCode.toUpperCase(Locale.ROOT);
+
+        // Check if currency already exists
+        if (currencyRepository.existsByCode(normalizedCode)) {
+            logger.warn("Currency already exists: {}", normalizedCode);
+            throw new IllegalArgumentException("Currency already exists: " + normalizedCode);
+        }
+
+        // Create and save currency
+        var currency = Currency.builder()
+                .code(normalizedCode)
+                .name(getCurrencyName(normalizedCode))
+                .build();
+
+        return currencyRepository.save(currency);
+    }
+
     /**
      * Validates a currency code according to ISO 4217 format.
      * Must be exactly 3 uppercase letters.
@@ -1,20 +1,40 @@
 package com.example.aidemo1.service.impl;
 
+import com.example.aidemo1.cluster.PartitionLeaseManager;
+import com.example.aidemo1.dto.response.ExchangeRateResponse;
 import com.example.aidemo1.entity.Currency;
 import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.entity.ExchangeRateLatest;
 import com.example.aidemo1.exception.CurrencyNotFoundException;
 import com.example.aidemo1.exception.ExchangeRateNotFoundException;
 import com.example.aidemo1.integration.aggregator.RateAggregatorService;
+import com.example.aidemo1.persistence.LatestRateUpserter;
 import com.example.aidemo1.repository.CurrencyRepository;
+import com.example.aidemo1.repository.ExchangeRateLatestRepository;
 import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.repository.projection.RateQuote;
 import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.PairAccessTracker;
+import com.example.aidemo1.service.refresh.PairCatalog;
+import com.example.aidemo1.service.refresh.PartitionedRateRefresher;
+import com.example.aidemo1.service.refresh.RefreshJob;
+import com.example.aidemo1.service.refresh.RefreshJobService;
+import com.example.aidemo1.service.refresh.RefreshMode;
+import com.example.aidemo1.service.refresh.RefreshPriority;
+import com.example.aidemo1.service.refresh.RefreshProgressListener;
+import com.example.aidemo1.service.refresh.RefreshResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -22,38 +42,90 @@ import java.util.*;
  * Implementation of ExchangeRateService.
  * Manages exchange rate operations with a two-tier lookup strategy:
  * Database → External Providers.
+ *
+ * <p>Lookups that may fall through to the providers run without a surrounding
+ * transaction ({@link Propagation#NOT_SUPPORTED}) so that no pooled JDBC
+ * connection is held during provider calls. Each repository read uses its own
+ * short read-only transaction and fetched rates are persisted by the
+ * aggregator's write path.</p>
+ *
+ * <p>When {@link LatestRateUpserter} is enabled, the current rate of a pair is read
+ * from {@code exchange_rate_latest} by primary key; otherwise the history is searched
+ * with {@link ExchangeRateRepository#findBestRate}.</p>
+ *
+ * <p>Conversions ({@link #getExchangeRate}, {@link #convert}) read stored rates as
+ * {@link RateQuote} projections: only the quote columns are selected, and no managed
+ * entity or dirty-checking snapshot is created per request.</p>
+ *
+ * <p>Full refreshes and the freshness check follow the {@link PairCatalog}: when it
+ * has entries, only catalog pairs are refreshed and each pair uses its own TTL.</p>
  */
 @Service
 @Transactional(readOnly = true)
 public class ExchangeRateServiceImpl implements ExchangeRateService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateServiceImpl.class);
-    private static final int RATE_FRESHNESS_HOURS = 1;
+    private static final Duration DEFAULT_RATE_TTL = Duration.ofHours(1);
     private static final int DECIMAL_SCALE = 6;
 
     private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateLatestRepository latestRepository;
+    private final boolean latestTableEnabled;
     private final CurrencyRepository currencyRepository;
     private final RateAggregatorService rateAggregatorService;
+    private final PartitionedRateRefresher rateRefresher;
+    private final PairAccessTracker pairAccessTracker;
+    private final PairCatalog pairCatalog;
+    private final ObjectProvider<PartitionLeaseManager> partitionLeases;
+    private final RefreshJobService refreshJobService;
 
     /**
      * Constructor injection for all dependencies.
      *
      * @param exchangeRateRepository repository for exchange rate persistence
+     * @param latestRepository newest quote per pair and provider
+     * @param latestUpserter keeps {@code exchange_rate_latest} current, present when the table is enabled
      * @param currencyRepository repository for currency validation
      * @param rateAggregatorService service for fetching rates from providers
+     * @param rateRefresher parallel refresher used for full refresh cycles
+     * @param pairAccessTracker conversion counters for demand-driven refresh
+     * @param pairCatalog pairs kept warm by the refresh cycle, with per-pair policies
+     * @param partitionLeases partition claims shared with other replicas, present in sharded mode
+     * @param refreshJobService runs full refreshes as single, joinable background jobs
      */
     public ExchangeRateServiceImpl(ExchangeRateRepository exchangeRateRepository,
+                                   ExchangeRateLatestRepository latestRepository,
+                                   ObjectProvider<LatestRateUpserter> latestUpserter,
                                    CurrencyRepository currencyRepository,
-                                   RateAggregatorService rateAggregatorService) {
+                                   RateAggregatorService rateAggregatorService,
+                                   PartitionedRateRefresher rateRefresher,
+                                   PairAccessTracker pairAccessTracker,
+                                   PairCatalog pairCatalog,
+                                   ObjectProvider<PartitionLeaseManager> partitionLeases,
+                                   RefreshJobService refreshJobService) {
         this.exchangeRateRepository = Objects.requireNonNull(exchangeRateRepository,
                 "ExchangeRateRepository must not be null");
+        this.latestRepository = Objects.requireNonNull(latestRepository,
+                "ExchangeRateLatestRepository must not be null");
+        this.latestTableEnabled = latestUpserter.getIfAvailable() != null;
         this.currencyRepository = Objects.requireNonNull(currencyRepository,
                 "CurrencyRepository must not be null");
         this.rateAggregatorService = Objects.requireNonNull(rateAggregatorService,
                 "RateAggregatorService must not be null");
+        this.rateRefresher = Objects.requireNonNull(rateRefresher,
+                "PartitionedRateRefresher must not be null");
+        this.pairAccessTracker = Objects.requireNonNull(pairAccessTracker,
+                "PairAccessTracker must not be null");
+        this.pairCatalog = Objects.requireNonNull(pairCatalog,
+                "PairCatalog must not be null");
+        this.partitionLeases = Objects.requireNonNull(partitionLeases,
+                "PartitionLeaseManager provider must not be null");
+        this.refreshJobService = Objects.requireNonNull(refreshJobService,
+                "RefreshJobService must not be null");
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BigDecimal getExchangeRate(String from, String to, BigDecimal amount) {
         logger.debug("Getting exchange rate: {} -> {} for amount {}", from, to, amount);
 
@@ -61,14 +133,40 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         validateCurrencyCodes(from, to);
         validateAmount(amount);
 
-        // Get the exchange rate entity (cache-first)
-        ExchangeRate rate = getExchangeRateEntity(from, to);
+        // Get the current rate (database, then providers)
+        RateQuote quote = getRateQuote(from, to);
+
+        // Count the conversion for demand-driven refresh (only known pairs get here)
+        pairAccessTracker.recordAccess(from, to);
 
         // Calculate and return converted amount
-        return calculateConvertedAmount(amount, rate.getRate());
+        return calculateConvertedAmount(amount, quote.rate());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ExchangeRateResponse convert(String from, String to, BigDecimal amount) {
+        logger.debug("Converting {} {} to {}", amount, from, to);
+
+        validateCurrencyCodes(from, to);
+        validateAmount(amount);
+
+        RateQuote quote = getRateQuote(from, to);
+        pairAccessTracker.recordAccess(from, to);
+
+        return ExchangeRateResponse.builder()
+                .from(from)
+                .to(to)
+                .amount(amount)
+                .rate(quote.rate())
+                .convertedAmount(calculateConvertedAmount(amount, quote.rate()))
+                .provider(quote.provider())
+                .timestamp(quote.timestamp())
+                .build();
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ExchangeRate getExchangeRateEntity(String from, String to) {
         logger.debug("Getting exchange rate entity: {} -> {}", from, to);
 
@@ -91,43 +189,181 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         return fetchFreshRate(from, to);
     }
 
+    /**
+     * Finds the current rate of a pair as a projection: a recent stored rate,
+     * or else a rate fetched from the providers.
+     *
+     * @param from base currency code
+     * @param to target currency code
+     * @return the current quote
+     */
+    private RateQuote getRateQuote(String from, String to) {
+        validateCurrenciesExist(from, to);
+
+        var dbQuote = findRecentQuote(from, to);
+        if (dbQuote.isPresent()) {
+            logger.debug("Found recent rate in database for {} -> {}", from, to);
+            return dbQuote.get();
+        }
+
+        logger.debug("No recent rate in database for {} -> {}, fetching from providers", from, to);
+        return RateQuote.of(fetchFreshRate(from, to));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Runs as (or joins) the current refresh job and waits for it to finish,
+     * so a scheduled and a manual refresh never run side by side.</p>
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int refreshAllRates() {
+        return startRefreshJob().await().refreshedPairs();
+    }
+
+    @Override
+    public RefreshJob startRefreshJob() {
+        return refreshJobService.startOrJoin(this::refreshAllPartitions);
+    }
+
+    /**
+     * Refreshes every currency pair, or only the due catalog pairs when the
+     * {@link PairCatalog} has entries.
+     *
+     * <p>Runs without a transaction: partitions are refreshed in parallel by
+     * {@link PartitionedRateRefresher} and every batch is stored by the
+     * aggregator's write path in its own short transaction.</p>
+     *
+     * @param listener receives progress after each finished partition
+     * @return the merged refresh result
+     */
+    private RefreshResult refreshAllPartitions(RefreshProgressListener listener) {
         logger.info("Starting refresh of all exchange rates");
 
         // Get all currencies
         var currencies = currencyRepository.findAll();
         if (currencies.isEmpty()) {
             logger.warn("No currencies found in database, skipping refresh");
-            return 0;
+            return RefreshResult.empty();
         }
 
         var currencyCodes = currencies.stream()
                 .map(Currency::getCode)
                 .toList();
 
-        logger.info("Refreshing rates for {} currencies", currencyCodes.size());
+        Instant startedAt = Instant.now();
+        Map<String, List<String>> targetsByBase = pairCatalog.isEmpty()
+                ? allTargetsByBase(currencyCodes)
+                : supportedOnly(pairCatalog.getDueTargetsByBase(startedAt), currencyCodes);
+        if (targetsByBase.isEmpty()) {
+            logger.info("No currency pairs due for refresh");
+            return RefreshResult.empty();
+        }
 
-        int successCount = 0;
-        int totalPairs = 0;
+        logger.info("Refreshing rates for {} base currencies{}", targetsByBase.size(),
+                pairCatalog.isEmpty() ? "" : " (pair catalog)");
+
+        RefreshResult result = rateRefresher.refresh(targetsByBase, progress -> {
+            logger.debug("Refresh progress: {}/{} partitions, {}/{} pairs",
+                    progress.completedPartitions(), progress.totalPartitions(),
+                    progress.refreshedPairs(), progress.totalPairs());
+            listener.onProgress(progress);
+        });
+        markCatalogRefreshed(targetsByBase, result, startedAt);
+
+        logger.info("Refresh completed in {} ms: {} out of {} currency pairs refreshed successfully",
+                result.duration().toMillis(), result.refreshedPairs(), result.totalPairs());
+        if (!result.failedPartitions().isEmpty() || !result.isComplete()) {
+            logger.warn("Refresh incomplete: failed partitions {}, timed out partitions {}",
+                    result.failedPartitions(), result.timedOutPartitions());
+        }
 
-        // Refresh all pairs (excluding same-currency pairs)
-        for (String from : currencyCodes) {
-            var targets = currencyCodes.stream()
-                    .filter(to -> !to.equals(from))
-                    .toList();
+        return result;
+    }
 
-            var results = rateAggregatorService.fetchAndAggregateMultiple(from, targets);
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int refreshAllRates(RefreshMode mode) {
+        if (mode == RefreshMode.ALL) {
+            return refreshAllRates();
+        }
 
-            successCount += results.size();
-            totalPairs += targets.size();
+        PartitionLeaseManager leases = partitionLeases.getIfAvailable();
+        if (leases == null) {
+            throw new IllegalStateException("Claimed partition refresh requires exchange.refresh.mode=sharded");
         }
 
-        logger.info("Refresh completed: {} out of {} currency pairs refreshed successfully",
-                successCount, totalPairs);
+        var currencyCodes = currencyRepository.findAll().stream()
+                .map(Currency::getCode)
+                .toList();
+        Map<String, List<String>> pairTargets = pairCatalog.isEmpty()
+                ? allTargetsByBase(currencyCodes)
+                : supportedOnly(pairCatalog.getTargetsByBase(), currencyCodes);
+
+        int refreshedPairs = 0;
+        List<String> claimed;
+        while (!(claimed = leases.claim()).isEmpty()) {
+            Map<String, List<String>> targetsByBase = new LinkedHashMap<>();
+            for (String base : claimed) {
+                var targets = pairTargets.getOrDefault(base, List.of());
+                // Partitions of removed currencies, or without catalog pairs, have nothing to refresh
+                // and are simply completed
+                if (!targets.isEmpty()) {
+                    targetsByBase.put(base, targets);
+                }
+            }
+
+            // Leases are renewed while the partitions are in flight, which may take up to the cycle
+            // deadline; on failure they are released right away instead of waiting for expiry.
+            // refresh() returns only once cancelled partitions have stopped, so a released lease
+            // is never still being worked on here
+            RefreshResult result;
+            try (PartitionLeaseManager.LeaseRenewal renewal = leases.keepAlive(claimed)) {
+                result = rateRefresher.refresh(targetsByBase, RefreshProgressListener.NONE);
+            } catch (RuntimeException e) {
+                leases.release(claimed);
+                throw e;
+            }
+
+            List<String> unfinished = new ArrayList<>(result.failedPartitions());
+            unfinished.addAll(result.timedOutPartitions());
+            leases.release(unfinished);
+            leases.complete(claimed.stream().filter(base -> !unfinished.contains(base)).toList());
+
+            refreshedPairs += result.refreshedPairs();
+            logger.info("Node {} refreshed partitions {}: {} of {} pairs",
+                    leases.getNodeId(), claimed, result.refreshedPairs(), result.totalPairs());
+        }
 
-        return successCount;
+        return refreshedPairs;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int refreshPairs(Collection<CurrencyPair> pairs) {
+        return refreshPairs(pairs, RefreshPriority.NORMAL);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int refreshPairs(Collection<CurrencyPair> pairs, RefreshPriority priority) {
+        if (pairs == null || pairs.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<String>> targetsByBase = new LinkedHashMap<>();
+        for (CurrencyPair pair : pairs) {
+            targetsByBase.computeIfAbsent(pair.base(), base -> new ArrayList<>()).add(pair.target());
+        }
+
+        logger.info("Refreshing {} currency pairs across {} base currencies ({} priority)",
+                pairs.size(), targetsByBase.size(), priority);
+        RefreshResult result = rateRefresher.refresh(targetsByBase, RefreshProgressListener.NONE, priority);
+        logger.info("Pair refresh completed in {} ms: {} out of {} currency pairs refreshed successfully",
+                result.duration().toMillis(), result.refreshedPairs(), result.totalPairs());
+
+        return result.refreshedPairs();
     }
 
     @Override
@@ -137,8 +373,7 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         validateCurrencyCodes(from, to);
 
         // Get the most recent rate from database
-        return exchangeRateRepository
-                .findFirstByBaseCurrencyAndTargetCurrencyOrderByTimestampDesc(from, to)
+        return findLatestRate(from, to)
                 .orElseThrow(() -> {
                     logger.error("No exchange rate found in database for {} -> {}", from, to);
                     return ExchangeRateNotFoundException.forCurrencyPair(from, to);
@@ -146,7 +381,7 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ExchangeRate fetchFreshRate(String from, String to) {
         logger.info("Fetching fresh rate from providers: {} -> {}", from, to);
 
@@ -164,20 +399,119 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
 
     /**
      * Finds a recent exchange rate from the database.
-     * A rate is considered recent if it was fetched within the last hour.
+     * A rate is considered recent if it was fetched within the pair's catalog TTL,
+     * or within the last hour for pairs outside the catalog.
      *
      * @param from base currency code
      * @param to target currency code
      * @return Optional containing the rate if found and recent
      */
     private Optional<ExchangeRate> findRecentRate(String from, String to) {
-        var cutoffTime = LocalDateTime.now().minusHours(RATE_FRESHNESS_HOURS);
+        var cutoffTime = LocalDateTime.now().minus(pairCatalog.getTtl(from, to, DEFAULT_RATE_TTL));
+        if (latestTableEnabled) {
+            return findLatestRate(from, to)
+                    .filter(rate -> rate.getTimestamp().isAfter(cutoffTime));
+        }
 
+        // Bounding the timestamp keeps the lookup on the newest partitions only
         return exchangeRateRepository
-                .findFirstByBaseCurrencyAndTargetCurrencyOrderByTimestampDesc(from, to)
+                .findFirstByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+                        from, to, cutoffTime)
                 .filter(rate -> rate.getTimestamp().isAfter(cutoffTime));
     }
 
+    /**
+     * Finds a recent rate like {@link #findRecentRate}, selected as a projection.
+     *
+     * @param from base currency code
+     * @param to target currency code
+     * @return Optional containing the quote if found and recent
+     */
+    private Optional<RateQuote> findRecentQuote(String from, String to) {
+        var cutoffTime = LocalDateTime.now().minus(pairCatalog.getTtl(from, to, DEFAULT_RATE_TTL));
+        Optional<RateQuote> quote = latestTableEnabled
+                ? latestRepository.findFirstQuoteByBaseCurrencyAndTargetCurrencyOrderByTimestampDescRateAsc(from, to)
+                : exchangeRateRepository
+                        .findFirstQuoteByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+                                from, to, cutoffTime);
+        return quote.filter(rate -> rate.timestamp().isAfter(cutoffTime));
+    }
+
+    /**
+     * Finds the best current exchange rate of a pair, from {@code exchange_rate_latest}
+     * when it is maintained, or else from the history.
+     *
+     * @param from base currency code
+     * @param to target currency code
+     * @return Optional containing the current rate if any is stored
+     */
+    private Optional<ExchangeRate> findLatestRate(String from, String to) {
+        if (latestTableEnabled) {
+            return latestRepository
+                    .findFirstByBaseCurrencyAndTargetCurrencyOrderByTimestampDescRateAsc(from, to)
+                    .map(ExchangeRateLatest::toExchangeRate);
+        }
+        return exchangeRateRepository.findBestRate(from, to);
+    }
+
+    /**
+     * Builds the full Cartesian product of the given currencies, keyed by base currency.
+     *
+     * @param currencyCodes the supported currency codes
+     * @return every other currency as target of each base currency
+     */
+    private Map<String, List<String>> allTargetsByBase(List<String> currencyCodes) {
+        Map<String, List<String>> targetsByBase = new LinkedHashMap<>();
+        for (String base : currencyCodes) {
+            var targets = currencyCodes.stream()
+                    .filter(to -> !to.equals(base))
+                    .toList();
+            if (!targets.isEmpty()) {
+                targetsByBase.put(base, targets);
+            }
+        }
+        return targetsByBase;
+    }
+
+    /**
+     * Drops catalog pairs that involve currencies which are no longer supported.
+     *
+     * @param targetsByBase catalog targets keyed by base currency
+     * @param currencyCodes the supported currency codes
+     * @return the pairs between supported currencies
+     */
+    private Map<String, List<String>> supportedOnly(Map<String, List<String>> targetsByBase,
+                                                    List<String> currencyCodes) {
+        Map<String, List<String>> supported = new LinkedHashMap<>();
+        targetsByBase.forEach((base, targets) -> {
+            var supportedTargets = targets.stream()
+                    .filter(currencyCodes::contains)
+                    .toList();
+            if (currencyCodes.contains(base) && !supportedTargets.isEmpty()) {
+                supported.put(base, supportedTargets);
+            }
+        });
+        return supported;
+    }
+
+    /**
+     * Restarts the refresh interval of catalog pairs in partitions that finished without failing.
+     *
+     * @param targetsByBase the refreshed targets keyed by base currency
+     * @param result the refresh result
+     * @param startedAt when the refresh started
+     */
+    private void markCatalogRefreshed(Map<String, List<String>> targetsByBase, RefreshResult result,
+                                      Instant startedAt) {
+        List<CurrencyPair> refreshed = new ArrayList<>();
+        targetsByBase.forEach((base, targets) -> {
+            if (!result.failedPartitions().contains(base) && !result.timedOutPartitions().contains(base)) {
+                targets.forEach(target -> refreshed.add(new CurrencyPair(base, target)));
+            }
+        });
+        pairCatalog.markRefreshed(refreshed, startedAt);
+    }
+
     /**
      * Calculates the converted amount using the exchange rate.
      *
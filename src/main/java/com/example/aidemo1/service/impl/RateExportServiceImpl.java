@@ -0,0 +1,217 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.persistence.ScaledRateConverter;
+import com.example.aidemo1.service.RateExportService;
+import com.example.aidemo1.service.export.ExportFormat;
+import com.example.aidemo1.service.export.RateExportFilter;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of RateExportService.
+ *
+ * <h2>Cursor</h2>
+ * <p>The export query runs inside a read-only transaction with a fetch size of
+ * {@code exchange.export.fetch-size} (default 5000), which makes the PostgreSQL driver
+ * read through a server-side cursor instead of buffering the whole result. Each row is
+ * formatted straight from the {@link ResultSet} into a buffered writer; no entities or
+ * per-row DTOs are created.</p>
+ *
+ * <h2>Resuming</h2>
+ * <p>Rows are ordered by (timestamp, id), and every row carries both. An interrupted
+ * export is resumed by repeating the request with the last row's timestamp and id,
+ * which continues with the rows after it in that order; no row is sent twice. The
+ * timestamp is the provider's quote time, not the insert time, so rows stored in the
+ * meantime with an earlier timestamp (late or re-sent quotes) are skipped. To get
+ * them, export their time range again once it is complete.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RateExportServiceImpl implements RateExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateExportServiceImpl.class);
+
+    static final String SELECT_SQL =
+            "SELECT e.id, b.code AS base_currency, t.code AS target_currency, e.rate_value, "
+            + "p.name AS provider, e.timestamp FROM exchange_rate e "
+            + "JOIN currency_code b ON b.id = e.base_currency_id "
+            + "JOIN currency_code t ON t.id = e.target_currency_id "
+            + "JOIN rate_provider p ON p.id = e.provider_id";
+
+    static final String CSV_HEADER = "id,base_currency,target_currency,rate,provider,timestamp\n";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    /**
+     * Constructor injection for dependencies.
+     *
+     * @param jdbcTemplate JDBC access for the export cursor
+     * @param objectMapper writes NDJSON rows
+     * @param fetchSize    rows fetched per round trip
+     */
+    public RateExportServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${exchange.export.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "JdbcTemplate must not be null");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "ObjectMapper must not be null");
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long export(RateExportFilter filter, ExportFormat format, OutputStream output) throws IOException {
+        Objects.requireNonNull(filter, "Filter must not be null");
+        Objects.requireNonNull(format, "Format must not be null");
+        List<Object> parameters = new ArrayList<>();
+        String sql = buildQuery(filter, parameters);
+        logger.info("Exporting rates as {}: {}", format, filter);
+
+        AtomicLong written = new AtomicLong();
+        try {
+            switch (format) {
+                case CSV -> exportCsv(sql, parameters, output, written);
+                case NDJSON -> exportNdjson(sql, parameters, output, written);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} rates as {}", written.get(), format);
+        return written.get();
+    }
+
+    static String buildQuery(RateExportFilter filter, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.since() != null) {
+            conditions.add("e.timestamp >= ?");
+            parameters.add(Timestamp.valueOf(filter.since()));
+        }
+        if (filter.until() != null) {
+            conditions.add("e.timestamp < ?");
+            parameters.add(Timestamp.valueOf(filter.until()));
+        }
+        if (!filter.pairs().isEmpty()) {
+            conditions.add("(b.code, t.code) IN (" + String.join(", ",
+                    Collections.nCopies(filter.pairs().size(), "(?, ?)")) + ")");
+            for (CurrencyPair pair : filter.pairs()) {
+                parameters.add(pair.base());
+                parameters.add(pair.target());
+            }
+        }
+        if (!filter.providers().isEmpty()) {
+            conditions.add("p.name IN (" + String.join(", ", Collections.nCopies(filter.providers().size(), "?")) + ")");
+            parameters.addAll(filter.providers());
+        }
+        if (filter.afterId() != null) {
+            conditions.add("(e.timestamp, e.id) > (?, ?)");
+            parameters.add(Timestamp.valueOf(filter.afterTimestamp()));
+            parameters.add(filter.afterId());
+        }
+        return SELECT_SQL
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY e.timestamp, e.id";
+    }
+
+    private void exportCsv(String sql, List<Object> parameters, OutputStream output, AtomicLong written)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        query(sql, parameters, resultSet -> {
+            writer.write(Long.toString(resultSet.getLong("id")));
+            writer.write(',');
+            writer.write(resultSet.getString("base_currency"));
+            writer.write(',');
+            writer.write(resultSet.getString("target_currency"));
+            writer.write(',');
+            writer.write(ScaledRateConverter.fromScaled(resultSet.getLong("rate_value")).toPlainString());
+            writer.write(',');
+            writer.write(csvField(resultSet.getString("provider")));
+            writer.write(',');
+            writer.write(resultSet.getTimestamp("timestamp").toLocalDateTime().toString());
+            writer.write('\n');
+            written.incrementAndGet();
+        });
+        writer.flush();
+    }
+
+    private void exportNdjson(String sql, List<Object> parameters, OutputStream output, AtomicLong written)
+            throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(output, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            query(sql, parameters, resultSet -> {
+                json.writeStartObject();
+                json.writeNumberField("id", resultSet.getLong("id"));
+                json.writeStringField("baseCurrency", resultSet.getString("base_currency"));
+                json.writeStringField("targetCurrency", resultSet.getString("target_currency"));
+                json.writeNumberField("rate", ScaledRateConverter.fromScaled(resultSet.getLong("rate_value")));
+                json.writeStringField("provider", resultSet.getString("provider"));
+                json.writeStringField("timestamp", resultSet.getTimestamp("timestamp").toLocalDateTime().toString());
+                json.writeEndObject();
+                json.writeRaw('\n');
+                written.incrementAndGet();
+            });
+        }
+    }
+
+    private void query(String sql, List<Object> parameters, RowWriter rowWriter) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, resultSet -> {
+            try {
+                rowWriter.write(resultSet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Writes the current row of a result set.
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet resultSet) throws IOException, SQLException;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.dto.response.RateHistoryResponse;
+import com.example.aidemo1.dto.response.RecentHistoryResponse;
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.exception.ExchangeRateNotFoundException;
+import com.example.aidemo1.persistence.ScaledRateConverter;
+import com.example.aidemo1.recent.RecentRate;
+import com.example.aidemo1.recent.RecentRateStore;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.service.RateHistoryService;
+import com.example.aidemo1.service.history.HistoryCursor;
+import com.example.aidemo1.tickstore.Tick;
+import com.example.aidemo1.tickstore.TickStore;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of RateHistoryService.
+ *
+ * <h2>Paging</h2>
+ * <p>Pages use keyset pagination on (timestamp, id): the cursor holds the position of
+ * the last row returned, and the next page starts strictly after it. Unlike an offset,
+ * this costs the same for every page and does not skip or repeat rows when new rates
+ * are stored between requests. Page sizes are capped by
+ * {@code exchange.history.max-page-size} (default 1000).</p>
+ *
+ * <h2>Streaming</h2>
+ * <p>The stream reads through a server-side cursor ({@code exchange.history.stream-fetch-size}
+ * rows per round trip, default 500) inside a read-only transaction, and writes each row
+ * straight to the JSON output. No entities are created, so nothing accumulates in the
+ * persistence context.</p>
+ *
+ * <h2>Backends</h2>
+ * <p>History is read from {@code exchange_rate} by default. With
+ * {@code exchange.history.backend=tickstore} it is read from the local {@link TickStore}
+ * instead, which must then be enabled; cursors hold the tick sequence in place of the
+ * row id. The tick store only holds rates fetched since it was enabled.</p>
+ *
+ * <h2>Recent history</h2>
+ * <p>Lookbacks are limited to {@code exchange.recent.window-hours} (default 72). They
+ * are answered from the {@link RecentRateStore} when it is enabled, loaded and kept
+ * refreshed, and from {@code exchange_rate} otherwise.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RateHistoryServiceImpl implements RateHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateHistoryServiceImpl.class);
+
+    static final String STREAM_SQL =
+            "SELECT e.rate_value, p.name AS provider, e.timestamp FROM exchange_rate e "
+            + "JOIN rate_provider p ON p.id = e.provider_id "
+            + "WHERE e.base_currency_id = (SELECT id FROM currency_code WHERE code = ?) "
+            + "AND e.target_currency_id = (SELECT id FROM currency_code WHERE code = ?) "
+            + "ORDER BY e.timestamp DESC, e.id DESC";
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TickStore tickStore;
+    private final RecentRateStore recentRates;
+    private final int maxPageSize;
+    private final int fetchSize;
+    private final Duration recentWindow;
+
+    /**
+     * Constructor injection for dependencies.
+     *
+     * @param exchangeRateRepository repository for history pages
+     * @param jdbcTemplate           JDBC access for the streaming cursor
+     * @param objectMapper           writes the streamed JSON
+     * @param tickStore              the local tick store, if enabled
+     * @param recentRates            the in-memory recent rate store, if enabled
+     * @param backend                {@code database} or {@code tickstore}
+     * @param maxPageSize            the largest allowed page size
+     * @param fetchSize              rows fetched per round trip while streaming
+     * @param recentWindowHours      the longest recent-history lookback
+     */
+    public RateHistoryServiceImpl(
+            ExchangeRateRepository exchangeRateRepository,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ObjectProvider<TickStore> tickStore,
+            ObjectProvider<RecentRateStore> recentRates,
+            @Value("${exchange.history.backend:database}") String backend,
+            @Value("${exchange.history.max-page-size:1000}") int maxPageSize,
+            @Value("${exchange.history.stream-fetch-size:500}") int fetchSize,
+            @Value("${exchange.recent.window-hours:72}") int recentWindowHours) {
+        this.exchangeRateRepository = Objects.requireNonNull(exchangeRateRepository,
+                "ExchangeRateRepository must not be null");
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "JdbcTemplate must not be null");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "ObjectMapper must not be null");
+        if ("tickstore".equals(backend)) {
+            this.tickStore = tickStore.getIfAvailable();
+            if (this.tickStore == null) {
+                throw new IllegalStateException(
+                        "exchange.history.backend=tickstore requires exchange.tickstore.enabled=true");
+            }
+        } else if ("database".equals(backend)) {
+            this.tickStore = null;
+        } else {
+            throw new IllegalArgumentException("Unknown history backend: " + backend);
+        }
+        this.recentRates = recentRates.getIfAvailable();
+        this.maxPageSize = maxPageSize;
+        this.fetchSize = fetchSize;
+        this.recentWindow = Duration.ofHours(recentWindowHours);
+    }
+
+    @Override
+    public RateHistoryResponse getHistoryPage(String from, String to, String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        if (tickStore != null) {
+            return getTickStorePage(from, to, cursor, size);
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        Limit limit = Limit.of(size + 1);
+        List<ExchangeRate> rates;
+        if (cursor == null || cursor.isBlank()) {
+            rates = exchangeRateRepository
+                    .findByBaseCurrencyAndTargetCurrencyOrderByTimestampDescIdDesc(from, to, limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rates = exchangeRateRepository.findHistoryPage(from, to, position.timestamp(), position.id(), limit);
+        }
+
+        boolean hasMore = rates.size() > size;
+        List<ExchangeRate> page = hasMore ? rates.subList(0, size) : rates;
+        logger.debug("Returning {} history rates for {} -> {} (more: {})", page.size(), from, to, hasMore);
+
+        return RateHistoryResponse.builder()
+                .from(from)
+                .to(to)
+                .rates(page.stream().map(this::toEntry).toList())
+                .nextCursor(hasMore ? HistoryCursor.after(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    @Override
+    public long streamHistory(String from, String to, OutputStream output) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (JsonGenerator json = objectMapper.createGenerator(output, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            if (tickStore != null) {
+                written.set(tickStore.forEachNewestFirst(from, to, tick -> {
+                    try {
+                        json.writeObject(toEntry(tick));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            } else {
+                streamFromDatabase(from, to, json, written);
+            }
+            json.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Streamed {} history rates for {} -> {}", written.get(), from, to);
+        return written.get();
+    }
+
+    @Override
+    public RateHistoryResponse.Entry getRateAt(String from, String to, LocalDateTime at) {
+        Objects.requireNonNull(at, "Point in time must not be null");
+        if (tickStore != null) {
+            return tickStore.tickAt(from, to, at)
+                    .map(this::toEntry)
+                    .orElseThrow(() -> ExchangeRateNotFoundException.forCurrencyPair(from, to));
+        }
+        return exchangeRateRepository
+                .findFirstByBaseCurrencyAndTargetCurrencyAndTimestampLessThanEqualOrderByTimestampDescIdDesc(from, to, at)
+                .map(this::toEntry)
+                .orElseThrow(() -> ExchangeRateNotFoundException.forCurrencyPair(from, to));
+    }
+
+    @Override
+    public RecentHistoryResponse getRecentHistory(String from, String to, Duration lookback) {
+        if (lookback.isNegative() || lookback.isZero() || lookback.compareTo(recentWindow) > 0) {
+            throw new IllegalArgumentException("Lookback must be positive and at most " + recentWindow.toHours()
+                    + " hours; use the paged history for older rates");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minus(lookback);
+
+        RecentHistoryResponse.RecentHistoryResponseBuilder response = RecentHistoryResponse.builder()
+                .from(from)
+                .to(to)
+                .since(since);
+        List<RateHistoryResponse.Entry> entries;
+        if (recentRates != null && recentRates.covers(lookback)) {
+            entries = recentRates.since(from, to, since).stream().map(this::toEntry).toList();
+            response.source("MEMORY")
+                    .movingAverage(recentRates.movingAverage(from, to, since).orElse(null));
+        } else {
+            entries = exchangeRateRepository
+                    .findByBaseCurrencyAndTargetCurrencyAndTimestampBetweenOrderByTimestampDesc(from, to, since, now)
+                    .stream()
+                    .map(this::toEntry)
+                    .toList();
+            response.source("DATABASE")
+                    .movingAverage(average(entries));
+        }
+        logger.debug("Returning {} recent rates for {} -> {} since {}", entries.size(), from, to, since);
+        return response.rates(entries).build();
+    }
+
+    private static BigDecimal average(List<RateHistoryResponse.Entry> entries) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        for (RateHistoryResponse.Entry entry : entries) {
+            sum = sum.add(entry.getRate());
+        }
+        return sum.divide(BigDecimal.valueOf(entries.size()), ScaledRateConverter.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private RateHistoryResponse getTickStorePage(String from, String to, String cursor, int size) {
+        long before = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : HistoryCursor.decode(cursor).id();
+        List<Tick> ticks = tickStore.newestFirst(from, to, before, size + 1);
+
+        boolean hasMore = ticks.size() > size;
+        List<Tick> page = hasMore ? ticks.subList(0, size) : ticks;
+        logger.debug("Returning {} tick store rates for {} -> {} (more: {})", page.size(), from, to, hasMore);
+
+        Tick last = hasMore ? page.get(page.size() - 1) : null;
+        return RateHistoryResponse.builder()
+                .from(from)
+                .to(to)
+                .rates(page.stream().map(this::toEntry).toList())
+                .nextCursor(last != null ? new HistoryCursor(last.timestamp(), last.sequence()).encode() : null)
+                .build();
+    }
+
+    private void streamFromDatabase(String from, String to, JsonGenerator json, AtomicLong written) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_SQL);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, from);
+            statement.setString(2, to);
+            return statement;
+        }, resultSet -> {
+            try {
+                json.writeObject(RateHistoryResponse.Entry.builder()
+                        .rate(ScaledRateConverter.fromScaled(resultSet.getLong("rate_value")))
+                        .provider(resultSet.getString("provider"))
+                        .timestamp(resultSet.getTimestamp("timestamp").toLocalDateTime())
+                        .build());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written.incrementAndGet();
+        });
+    }
+
+    private RateHistoryResponse.Entry toEntry(RecentRate rate) {
+        return RateHistoryResponse.Entry.builder()
+                .rate(rate.rate())
+                .provider(rate.provider())
+                .timestamp(rate.timestamp())
+                .build();
+    }
+
+    private RateHistoryResponse.Entry toEntry(Tick tick) {
+        return RateHistoryResponse.Entry.builder()
+                .rate(tick.rate())
+                .provider(tick.provider())
+                .timestamp(tick.timestamp())
+                .build();
+    }
+
+    private RateHistoryResponse.Entry toEntry(ExchangeRate rate) {
+        return RateHistoryResponse.Entry.builder()
+                .rate(rate.getRate())
+                .provider(rate.getProvider())
+                .timestamp(rate.getTimestamp())
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.dto.request.TrendRequest;
+import com.example.aidemo1.dto.response.TrendResponse;
+import com.example.aidemo1.entity.ExchangeRateRollup;
+import com.example.aidemo1.repository.ExchangeRateRollupRepository;
+import com.example.aidemo1.rollup.RollupGranularity;
+import com.example.aidemo1.service.RateTrendService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of RateTrendService.
+ *
+ * <p>Rollups are streamed in bucket order and folded into the requested intervals
+ * on the fly, so memory is bounded by the number of points returned and not by the
+ * number of rollups read. The number of points is capped by
+ * {@code exchange.trend.max-points} (default 1000); larger requests are rejected
+ * with a hint to choose a coarser granularity.</p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RateTrendServiceImpl implements RateTrendService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateTrendServiceImpl.class);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final int PERCENT_SCALE = 4;
+    private static final long MINUTES_PER_DAY = Duration.ofDays(1).toMinutes();
+
+    private final ExchangeRateRollupRepository rollupRepository;
+    private final int maxPoints;
+
+    /**
+     * Constructor injection for dependencies.
+     *
+     * @param rollupRepository the rollup repository
+     * @param maxPoints        the maximum number of points of one trend
+     */
+    public RateTrendServiceImpl(
+            ExchangeRateRollupRepository rollupRepository,
+            @Value("${exchange.trend.max-points:1000}") int maxPoints) {
+        this.rollupRepository = Objects.requireNonNull(rollupRepository, "ExchangeRateRollupRepository must not be null");
+        this.maxPoints = maxPoints;
+    }
+
+    @Override
+    public TrendResponse getTrend(TrendRequest request) {
+        return getTrend(request, LocalDateTime.now());
+    }
+
+    TrendResponse getTrend(TrendRequest request, LocalDateTime now) {
+        Period period = parsePeriod(request.getPeriod());
+        Duration interval = parseInterval(request.getGranularity());
+        RollupGranularity source = RollupGranularity.coarsestFor(interval);
+
+        // The current, still open bucket is included
+        LocalDateTime end = source.bucketStart(now).plus(source.getBucketLength());
+        LocalDateTime start = align(source.bucketStart(end.minus(period)), interval);
+        long points = (Duration.between(start, end).toMinutes() + interval.toMinutes() - 1) / interval.toMinutes();
+        if (points > maxPoints) {
+            throw new IllegalArgumentException(String.format(
+                    "Trend would have %d points; at most %d are allowed, choose a coarser granularity",
+                    points, maxPoints));
+        }
+
+        logger.debug("Computing {}/{} trend from {} to {} every {} using {} rollups",
+                request.getFrom(), request.getTo(), start, end, interval, source);
+
+        TrendFolder folder = new TrendFolder(start, interval);
+        try (Stream<ExchangeRateRollup> rollups = rollupRepository.streamBuckets(
+                request.getFrom(), request.getTo(), source, start, end)) {
+            rollups.forEachOrdered(folder::add);
+        }
+        List<TrendResponse.Point> series = folder.finish();
+
+        TrendResponse.TrendResponseBuilder response = TrendResponse.builder()
+                .from(request.getFrom())
+                .to(request.getTo())
+                .start(start)
+                .end(end)
+                .granularity(interval.toString())
+                .source(source.name())
+                .points(series);
+        if (!series.isEmpty()) {
+            BigDecimal open = series.get(0).getOpen();
+            BigDecimal close = series.get(series.size() - 1).getClose();
+            response.min(folder.min)
+                    .max(folder.max)
+                    .changePercent(open.signum() == 0 ? null
+                            : close.subtract(open).multiply(HUNDRED).divide(open, PERCENT_SCALE, RoundingMode.HALF_UP));
+        }
+        return response.build();
+    }
+
+    /**
+     * Aligns the start of intervals that divide a day to the interval, so four-hour
+     * points start at 00:00, 04:00, ... regardless of the current time.
+     */
+    private static LocalDateTime align(LocalDateTime start, Duration interval) {
+        long minutes = interval.toMinutes();
+        if (MINUTES_PER_DAY % minutes != 0) {
+            return start;
+        }
+        LocalDateTime day = start.truncatedTo(ChronoUnit.DAYS);
+        return day.plusMinutes(Duration.between(day, start).toMinutes() / minutes * minutes);
+    }
+
+    private Period parsePeriod(String period) {
+        try {
+            Period parsed = Period.parse(period);
+            if (parsed.isNegative() || parsed.isZero()) {
+                throw new IllegalArgumentException("Period must be positive: " + period);
+            }
+            return parsed;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid period: " + period, e);
+        }
+    }
+
+    private Duration parseInterval(String granularity) {
+        try {
+            return Duration.parse(granularity);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid granularity: " + granularity, e);
+        }
+    }
+
+    /**
+     * Folds rollups, in bucket order, into fixed intervals starting at the trend start.
+     */
+    private static final class TrendFolder {
+
+        private final LocalDateTime start;
+        private final long intervalMinutes;
+        private final List<TrendResponse.Point> points = new ArrayList<>();
+        private TrendResponse.Point current;
+        private long currentIndex = -1;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        TrendFolder(LocalDateTime start, Duration interval) {
+            this.start = start;
+            this.intervalMinutes = interval.toMinutes();
+        }
+
+        void add(ExchangeRateRollup rollup) {
+            long index = Duration.between(start, rollup.getBucketStart()).toMinutes() / intervalMinutes;
+            if (index != currentIndex) {
+                finish();
+                currentIndex = index;
+                current = TrendResponse.Point.builder()
+                        .start(start.plusMinutes(index * intervalMinutes))
+                        .open(rollup.getOpenRate())
+                        .high(rollup.getHighRate())
+                        .low(rollup.getLowRate())
+                        .build();
+            } else {
+                current.setHigh(current.getHigh().max(rollup.getHighRate()));
+                current.setLow(current.getLow().min(rollup.getLowRate()));
+            }
+            current.setClose(rollup.getCloseRate());
+            current.setSamples(current.getSamples() + rollup.getSampleCount());
+            min = min == null ? rollup.getLowRate() : min.min(rollup.getLowRate());
+            max = max == null ? rollup.getHighRate() : max.max(rollup.getHighRate());
+        }
+
+        List<TrendResponse.Point> finish() {
+            if (current != null) {
+                points.add(current);
+                current = null;
+            }
+            return points;
+        }
+    }
+}
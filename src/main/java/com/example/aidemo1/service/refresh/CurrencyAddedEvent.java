@@ -0,0 +1,15 @@
+package com.example.aidemo1.service.refresh;
+
+import java.util.List;
+
+/**
+ * Published when currencies are added, once per add request.
+ *
+ * @param codes the codes of the added currencies
+ */
+public record CurrencyAddedEvent(List<String> codes) {
+
+    public CurrencyAddedEvent {
+        codes = List.copyOf(codes);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * A base/target currency pair.
+ *
+ * @param base   the base currency code
+ * @param target the target currency code
+ */
+public record CurrencyPair(String base, String target) {
+
+    @Override
+    public String toString() {
+        return base + "/" + target;
+    }
+}
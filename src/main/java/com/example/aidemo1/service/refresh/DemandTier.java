@@ -0,0 +1,22 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Refresh priority of a currency pair derived from recent conversions.
+ */
+public enum DemandTier {
+
+    /**
+     * Heavily used; refreshed on every demand scheduler tick.
+     */
+    HOT,
+
+    /**
+     * Used recently; refreshed at the regular interval.
+     */
+    WARM,
+
+    /**
+     * Not used recently; refreshed only on demand when a conversion finds a stale rate.
+     */
+    COLD
+}
@@ -0,0 +1,115 @@
+package com.example.aidemo1.service.refresh;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Counts conversions per currency pair to drive demand-based refresh scheduling.
+ *
+ * <p>Each conversion adds one to its pair's count with an atomic
+ * {@link ConcurrentHashMap#merge merge}. Once per scheduler tick every count is
+ * removed from the map, atomically per pair, and folded into an exponentially
+ * decayed score, so a conversion is counted in exactly one tick. Pairs are then
+ * split into {@link DemandTier tiers} by their score.</p>
+ *
+ * <h2>Tiers with the defaults</h2>
+ * <p>A pair converted {@code r} times per tick settles at a score of
+ * {@code r / (1 - decay)}, i.e. {@code 10r}. It is hot from about five
+ * conversions per tick (one a minute at the default five-minute tick), and warm on
+ * every tick following one with a conversion, after which its score of 1 decays
+ * below the warm threshold. The scheduler keeps warm pairs until the next warm
+ * refresh, so a single conversion gets the pair refreshed once more.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.refresh.demand.decay} - share of the score kept per tick (default 0.9)</li>
+ *   <li>{@code exchange.refresh.demand.hot-threshold} - score for {@link DemandTier#HOT} (default 50)</li>
+ *   <li>{@code exchange.refresh.demand.warm-threshold} - score for {@link DemandTier#WARM} (default 1)</li>
+ * </ul>
+ */
+@Component
+public class PairAccessTracker {
+
+    /**
+     * Scores below this are dropped so idle pairs do not accumulate.
+     */
+    private static final double FORGET_BELOW = 0.01;
+
+    private final ConcurrentHashMap<CurrencyPair, Long> counters = new ConcurrentHashMap<>();
+    private final Map<CurrencyPair, Double> scores = new HashMap<>();
+
+    private final double decay;
+    private final double hotThreshold;
+    private final double warmThreshold;
+
+    public PairAccessTracker(
+            @Value("${exchange.refresh.demand.decay:0.9}") double decay,
+            @Value("${exchange.refresh.demand.hot-threshold:50}") double hotThreshold,
+            @Value("${exchange.refresh.demand.warm-threshold:1}") double warmThreshold) {
+        if (decay < 0 || decay >= 1) {
+            throw new IllegalArgumentException("Demand decay must be in [0, 1)");
+        }
+        this.decay = decay;
+        this.hotThreshold = hotThreshold;
+        this.warmThreshold = warmThreshold;
+    }
+
+    /**
+     * Records one conversion for a pair.
+     *
+     * @param base   the base currency code
+     * @param target the target currency code
+     */
+    public void recordAccess(String base, String target) {
+        counters.merge(new CurrencyPair(base, target), 1L, Long::sum);
+    }
+
+    /**
+     * Folds the accesses since the last call into the decayed scores and classifies
+     * every tracked pair. Pairs that are not returned are {@link DemandTier#COLD}.
+     *
+     * @return hot and warm pairs by tier
+     */
+    public synchronized Map<DemandTier, List<CurrencyPair>> rollTiers() {
+        scores.replaceAll((pair, score) -> score * decay);
+        for (CurrencyPair pair : counters.keySet()) {
+            // remove() takes the count atomically; a concurrent access starts a new count
+            Long accesses = counters.remove(pair);
+            if (accesses != null) {
+                scores.merge(pair, (double) accesses, Double::sum);
+            }
+        }
+        scores.values().removeIf(score -> score < FORGET_BELOW);
+
+        Map<DemandTier, List<CurrencyPair>> tiers = new EnumMap<>(DemandTier.class);
+        tiers.putAll(scores.entrySet().stream()
+                .filter(entry -> tierOf(entry.getValue()) != DemandTier.COLD)
+                .collect(Collectors.groupingBy(entry -> tierOf(entry.getValue()),
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList()))));
+        return tiers;
+    }
+
+    /**
+     * Returns the current decayed score of a pair.
+     *
+     * @param pair the currency pair
+     * @return the score, 0 for untracked pairs
+     */
+    public synchronized double getScore(CurrencyPair pair) {
+        return scores.getOrDefault(pair, 0.0);
+    }
+
+    private DemandTier tierOf(double score) {
+        if (score >= hotThreshold) {
+            return DemandTier.HOT;
+        }
+        return score >= warmThreshold ? DemandTier.WARM : DemandTier.COLD;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.aidemo1.service.refresh;
+
+import com.example.aidemo1.entity.CurrencyPairCatalogEntry;
+import com.example.aidemo1.repository.CurrencyPairCatalogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory mirror of the {@code currency_pair_catalog} table: the pairs the
+ * refresh cycle keeps warm.
+ *
+ * <p>Each catalog pair has its own TTL (used by the conversion freshness check),
+ * refresh interval and allowed providers. When the catalog has entries, the full
+ * refresh only fetches catalog pairs whose interval has elapsed, and every other
+ * pair is fetched lazily by the first conversion that finds no fresh rate. An
+ * empty catalog keeps the previous behaviour of refreshing every pair between
+ * all supported currencies.</p>
+ *
+ * <p>The mirror is loaded on first use and reloaded every
+ * {@code exchange.refresh.catalog.reload-ms} (default 60000), so catalog edits
+ * take effect without a restart. Per-pair intervals are honoured at the
+ * granularity of the refresh cycle that runs the catalog.</p>
+ */
+@Slf4j
+@Component
+public class PairCatalog {
+
+    private final CurrencyPairCatalogRepository catalogRepository;
+    private final Map<CurrencyPair, Instant> lastRefreshed = new ConcurrentHashMap<>();
+
+    private volatile Map<CurrencyPair, PairPolicy> policies;
+
+    public PairCatalog(CurrencyPairCatalogRepository catalogRepository) {
+        this.catalogRepository = catalogRepository;
+    }
+
+    /**
+     * Reloads the mirror from the database.
+     */
+    @Scheduled(fixedDelayString = "${exchange.refresh.catalog.reload-ms:60000}")
+    public synchronized void reload() {
+        Map<CurrencyPair, PairPolicy> loaded = new LinkedHashMap<>();
+        for (CurrencyPairCatalogEntry entry : catalogRepository.findByEnabledTrue()) {
+            PairPolicy policy = toPolicy(entry);
+            loaded.put(policy.pair(), policy);
+        }
+        if (policies == null || !policies.equals(loaded)) {
+            log.info("Loaded pair catalog with {} pairs", loaded.size());
+        }
+        policies = Map.copyOf(loaded);
+        lastRefreshed.keySet().retainAll(loaded.keySet());
+    }
+
+    /**
+     * Checks whether the catalog defines any pairs.
+     *
+     * @return true if the full Cartesian product should be refreshed instead
+     */
+    public boolean isEmpty() {
+        return policies().isEmpty();
+    }
+
+    /**
+     * Finds the policy of a pair.
+     *
+     * @param base   the base currency code
+     * @param target the target currency code
+     * @return the policy, or empty if the pair is not in the catalog
+     */
+    public Optional<PairPolicy> find(String base, String target) {
+        return Optional.ofNullable(policies().get(new CurrencyPair(base, target)));
+    }
+
+    /**
+     * Returns how long a stored rate of a pair counts as fresh.
+     *
+     * @param base       the base currency code
+     * @param target     the target currency code
+     * @param defaultTtl the TTL of pairs outside the catalog
+     * @return the pair's TTL
+     */
+    public Duration getTtl(String base, String target, Duration defaultTtl) {
+        return find(base, target).map(PairPolicy::ttl).orElse(defaultTtl);
+    }
+
+    /**
+     * Checks whether rates for a pair may be fetched from a provider. Pairs outside
+     * the catalog allow every provider.
+     *
+     * @param base         the base currency code
+     * @param target       the target currency code
+     * @param providerName the provider name
+     * @return true if the provider is allowed
+     */
+    public boolean allowsProvider(String base, String target, String providerName) {
+        return find(base, target).map(policy -> policy.allowsProvider(providerName)).orElse(true);
+    }
+
+    /**
+     * Returns the catalog targets of each base currency.
+     *
+     * @return targets keyed by base currency
+     */
+    public Map<String, List<String>> getTargetsByBase() {
+        return groupByBase(policies().keySet());
+    }
+
+    /**
+     * Returns the catalog pairs whose refresh interval has elapsed, grouped by base currency.
+     *
+     * @param now the current time
+     * @return due targets keyed by base currency
+     */
+    public Map<String, List<String>> getDueTargetsByBase(Instant now) {
+        return groupByBase(policies().values().stream()
+                .filter(policy -> {
+                    Instant refreshedAt = lastRefreshed.get(policy.pair());
+                    return refreshedAt == null || !refreshedAt.plus(policy.refreshInterval()).isAfter(now);
+                })
+                .map(PairPolicy::pair)
+                .toList());
+    }
+
+    /**
+     * Records that pairs were refreshed, restarting their refresh interval.
+     *
+     * @param pairs       the refreshed pairs
+     * @param refreshedAt when they were refreshed
+     */
+    public void markRefreshed(Collection<CurrencyPair> pairs, Instant refreshedAt) {
+        Map<CurrencyPair, PairPolicy> current = policies();
+        for (CurrencyPair pair : pairs) {
+            if (current.containsKey(pair)) {
+                lastRefreshed.put(pair, refreshedAt);
+            }
+        }
+    }
+
+    private Map<CurrencyPair, PairPolicy> policies() {
+        Map<CurrencyPair, PairPolicy> current = policies;
+        if (current == null) {
+            synchronized (this) {
+                if (policies == null) {
+                    reload();
+                }
+                current = policies;
+            }
+        }
+        return current;
+    }
+
+    private static Map<String, List<String>> groupByBase(Collection<CurrencyPair> pairs) {
+        return pairs.stream()
+                .sorted(Comparator.comparing(CurrencyPair::base).thenComparing(CurrencyPair::target))
+                .collect(Collectors.groupingBy(CurrencyPair::base, LinkedHashMap::new,
+                        Collectors.mapping(CurrencyPair::target, Collectors.toList())));
+    }
+
+    private static PairPolicy toPolicy(CurrencyPairCatalogEntry entry) {
+        Set<String> providers = entry.getAllowedProviders() == null ? Set.of()
+                : Arrays.stream(entry.getAllowedProviders().split(","))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .collect(Collectors.toSet());
+        return new PairPolicy(
+                new CurrencyPair(entry.getBaseCurrency(), entry.getTargetCurrency()),
+                Duration.ofSeconds(entry.getTtlSeconds()),
+                Duration.ofSeconds(entry.getRefreshIntervalSeconds()),
+                providers);
+    }
+}
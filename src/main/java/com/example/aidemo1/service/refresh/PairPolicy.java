@@ -0,0 +1,29 @@
+package com.example.aidemo1.service.refresh;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Refresh policy of a pair in the {@link PairCatalog}.
+ *
+ * @param pair             the currency pair
+ * @param ttl              how long a stored rate counts as fresh
+ * @param refreshInterval  minimum time between two scheduled refreshes
+ * @param allowedProviders provider names allowed for the pair; empty allows all providers
+ */
+public record PairPolicy(CurrencyPair pair, Duration ttl, Duration refreshInterval, Set<String> allowedProviders) {
+
+    public PairPolicy {
+        allowedProviders = Set.copyOf(allowedProviders);
+    }
+
+    /**
+     * Checks whether rates for the pair may be fetched from a provider.
+     *
+     * @param providerName the provider name
+     * @return true if the provider is allowed
+     */
+    public boolean allowsProvider(String providerName) {
+        return allowedProviders.isEmpty() || allowedProviders.contains(providerName);
+    }
+}
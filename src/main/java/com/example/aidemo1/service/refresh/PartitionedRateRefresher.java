@@ -0,0 +1,280 @@
+package com.example.aidemo1.service.refresh;
+
+import com.example.aidemo1.integration.aggregator.RateAggregatorService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a refresh cycle partitioned by base currency on a bounded thread pool.
+ *
+ * <p>Each partition refreshes all pairs of one base currency through
+ * {@link RateAggregatorService#fetchAndAggregateMultiple}. Up to
+ * {@code exchange.refresh.parallelism} partitions run at the same time, so cycle
+ * time scales with parallelism instead of the number of pairs. Per-partition
+ * results are merged into one {@link RefreshResult}.</p>
+ *
+ * <h2>Priority</h2>
+ * <p>{@link RefreshPriority#HIGH} refreshes run on a separate, smaller pool
+ * ({@code exchange.refresh.priority-parallelism}), so they start immediately even
+ * while a full cycle occupies every thread of the shared pool.</p>
+ *
+ * <h2>Deadline</h2>
+ * <p>A cycle stops waiting after {@code exchange.refresh.cycle-deadline-seconds},
+ * or when the calling thread is interrupted (job cancellation). Partitions that have
+ * not started are withdrawn, running ones are interrupted, and all of them are
+ * reported as timed out. An interrupted partition stops before its next pair and
+ * stores none of its rates. The cycle returns only once every partition has
+ * stopped, so callers may hand the partitions to someone else right away; a
+ * provider call in flight still runs to its own timeout first.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.refresh.parallelism} (default 8)</li>
+ *   <li>{@code exchange.refresh.priority-parallelism} (default 2)</li>
+ *   <li>{@code exchange.refresh.cycle-deadline-seconds} (default 3000)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PartitionedRateRefresher {
+
+    private static final long STOP_WARN_SECONDS = 30;
+
+    private final RateAggregatorService rateAggregatorService;
+    private final ExecutorService executor;
+    private final ExecutorService priorityExecutor;
+    private final Duration cycleDeadline;
+
+    public PartitionedRateRefresher(
+            RateAggregatorService rateAggregatorService,
+            @Value("${exchange.refresh.parallelism:8}") int parallelism,
+            @Value("${exchange.refresh.priority-parallelism:2}") int priorityParallelism,
+            @Value("${exchange.refresh.cycle-deadline-seconds:3000}") long cycleDeadlineSeconds) {
+        if (parallelism < 1 || priorityParallelism < 1) {
+            throw new IllegalArgumentException("Refresh parallelism must be positive");
+        }
+        this.rateAggregatorService = rateAggregatorService;
+        this.executor = Executors.newFixedThreadPool(parallelism, new RefreshThreadFactory("rate-refresh-"));
+        this.priorityExecutor = Executors.newFixedThreadPool(priorityParallelism,
+                new RefreshThreadFactory("rate-refresh-priority-"));
+        this.cycleDeadline = Duration.ofSeconds(cycleDeadlineSeconds);
+    }
+
+    /**
+     * Refreshes every pair between the given currencies.
+     *
+     * @param currencyCodes the currencies to refresh; each one is a partition
+     * @param listener      receives progress after each finished partition
+     * @return the merged result of all partitions
+     */
+    public RefreshResult refresh(List<String> currencyCodes, RefreshProgressListener listener) {
+        Map<String, List<String>> targetsByBase = new LinkedHashMap<>();
+        for (String base : currencyCodes) {
+            List<String> targets = currencyCodes.stream()
+                    .filter(target -> !target.equals(base))
+                    .toList();
+            if (!targets.isEmpty()) {
+                targetsByBase.put(base, targets);
+            }
+        }
+        return refresh(targetsByBase, listener);
+    }
+
+    /**
+     * Refreshes the given targets of each base currency.
+     *
+     * @param targetsByBase the target currencies to refresh, keyed by base currency; each base is a partition
+     * @param listener      receives progress after each finished partition
+     * @return the merged result of all partitions
+     */
+    public RefreshResult refresh(Map<String, List<String>> targetsByBase, RefreshProgressListener listener) {
+        return refresh(targetsByBase, listener, RefreshPriority.NORMAL);
+    }
+
+    /**
+     * Refreshes the given targets of each base currency on the pool for the given priority.
+     *
+     * @param targetsByBase the target currencies to refresh, keyed by base currency; each base is a partition
+     * @param listener      receives progress after each finished partition
+     * @param priority      which pool runs the partitions
+     * @return the merged result of all partitions
+     */
+    public RefreshResult refresh(Map<String, List<String>> targetsByBase, RefreshProgressListener listener,
+                                 RefreshPriority priority) {
+        if (targetsByBase.isEmpty()) {
+            return RefreshResult.empty();
+        }
+
+        Instant startedAt = Instant.now();
+        Instant deadline = startedAt.plus(cycleDeadline);
+        int totalPartitions = targetsByBase.size();
+        int totalPairs = targetsByBase.values().stream().mapToInt(List::size).sum();
+
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(
+                priority == RefreshPriority.HIGH ? priorityExecutor : executor);
+        Map<Future<Integer>, PartitionTask> pending = new HashMap<>();
+        targetsByBase.forEach((base, targets) -> {
+            PartitionTask task = new PartitionTask(base, () -> refreshPartition(base, targets));
+            pending.put(completion.submit(task), task);
+        });
+
+        int completedPartitions = 0;
+        int processedPairs = 0;
+        int refreshedPairs = 0;
+        List<String> failedPartitions = new ArrayList<>();
+
+        try {
+            while (!pending.isEmpty()) {
+                long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+                Future<Integer> finished = remainingNanos > 0
+                        ? completion.poll(remainingNanos, TimeUnit.NANOSECONDS)
+                        : null;
+                if (finished == null) {
+                    break;
+                }
+
+                String base = pending.remove(finished).base;
+                try {
+                    refreshedPairs += finished.get();
+                } catch (ExecutionException e) {
+                    log.error("Refresh of partition {} failed: {}", base, e.getCause().getMessage(), e.getCause());
+                    failedPartitions.add(base);
+                }
+                completedPartitions++;
+                processedPairs += targetsByBase.get(base).size();
+                listener.onProgress(new RefreshProgress(completedPartitions, totalPartitions,
+                        processedPairs, refreshedPairs, totalPairs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Refresh cycle interrupted, cancelling {} partitions", pending.size());
+        }
+
+        List<String> timedOutPartitions = pending.values().stream().map(task -> task.base).toList();
+        pending.forEach((future, task) -> {
+            task.withdraw();
+            future.cancel(true);
+        });
+        if (!timedOutPartitions.isEmpty()) {
+            log.warn("Refresh cycle stopped with unfinished partitions (deadline {}), cancelled: {}",
+                    cycleDeadline, timedOutPartitions);
+            awaitStopped(pending.values());
+        }
+
+        return new RefreshResult(refreshedPairs, totalPairs, failedPartitions, timedOutPartitions,
+                Duration.between(startedAt, Instant.now()));
+    }
+
+    /**
+     * Stops the refresh pools, interrupting running partitions.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        priorityExecutor.shutdownNow();
+    }
+
+    /**
+     * Waits until cancelled partitions have stopped, keeping the caller's interrupt status.
+     */
+    private void awaitStopped(Collection<PartitionTask> tasks) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (PartitionTask task : tasks) {
+                while (true) {
+                    try {
+                        if (task.stopped.await(STOP_WARN_SECONDS, TimeUnit.SECONDS)) {
+                            break;
+                        }
+                        log.warn("Cancelled partition {} has not stopped after {} s", task.base, STOP_WARN_SECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int refreshPartition(String base, List<String> targets) {
+        log.debug("Refreshing partition {} ({} targets)", base, targets.size());
+        return rateAggregatorService.fetchAndAggregateMultiple(base, targets).size();
+    }
+
+    /**
+     * A partition's refresh that can be withdrawn before it starts and tells when it has stopped.
+     */
+    private static final class PartitionTask implements Callable<Integer> {
+
+        private final String base;
+        private final Callable<Integer> refresh;
+        private final AtomicBoolean taken = new AtomicBoolean();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        private PartitionTask(String base, Callable<Integer> refresh) {
+            this.base = base;
+            this.refresh = refresh;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            if (!taken.compareAndSet(false, true)) {
+                return 0;
+            }
+            try {
+                return refresh.call();
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        private void withdraw() {
+            if (taken.compareAndSet(false, true)) {
+                stopped.countDown();
+            }
+        }
+    }
+
+    private static final class RefreshThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private RefreshThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.aidemo1.service.refresh;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A full refresh running in the background, observable and cancellable by id.
+ *
+ * <p>State is written by the refresh job thread and read by request threads;
+ * all mutable fields are volatile and only ever replaced, never modified in place.</p>
+ */
+public class RefreshJob implements RefreshProgressListener {
+
+    private final String id;
+    private final Instant startedAt;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile RefreshJobStatus status = RefreshJobStatus.RUNNING;
+    private volatile RefreshProgress progress = RefreshProgress.none();
+    private volatile RefreshResult result;
+    private volatile RuntimeException failure;
+    private volatile Instant finishedAt;
+    private volatile boolean cancelRequested;
+
+    RefreshJob(String id, Instant startedAt) {
+        this.id = id;
+        this.startedAt = startedAt;
+    }
+
+    @Override
+    public void onProgress(RefreshProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Blocks until the job has finished.
+     *
+     * @return the job's result; partial if it was cancelled
+     * @throws RuntimeException the error that stopped the job, if it failed
+     */
+    public RefreshResult await() {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for refresh job " + id, e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the processing rate so far.
+     *
+     * @return pairs processed per second, 0 before the first partition finishes
+     */
+    public double getPairsPerSecond() {
+        double seconds = getElapsed().toMillis() / 1000.0;
+        return seconds > 0 ? progress.processedPairs() / seconds : 0.0;
+    }
+
+    /**
+     * Estimates the time until the job finishes at the current rate.
+     *
+     * @return the estimate, or null if it is finished or no rate is known yet
+     */
+    public Duration getEstimatedRemaining() {
+        double rate = getPairsPerSecond();
+        if (status.isFinished() || rate <= 0) {
+            return null;
+        }
+        return Duration.ofMillis((long) (progress.remainingPairs() / rate * 1000));
+    }
+
+    /**
+     * Returns the time the job has been running, or ran in total once finished.
+     *
+     * @return elapsed time
+     */
+    public Duration getElapsed() {
+        return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public RefreshJobStatus getStatus() {
+        return status;
+    }
+
+    public RefreshProgress getProgress() {
+        return progress;
+    }
+
+    public RefreshResult getResult() {
+        return result;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void complete(RefreshResult result) {
+        this.result = result;
+        finish(cancelRequested ? RefreshJobStatus.CANCELLED : RefreshJobStatus.COMPLETED);
+    }
+
+    void fail(RuntimeException failure) {
+        this.failure = failure;
+        finish(cancelRequested ? RefreshJobStatus.CANCELLED : RefreshJobStatus.FAILED);
+    }
+
+    private void finish(RefreshJobStatus finalStatus) {
+        this.finishedAt = Instant.now();
+        this.status = finalStatus;
+        done.countDown();
+    }
+}
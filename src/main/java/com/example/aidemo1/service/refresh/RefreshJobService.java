@@ -0,0 +1,148 @@
+package com.example.aidemo1.service.refresh;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Runs full refreshes as background jobs, at most one at a time.
+ *
+ * <p>Starting a refresh while one is running joins the running job instead of
+ * starting a second one, whether it was triggered through the API or by the
+ * scheduler. Jobs run on a dedicated thread; cancelling a job interrupts it, and
+ * the refresher then stops all unfinished partitions. The thread is interrupted only
+ * while it runs the cancelled job: the running job is checked and cleared under the
+ * same lock, so a late cancellation never reaches the next job on that thread.</p>
+ *
+ * <p>The last {@code exchange.refresh.jobs.history-size} jobs (default 20) stay
+ * available for status queries.</p>
+ */
+@Slf4j
+@Service
+public class RefreshJobService {
+
+    private final ExecutorService executor;
+    private final int historySize;
+    private final Map<String, RefreshJob> jobs = new LinkedHashMap<>();
+
+    private RefreshJob current;
+    private RefreshJob running;
+    private Thread runner;
+
+    public RefreshJobService(@Value("${exchange.refresh.jobs.history-size:20}") int historySize) {
+        this.historySize = Math.max(1, historySize);
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "refresh-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a refresh job, or returns the one that is already running.
+     *
+     * @param refresh the refresh to run; receives the job as progress listener
+     * @return the running job
+     */
+    public synchronized RefreshJob startOrJoin(Function<RefreshProgressListener, RefreshResult> refresh) {
+        if (current != null && !current.getStatus().isFinished()) {
+            log.info("Refresh job {} already running, joining it", current.getId());
+            return current;
+        }
+
+        RefreshJob job = new RefreshJob(UUID.randomUUID().toString(), Instant.now());
+        remember(job);
+        current = job;
+        executor.execute(() -> run(job, refresh));
+        log.info("Started refresh job {}", job.getId());
+        return job;
+    }
+
+    /**
+     * Finds a running or recently finished job.
+     *
+     * @param jobId the job id
+     * @return the job, if known
+     */
+    public synchronized Optional<RefreshJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Requests cancellation of a job. Partitions already refreshed stay stored.
+     *
+     * @param jobId the job id
+     * @return the job, if known
+     */
+    public synchronized Optional<RefreshJob> cancel(String jobId) {
+        Optional<RefreshJob> job = Optional.ofNullable(jobs.get(jobId));
+        job.filter(candidate -> !candidate.getStatus().isFinished())
+                .ifPresent(cancelled -> {
+                    log.info("Cancelling refresh job {}", cancelled.getId());
+                    cancelled.requestCancel();
+                    if (cancelled == running) {
+                        runner.interrupt();
+                    }
+                });
+        return job;
+    }
+
+    /**
+     * Stops the job thread, interrupting a running job.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(RefreshJob job, Function<RefreshProgressListener, RefreshResult> refresh) {
+        Thread.interrupted();
+        synchronized (this) {
+            running = job;
+            runner = Thread.currentThread();
+        }
+        try {
+            if (job.isCancelRequested()) {
+                job.complete(RefreshResult.empty());
+                log.info("Refresh job {} cancelled before it started", job.getId());
+                return;
+            }
+            RefreshResult result = refresh.apply(job);
+            job.complete(result);
+            log.info("Refresh job {} {}: {} of {} pairs refreshed in {} ms", job.getId(),
+                    job.getStatus().name().toLowerCase(), result.refreshedPairs(), result.totalPairs(),
+                    result.duration().toMillis());
+        } catch (RuntimeException e) {
+            job.fail(e);
+            log.error("Refresh job {} failed: {}", job.getId(), e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                running = null;
+                runner = null;
+            }
+            // Cancellations interrupt only under the lock, so this clears the last one of this job
+            Thread.interrupted();
+        }
+    }
+
+    private void remember(RefreshJob job) {
+        jobs.put(job.getId(), job);
+        Iterator<RefreshJob> oldest = jobs.values().iterator();
+        while (jobs.size() > historySize && oldest.hasNext()) {
+            if (oldest.next().getStatus().isFinished()) {
+                oldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Lifecycle state of a {@link RefreshJob}.
+ */
+public enum RefreshJobStatus {
+
+    /**
+     * Waiting for the refresh job thread or running.
+     */
+    RUNNING,
+
+    /**
+     * Finished; every partition was processed.
+     */
+    COMPLETED,
+
+    /**
+     * Cancelled by a client before all partitions were processed.
+     */
+    CANCELLED,
+
+    /**
+     * Stopped by an unexpected error.
+     */
+    FAILED;
+
+    /**
+     * Returns whether the job has stopped.
+     *
+     * @return true for every state except {@link #RUNNING}
+     */
+    public boolean isFinished() {
+        return this != RUNNING;
+    }
+}
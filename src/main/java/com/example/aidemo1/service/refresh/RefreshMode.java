@@ -0,0 +1,18 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Which partitions a call to {@code refreshAllRates} processes.
+ */
+public enum RefreshMode {
+
+    /**
+     * Every base currency, on this node.
+     */
+    ALL,
+
+    /**
+     * Only base-currency partitions this node claims through
+     * {@link com.example.aidemo1.cluster.PartitionLeaseManager}; other replicas process the rest.
+     */
+    CLAIMED_PARTITIONS
+}
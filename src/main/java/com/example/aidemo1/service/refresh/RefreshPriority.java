@@ -0,0 +1,18 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Which thread pool a partitioned refresh runs on.
+ */
+public enum RefreshPriority {
+
+    /**
+     * The shared refresh pool used by scheduled and manual cycles.
+     */
+    NORMAL,
+
+    /**
+     * A small dedicated pool, so short refreshes (for example of a newly added
+     * currency) never wait behind the partitions of a running full cycle.
+     */
+    HIGH
+}
@@ -0,0 +1,53 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Snapshot of a running refresh cycle.
+ *
+ * @param completedPartitions partitions (base currencies) finished so far, successfully or not
+ * @param totalPartitions     partitions in the cycle
+ * @param processedPairs      currency pairs in finished partitions, refreshed or failed
+ * @param refreshedPairs      currency pairs refreshed so far
+ * @param totalPairs          currency pairs in the cycle
+ */
+public record RefreshProgress(int completedPartitions,
+                              int totalPartitions,
+                              int processedPairs,
+                              int refreshedPairs,
+                              int totalPairs) {
+
+    /**
+     * Progress of a cycle that has not finished any partition yet.
+     *
+     * @return an empty snapshot
+     */
+    public static RefreshProgress none() {
+        return new RefreshProgress(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Returns the share of finished partitions.
+     *
+     * @return value between 0.0 and 1.0
+     */
+    public double fractionComplete() {
+        return totalPartitions == 0 ? 1.0 : (double) completedPartitions / totalPartitions;
+    }
+
+    /**
+     * Returns the pairs in finished partitions that could not be refreshed.
+     *
+     * @return failed pair count
+     */
+    public int failedPairs() {
+        return processedPairs - refreshedPairs;
+    }
+
+    /**
+     * Returns the pairs in partitions that have not finished yet.
+     *
+     * @return remaining pair count
+     */
+    public int remainingPairs() {
+        return totalPairs - processedPairs;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.aidemo1.service.refresh;
+
+/**
+ * Receives progress updates while a refresh cycle runs.
+ *
+ * <p>Called once per finished partition from the thread coordinating the cycle,
+ * never concurrently.</p>
+ */
+@FunctionalInterface
+public interface RefreshProgressListener {
+
+    /**
+     * Listener that ignores all updates.
+     */
+    RefreshProgressListener NONE = progress -> { };
+
+    /**
+     * Called after a partition has finished.
+     *
+     * @param progress the cycle progress including that partition
+     */
+    void onProgress(RefreshProgress progress);
+}
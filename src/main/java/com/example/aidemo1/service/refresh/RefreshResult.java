@@ -0,0 +1,38 @@
+package com.example.aidemo1.service.refresh;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Merged outcome of a refresh cycle.
+ *
+ * @param refreshedPairs      currency pairs refreshed successfully
+ * @param totalPairs          currency pairs in the cycle
+ * @param failedPartitions    base currencies whose partition failed as a whole
+ * @param timedOutPartitions  base currencies not finished before the cycle deadline
+ * @param duration            wall-clock time of the cycle
+ */
+public record RefreshResult(int refreshedPairs,
+                            int totalPairs,
+                            List<String> failedPartitions,
+                            List<String> timedOutPartitions,
+                            Duration duration) {
+
+    /**
+     * Result of a cycle that had nothing to refresh.
+     *
+     * @return an empty result
+     */
+    public static RefreshResult empty() {
+        return new RefreshResult(0, 0, List.of(), List.of(), Duration.ZERO);
+    }
+
+    /**
+     * Returns whether every partition finished before the deadline.
+     *
+     * @return true if no partition timed out
+     */
+    public boolean isComplete() {
+        return timedOutPartitions.isEmpty();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.aidemo1.tickstore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One rate read from the {@link TickStore}.
+ *
+ * @param sequence  the position of the tick in its pair's series, starting at 0
+ * @param timestamp when the rate was quoted
+ * @param rate      the rate
+ * @param provider  the provider name
+ */
+public record Tick(long sequence, LocalDateTime timestamp, BigDecimal rate, String provider) {
+}
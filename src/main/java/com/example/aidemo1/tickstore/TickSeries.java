@@ -0,0 +1,223 @@
+package com.example.aidemo1.tickstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The append-only tick log of one currency pair.
+ *
+ * <p>Ticks are fixed-width records in memory-mapped segment files of
+ * {@code segmentRecords} records each, named after their segment number. A record is
+ * the timestamp in epoch microseconds, the rate scaled by 10^6 and the provider id;
+ * the record at sequence {@code n} is at a fixed offset of a fixed segment, so reads
+ * need no per-record index.</p>
+ *
+ * <p>The timestamp of every {@code indexInterval}-th record is kept in a sparse
+ * in-memory index. Timestamps never decrease along the series, so a time lookup is a
+ * binary search of the index followed by a scan of at most one interval.</p>
+ *
+ * <p>One thread appends at a time (callers synchronize on the series); readers need
+ * no lock. A record's fields are written before the count that makes it visible, and
+ * the timestamp is written last, so a record torn by a crash reads as unused when the
+ * segment is reopened.</p>
+ */
+final class TickSeries implements Closeable {
+
+    static final int RECORD_SIZE = 24;
+
+    private static final int RATE_OFFSET = 8;
+    private static final int PROVIDER_OFFSET = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int indexInterval;
+    private final List<FileChannel> channels = new ArrayList<>();
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile long[] index = new long[16];
+    private volatile long count;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    TickSeries(Path directory, int segmentRecords, int indexInterval) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.indexInterval = indexInterval;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @param timestampMicros the quote time in epoch microseconds
+     * @param scaledRate      the rate scaled by 10^6
+     * @param providerId      the provider id
+     * @return false if the tick is older than the last tick of the series and was not stored
+     * @throws IOException if a new segment cannot be mapped
+     */
+    boolean append(long timestampMicros, long scaledRate, short providerId) throws IOException {
+        if (timestampMicros < lastTimestamp) {
+            return false;
+        }
+        long sequence = count;
+        int segment = (int) (sequence / segmentRecords);
+        if (segment == segments.length) {
+            addSegment(segment);
+        }
+        MappedByteBuffer buffer = segments[segment];
+        int offset = (int) (sequence % segmentRecords) * RECORD_SIZE;
+        buffer.putLong(offset + RATE_OFFSET, scaledRate);
+        buffer.putShort(offset + PROVIDER_OFFSET, providerId);
+        buffer.putLong(offset, timestampMicros);
+        if (sequence % indexInterval == 0) {
+            addIndexEntry((int) (sequence / indexInterval), timestampMicros);
+        }
+        lastTimestamp = timestampMicros;
+        count = sequence + 1;
+        return true;
+    }
+
+    /**
+     * Returns the number of stored ticks.
+     *
+     * @return the tick count
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Returns the sequence of the newest tick at or before a time.
+     *
+     * @param timestampMicros the time in epoch microseconds
+     * @return the sequence, or -1 if every tick is newer
+     */
+    long floor(long timestampMicros) {
+        long size = count;
+        long[] entries = index;
+        int low = 0;
+        int high = (int) ((size + indexInterval - 1) / indexInterval) - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle] <= timestampMicros) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) {
+            return -1;
+        }
+        long sequence = (long) block * indexInterval;
+        long end = Math.min(size, sequence + indexInterval);
+        while (sequence + 1 < end && timestamp(sequence + 1) <= timestampMicros) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    long timestamp(long sequence) {
+        return segment(sequence).getLong(offset(sequence));
+    }
+
+    long scaledRate(long sequence) {
+        return segment(sequence).getLong(offset(sequence) + RATE_OFFSET);
+    }
+
+    short providerId(long sequence) {
+        return segment(sequence).getShort(offset(sequence) + PROVIDER_OFFSET);
+    }
+
+    /**
+     * Flushes written records to the segment files.
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int segment = 0; segment < files.size(); segment++) {
+            addSegment(segment);
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+
+        // Records are written front to back, so the used ones are a prefix of the last segment
+        MappedByteBuffer last = segments[segments.length - 1];
+        int low = 0;
+        int high = segmentRecords;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (last.getLong(middle * RECORD_SIZE) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long size = (long) (segments.length - 1) * segmentRecords + low;
+        count = size;
+        for (long sequence = 0; sequence < size; sequence += indexInterval) {
+            addIndexEntry((int) (sequence / indexInterval), timestamp(sequence));
+        }
+        if (size > 0) {
+            lastTimestamp = timestamp(size - 1);
+        }
+    }
+
+    private void addSegment(int segment) throws IOException {
+        Path file = directory.resolve(String.format("%010d%s", segment, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+        grown[segment] = buffer;
+        segments = grown;
+    }
+
+    private void addIndexEntry(int position, long timestampMicros) {
+        long[] entries = index;
+        if (position == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[position] = timestampMicros;
+        index = entries;
+    }
+
+    private MappedByteBuffer segment(long sequence) {
+        return segments[(int) (sequence / segmentRecords)];
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence % segmentRecords) * RECORD_SIZE;
+    }
+}
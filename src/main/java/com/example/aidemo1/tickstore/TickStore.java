@@ -0,0 +1,296 @@
+package com.example.aidemo1.tickstore;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.persistence.ScaledRateConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Local append-only tick log of fetched rates, kept beside {@code exchange_rate}.
+ *
+ * <p>Every fetched rate is appended to its pair's {@link TickSeries}: fixed-width
+ * records in memory-mapped segment files under {@code exchange.tickstore.directory},
+ * one subdirectory per pair. Appends are plain memory writes, so the fetch path does
+ * not wait for PostgreSQL; reads decode records straight from the mapped pages, with
+ * no query round trip and no intermediate copy.</p>
+ *
+ * <h2>Ordering</h2>
+ * <p>A series only grows forward in time. The rates of a batch are appended in
+ * timestamp order, and a rate older than the newest tick of its pair is not stored
+ * (counted in {@code exchange.tickstore.rejected}).</p>
+ *
+ * <h2>Durability</h2>
+ * <p>Written pages survive a crash of the application but are only forced to disk on
+ * shutdown, so ticks of the last moments before an operating-system crash can be lost.
+ * {@code exchange_rate} remains the system of record; the tick store only holds ticks
+ * fetched since it was enabled.</p>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *   <li>{@code exchange.tickstore.enabled} - activates the store</li>
+ *   <li>{@code exchange.tickstore.directory} (default {@code ./data/ticks})</li>
+ *   <li>{@code exchange.tickstore.segment-records} - records per segment file (default 262144, 6 MB)</li>
+ *   <li>{@code exchange.tickstore.index-interval} - records per sparse index entry (default 64)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange.tickstore.enabled", havingValue = "true")
+public class TickStore {
+
+    private static final String PROVIDERS_FILE = "providers";
+    private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int indexInterval;
+    private final Map<String, TickSeries> series = new ConcurrentHashMap<>();
+    private final List<String> providerNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Short> providerIds = new ConcurrentHashMap<>();
+
+    private final Counter appendedCounter;
+    private final Counter rejectedCounter;
+
+    public TickStore(
+            MeterRegistry meterRegistry,
+            @Value("${exchange.tickstore.directory:./data/ticks}") Path directory,
+            @Value("${exchange.tickstore.segment-records:262144}") int segmentRecords,
+            @Value("${exchange.tickstore.index-interval:64}") int indexInterval) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / TickSeries.RECORD_SIZE || indexInterval < 1) {
+            throw new IllegalArgumentException("Tick store segment size and index interval are out of range");
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.indexInterval = indexInterval;
+        Files.createDirectories(directory);
+
+        Path providersFile = directory.resolve(PROVIDERS_FILE);
+        if (Files.exists(providersFile)) {
+            for (String name : Files.readAllLines(providersFile, StandardCharsets.UTF_8)) {
+                providerIds.put(name, (short) providerNames.size());
+                providerNames.add(name);
+            }
+        }
+
+        this.appendedCounter = Counter.builder("exchange.tickstore.appended")
+                .description("Ticks appended to the local tick store")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("exchange.tickstore.rejected")
+                .description("Ticks not stored because they were older than their series")
+                .register(meterRegistry);
+        log.info("Tick store opened at {} (segment records {}, index interval {})",
+                directory.toAbsolutePath(), segmentRecords, indexInterval);
+    }
+
+    /**
+     * Appends fetched rates to their pairs' series.
+     *
+     * @param rates the rates; an empty list is a no-op
+     * @return the number of rates stored
+     */
+    public int append(List<ExchangeRate> rates) {
+        if (rates == null || rates.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<ExchangeRate>> byPair = new LinkedHashMap<>();
+        for (ExchangeRate rate : rates) {
+            byPair.computeIfAbsent(key(rate.getBaseCurrency(), rate.getTargetCurrency()), k -> new ArrayList<>())
+                    .add(rate);
+        }
+
+        int appended = 0;
+        int rejected = 0;
+        try {
+            for (Map.Entry<String, List<ExchangeRate>> pair : byPair.entrySet()) {
+                List<ExchangeRate> pairRates = pair.getValue();
+                pairRates.sort(Comparator.comparing(ExchangeRate::getTimestamp));
+                TickSeries ticks = series.computeIfAbsent(pair.getKey(), this::openSeries);
+                synchronized (ticks) {
+                    for (ExchangeRate rate : pairRates) {
+                        if (ticks.append(toMicros(rate.getTimestamp()), ScaledRateConverter.toScaled(rate.getRate()),
+                                providerId(rate.getProvider()))) {
+                            appended++;
+                        } else {
+                            rejected++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the tick store", e);
+        } finally {
+            appendedCounter.increment(appended);
+            rejectedCounter.increment(rejected);
+        }
+        if (rejected > 0) {
+            log.debug("Tick store rejected {} out-of-order rates", rejected);
+        }
+        return appended;
+    }
+
+    /**
+     * Returns ticks of a pair, most recent first.
+     *
+     * @param base           base currency code
+     * @param target         target currency code
+     * @param beforeSequence return only ticks with a lower sequence; {@link Long#MAX_VALUE} for the newest
+     * @param limit          the maximum number of ticks
+     * @return up to {@code limit} ticks
+     */
+    public List<Tick> newestFirst(String base, String target, long beforeSequence, int limit) {
+        TickSeries ticks = existingSeries(base, target);
+        if (ticks == null) {
+            return List.of();
+        }
+        long start = Math.min(beforeSequence, ticks.count()) - 1;
+        List<Tick> result = new ArrayList<>((int) Math.min(limit, Math.max(start + 1, 0)));
+        for (long sequence = start; sequence >= 0 && result.size() < limit; sequence--) {
+            result.add(read(ticks, sequence));
+        }
+        return result;
+    }
+
+    /**
+     * Passes every tick of a pair to a consumer, most recent first.
+     * Ticks appended while the visit runs are not included.
+     *
+     * @param base     base currency code
+     * @param target   target currency code
+     * @param consumer receives the ticks
+     * @return the number of ticks visited
+     */
+    public long forEachNewestFirst(String base, String target, Consumer<Tick> consumer) {
+        TickSeries ticks = existingSeries(base, target);
+        if (ticks == null) {
+            return 0;
+        }
+        long size = ticks.count();
+        for (long sequence = size - 1; sequence >= 0; sequence--) {
+            consumer.accept(read(ticks, sequence));
+        }
+        return size;
+    }
+
+    /**
+     * Returns the newest tick of a pair quoted at or before a time.
+     *
+     * @param base   base currency code
+     * @param target target currency code
+     * @param at     the point in time
+     * @return the tick, or empty if the pair has no tick that old
+     */
+    public Optional<Tick> tickAt(String base, String target, LocalDateTime at) {
+        TickSeries ticks = existingSeries(base, target);
+        if (ticks == null) {
+            return Optional.empty();
+        }
+        long sequence = ticks.floor(toMicros(at));
+        return sequence < 0 ? Optional.empty() : Optional.of(read(ticks, sequence));
+    }
+
+    /**
+     * Forces all series to disk and closes their files; called on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        for (Map.Entry<String, TickSeries> entry : series.entrySet()) {
+            synchronized (entry.getValue()) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    log.warn("Could not close tick series {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+        log.info("Tick store closed ({} series)", series.size());
+    }
+
+    private TickSeries existingSeries(String base, String target) {
+        String key = key(base, target);
+        TickSeries ticks = series.get(key);
+        if (ticks == null && Files.isDirectory(directory.resolve(key))) {
+            ticks = series.computeIfAbsent(key, this::openSeries);
+        }
+        return ticks;
+    }
+
+    private TickSeries openSeries(String key) {
+        try {
+            return new TickSeries(directory.resolve(key), segmentRecords, indexInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open tick series " + key, e);
+        }
+    }
+
+    private Tick read(TickSeries ticks, long sequence) {
+        return new Tick(sequence,
+                fromMicros(ticks.timestamp(sequence)),
+                ScaledRateConverter.fromScaled(ticks.scaledRate(sequence)),
+                providerNames.get(ticks.providerId(sequence)));
+    }
+
+    private short providerId(String name) throws IOException {
+        Short id = providerIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (providerIds) {
+            id = providerIds.get(name);
+            if (id == null) {
+                if (providerNames.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many providers in the tick store");
+                }
+                id = (short) providerNames.size();
+                // Persist the name before any record can reference its id
+                Files.writeString(directory.resolve(PROVIDERS_FILE), name + System.lineSeparator(),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                        StandardOpenOption.SYNC);
+                providerNames.add(name);
+                providerIds.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    private static String key(String base, String target) {
+        // Keys name directories, so only plain currency codes are accepted
+        if (!CURRENCY_CODE.matcher(base).matches() || !CURRENCY_CODE.matcher(target).matches()) {
+            throw new IllegalArgumentException("Invalid currency pair: " + base + " -> " + target);
+        }
+        return base + "-" + target;
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.aidemo1.cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for LocalRefreshCycleGuard.
+ * Tests that cycles run once per interval however often they are checked.
+ */
+@DisplayName("LocalRefreshCycleGuard Tests")
+class LocalRefreshCycleGuardTest {
+
+    private final LocalRefreshCycleGuard guard = new LocalRefreshCycleGuard();
+
+    @Test
+    @DisplayName("Should run a cycle once per interval")
+    void shouldRunOncePerInterval() {
+        // When
+        OptionalInt first = guard.runIfDue("demand-refresh", Duration.ofHours(1), () -> 3);
+        OptionalInt second = guard.runIfDue("demand-refresh", Duration.ofHours(1), () -> fail("Cycle must not run"));
+        OptionalInt other = guard.runIfDue("full-refresh", Duration.ofHours(1), () -> 7);
+
+        // Then
+        assertThat(first).hasValue(3);
+        assertThat(second).isEmpty();
+        assertThat(other).hasValue(7);
+    }
+
+    @Test
+    @DisplayName("Should run every check when the interval is zero")
+    void shouldRunEveryCheckWithZeroInterval() {
+        guard.runIfDue("demand-refresh", Duration.ZERO, () -> 1);
+
+        assertThat(guard.runIfDue("demand-refresh", Duration.ZERO, () -> 2)).hasValue(2);
+    }
+}
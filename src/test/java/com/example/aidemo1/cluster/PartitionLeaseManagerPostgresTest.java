@@ -0,0 +1,150 @@
+package com.example.aidemo1.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lease expiry, re-claim and release against a real PostgreSQL, with two nodes sharing
+ * {@code refresh_partition_lease}.
+ *
+ * <p>Runs only when a database is given, e.g.
+ * {@code POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/aidemo} (credentials from
+ * {@code POSTGRES_TEST_USERNAME}/{@code _PASSWORD}). The tables are created in a scratch
+ * schema that is dropped afterwards.</p>
+ */
+@DisplayName("PartitionLeaseManager against PostgreSQL")
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+class PartitionLeaseManagerPostgresTest {
+
+    private static final String SCHEMA = "partition_lease_test";
+    private static final long LEASE_SECONDS = 30;
+
+    private JdbcTemplate admin;
+    private JdbcTemplate jdbcTemplate;
+    private PartitionLeaseManager nodeA;
+    private PartitionLeaseManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        admin = new JdbcTemplate(dataSource(null));
+        admin.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        admin.execute("CREATE SCHEMA " + SCHEMA);
+
+        DriverManagerDataSource dataSource = dataSource(SCHEMA);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE currency (code VARCHAR(3) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE refresh_partition_lease (base_currency VARCHAR(3) PRIMARY KEY, "
+                + "last_refreshed_at TIMESTAMP, lease_owner VARCHAR(100), lease_expires_at TIMESTAMP)");
+        jdbcTemplate.execute("INSERT INTO currency (code) VALUES ('EUR'), ('GBP'), ('USD')");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        nodeA = new PartitionLeaseManager(jdbcTemplate, transactionTemplate, "node-a", 3600, LEASE_SECONDS, 0, 2);
+        nodeB = new PartitionLeaseManager(jdbcTemplate, transactionTemplate, "node-b", 3600, LEASE_SECONDS, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+        admin.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Should never hand the same partition to two nodes")
+    void shouldClaimDisjointPartitions() {
+        List<String> claimedByA = nodeA.claim();
+        List<String> claimedByB = nodeB.claim();
+
+        assertThat(claimedByA).containsExactly("EUR", "GBP");
+        assertThat(claimedByB).containsExactly("USD");
+        assertThat(nodeB.claim()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should let another node re-claim a partition whose lease expired")
+    void shouldReclaimExpiredLease() {
+        List<String> claimed = nodeA.claim();
+        nodeB.claim();
+        expireLeases(claimed);
+
+        assertThat(nodeB.claim()).containsExactlyElementsOf(claimed);
+        assertThat(owners(claimed)).containsOnly("node-b");
+    }
+
+    @Test
+    @DisplayName("Should keep a renewed lease out of other nodes' claims")
+    void shouldKeepRenewedLease() {
+        List<String> claimed = nodeA.claim();
+        nodeB.claim();
+        jdbcTemplate.update("UPDATE refresh_partition_lease SET lease_expires_at = now() + interval '1 second'");
+
+        nodeA.renew(claimed);
+        jdbcTemplate.execute("SELECT pg_sleep(1.5)");
+
+        assertThat(nodeB.claim()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not renew a lease that has passed to another node")
+    void shouldNotRenewLostLease() {
+        List<String> claimed = nodeA.claim();
+        nodeB.claim();
+        expireLeases(claimed);
+        nodeB.claim();
+
+        nodeA.renew(claimed);
+
+        assertThat(owners(claimed)).containsOnly("node-b");
+    }
+
+    @Test
+    @DisplayName("Should make released partitions claimable and completed ones not due")
+    void shouldReleaseAndComplete() {
+        nodeA.claim();
+        nodeA.release(List.of("EUR"));
+        nodeA.complete(List.of("GBP"));
+
+        assertThat(nodeB.claim()).containsExactly("EUR", "USD");
+        nodeB.complete(List.of("EUR", "USD"));
+        assertThat(nodeA.claim()).isEmpty();
+    }
+
+    private void expireLeases(List<String> bases) {
+        for (String base : bases) {
+            jdbcTemplate.update("UPDATE refresh_partition_lease SET lease_expires_at = now() - interval '1 second' "
+                    + "WHERE base_currency = ?", base);
+        }
+    }
+
+    private List<String> owners(List<String> bases) {
+        return bases.stream()
+                .map(base -> jdbcTemplate.queryForObject(
+                        "SELECT lease_owner FROM refresh_partition_lease WHERE base_currency = ?", String.class, base))
+                .toList();
+    }
+
+    private static DriverManagerDataSource dataSource(String schema) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("POSTGRES_TEST_URL"),
+                System.getenv().getOrDefault("POSTGRES_TEST_USERNAME", "postgres"),
+                System.getenv().getOrDefault("POSTGRES_TEST_PASSWORD", "postgres"));
+        if (schema != null) {
+            Properties properties = new Properties();
+            properties.setProperty("currentSchema", schema);
+            dataSource.setConnectionProperties(properties);
+        }
+        return dataSource;
+    }
+}
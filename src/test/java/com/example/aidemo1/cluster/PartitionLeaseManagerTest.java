@@ -0,0 +1,141 @@
+package com.example.aidemo1.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PartitionLeaseManager.
+ * Tests claiming, completing, releasing and renewing partition leases.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PartitionLeaseManager Tests")
+class PartitionLeaseManagerTest {
+
+    private static final long LEASE_SECONDS = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PartitionLeaseManager leases;
+
+    @BeforeEach
+    void setUp() {
+        leases = new PartitionLeaseManager(jdbcTemplate, transactionTemplate, "node-1", 3600, LEASE_SECONDS, 300, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        leases.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should lease claimed partitions to this node")
+    void shouldLeaseClaimedPartitions() {
+        // Given
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<List<String>>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.queryForList(startsWith("SELECT base_currency"), eq(String.class), eq(3600L), eq(2)))
+                .thenReturn(List.of("EUR", "USD"));
+
+        // When
+        List<String> claimed = leases.claim();
+
+        // Then
+        assertThat(claimed).containsExactly("EUR", "USD");
+        verify(jdbcTemplate).update(startsWith("INSERT INTO refresh_partition_lease"));
+        verify(jdbcTemplate).update(startsWith("UPDATE refresh_partition_lease SET lease_owner = ?"),
+                eq("node-1"), eq(LEASE_SECONDS), eq("EUR"));
+        verify(jdbcTemplate).update(startsWith("UPDATE refresh_partition_lease SET lease_owner = ?"),
+                eq("node-1"), eq(LEASE_SECONDS), eq("USD"));
+    }
+
+    @Test
+    @DisplayName("Should return no partitions when nothing is claimable")
+    void shouldReturnEmptyWhenNothingIsClaimable() {
+        // Given
+        when(transactionTemplate.execute(any())).thenReturn(null);
+
+        // When & Then
+        assertThat(leases.claim()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should complete and release only partitions leased by this node")
+    void shouldCompleteAndReleaseOwnLeases() {
+        // When
+        leases.complete(List.of("EUR"));
+        leases.release(List.of("USD"));
+
+        // Then
+        verify(jdbcTemplate).update(contains("last_refreshed_at = now()"), eq("EUR"), eq("node-1"));
+        verify(jdbcTemplate).update(contains("lease_owner = NULL, lease_expires_at = now()"),
+                eq(300L), eq("USD"), eq("node-1"));
+    }
+
+    @Test
+    @DisplayName("Should extend only leases still owned by this node")
+    void shouldRenewOwnLeases() {
+        // Given - USD has meanwhile been taken over by another node
+        when(jdbcTemplate.update(startsWith("UPDATE refresh_partition_lease SET lease_expires_at"),
+                eq(LEASE_SECONDS), anyString(), eq("node-1"))).thenReturn(1, 0);
+
+        // When
+        leases.renew(List.of("EUR", "USD"));
+
+        // Then
+        verify(jdbcTemplate).update(contains("AND lease_owner = ?"), eq(LEASE_SECONDS), eq("EUR"), eq("node-1"));
+        verify(jdbcTemplate).update(contains("AND lease_owner = ?"), eq(LEASE_SECONDS), eq("USD"), eq("node-1"));
+    }
+
+    @Test
+    @DisplayName("Should not propagate renewal failures")
+    void shouldSurviveRenewalFailure() {
+        // Given
+        when(jdbcTemplate.update(anyString(), eq(LEASE_SECONDS), anyString(), eq("node-1")))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // When & Then
+        assertThatCode(() -> leases.renew(List.of("EUR"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should renew leases in the background until the renewal is closed")
+    void shouldRenewUntilClosed() {
+        // When - renewals run every LEASE_SECONDS / 3 = 1 s
+        PartitionLeaseManager.LeaseRenewal renewal = leases.keepAlive(List.of("EUR"));
+
+        // Then
+        verify(jdbcTemplate, timeout(2500)).update(startsWith("UPDATE refresh_partition_lease SET lease_expires_at"),
+                eq(LEASE_SECONDS), eq("EUR"), eq("node-1"));
+
+        renewal.close();
+        clearInvocations(jdbcTemplate);
+        verify(jdbcTemplate, after(1500).never()).update(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject leases too short to renew")
+    void shouldRejectShortLease() {
+        assertThatThrownBy(() -> new PartitionLeaseManager(jdbcTemplate, transactionTemplate, "node-1",
+                3600, 2, 300, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.aidemo1.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PostgresAdvisoryRefreshCycleGuard.
+ * Tests lock contention, the shared marker and takeover of abandoned cycles.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostgresAdvisoryRefreshCycleGuard Tests")
+class PostgresAdvisoryRefreshCycleGuardTest {
+
+    private static final Duration INTERVAL = Duration.ofHours(1);
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement lockStatement;
+
+    @Mock
+    private ResultSet lockResult;
+
+    @Mock
+    private PreparedStatement markerStatement;
+
+    @Mock
+    private ResultSet markerResult;
+
+    @Mock
+    private PreparedStatement updateStatement;
+
+    private PostgresAdvisoryRefreshCycleGuard guard;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lockStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        lenient().when(connection.prepareStatement(startsWith("SELECT last_started_at"))).thenReturn(markerStatement);
+        lenient().when(markerStatement.executeQuery()).thenReturn(markerResult);
+        lenient().when(connection.prepareStatement(startsWith("INSERT INTO refresh_cycle_marker")))
+                .thenReturn(updateStatement);
+        lenient().when(connection.prepareStatement(startsWith("UPDATE refresh_cycle_marker")))
+                .thenReturn(updateStatement);
+        lenient().when(connection.prepareStatement(startsWith("SELECT pg_advisory_unlock")))
+                .thenReturn(updateStatement);
+
+        guard = new PostgresAdvisoryRefreshCycleGuard(dataSource, "node-1");
+    }
+
+    @Test
+    @DisplayName("Should skip the cycle when another node holds the lock")
+    void shouldSkipWhenLockIsHeld() throws SQLException {
+        // Given
+        givenLock(false);
+
+        // When
+        OptionalInt result = guard.runIfDue("full-refresh", INTERVAL, () -> fail("Cycle must not run"));
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should run the first cycle and record it in the marker")
+    void shouldRunFirstCycle() throws SQLException {
+        // Given
+        givenLock(true);
+        when(markerResult.next()).thenReturn(false);
+
+        // When
+        OptionalInt result = guard.runIfDue("full-refresh", INTERVAL, () -> 12);
+
+        // Then
+        assertThat(result).hasValue(12);
+        verify(updateStatement, times(2)).executeUpdate();
+        verify(updateStatement).execute();
+    }
+
+    @Test
+    @DisplayName("Should skip a cycle that completed within the interval")
+    void shouldSkipCycleThatIsNotDue() throws SQLException {
+        // Given
+        givenLock(true);
+        givenMarker(utcNow().minusSeconds(600), utcNow().minusSeconds(300));
+
+        // When
+        OptionalInt result = guard.runIfDue("full-refresh", INTERVAL, () -> fail("Cycle must not run"));
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(updateStatement).execute();
+    }
+
+    @Test
+    @DisplayName("Should take over a cycle whose leader died before completing it")
+    void shouldTakeOverAbandonedCycle() throws SQLException {
+        // Given - started ten minutes ago, never completed
+        givenLock(true);
+        givenMarker(utcNow().minusSeconds(600), null);
+
+        // When
+        OptionalInt result = guard.runIfDue("full-refresh", INTERVAL, () -> 5);
+
+        // Then
+        assertThat(result).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("Should write marker times in UTC")
+    void shouldWriteMarkerTimesInUtc() throws SQLException {
+        // Given
+        givenLock(true);
+        when(markerResult.next()).thenReturn(false);
+        LocalDateTime before = utcNow();
+
+        // When
+        guard.runIfDue("full-refresh", INTERVAL, () -> 1);
+
+        // Then
+        verify(updateStatement).setObject(eq(2), argThat((LocalDateTime startedAt) ->
+                !startedAt.isBefore(before) && !startedAt.isAfter(utcNow())));
+    }
+
+    private void givenLock(boolean acquired) throws SQLException {
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getBoolean(1)).thenReturn(acquired);
+    }
+
+    private void givenMarker(LocalDateTime startedAt, LocalDateTime completedAt) throws SQLException {
+        when(markerResult.next()).thenReturn(true);
+        when(markerResult.getObject(1, LocalDateTime.class)).thenReturn(startedAt);
+        when(markerResult.getObject(2, LocalDateTime.class)).thenReturn(completedAt);
+    }
+
+    private static LocalDateTime utcNow() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.aidemo1.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource and ReplicaHealthMonitor.
+ * Tests routing by transaction read-only flag, lag fallback and health ejection.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replicaDataSource1;
+
+    @Mock
+    private DataSource replicaDataSource2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection1;
+
+    @Mock
+    private Connection replicaConnection2;
+
+    private ReplicaRoutingDataSource.Replica replica1;
+    private ReplicaRoutingDataSource.Replica replica2;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replicaDataSource1.getConnection()).thenReturn(replicaConnection1);
+        lenient().when(replicaDataSource2.getConnection()).thenReturn(replicaConnection2);
+
+        replica1 = new ReplicaRoutingDataSource.Replica("replica-1", replicaDataSource1);
+        replica2 = new ReplicaRoutingDataSource.Replica("replica-2", replicaDataSource2);
+        replica1.markHealthy(Duration.ZERO);
+        replica2.markHealthy(Duration.ZERO);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), MAX_LAG);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should route writes to the primary")
+    void shouldRouteWritesToPrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to replicas round-robin")
+    void shouldRouteReadsToReplicasRoundRobin() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When / Then
+        assertThat(List.of(routing.getConnection(), routing.getConnection()))
+                .containsExactlyInAnyOrder(replicaConnection1, replicaConnection2);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Should skip a replica lagging beyond the freshness window")
+    void shouldSkipLaggingReplica() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replica1.markHealthy(MAX_LAG.plusSeconds(1));
+
+        // When / Then
+        assertThat(routing.getConnection()).isSameAs(replicaConnection2);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection2);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when no replica is eligible")
+    void shouldFallBackToPrimary() throws SQLException {
+        // Given - one replica lags, the other was ejected
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replica1.markHealthy(MAX_LAG.plusSeconds(5));
+        replica2.markUnhealthy();
+
+        // When / Then
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should eject a replica whose health check fails")
+    void shouldEjectFailingReplica() throws SQLException {
+        // Given
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(List.of(), 1);
+        when(replicaDataSource1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        monitor.check(replica1);
+
+        // Then
+        assertThat(replica1.isHealthy()).isFalse();
+        assertThat(routing.getConnection()).isSameAs(replicaConnection2);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection2);
+    }
+
+    @Test
+    @DisplayName("Should not check replicas before the first scheduled run")
+    void shouldNotCheckReplicasOnCreation() throws SQLException {
+        // When
+        new ReplicaHealthMonitor(List.of(replica1), 1);
+
+        // Then - startup never blocks on a replica, which serves no reads until checked
+        verify(replicaDataSource1, never()).getConnection();
+        assertThat(new ReplicaRoutingDataSource.Replica("replica-3", replicaDataSource1).isHealthy()).isFalse();
+    }
+}
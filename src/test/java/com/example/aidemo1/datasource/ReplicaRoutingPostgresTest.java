@@ -0,0 +1,92 @@
+package com.example.aidemo1.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two real PostgreSQL instances.
+ *
+ * <p>Runs only when both are given, e.g.
+ * {@code REPLICA_TEST_PRIMARY_URL=jdbc:postgresql://localhost:5432/aidemo} and
+ * {@code REPLICA_TEST_REPLICA_URL=jdbc:postgresql://localhost:5433/aidemo}
+ * (credentials from {@code REPLICA_TEST_USERNAME}/{@code _PASSWORD}). The second instance
+ * may be a streaming replica of the first or simply another server; the instances are
+ * told apart by their port.</p>
+ */
+@DisplayName("Replica routing against PostgreSQL")
+@EnabledIfEnvironmentVariable(named = "REPLICA_TEST_PRIMARY_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "REPLICA_TEST_REPLICA_URL", matches = ".+")
+class ReplicaRoutingPostgresTest {
+
+    private static final String PORT_SQL = "SELECT current_setting('port')";
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replicaDataSource;
+    private ReplicaRoutingDataSource.Replica replica;
+    private ReplicaHealthMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate readWriteTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = dataSource(System.getenv("REPLICA_TEST_PRIMARY_URL"));
+        replicaDataSource = dataSource(System.getenv("REPLICA_TEST_REPLICA_URL"));
+        replica = new ReplicaRoutingDataSource.Replica("replica-1", replicaDataSource);
+        monitor = new ReplicaHealthMonitor(List.of(replica), 2);
+        monitor.checkReplicas();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("Should run read-only transactions on the replica and others on the primary")
+    void shouldRouteByReadOnlyFlag() {
+        String primaryPort = new JdbcTemplate(primary).queryForObject(PORT_SQL, String.class);
+        String replicaPort = new JdbcTemplate(replicaDataSource).queryForObject(PORT_SQL, String.class);
+
+        assertThat(replica.isHealthy()).isTrue();
+        assertThat(readOnlyTx.execute(status -> jdbcTemplate.queryForObject(PORT_SQL, String.class)))
+                .isEqualTo(replicaPort);
+        assertThat(readWriteTx.execute(status -> jdbcTemplate.queryForObject(PORT_SQL, String.class)))
+                .isEqualTo(primaryPort);
+    }
+
+    @Test
+    @DisplayName("Should send reads to the primary once the replica is unreachable")
+    void shouldFallBackWhenReplicaIsDown() {
+        String primaryPort = new JdbcTemplate(primary).queryForObject(PORT_SQL, String.class);
+        replicaDataSource.setUrl("jdbc:postgresql://localhost:1/unreachable");
+
+        monitor.checkReplicas();
+
+        assertThat(replica.isHealthy()).isFalse();
+        assertThat(readOnlyTx.execute(status -> jdbcTemplate.queryForObject(PORT_SQL, String.class)))
+                .isEqualTo(primaryPort);
+    }
+
+    private static DriverManagerDataSource dataSource(String url) {
+        return new DriverManagerDataSource(
+                url,
+                System.getenv().getOrDefault("REPLICA_TEST_USERNAME", "postgres"),
+                System.getenv().getOrDefault("REPLICA_TEST_PASSWORD", "postgres"));
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.aidemo1.integration.aggregator;
 
+import com.example.aidemo1.entity.CurrencyPairCatalogEntry;
 import com.example.aidemo1.entity.ExchangeRate;
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.integration.provider.ExchangeRateProvider;
-import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.persistence.ExchangeRateWriter;
+import com.example.aidemo1.repository.CurrencyPairCatalogRepository;
+import com.example.aidemo1.service.refresh.PairCatalog;
+import com.example.aidemo1.tickstore.TickStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,12 +18,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.springframework.beans.factory.ObjectProvider;
 
+import java.io.InterruptedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,7 +42,13 @@ import static org.mockito.Mockito.*;
 class RateAggregatorServiceTest {
     
     @Mock
-    private ExchangeRateRepository exchangeRateRepository;
+    private ExchangeRateWriter exchangeRateWriter;
+    
+    @Mock
+    private CurrencyPairCatalogRepository catalogRepository;
+    
+    @Mock
+    private ObjectProvider<TickStore> tickStore;
     
     @Mock
     private ExchangeRateProvider provider1;
@@ -66,7 +79,8 @@ class RateAggregatorServiceTest {
         when(provider3.getPriority()).thenReturn(50);
         
         List<ExchangeRateProvider> providers = Arrays.asList(provider1, provider2, provider3);
-        aggregatorService = new RateAggregatorService(providers, exchangeRateRepository);
+        aggregatorService = new RateAggregatorService(providers, exchangeRateWriter, new PairCatalog(catalogRepository),
+                tickStore);
     }
     
     @Test
@@ -86,8 +100,6 @@ class RateAggregatorServiceTest {
         when(provider1.fetchRate(from, to)).thenReturn(rate1);
         when(provider2.fetchRate(from, to)).thenReturn(rate2);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         ExchangeRate result = aggregatorService.fetchAndAggregate(from, to);
         
@@ -99,12 +111,41 @@ class RateAggregatorServiceTest {
         verify(provider1).fetchRate(from, to);
         verify(provider2).fetchRate(from, to);
         verify(provider3, never()).fetchRate(any(), any());
-        verify(exchangeRateRepository).saveAll(rateListCaptor.capture());
+        verify(exchangeRateWriter).writeNow(rateListCaptor.capture());
         
         List<ExchangeRate> savedRates = rateListCaptor.getValue();
         assertThat(savedRates).hasSize(2);
     }
     
+    @Test
+    @DisplayName("Should only query providers allowed by the pair catalog")
+    void shouldOnlyQueryProvidersAllowedByCatalog() {
+        // Given
+        String from = "USD";
+        String to = "EUR";
+        
+        when(catalogRepository.findByEnabledTrue()).thenReturn(List.of(CurrencyPairCatalogEntry.builder()
+                .baseCurrency(from)
+                .targetCurrency(to)
+                .ttlSeconds(600)
+                .refreshIntervalSeconds(600)
+                .allowedProviders("Provider2, Provider3")
+                .enabled(true)
+                .build()));
+        when(provider1.supports(from, to)).thenReturn(true);
+        when(provider2.supports(from, to)).thenReturn(true);
+        when(provider3.supports(from, to)).thenReturn(true);
+        when(provider2.fetchRate(from, to)).thenReturn(createRate(from, to, "1.08", "Provider2"));
+        when(provider3.fetchRate(from, to)).thenReturn(createRate(from, to, "1.09", "Provider3"));
+        
+        // When
+        ExchangeRate result = aggregatorService.fetchAndAggregate(from, to);
+        
+        // Then
+        assertThat(result.getProvider()).isEqualTo("Provider2");
+        verify(provider1, never()).fetchRate(any(), any());
+    }
+    
     @Test
     @DisplayName("Should select best rate based on lowest value")
     void shouldSelectBestRateBasedOnLowestValue() {
@@ -124,8 +165,6 @@ class RateAggregatorServiceTest {
         when(provider2.fetchRate(from, to)).thenReturn(rate2);
         when(provider3.fetchRate(from, to)).thenReturn(rate3);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         ExchangeRate result = aggregatorService.fetchAndAggregate(from, to);
         
@@ -150,8 +189,6 @@ class RateAggregatorServiceTest {
         when(provider1.fetchRate(from, to)).thenReturn(rate1);
         when(provider2.fetchRate(from, to)).thenReturn(rate2);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         ExchangeRate result = aggregatorService.fetchAndAggregate(from, to);
         
@@ -175,8 +212,6 @@ class RateAggregatorServiceTest {
         ExchangeRate rate2 = createRate(from, to, "1.08", "Provider2");
         when(provider2.fetchRate(from, to)).thenReturn(rate2);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         ExchangeRate result = aggregatorService.fetchAndAggregate(from, to);
         
@@ -184,7 +219,7 @@ class RateAggregatorServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getProvider()).isEqualTo("Provider2");
         
-        verify(exchangeRateRepository).saveAll(rateListCaptor.capture());
+        verify(exchangeRateWriter).writeNow(rateListCaptor.capture());
         assertThat(rateListCaptor.getValue()).hasSize(1);
     }
     
@@ -206,7 +241,7 @@ class RateAggregatorServiceTest {
                 .isInstanceOf(ExternalProviderException.class)
                 .hasMessageContaining("All providers failed");
         
-        verify(exchangeRateRepository, never()).saveAll(anyList());
+        verify(exchangeRateWriter, never()).writeNow(anyList());
     }
     
     @Test
@@ -226,7 +261,7 @@ class RateAggregatorServiceTest {
                 .hasMessageContaining("No providers support currency pair");
         
         verify(provider1, never()).fetchRate(any(), any());
-        verify(exchangeRateRepository, never()).saveAll(anyList());
+        verify(exchangeRateWriter, never()).writeNow(anyList());
     }
     
     @Test
@@ -290,8 +325,6 @@ class RateAggregatorServiceTest {
         when(provider1.fetchRate(from, "EUR")).thenReturn(rateEur);
         when(provider1.fetchRate(from, "GBP")).thenReturn(rateGbp);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         Map<String, ExchangeRate> results = aggregatorService.fetchAndAggregateMultiple(from, targets);
         
@@ -300,6 +333,10 @@ class RateAggregatorServiceTest {
         assertThat(results).containsKeys("EUR", "GBP");
         assertThat(results.get("EUR").getRate()).isEqualTo(new BigDecimal("1.10"));
         assertThat(results.get("GBP").getRate()).isEqualTo(new BigDecimal("0.85"));
+        
+        // All pairs are persisted in one batch
+        verify(exchangeRateWriter, times(1)).write(rateListCaptor.capture());
+        assertThat(rateListCaptor.getValue()).containsExactly(rateEur, rateGbp);
     }
     
     @Test
@@ -330,8 +367,6 @@ class RateAggregatorServiceTest {
         when(provider1.fetchRate(from, "EUR")).thenReturn(rateEur);
         when(provider1.fetchRate(from, "GBP")).thenReturn(rateGbp);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         Map<String, ExchangeRate> results = aggregatorService.fetchAndAggregateMultiple(from, targets);
         
@@ -341,6 +376,48 @@ class RateAggregatorServiceTest {
         assertThat(results).doesNotContainKey("JPY");
     }
     
+    @Test
+    @DisplayName("Should stop and store nothing when interrupted during multiple currency pairs")
+    void shouldStopWithoutStoringWhenInterrupted() {
+        // Given - the cycle deadline interrupts the thread while EUR is fetched
+        String from = "USD";
+        when(provider1.supports(from, "EUR")).thenReturn(true);
+        when(provider1.fetchRate(from, "EUR")).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return createRate(from, "EUR", "1.10", "Provider1");
+        });
+        
+        try {
+            // When/Then
+            assertThatThrownBy(() -> aggregatorService.fetchAndAggregateMultiple(from, Arrays.asList("EUR", "GBP")))
+                    .isInstanceOf(CancellationException.class);
+            verify(provider1, never()).fetchRate(from, "GBP");
+            verifyNoInteractions(exchangeRateWriter);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should stop when a provider fails because its call was interrupted")
+    void shouldStopWhenProviderCallInterrupted() {
+        // Given - the HTTP client clears the interrupt status and reports an I/O error
+        String from = "USD";
+        when(provider1.supports(from, "EUR")).thenReturn(true);
+        when(provider1.fetchRate(from, "EUR")).thenThrow(
+                new ExternalProviderException("Provider1 call failed", new InterruptedIOException("interrupted")));
+        
+        try {
+            // When/Then
+            assertThatThrownBy(() -> aggregatorService.fetchAndAggregateMultiple(from, Arrays.asList("EUR", "GBP")))
+                    .isInstanceOf(CancellationException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+            verifyNoInteractions(exchangeRateWriter);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
     @Test
     @DisplayName("Should validate multiple targets - null list")
     void shouldValidateMultipleTargetsNullList() {
@@ -381,7 +458,7 @@ class RateAggregatorServiceTest {
         
         // Then
         assertThat(results).hasSize(2);
-        verify(exchangeRateRepository, never()).saveAll(anyList());
+        verify(exchangeRateWriter, never()).write(anyList());
     }
     
     @Test
@@ -443,13 +520,11 @@ class RateAggregatorServiceTest {
         when(provider1.fetchRate(from, to)).thenReturn(rate1);
         when(provider2.fetchRate(from, to)).thenReturn(rate2);
         
-        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
-        
         // When
         aggregatorService.fetchAndAggregate(from, to);
         
         // Then
-        verify(exchangeRateRepository).saveAll(rateListCaptor.capture());
+        verify(exchangeRateWriter).writeNow(rateListCaptor.capture());
         List<ExchangeRate> savedRates = rateListCaptor.getValue();
         assertThat(savedRates).hasSize(2);
         assertThat(savedRates).extracting(ExchangeRate::getProvider)
@@ -2,6 +2,8 @@ package com.example.aidemo1.integration.client;
 
 import com.example.aidemo1.exception.ExternalProviderException;
 import com.example.aidemo1.integration.dto.external.ExchangeRatesApiResponse;
+import com.example.aidemo1.integration.limiter.ConcurrencyLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,9 +35,12 @@ class ExchangeRatesApiClientTest {
     private static final String BASE_URL = "https://api.exchangeratesapi.io/v1";
     private static final String API_KEY = "test-api-key";
 
+    private final ConcurrencyLimiterRegistry limiterRegistry =
+            new ConcurrencyLimiterRegistry(new SimpleMeterRegistry(), 20, 1, 200, 1.5, 0.2);
+
     @BeforeEach
     void setUp() {
-        client = new ExchangeRatesApiClient(restTemplate, BASE_URL, API_KEY);
+        client = new ExchangeRatesApiClient(restTemplate, limiterRegistry, BASE_URL, API_KEY);
     }
 
     @Test
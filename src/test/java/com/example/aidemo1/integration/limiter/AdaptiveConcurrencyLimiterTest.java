@@ -0,0 +1,157 @@
+package com.example.aidemo1.integration.limiter;
+
+import com.example.aidemo1.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter and ConcurrencyLimiterRegistry.
+ */
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter("Test",
+                new AdaptiveConcurrencyLimiter.Settings(initial, min, max, 1.5, 1.0));
+    }
+
+    @Test
+    @DisplayName("Should execute call and release the permit")
+    void shouldExecuteCallAndReleasePermit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(5, 1, 10);
+
+        String result = limiter.execute(() -> "ok");
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getRejectedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the current limit")
+    void shouldRejectCallsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10);
+
+        assertThatThrownBy(() -> limiter.execute(() -> limiter.execute(() -> "nested")))
+                .isInstanceOf(ConcurrencyLimitExceededException.class)
+                .hasMessageContaining("Test");
+
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should back off multiplicatively on overload signals")
+    void shouldBackOffOnOverload() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 1, 200);
+
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new ResourceAccessException("Read timed out");
+        })).isInstanceOf(ResourceAccessException.class);
+
+        assertThat(limiter.getLimit()).isEqualTo(90);
+        assertThat(limiter.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the limit on client errors that are not overload")
+    void shouldIgnoreNonOverloadClientErrors() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 1, 200);
+
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        })).isInstanceOf(HttpClientErrorException.class);
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        assertThat(limiter.getDroppedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays at baseline under load")
+    void shouldGrowLimitAtBaselineLatency() {
+        AdaptiveConcurrencyLimiter limiter = limiter(16, 1, 200);
+
+        limiter.onSample(50 * MILLIS, 16);
+        limiter.onSample(50 * MILLIS, 16);
+
+        assertThat(limiter.getLimit()).isGreaterThan(16);
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit when it is mostly unused")
+    void shouldNotGrowWhenUnderutilised() {
+        AdaptiveConcurrencyLimiter limiter = limiter(16, 1, 200);
+
+        limiter.onSample(50 * MILLIS, 2);
+
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency rises far above baseline")
+    void shouldShrinkLimitWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 1, 200);
+
+        limiter.onSample(50 * MILLIS, 100);
+        int afterBaseline = limiter.getLimit();
+        limiter.onSample(500 * MILLIS, afterBaseline);
+
+        assertThat(limiter.getLimit()).isLessThan(afterBaseline);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency rises while few calls are in flight")
+    void shouldShrinkLimitWhenLatencyRisesAtLowLoad() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 1, 200);
+
+        limiter.onSample(50 * MILLIS, 2);
+        limiter.onSample(500 * MILLIS, 2);
+
+        assertThat(limiter.getLimit()).isLessThan(100);
+    }
+
+    @Test
+    @DisplayName("Should never go below the minimum limit")
+    void shouldRespectMinimumLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 2, 10);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onDropped();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid settings")
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter.Settings(0, 1, 10, 1.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter.Settings(5, 1, 10, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Registry should return one limiter per provider and expose metrics")
+    void registryShouldExposeMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(meterRegistry, 20, 1, 200, 1.5, 0.2);
+
+        AdaptiveConcurrencyLimiter first = registry.forProvider("Fixer");
+        AdaptiveConcurrencyLimiter second = registry.forProvider("Fixer");
+
+        assertThat(first).isSameAs(second);
+        assertThat(meterRegistry.get("provider.concurrency.limit").tag("provider", "Fixer").gauge().value())
+                .isEqualTo(20.0);
+        assertThat(meterRegistry.get("provider.concurrency.rejected").tag("provider", "Fixer").functionCounter().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.aidemo1.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConcurrentPartitionIndexChange.
+ * Tests the per-partition concurrent build, attach order and restart after an interrupted build.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConcurrentPartitionIndexChange Tests")
+class ConcurrentPartitionIndexChangeTest {
+
+    private static final String SPEC = " (base_currency_id, target_currency_id, timestamp)";
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private PreparedStatement partitionsStatement;
+
+    @Mock
+    private PreparedStatement attachedStatement;
+
+    @Mock
+    private PreparedStatement validStatement;
+
+    @Mock
+    private ResultSet partitions;
+
+    @Mock
+    private ResultSet attached;
+
+    @Mock
+    private ResultSet valid;
+
+    private ConcurrentPartitionIndexChange change;
+
+    @BeforeEach
+    void setUp() {
+        change = new ConcurrentPartitionIndexChange();
+        change.setTableName("exchange_rate");
+        change.setIndexName("idx_exchange_rate_period_ids");
+        change.setColumns("base_currency_id, target_currency_id, timestamp");
+    }
+
+    @Test
+    @DisplayName("Should name partition indexes after their partition")
+    void shouldNamePartitionIndexes() {
+        assertThat(change.partitionIndexName("exchange_rate_p202610")).isEqualTo("exchange_rate_p202610_period_ids");
+
+        change.setIndexName("rates_by_period");
+        assertThat(change.partitionIndexName("exchange_rate_default")).isEqualTo("exchange_rate_default_rates_by_period");
+    }
+
+    @Test
+    @DisplayName("Should build each missing partition index concurrently and attach it")
+    void shouldBuildPartitionIndexesConcurrently() throws Exception {
+        // Given - p202608 is already attached, p202609 has an invalid index from an interrupted build
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(startsWith("SELECT c.relname"))).thenReturn(partitionsStatement);
+        when(connection.prepareStatement(startsWith("SELECT EXISTS"))).thenReturn(attachedStatement);
+        when(connection.prepareStatement(startsWith("SELECT x.indisvalid"))).thenReturn(validStatement);
+        when(partitionsStatement.executeQuery()).thenReturn(partitions);
+        when(partitions.next()).thenReturn(true, true, true, false);
+        when(partitions.getString(1)).thenReturn("exchange_rate_p202608", "exchange_rate_p202609", "exchange_rate_p202610");
+        when(attachedStatement.executeQuery()).thenReturn(attached);
+        when(attached.next()).thenReturn(true);
+        when(attached.getBoolean(1)).thenReturn(true, false, false);
+        when(validStatement.executeQuery()).thenReturn(valid);
+        when(valid.next()).thenReturn(true, false);
+        when(valid.getBoolean(1)).thenReturn(false);
+
+        // When
+        change.execute(connection);
+
+        // Then
+        InOrder inOrder = inOrder(connection, statement);
+        inOrder.verify(connection).setAutoCommit(true);
+        inOrder.verify(statement).execute("CREATE INDEX IF NOT EXISTS idx_exchange_rate_period_ids ON ONLY exchange_rate" + SPEC);
+        inOrder.verify(statement).execute("DROP INDEX CONCURRENTLY exchange_rate_p202609_period_ids");
+        inOrder.verify(statement).execute(
+                "CREATE INDEX CONCURRENTLY exchange_rate_p202609_period_ids ON exchange_rate_p202609" + SPEC);
+        inOrder.verify(statement).execute(
+                "ALTER INDEX idx_exchange_rate_period_ids ATTACH PARTITION exchange_rate_p202609_period_ids");
+        inOrder.verify(statement).execute(
+                "CREATE INDEX CONCURRENTLY exchange_rate_p202610_period_ids ON exchange_rate_p202610" + SPEC);
+        inOrder.verify(statement).execute(
+                "ALTER INDEX idx_exchange_rate_period_ids ATTACH PARTITION exchange_rate_p202610_period_ids");
+        inOrder.verify(connection).setAutoCommit(false);
+        verify(statement, never()).execute(contains("exchange_rate_p202608"));
+    }
+
+    @Test
+    @DisplayName("Should add the INCLUDE columns to parent and partition indexes")
+    void shouldIncludeColumns() throws Exception {
+        // Given
+        change.setIndexName("idx_exchange_rate_best_ids");
+        change.setColumns("base_currency_id, target_currency_id, timestamp DESC, rate_value");
+        change.setInclude("id, provider_id");
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(startsWith("SELECT c.relname"))).thenReturn(partitionsStatement);
+        when(connection.prepareStatement(startsWith("SELECT EXISTS"))).thenReturn(attachedStatement);
+        when(connection.prepareStatement(startsWith("SELECT x.indisvalid"))).thenReturn(validStatement);
+        when(partitionsStatement.executeQuery()).thenReturn(partitions);
+        when(partitions.next()).thenReturn(true, false);
+        when(partitions.getString(1)).thenReturn("exchange_rate_p202610");
+        when(attachedStatement.executeQuery()).thenReturn(attached);
+        when(attached.next()).thenReturn(true);
+        when(attached.getBoolean(1)).thenReturn(false);
+        when(validStatement.executeQuery()).thenReturn(valid);
+        when(valid.next()).thenReturn(false);
+
+        // When
+        change.execute(connection);
+
+        // Then
+        String spec = " (base_currency_id, target_currency_id, timestamp DESC, rate_value) INCLUDE (id, provider_id)";
+        verify(statement).execute("CREATE INDEX IF NOT EXISTS idx_exchange_rate_best_ids ON ONLY exchange_rate" + spec);
+        verify(statement).execute("CREATE INDEX CONCURRENTLY exchange_rate_p202610_best_ids ON exchange_rate_p202610" + spec);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.rollup.RollupBackfillJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExchangeRatePartitionManager.
+ * Tests creation of future partitions and retention by dropping old partitions.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExchangeRatePartitionManager Tests")
+class ExchangeRatePartitionManagerTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.of(2026, 11);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ObjectProvider<RollupBackfillJob> rollupBackfill;
+
+    private ExchangeRatePartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ExchangeRatePartitionManager(jdbcTemplate, transactionTemplate, rollupBackfill, 2, 12);
+    }
+
+    @Test
+    @DisplayName("Should create missing partitions for the current and upcoming months")
+    void shouldCreateUpcomingPartitions() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("exchange_rate_default", "exchange_rate_p202611"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any()))
+                .thenReturn(false);
+
+        // When
+        manager.createPartitions(CURRENT_MONTH);
+
+        // Then
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS exchange_rate_p202612 PARTITION OF exchange_rate "
+                + "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS exchange_rate_p202701 PARTITION OF exchange_rate "
+                + "FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+        verify(jdbcTemplate, never()).execute(contains("exchange_rate_p202611"));
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should move rows of a new month out of the default partition")
+    void shouldCreatePartitionFromDefaultRows() {
+        // Given - a far-future rate was stored in the default partition
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("exchange_rate_default"));
+        LocalDateTime january = LocalDateTime.of(2027, 1, 1, 0, 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any()))
+                .thenAnswer(invocation -> january.equals(invocation.getArgument(2)));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.update(startsWith("WITH moved AS"), eq(january), eq(january.plusMonths(1)))).thenReturn(3);
+
+        // When
+        manager.createPartitions(CURRENT_MONTH);
+
+        // Then
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE exchange_rate DETACH PARTITION exchange_rate_default");
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS exchange_rate_p202701 PARTITION OF exchange_rate "
+                + "FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+        order.verify(jdbcTemplate).update(startsWith("WITH moved AS"), eq(january), eq(january.plusMonths(1)));
+        order.verify(jdbcTemplate).execute("ALTER TABLE exchange_rate ATTACH PARTITION exchange_rate_default DEFAULT");
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Should detach and drop only partitions before the retention window")
+    void shouldDropExpiredPartitions() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "exchange_rate_default", "exchange_rate_p202510", "exchange_rate_p202511", "exchange_rate_p202611"));
+
+        // When
+        List<String> dropped = manager.dropExpiredPartitions(CURRENT_MONTH.minusMonths(12));
+
+        // Then
+        assertThat(dropped).containsExactly("exchange_rate_p202510");
+        verify(jdbcTemplate).execute("ALTER TABLE exchange_rate DETACH PARTITION exchange_rate_p202510");
+        verify(jdbcTemplate).execute("DROP TABLE exchange_rate_p202510");
+        verify(jdbcTemplate, never()).execute(contains("exchange_rate_default"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the rollups of a partition before dropping it")
+    void shouldBackfillRollupsBeforeDrop() {
+        // Given
+        RollupBackfillJob backfill = mock(RollupBackfillJob.class);
+        when(rollupBackfill.getIfAvailable()).thenReturn(backfill);
+        manager = new ExchangeRatePartitionManager(jdbcTemplate, transactionTemplate, rollupBackfill, 2, 12);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("exchange_rate_p202510"));
+
+        // When
+        manager.dropExpiredPartitions(CURRENT_MONTH.minusMonths(12));
+
+        // Then
+        var order = inOrder(backfill, jdbcTemplate);
+        order.verify(backfill).backfill(YearMonth.of(2025, 10), YearMonth.of(2025, 10));
+        order.verify(jdbcTemplate).execute("DROP TABLE exchange_rate_p202510");
+    }
+
+    @Test
+    @DisplayName("Should not create partitions for months held by the pre-partitioning partition")
+    void shouldSkipMonthsBeforeCutover() {
+        // Given - the pre-partitioning table holds everything before December
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("exchange_rate_before_p202612", "exchange_rate_default"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any()))
+                .thenReturn(false);
+
+        // When
+        manager.createPartitions(CURRENT_MONTH);
+
+        // Then
+        verify(jdbcTemplate, never()).execute(contains("exchange_rate_p202611"));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS exchange_rate_p202612 "));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS exchange_rate_p202701 "));
+    }
+
+    @Test
+    @DisplayName("Should drop the pre-partitioning partition once all its months expired")
+    void shouldDropExpiredPrePartitioningPartition() {
+        // Given - retention starts at 2025-11, the old table holds 2024-03 up to 2025-10
+        RollupBackfillJob backfill = mock(RollupBackfillJob.class);
+        when(rollupBackfill.getIfAvailable()).thenReturn(backfill);
+        manager = new ExchangeRatePartitionManager(jdbcTemplate, transactionTemplate, rollupBackfill, 2, 12);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("exchange_rate_before_p202511", "exchange_rate_p202511"));
+        when(jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM exchange_rate_before_p202511", Timestamp.class))
+                .thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 3, 14, 9, 0)));
+
+        // When
+        List<String> dropped = manager.dropExpiredPartitions(CURRENT_MONTH.minusMonths(12));
+
+        // Then
+        assertThat(dropped).containsExactly("exchange_rate_before_p202511");
+        var order = inOrder(backfill, jdbcTemplate);
+        order.verify(backfill).backfill(YearMonth.of(2024, 3), YearMonth.of(2025, 10));
+        order.verify(jdbcTemplate).execute("ALTER TABLE exchange_rate DETACH PARTITION exchange_rate_before_p202511");
+        order.verify(jdbcTemplate).execute("DROP TABLE exchange_rate_before_p202511");
+    }
+
+    @Test
+    @DisplayName("Should keep the pre-partitioning partition while it holds retained months")
+    void shouldKeepPrePartitioningPartitionInWindow() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("exchange_rate_before_p202512"));
+
+        // When
+        List<String> dropped = manager.dropExpiredPartitions(CURRENT_MONTH.minusMonths(12));
+
+        // Then
+        assertThat(dropped).isEmpty();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep all partitions when retention is disabled")
+    void shouldKeepPartitionsWithoutRetention() {
+        // Given
+        manager = new ExchangeRatePartitionManager(jdbcTemplate, transactionTemplate, rollupBackfill, 1, 0);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "exchange_rate_p202510", "exchange_rate_p202611", "exchange_rate_p202612"));
+
+        // When
+        manager.maintain(CURRENT_MONTH);
+
+        // Then
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Should parse partition months and ignore other tables")
+    void shouldParsePartitionMonth() {
+        assertThat(ExchangeRatePartitionManager.partitionMonth("exchange_rate_p202603")).isEqualTo(YearMonth.of(2026, 3));
+        assertThat(ExchangeRatePartitionManager.partitionMonth("exchange_rate_default")).isNull();
+        assertThat(ExchangeRatePartitionManager.partitionMonth("exchange_rate_pold")).isNull();
+        assertThat(ExchangeRatePartitionManager.partitionMonth("exchange_rate_before_p202612")).isNull();
+        assertThat(ExchangeRatePartitionManager.cutoverMonth("exchange_rate_before_p202612"))
+                .isEqualTo(YearMonth.of(2026, 12));
+        assertThat(ExchangeRatePartitionManager.cutoverMonth("exchange_rate_p202612")).isNull();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.entity.ExchangeRateLatest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LatestRateUpserter.
+ * Tests reduction to the newest quote per key and the batched upsert.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LatestRateUpserter Tests")
+class LatestRateUpserterTest {
+
+    private static final LocalDateTime QUOTED_AT = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LatestRateUpserter upserter;
+
+    @BeforeEach
+    void setUp() {
+        upserter = new LatestRateUpserter(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should keep only the newest quote per pair and provider, in key order")
+    void shouldReduceToNewestPerKey() {
+        // Given
+        ExchangeRate older = rate("EUR", "Provider1", "1.10", QUOTED_AT);
+        ExchangeRate newer = rate("EUR", "Provider1", "1.11", QUOTED_AT.plusMinutes(5));
+        ExchangeRate other = rate("CHF", "Provider1", "0.90", QUOTED_AT);
+
+        // When
+        Map<ExchangeRateLatest.Key, ExchangeRate> newest = LatestRateUpserter.newestByKey(List.of(newer, older, other));
+
+        // Then
+        assertThat(newest.values()).containsExactly(other, newer);
+    }
+
+    @Test
+    @DisplayName("Should upsert one row per key in a single batch")
+    void shouldUpsertInOneBatch() {
+        // When
+        upserter.upsert(List.of(
+                rate("EUR", "Provider1", "1.10", QUOTED_AT),
+                rate("EUR", "Provider1", "1.11", QUOTED_AT.plusMinutes(5)),
+                rate("EUR", "Provider2", "1.12", QUOTED_AT)));
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(eq(LatestRateUpserter.UPSERT_SQL),
+                argThat((List<Object[]> rows) -> rows.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Should skip the database for an empty batch")
+    void shouldIgnoreEmptyBatch() {
+        upserter.upsert(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private ExchangeRate rate(String target, String provider, String value, LocalDateTime timestamp) {
+        return ExchangeRate.builder()
+                .baseCurrency("USD")
+                .targetCurrency(target)
+                .rate(new BigDecimal(value))
+                .provider(provider)
+                .timestamp(timestamp)
+                .build();
+    }
+}
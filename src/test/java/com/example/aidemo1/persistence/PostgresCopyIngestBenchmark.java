@@ -0,0 +1,161 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput comparison of the insert paths for a refresh-sized batch.
+ *
+ * <p>Runs only against a real PostgreSQL instance, e.g.
+ * {@code BENCHMARK_DATASOURCE_URL=jdbc:postgresql://localhost:5432/aidemo}
+ * (credentials from {@code BENCHMARK_DATASOURCE_USERNAME}/{@code _PASSWORD}).
+ * Tables are created in a scratch {@code copy_benchmark} schema which is dropped afterwards.</p>
+ */
+@DisplayName("PostgreSQL COPY ingest benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATASOURCE_URL", matches = ".+")
+class PostgresCopyIngestBenchmark {
+
+    private static final String SCHEMA = "copy_benchmark";
+    private static final int ROWS = 20_000;
+    private static final int ROUNDS = 5;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO exchange_rate (id, base_currency_id, target_currency_id, rate_value, provider_id, timestamp) "
+            + "VALUES (nextval('exchange_rate_seq'), ?, ?, ?, ?, ?)";
+
+    private JdbcTemplate jdbcTemplate;
+    private RateDictionary dictionary;
+    private PostgresCopyRateIngester ingester;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("BENCHMARK_DATASOURCE_URL"),
+                System.getenv().getOrDefault("BENCHMARK_DATASOURCE_USERNAME", "postgres"),
+                System.getenv().getOrDefault("BENCHMARK_DATASOURCE_PASSWORD", "postgres"));
+        dataSource.setSchema(SCHEMA);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("CREATE SEQUENCE exchange_rate_seq INCREMENT BY 50 START WITH 50");
+        jdbcTemplate.execute("CREATE TABLE exchange_rate ("
+                + "id BIGINT PRIMARY KEY, "
+                + "base_currency_id SMALLINT NOT NULL, "
+                + "target_currency_id SMALLINT NOT NULL, "
+                + "rate_value BIGINT NOT NULL, "
+                + "provider_id SMALLINT NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_benchmark_pair_timestamp "
+                + "ON exchange_rate (base_currency_id, target_currency_id, timestamp)");
+        jdbcTemplate.execute("CREATE TABLE currency_code ("
+                + "id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE rate_provider ("
+                + "id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(50) NOT NULL UNIQUE)");
+
+        dictionary = new RateDictionary(dataSource);
+        ingester = new PostgresCopyRateIngester(jdbcTemplate, dictionary);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("COPY should ingest a refresh batch faster than row and batch inserts")
+    void compareIngestPaths() {
+        // Warm up connections and plans
+        insertRowByRow(rates(500));
+        insertBatched(rates(500));
+        ingester.ingest(rates(500));
+
+        long rowByRow = time(() -> insertRowByRow(rates(ROWS)));
+        long batched = time(() -> insertBatched(rates(ROWS)));
+        long copy = time(() -> ingester.ingest(rates(ROWS)));
+
+        System.out.printf("%d rows x %d rounds: row-by-row %d ms, JDBC batch %d ms, COPY %d ms%n",
+                ROWS, ROUNDS, rowByRow, batched, copy);
+
+        assertThat(copy).isLessThan(rowByRow);
+    }
+
+    @Test
+    @DisplayName("COPY should store the same rows an insert would")
+    void copyMatchesInsert() {
+        // Given
+        List<ExchangeRate> rates = rates(1_000);
+
+        // When
+        int inserted = ingester.ingest(rates);
+
+        // Then
+        assertThat(inserted).isEqualTo(rates.size());
+        assertThat(rates).allSatisfy(rate -> assertThat(rate.getId()).isNotNull());
+        ExchangeRate sample = rates.get(rates.size() / 2);
+        Long stored = jdbcTemplate.queryForObject(
+                "SELECT rate_value FROM exchange_rate WHERE id = ? AND target_currency_id = ? AND provider_id = ?",
+                Long.class, sample.getId(), dictionary.currencyId(sample.getTargetCurrency()),
+                dictionary.providerId(sample.getProvider()));
+        assertThat(ScaledRateConverter.fromScaled(stored)).isEqualByComparingTo(sample.getRate());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM exchange_rate", Integer.class))
+                .isEqualTo(rates.size());
+    }
+
+    private long time(Runnable round) {
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private void insertRowByRow(List<ExchangeRate> rates) {
+        for (ExchangeRate rate : rates) {
+            jdbcTemplate.update(INSERT_SQL, dictionary.currencyId(rate.getBaseCurrency()),
+                    dictionary.currencyId(rate.getTargetCurrency()), ScaledRateConverter.toScaled(rate.getRate()),
+                    dictionary.providerId(rate.getProvider()), Timestamp.valueOf(rate.getTimestamp()));
+        }
+    }
+
+    private void insertBatched(List<ExchangeRate> rates) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rates, 500, (statement, rate) -> {
+            statement.setShort(1, dictionary.currencyId(rate.getBaseCurrency()));
+            statement.setShort(2, dictionary.currencyId(rate.getTargetCurrency()));
+            statement.setLong(3, ScaledRateConverter.toScaled(rate.getRate()));
+            statement.setShort(4, dictionary.providerId(rate.getProvider()));
+            statement.setTimestamp(5, Timestamp.valueOf(rate.getTimestamp()));
+        });
+    }
+
+    private List<ExchangeRate> rates(int count) {
+        String[] currencies = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "NZD"};
+        String[] providers = {"Fixer", "ExchangeRatesAPI", "Mock Provider 1", "Mock Provider 2"};
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<ExchangeRate> rates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rates.add(ExchangeRate.builder()
+                    .baseCurrency(currencies[i % currencies.length])
+                    .targetCurrency(currencies[(i + 1) % currencies.length])
+                    .rate(BigDecimal.valueOf(1_000_000L + i, 6))
+                    .provider(providers[i % providers.length])
+                    .timestamp(timestamp)
+                    .build());
+        }
+        return rates;
+    }
+}
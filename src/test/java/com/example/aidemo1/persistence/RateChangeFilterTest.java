@@ -0,0 +1,161 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.entity.ExchangeRateLatest;
+import com.example.aidemo1.repository.ExchangeRateHeartbeatRepository;
+import com.example.aidemo1.repository.ExchangeRateLatestRepository;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateChangeFilter.
+ * Tests change detection, heartbeat recording and seeding from stored rates.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateChangeFilter Tests")
+class RateChangeFilterTest {
+
+    private static final LocalDateTime QUOTED_AT = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateHeartbeatRepository heartbeatRepository;
+
+    @Mock
+    private ExchangeRateLatestRepository latestRepository;
+
+    @Mock
+    private ObjectProvider<LatestRateUpserter> latestUpserter;
+
+    private RateChangeFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateChangeFilter(exchangeRateRepository, heartbeatRepository, latestRepository, latestUpserter,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should keep rates without a stored quote")
+    void shouldKeepNewRates() {
+        // Given
+        ExchangeRate rate = rate("1.100000", QUOTED_AT);
+        when(exchangeRateRepository.findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+                "USD", "EUR", "Provider1")).thenReturn(Optional.empty());
+
+        // When
+        List<ExchangeRate> changed = filter.filterChanged(List.of(rate));
+
+        // Then
+        assertThat(changed).containsExactly(rate);
+        verifyNoInteractions(heartbeatRepository);
+    }
+
+    @Test
+    @DisplayName("Should skip a quote equal to the stored one and record a heartbeat")
+    void shouldSkipUnchangedQuote() {
+        // Given - scale differs but the value is the same
+        ExchangeRate stored = rate("1.100000", QUOTED_AT);
+        stored.setId(42L);
+        when(exchangeRateRepository.findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+                "USD", "EUR", "Provider1")).thenReturn(Optional.of(stored));
+
+        // When
+        List<ExchangeRate> changed = filter.filterChanged(List.of(rate("1.10", QUOTED_AT)));
+
+        // Then - one upsert, no separate insert that could race another writer
+        assertThat(changed).isEmpty();
+        verify(heartbeatRepository).upsertSeen(eq("USD"), eq("EUR"), eq("Provider1"), eq(42L), any(), eq(1L));
+        verify(heartbeatRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should keep a quote with a new provider timestamp")
+    void shouldKeepQuoteWithNewTimestamp() {
+        // Given
+        when(exchangeRateRepository.findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+                "USD", "EUR", "Provider1")).thenReturn(Optional.of(rate("1.10", QUOTED_AT)));
+        ExchangeRate newer = rate("1.10", QUOTED_AT.plusHours(1));
+
+        // When
+        List<ExchangeRate> changed = filter.filterChanged(List.of(newer));
+
+        // Then
+        assertThat(changed).containsExactly(newer);
+    }
+
+    @Test
+    @DisplayName("Should remember stored quotes without querying the database again")
+    void shouldRememberStoredQuotes() {
+        // Given
+        when(exchangeRateRepository.findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc(
+                "USD", "EUR", "Provider1")).thenReturn(Optional.empty());
+        ExchangeRate first = rate("1.10", QUOTED_AT);
+        filter.filterChanged(List.of(first));
+
+        // When - the same quote is fetched again, twice in one batch
+        List<ExchangeRate> changed = filter.filterChanged(
+                List.of(rate("1.10", QUOTED_AT), rate("1.10", QUOTED_AT)));
+
+        // Then
+        assertThat(changed).isEmpty();
+        verify(exchangeRateRepository, times(1))
+                .findFirstByBaseCurrencyAndTargetCurrencyAndProviderOrderByTimestampDesc("USD", "EUR", "Provider1");
+        verify(heartbeatRepository).upsertSeen(eq("USD"), eq("EUR"), eq("Provider1"), any(), any(), eq(2L));
+        verify(heartbeatRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should seed from the latest-rate table when it is maintained")
+    void shouldSeedFromLatestTable() {
+        // Given
+        when(latestUpserter.getIfAvailable()).thenReturn(mock(LatestRateUpserter.class));
+        filter = new RateChangeFilter(exchangeRateRepository, heartbeatRepository, latestRepository, latestUpserter,
+                new SimpleMeterRegistry());
+        when(latestRepository.findById(new ExchangeRateLatest.Key("USD", "EUR", "Provider1")))
+                .thenReturn(Optional.of(ExchangeRateLatest.builder()
+                        .baseCurrency("USD")
+                        .targetCurrency("EUR")
+                        .provider("Provider1")
+                        .rateId(42L)
+                        .rate(new BigDecimal("1.100000"))
+                        .timestamp(QUOTED_AT)
+                        .build()));
+
+        // When
+        List<ExchangeRate> changed = filter.filterChanged(List.of(rate("1.10", QUOTED_AT)));
+
+        // Then
+        assertThat(changed).isEmpty();
+        verify(heartbeatRepository).upsertSeen(eq("USD"), eq("EUR"), eq("Provider1"), eq(42L), any(), eq(1L));
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    private ExchangeRate rate(String value, LocalDateTime timestamp) {
+        return ExchangeRate.builder()
+                .baseCurrency("USD")
+                .targetCurrency("EUR")
+                .rate(new BigDecimal(value))
+                .provider("Provider1")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.aidemo1.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateDictionary and ScaledRateConverter.
+ * Tests dictionary inserts, cached and reverse lookups, and the scaled rate encoding.
+ */
+@DisplayName("RateDictionary Tests")
+class RateDictionaryTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private RateDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE currency_code ("
+                + "id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE rate_provider ("
+                + "id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, name VARCHAR(50) NOT NULL UNIQUE)");
+        dictionary = new RateDictionary(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should add an unknown value once and reuse its id")
+    void shouldAddUnknownValueOnce() {
+        // When
+        short usd = dictionary.currencyId("USD");
+        short eur = dictionary.currencyId("EUR");
+
+        // Then
+        assertThat(usd).isNotEqualTo(eur);
+        assertThat(dictionary.currencyId("USD")).isEqualTo(usd);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_code", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should pick up values added by another instance")
+    void shouldLoadExistingValues() {
+        // Given
+        jdbcTemplate.update("INSERT INTO rate_provider (id, name) VALUES (7, 'Provider1')");
+
+        // When / Then
+        assertThat(dictionary.providerId("Provider1")).isEqualTo((short) 7);
+        assertThat(dictionary.providerName((short) 7)).isEqualTo("Provider1");
+    }
+
+    @Test
+    @DisplayName("Should not add values inside a read-only transaction")
+    void shouldReturnUnknownIdWhenReadOnly() {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When / Then
+        assertThat(dictionary.currencyId("XYZ")).isEqualTo(RateDictionary.UNKNOWN_ID);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_code", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should use the caller's connection inside a transaction")
+    void shouldUseCallerConnectionInTransaction() {
+        // Given - a pool of one connection, held by the caller's transaction
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            pool.setMaximumPoolSize(1);
+            pool.setConnectionTimeout(250);
+            new JdbcTemplate(pool).execute("CREATE TABLE currency_code ("
+                    + "id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+            RateDictionary pooled = new RateDictionary(pool);
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(pool));
+
+            // When
+            Short id = transaction.execute(status -> {
+                new JdbcTemplate(pool).queryForObject("SELECT COUNT(*) FROM currency_code", Integer.class);
+                return pooled.currencyId("USD");
+            });
+
+            // Then
+            assertThat(id).isNotNull();
+            assertThat(pooled.currencyCode(id)).isEqualTo("USD");
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget a value added by a transaction that rolled back")
+    void shouldEvictValueOnRollback() {
+        // Given
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(database));
+        transaction.executeWithoutResult(status -> {
+            dictionary.currencyId("CHF");
+            status.setRollbackOnly();
+        });
+
+        // When
+        short chf = dictionary.currencyId("CHF");
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM currency_code WHERE code = 'CHF'", Short.class))
+                .isEqualTo(chf);
+    }
+
+    @Test
+    @DisplayName("Should keep the caller's transaction usable when another instance adds the same value")
+    void shouldSurviveConcurrentInsert() throws Exception {
+        // Given - another instance commits 'CHF' between the reload and the insert
+        AtomicReference<Connection> held = new AtomicReference<>();
+        DataSource racing = new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = spy(super.getConnection());
+                doAnswer(invocation -> {
+                    if (invocation.<String>getArgument(0).startsWith("INSERT INTO currency_code")) {
+                        jdbcTemplate.update("INSERT INTO currency_code (code) VALUES ('CHF')");
+                    }
+                    return invocation.callRealMethod();
+                }).when(connection).prepareStatement(anyString());
+                held.set(connection);
+                return connection;
+            }
+        };
+        RateDictionary racingDictionary = new RateDictionary(racing);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(racing));
+
+        // When
+        Short id = transaction.execute(status -> {
+            short chf = racingDictionary.currencyId("CHF");
+            new JdbcTemplate(racing).update("INSERT INTO rate_provider (name) VALUES ('ECB')");
+            return chf;
+        });
+
+        // Then
+        assertThat(id).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT id FROM currency_code WHERE code = 'CHF'", Short.class));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_provider", Integer.class)).isEqualTo(1);
+        verify(held.get()).rollback(any(Savepoint.class));
+    }
+
+    @Test
+    @DisplayName("Should throw for an id that is not in the dictionary")
+    void shouldThrowForUnknownId() {
+        assertThatThrownBy(() -> dictionary.currencyCode((short) 42))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("currency_code");
+    }
+
+    @Test
+    @DisplayName("Should round-trip rates at six decimal places")
+    void shouldRoundTripScaledRates() {
+        // When
+        long scaled = ScaledRateConverter.toScaled(new BigDecimal("1.2345675"));
+
+        // Then
+        assertThat(scaled).isEqualTo(1_234_568L);
+        assertThat(ScaledRateConverter.fromScaled(scaled)).isEqualByComparingTo("1.234568");
+    }
+}
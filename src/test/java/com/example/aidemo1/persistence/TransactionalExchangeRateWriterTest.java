@@ -0,0 +1,204 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.recent.RecentRateStore;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.rollup.ExchangeRateRollupWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionalExchangeRateWriter.
+ * Tests chunked transactions, persistence-context clearing, partial failure and after-commit hooks.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionalExchangeRateWriter Tests")
+class TransactionalExchangeRateWriterTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ObjectProvider<PostgresCopyRateIngester> copyIngester;
+
+    @Mock
+    private ObjectProvider<RateChangeFilter> changeFilter;
+
+    @Mock
+    private ObjectProvider<LatestRateUpserter> latestUpserter;
+
+    @Mock
+    private ObjectProvider<ExchangeRateRollupWriter> rollupWriter;
+
+    @Mock
+    private ObjectProvider<RecentRateStore> recentRates;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    private TransactionalExchangeRateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            transactions.incrementAndGet();
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(transactionStatus);
+        });
+        writer = newWriter();
+    }
+
+    @Test
+    @DisplayName("Should commit in chunks and clear the persistence context after every flush")
+    void shouldWriteInChunks() {
+        // When
+        writer.write(rates(1200));
+
+        // Then - 500 + 500 + 200 rates, flushed 50 at a time
+        assertThat(transactions).hasValue(3);
+        verify(exchangeRateRepository, times(24)).saveAll(anyList());
+        verify(entityManager, times(24)).flush();
+        verify(entityManager, times(24)).clear();
+    }
+
+    @Test
+    @DisplayName("Should keep committed chunks and stop at the failing one")
+    void shouldKeepCommittedChunksOnFailure() {
+        // Given - the first save of the second chunk fails
+        AtomicInteger saves = new AtomicInteger();
+        when(exchangeRateRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (saves.incrementAndGet() == 11) {
+                throw new DataAccessResourceFailureException("Connection reset");
+            }
+            return invocation.getArgument(0);
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> writer.write(rates(1200)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(transactions).hasValue(2);
+        assertThat(saves).hasValue(11);
+    }
+
+    @Test
+    @DisplayName("Should update latest rates and rollups for every stored chunk")
+    void shouldUpdateDerivedTablesPerChunk() {
+        // Given
+        LatestRateUpserter latest = mock(LatestRateUpserter.class);
+        ExchangeRateRollupWriter rollups = mock(ExchangeRateRollupWriter.class);
+        when(latestUpserter.getIfAvailable()).thenReturn(latest);
+        when(rollupWriter.getIfAvailable()).thenReturn(rollups);
+        writer = newWriter();
+
+        // When
+        writer.write(rates(600));
+
+        // Then
+        verify(latest, times(2)).upsert(anyList());
+        verify(rollups, times(2)).record(anyList());
+    }
+
+    @Test
+    @DisplayName("Should add only changed rates to the recent rate store, after commit")
+    void shouldRecordRecentRatesAfterCommit() {
+        // Given - the change filter drops the first of two rates
+        RateChangeFilter filter = mock(RateChangeFilter.class);
+        RecentRateStore store = mock(RecentRateStore.class);
+        List<ExchangeRate> rates = rates(2);
+        when(changeFilter.getIfAvailable()).thenReturn(filter);
+        when(filter.filterChanged(anyList())).thenReturn(List.of(rates.get(1)));
+        when(recentRates.getIfAvailable()).thenReturn(store);
+        writer = newWriter();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            writer.write(rates);
+
+            // Then
+            verifyNoInteractions(store);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(store).record(List.of(rates.get(1)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not add rates of a rolled-back chunk to the recent rate store")
+    void shouldNotRecordRolledBackRates() {
+        // Given
+        RecentRateStore store = mock(RecentRateStore.class);
+        when(recentRates.getIfAvailable()).thenReturn(store);
+        writer = newWriter();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            writer.write(rates(2));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            verifyNoInteractions(store);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should do nothing for an empty batch")
+    void shouldIgnoreEmptyBatch() {
+        writer.write(List.of());
+
+        assertThat(transactions).hasValue(0);
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    private TransactionalExchangeRateWriter newWriter() {
+        return new TransactionalExchangeRateWriter(exchangeRateRepository, copyIngester, changeFilter,
+                latestUpserter, rollupWriter, recentRates, entityManager, transactionTemplate, 200, 500, 50);
+    }
+
+    private List<ExchangeRate> rates(int count) {
+        List<ExchangeRate> rates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rates.add(ExchangeRate.builder()
+                    .baseCurrency("USD")
+                    .targetCurrency("EUR")
+                    .rate(new BigDecimal("1.10"))
+                    .provider("Provider" + i)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+        return rates;
+    }
+}
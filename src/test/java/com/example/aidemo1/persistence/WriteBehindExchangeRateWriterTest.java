@@ -0,0 +1,194 @@
+package com.example.aidemo1.persistence;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WriteBehindExchangeRateWriter.
+ * Tests batching, backpressure, write-through, retries and flush on shutdown.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WriteBehindExchangeRateWriter Tests")
+class WriteBehindExchangeRateWriterTest {
+
+    @Mock
+    private TransactionalExchangeRateWriter delegate;
+
+    private final CountDownLatch firstFlushStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+    private final List<ExchangeRate> persisted = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WriteBehindExchangeRateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        AtomicBoolean first = new AtomicBoolean(true);
+        lenient().doAnswer(invocation -> {
+            List<ExchangeRate> batch = invocation.getArgument(0);
+            if (first.compareAndSet(true, false)) {
+                firstFlushStarted.countDown();
+                releaseFirstFlush.await(5, TimeUnit.SECONDS);
+            }
+            synchronized (persisted) {
+                persisted.addAll(batch);
+            }
+            return null;
+        }).when(delegate).write(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstFlush.countDown();
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private WriteBehindExchangeRateWriter createWriter(int capacity, int batchSize) {
+        writer = new WriteBehindExchangeRateWriter(delegate, meterRegistry,
+                capacity, batchSize, 50, 10, 2);
+        writer.start();
+        return writer;
+    }
+
+    @Test
+    @DisplayName("Should flush queued rates in a single batch")
+    void shouldFlushQueuedRatesInBatch() throws InterruptedException {
+        // Given
+        createWriter(100, 500);
+        writer.write(List.of(rate("EUR")));
+        assertThat(firstFlushStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When - rates accumulate while the first flush is in progress
+        List<ExchangeRate> pending = List.of(rate("GBP"), rate("JPY"), rate("CHF"));
+        writer.write(pending);
+        releaseFirstFlush.countDown();
+
+        // Then
+        verify(delegate, timeout(1000)).write(pending);
+    }
+
+    @Test
+    @DisplayName("Should write synchronously when the queue is full")
+    void shouldApplyBackpressureWhenQueueIsFull() throws InterruptedException {
+        // Given
+        createWriter(2, 1);
+        writer.write(List.of(rate("EUR")));
+        assertThat(firstFlushStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        ExchangeRate overflow = rate("CHF");
+        writer.write(List.of(rate("GBP"), rate("JPY"), overflow));
+
+        // Then - the rate that did not fit is written on the caller's thread
+        verify(delegate).write(List.of(overflow));
+        assertThat(writer.getQueuedCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should flush all queued rates on shutdown")
+    void shouldFlushRemainingRatesOnShutdown() throws InterruptedException {
+        // Given
+        createWriter(100, 500);
+        writer.write(List.of(rate("EUR")));
+        assertThat(firstFlushStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        writer.write(List.of(rate("GBP"), rate("JPY")));
+
+        // When
+        releaseFirstFlush.countDown();
+        writer.stop();
+
+        // Then
+        assertThat(persisted).extracting(ExchangeRate::getTargetCurrency)
+                .containsExactlyInAnyOrder("EUR", "GBP", "JPY");
+        assertThat(writer.getQueuedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should write request-path rates through without queueing them")
+    void shouldWriteThroughOnWriteNow() {
+        // Given
+        createWriter(100, 500);
+        List<ExchangeRate> rates = List.of(rate("EUR"));
+
+        // When
+        writer.writeNow(rates);
+
+        // Then - persisted on the caller's thread before returning
+        verify(delegate).write(rates);
+        assertThat(writer.getQueuedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed flush and count the retry")
+    void shouldRetryFailedFlush() {
+        // Given
+        doThrow(new IllegalStateException("Connection refused")).doNothing().when(delegate).write(anyList());
+        createWriter(100, 500);
+
+        // When
+        writer.write(List.of(rate("EUR")));
+
+        // Then
+        verify(delegate, timeout(1000).times(2)).write(anyList());
+        assertThat(meterRegistry.counter("exchange.rate.write_behind.retried").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("exchange.rate.write_behind.failed").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count a batch as failed once its retries are exhausted")
+    void shouldGiveUpAfterMaxRetries() {
+        // Given
+        doThrow(new IllegalStateException("Connection refused")).when(delegate).write(anyList());
+        createWriter(100, 500);
+
+        // When
+        writer.write(List.of(rate("EUR")));
+
+        // Then - the first attempt and two retries
+        verify(delegate, timeout(2000).times(3)).write(anyList());
+        writer.stop();
+        assertThat(meterRegistry.counter("exchange.rate.write_behind.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("exchange.rate.write_behind.retried").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should ignore empty input")
+    void shouldIgnoreEmptyInput() {
+        createWriter(10, 10);
+
+        writer.write(List.of());
+
+        verify(delegate, never()).write(anyList());
+    }
+
+    private ExchangeRate rate(String target) {
+        return ExchangeRate.builder()
+                .baseCurrency("USD")
+                .targetCurrency(target)
+                .rate(new BigDecimal("1.10"))
+                .provider("Provider1")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.aidemo1.recent;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RecentRateStore and RateRing.
+ * Tests windowed reads, ordering, eviction, moving averages, memory reporting, loading and refreshing.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RecentRateStore Tests")
+class RecentRateStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecentRateStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new RecentRateStore(jdbcTemplate, transactionManager, meterRegistry, 24, 1000, 500, 30000);
+    }
+
+    @Test
+    @DisplayName("Should return rates since a time, most recent first, in timestamp order")
+    void shouldReturnRatesSince() {
+        // Given - recorded out of order
+        store.record(List.of(rate("1.10", NOW.minusHours(3)), rate("1.30", NOW.minusMinutes(10)),
+                rate("1.20", NOW.minusHours(1))));
+
+        // When
+        List<RecentRate> rates = store.since("USD", "EUR", NOW.minusHours(2));
+
+        // Then
+        assertThat(rates).extracting(RecentRate::timestamp)
+                .containsExactly(NOW.minusMinutes(10), NOW.minusHours(1));
+        assertThat(rates.get(0).rate()).isEqualByComparingTo("1.30");
+        assertThat(rates.get(0).provider()).isEqualTo("Provider1");
+        assertThat(store.movingAverage("USD", "EUR", NOW.minusHours(2))).hasValueSatisfying(
+                average -> assertThat(average).isEqualByComparingTo("1.25"));
+        assertThat(store.movingAverage("USD", "GBP", NOW.minusHours(2))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should evict rates that fall out of the window")
+    void shouldEvictOutsideWindow() {
+        // Given
+        store.record(List.of(rate("1.10", NOW.minusHours(30)), rate("1.20", NOW.minusHours(20))));
+
+        // When
+        store.record(List.of(rate("1.30", NOW)));
+
+        // Then
+        assertThat(store.since("USD", "EUR", NOW.minusDays(7))).extracting(RecentRate::timestamp)
+                .containsExactly(NOW, NOW.minusHours(20));
+    }
+
+    @Test
+    @DisplayName("Should overwrite the oldest rates once a ring is full")
+    void shouldOverwriteOldestWhenFull() {
+        // Given
+        RateRing ring = new RateRing(100, Duration.ofDays(1).toSeconds());
+
+        // When
+        for (int i = 0; i < 150; i++) {
+            ring.add(i, 1_000_000L + i, (short) 0);
+        }
+
+        // Then
+        assertThat(ring.size()).isEqualTo(100);
+        assertThat(ring.memoryBytes()).isEqualTo(100L * RateRing.BYTES_PER_ENTRY);
+        assertThat(ring.forEachSince(0, (epochSecond, scaledRate, providerId) -> { })).isEqualTo(100);
+        assertThat(ring.forEachSince(140, (epochSecond, scaledRate, providerId) -> { })).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should report the memory of each pair as a gauge")
+    void shouldReportMemoryPerPair() {
+        // When
+        store.record(List.of(rate("1.10", NOW)));
+
+        // Then
+        assertThat(store.memoryBytes("USD", "EUR")).isPositive();
+        assertThat(meterRegistry.get("exchange.recent.memory").tag("pair", "USD/EUR").gauge().value())
+                .isEqualTo((double) store.memoryBytes("USD", "EUR"));
+    }
+
+    @Test
+    @DisplayName("Should cover lookbacks within the window only after loading")
+    void shouldLoadFromDatabase() throws Exception {
+        // Given - one stored rate, and a newer one recorded while loading
+        store.record(List.of(rate("1.30", NOW.minusMinutes(1))));
+        when(resultSet.getString("base_currency")).thenReturn("USD");
+        when(resultSet.getString("target_currency")).thenReturn("EUR");
+        when(resultSet.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(NOW.minusHours(2)));
+        when(resultSet.getLong("rate_value")).thenReturn(1_100_000L);
+        when(resultSet.getString("provider")).thenReturn("Provider2");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        assertThat(store.covers(Duration.ofHours(1))).isFalse();
+
+        // When
+        store.load();
+
+        // Then
+        assertThat(store.covers(Duration.ofHours(24))).isTrue();
+        assertThat(store.covers(Duration.ofHours(25))).isFalse();
+        assertThat(store.since("USD", "EUR", NOW.minusHours(3))).extracting(RecentRate::provider)
+                .containsExactly("Provider1", "Provider2");
+    }
+
+    @Test
+    @DisplayName("Should stay unloaded when the database cannot be read")
+    void shouldStayUnloadedOnFailure() {
+        // Given
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // When
+        store.load();
+
+        // Then
+        assertThat(store.covers(Duration.ofHours(1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should add rows written by other nodes on refresh, but not the ones already recorded")
+    void shouldRefreshFromDatabase() throws Exception {
+        // Given - loaded empty, then rate 5 recorded by this node's writer
+        store.load();
+        ExchangeRate recorded = rate("1.10", NOW.minusMinutes(2));
+        recorded.setId(5L);
+        store.record(List.of(recorded));
+        when(resultSet.getLong("id")).thenReturn(5L, 6L);
+        when(resultSet.getString("base_currency")).thenReturn("USD");
+        when(resultSet.getString("target_currency")).thenReturn("EUR");
+        when(resultSet.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(NOW.minusMinutes(2)),
+                Timestamp.valueOf(NOW.minusMinutes(1)));
+        when(resultSet.getLong("rate_value")).thenReturn(1_100_000L, 1_200_000L);
+        when(resultSet.getString("provider")).thenReturn("Provider1", "Provider2");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(eq(RecentRateStore.REFRESH_SQL), any(RowCallbackHandler.class), eq(0L), any());
+
+        // When
+        store.refresh();
+
+        // Then
+        assertThat(store.since("USD", "EUR", NOW.minusHours(1))).extracting(RecentRate::provider)
+                .containsExactly("Provider2", "Provider1");
+    }
+
+    @Test
+    @DisplayName("Should stop covering lookbacks when refreshes keep failing")
+    void shouldNotCoverWhenStale() throws Exception {
+        // Given
+        store = new RecentRateStore(jdbcTemplate, transactionManager, meterRegistry, 24, 1000, 500, 20);
+        store.load();
+        assertThat(store.covers(Duration.ofHours(1))).isTrue();
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .when(jdbcTemplate).query(eq(RecentRateStore.REFRESH_SQL), any(RowCallbackHandler.class), any(), any());
+
+        // When
+        Thread.sleep(100);
+        store.refresh();
+
+        // Then
+        assertThat(store.covers(Duration.ofHours(1))).isFalse();
+    }
+
+    private ExchangeRate rate(String rate, LocalDateTime timestamp) {
+        return ExchangeRate.builder()
+                .baseCurrency("USD")
+                .targetCurrency("EUR")
+                .rate(new BigDecimal(rate))
+                .provider("Provider1")
+                .timestamp(timestamp)
+                .build();
+    }
+}
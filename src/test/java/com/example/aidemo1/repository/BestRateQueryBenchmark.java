@@ -0,0 +1,152 @@
+package com.example.aidemo1.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency comparison of the correlated-subquery best-rate query and the set-based
+ * queries of {@link ExchangeRateRepositoryImpl} on a large synthetic history.
+ *
+ * <p>Runs only against a real PostgreSQL instance, e.g.
+ * {@code BENCHMARK_DATASOURCE_URL=jdbc:postgresql://localhost:5432/aidemo}
+ * (credentials from {@code BENCHMARK_DATASOURCE_USERNAME}/{@code _PASSWORD}).
+ * Tables are created in a scratch {@code best_rate_benchmark} schema which is dropped afterwards.
+ * The class name matches no surefire include pattern, so it is run only on request, e.g.
+ * {@code mvn test -Dtest=BestRateQueryBenchmark}.</p>
+ */
+@DisplayName("Best-rate query benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATASOURCE_URL", matches = ".+")
+class BestRateQueryBenchmark {
+
+    private static final String SCHEMA = "best_rate_benchmark";
+    private static final String[] CURRENCIES = {
+        "USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "NZD", "SEK", "NOK",
+        "DKK", "PLN", "CZK", "HUF", "TRY", "ZAR", "MXN", "BRL", "SGD", "HKD"
+    };
+    private static final int PROVIDERS = 4;
+    private static final int SNAPSHOTS = 1_000;
+    private static final int ROUNDS = 5;
+
+    private static final String CURRENCY_ID = "(SELECT id FROM currency_code WHERE code = ?)";
+
+    private static final String CORRELATED_PAIR_SQL =
+            "SELECT e.* FROM exchange_rate e WHERE e.base_currency_id = " + CURRENCY_ID
+            + " AND e.target_currency_id = " + CURRENCY_ID
+            + " AND e.timestamp = (SELECT MAX(e2.timestamp) FROM exchange_rate e2 "
+            + "WHERE e2.base_currency_id = e.base_currency_id AND e2.target_currency_id = e.target_currency_id) "
+            + "ORDER BY e.rate_value ASC";
+
+    private static final String CORRELATED_ALL_SQL =
+            "SELECT e.* FROM exchange_rate e WHERE e.timestamp = (SELECT MAX(e2.timestamp) FROM exchange_rate e2 "
+            + "WHERE e2.base_currency_id = e.base_currency_id AND e2.target_currency_id = e.target_currency_id)";
+
+    private static final String BEST_PAIR_SQL =
+            "SELECT * FROM exchange_rate WHERE base_currency_id = " + CURRENCY_ID
+            + " AND target_currency_id = " + CURRENCY_ID + " ORDER BY timestamp DESC, rate_value ASC LIMIT 1";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("BENCHMARK_DATASOURCE_URL"),
+                System.getenv().getOrDefault("BENCHMARK_DATASOURCE_USERNAME", "postgres"),
+                System.getenv().getOrDefault("BENCHMARK_DATASOURCE_PASSWORD", "postgres"));
+        dataSource.setSchema(SCHEMA);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE exchange_rate ("
+                + "id BIGINT PRIMARY KEY, "
+                + "base_currency_id SMALLINT NOT NULL, "
+                + "target_currency_id SMALLINT NOT NULL, "
+                + "rate_value BIGINT NOT NULL, "
+                + "provider_id SMALLINT NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE currency_code (id SMALLINT PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO currency_code "
+                + "SELECT ordinality, code FROM unnest(?::varchar[]) WITH ORDINALITY c (code)", (Object) CURRENCIES);
+
+        // pairs x providers x snapshots rows, one snapshot per minute
+        jdbcTemplate.update("INSERT INTO exchange_rate "
+                + "SELECT row_number() OVER (), b.id, t.id, (500000 + random() * 1000000)::bigint, "
+                + "p, now() - make_interval(mins => s) "
+                + "FROM currency_code b JOIN currency_code t ON b.id <> t.id "
+                + "CROSS JOIN generate_series(1, ?) p CROSS JOIN generate_series(1, ?) s",
+                PROVIDERS, SNAPSHOTS);
+        jdbcTemplate.execute("CREATE INDEX idx_exchange_rate_period "
+                + "ON exchange_rate (base_currency_id, target_currency_id, timestamp)");
+        jdbcTemplate.execute("CREATE INDEX idx_exchange_rate_best ON exchange_rate "
+                + "(base_currency_id, target_currency_id, timestamp DESC, rate_value) INCLUDE (id, provider_id)");
+        // Sets the visibility map, which index-only scans depend on
+        jdbcTemplate.execute("VACUUM ANALYZE exchange_rate");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Set-based queries should return the same best rates faster than the correlated subquery")
+    void compareBestRateQueries() {
+        String valuesSql = String.format(ExchangeRateRepositoryImpl.BEST_RATES_SQL, pairValues());
+
+        // Warm up caches and plans
+        jdbcTemplate.queryForList(CORRELATED_ALL_SQL);
+        jdbcTemplate.queryForList(ExchangeRateRepositoryImpl.ALL_BEST_RATES_SQL);
+        jdbcTemplate.queryForList(valuesSql);
+
+        long correlatedPair = time(() -> jdbcTemplate.queryForList(CORRELATED_PAIR_SQL, "USD", "EUR"));
+        long bestPair = time(() -> jdbcTemplate.queryForList(BEST_PAIR_SQL, "USD", "EUR"));
+        long correlatedAll = time(() -> jdbcTemplate.queryForList(CORRELATED_ALL_SQL));
+        long lateral = time(() -> jdbcTemplate.queryForList(valuesSql));
+        long distinctOn = time(() -> jdbcTemplate.queryForList(ExchangeRateRepositoryImpl.ALL_BEST_RATES_SQL));
+
+        int pairs = CURRENCIES.length * (CURRENCIES.length - 1);
+        System.out.printf("%d rows, %d pairs, %d rounds: one pair correlated %d ms, ordered limit %d ms; "
+                        + "all pairs correlated %d ms, LATERAL %d ms, DISTINCT ON %d ms%n",
+                pairs * PROVIDERS * SNAPSHOTS, pairs, ROUNDS, correlatedPair, bestPair,
+                correlatedAll, lateral, distinctOn);
+
+        List<Map<String, Object>> viaLateral = jdbcTemplate.queryForList(valuesSql);
+        List<Map<String, Object>> viaDistinctOn = jdbcTemplate.queryForList(ExchangeRateRepositoryImpl.ALL_BEST_RATES_SQL);
+        assertThat(viaLateral).hasSize(pairs);
+        assertThat(viaLateral).isEqualTo(viaDistinctOn);
+        assertThat(lateral).isLessThan(correlatedAll);
+        assertThat(distinctOn).isLessThan(correlatedAll);
+    }
+
+    private long time(Supplier<?> round) {
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.get();
+        }
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private String pairValues() {
+        List<String> values = new ArrayList<>();
+        for (String base : CURRENCIES) {
+            for (String target : CURRENCIES) {
+                if (!base.equals(target)) {
+                    values.add("('" + base + "', '" + target + "')");
+                }
+            }
+        }
+        return String.join(", ", values);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.aidemo1.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The best-rate queries of {@link ExchangeRateRepositoryImpl} against a real PostgreSQL:
+ * the newest quote of a pair wins and ties on the timestamp go to the lowest rate, the
+ * same answer as the correlated {@code MAX(timestamp)} subquery they replaced, served by
+ * index-only scans of {@code idx_exchange_rate_best}. The list and all-pairs queries return
+ * the single-pair answer for every pair.
+ *
+ * <p>Runs only when a database is given, e.g.
+ * {@code POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/aidemo} (credentials from
+ * {@code POSTGRES_TEST_USERNAME}/{@code _PASSWORD}). Tables are created in a scratch
+ * {@code best_rate_test} schema which is dropped afterwards.</p>
+ */
+@DisplayName("Best-rate query against PostgreSQL")
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+class BestRateQueryPostgresTest {
+
+    private static final String SCHEMA = "best_rate_test";
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "NZD"};
+    private static final int PROVIDERS = 4;
+    private static final int SNAPSHOTS = 500;
+
+    private static final String CURRENCY_ID = "(SELECT id FROM currency_code WHERE code = ?)";
+
+    private static final String CORRELATED_PAIR_SQL =
+            "SELECT e.* FROM exchange_rate e WHERE e.base_currency_id = " + CURRENCY_ID
+            + " AND e.target_currency_id = " + CURRENCY_ID
+            + " AND e.timestamp = (SELECT MAX(e2.timestamp) FROM exchange_rate e2 "
+            + "WHERE e2.base_currency_id = e.base_currency_id AND e2.target_currency_id = e.target_currency_id) "
+            + "ORDER BY e.rate_value ASC, e.id ASC LIMIT 1";
+
+    // What Hibernate generates for BEST_RATE_JPQL with setMaxResults(1)
+    private static final String BEST_PAIR_SQL =
+            "SELECT * FROM exchange_rate WHERE base_currency_id = " + CURRENCY_ID
+            + " AND target_currency_id = " + CURRENCY_ID + " ORDER BY timestamp DESC, rate_value ASC LIMIT 1";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getenv("POSTGRES_TEST_URL"),
+                System.getenv().getOrDefault("POSTGRES_TEST_USERNAME", "postgres"),
+                System.getenv().getOrDefault("POSTGRES_TEST_PASSWORD", "postgres"));
+        dataSource.setSchema(SCHEMA);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE exchange_rate ("
+                + "id BIGINT PRIMARY KEY, "
+                + "base_currency_id SMALLINT NOT NULL, "
+                + "target_currency_id SMALLINT NOT NULL, "
+                + "rate_value BIGINT NOT NULL, "
+                + "provider_id SMALLINT NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE currency_code (id SMALLINT PRIMARY KEY, code VARCHAR(3) NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO currency_code "
+                + "SELECT ordinality, code FROM unnest(?::varchar[]) WITH ORDINALITY c (code)", (Object) CURRENCIES);
+
+        // Every provider quotes every pair once per minute, so each snapshot is a four-way tie
+        jdbcTemplate.update("INSERT INTO exchange_rate "
+                + "SELECT row_number() OVER (), b.id, t.id, (500000 + random() * 1000000)::bigint, "
+                + "p, date_trunc('minute', now()) - make_interval(mins => s) "
+                + "FROM currency_code b JOIN currency_code t ON b.id <> t.id "
+                + "CROSS JOIN generate_series(1, ?) p CROSS JOIN generate_series(1, ?) s",
+                PROVIDERS, SNAPSHOTS);
+        jdbcTemplate.execute("CREATE INDEX idx_exchange_rate_best ON exchange_rate "
+                + "(base_currency_id, target_currency_id, timestamp DESC, rate_value) INCLUDE (id, provider_id)");
+        // Sets the visibility map, which index-only scans depend on
+        jdbcTemplate.execute("VACUUM ANALYZE exchange_rate");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Should return the newest and then lowest quote of every pair")
+    void shouldMatchCorrelatedSubquery() {
+        for (String base : CURRENCIES) {
+            for (String target : CURRENCIES) {
+                if (base.equals(target)) {
+                    continue;
+                }
+                List<Map<String, Object>> best = jdbcTemplate.queryForList(BEST_PAIR_SQL, base, target);
+                List<Map<String, Object>> correlated = jdbcTemplate.queryForList(CORRELATED_PAIR_SQL, base, target);
+
+                assertThat(best).hasSize(1);
+                assertThat(best.get(0).get("rate_value")).isEqualTo(correlated.get(0).get("rate_value"));
+                assertThat(best.get(0).get("timestamp")).isEqualTo(correlated.get(0).get("timestamp"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should prefer a newer quote over a lower older one")
+    void shouldPreferNewestQuote() {
+        Object newest = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM exchange_rate", Object.class);
+        jdbcTemplate.update("INSERT INTO exchange_rate VALUES (-1, 1, 2, 1, 1, CAST(? AS TIMESTAMP) - interval '1 minute')", newest);
+
+        Map<String, Object> best = jdbcTemplate.queryForMap(BEST_PAIR_SQL, "USD", "EUR");
+
+        assertThat(best.get("timestamp")).isEqualTo(newest);
+        assertThat(best.get("id")).isNotEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("Should answer from the covering index without visiting the table")
+    void shouldUseIndexOnlyScan() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + BEST_PAIR_SQL, String.class, "USD", "EUR"));
+
+        assertThat(plan).contains("Index Only Scan using idx_exchange_rate_best");
+    }
+
+    @Test
+    @DisplayName("Should return the single-pair answer for every pair from the list and all-pairs queries")
+    void shouldMatchSinglePairLookupForAllPairs() {
+        List<String> values = new ArrayList<>();
+        for (String base : CURRENCIES) {
+            for (String target : CURRENCIES) {
+                if (!base.equals(target)) {
+                    values.add("('" + base + "', '" + target + "')");
+                }
+            }
+        }
+        List<Map<String, Object>> viaLateral = jdbcTemplate.queryForList(
+                String.format(ExchangeRateRepositoryImpl.BEST_RATES_SQL, String.join(", ", values)));
+        List<Map<String, Object>> viaDistinctOn = jdbcTemplate.queryForList(ExchangeRateRepositoryImpl.ALL_BEST_RATES_SQL);
+
+        assertThat(viaLateral).hasSize(values.size()).isEqualTo(viaDistinctOn);
+        for (Map<String, Object> best : viaLateral) {
+            String base = jdbcTemplate.queryForObject("SELECT code FROM currency_code WHERE id = ?", String.class,
+                    best.get("base_currency_id"));
+            String target = jdbcTemplate.queryForObject("SELECT code FROM currency_code WHERE id = ?", String.class,
+                    best.get("target_currency_id"));
+            assertThat(best.get("id")).isEqualTo(jdbcTemplate.queryForMap(BEST_PAIR_SQL, base, target).get("id"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer the all-pairs query from the covering index")
+    void shouldUseIndexOnlyScanForAllPairs() {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN " + ExchangeRateRepositoryImpl.ALL_BEST_RATES_SQL, String.class));
+
+        assertThat(plan).contains("Index Only Scan using idx_exchange_rate_best");
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.aidemo1.repository;
+
+import com.example.aidemo1.dto.response.CurrencyResponse;
+import com.example.aidemo1.dto.response.ExchangeRateResponse;
+import com.example.aidemo1.entity.Currency;
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.persistence.RateDictionary;
+import com.example.aidemo1.repository.projection.RateQuote;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation per request of the entity and projection read paths.
+ *
+ * <p>Each "request" runs the conversion lookup or the currency listing in its own
+ * read-only transaction and builds the API response, once from managed entities and
+ * once from {@link RateQuote} / {@link com.example.aidemo1.repository.projection.CurrencySummary}
+ * projections. Allocation is measured with the current thread's allocated-bytes counter,
+ * which does not depend on the database, so the embedded H2 database is used.</p>
+ *
+ * <p>Runs only when {@code BENCHMARK_ALLOCATION=true}.</p>
+ */
+@DataJpaTest
+@Import(RateDictionary.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Projection allocation benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_ALLOCATION", matches = "true")
+class ProjectionAllocationBenchmark {
+
+    private static final int CURRENCIES = 150;
+    private static final int RATES = 2_000;
+    private static final int WARMUP = 2_000;
+    private static final int REQUESTS = 5_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("100");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTx;
+    private LocalDateTime since;
+
+    @BeforeEach
+    void setUp() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        List<Currency> currencies = new ArrayList<>(CURRENCIES);
+        for (int i = 0; i < CURRENCIES; i++) {
+            currencies.add(Currency.builder()
+                    .code(String.valueOf(new char[] {'A', (char) ('A' + i / 26), (char) ('A' + i % 26)}))
+                    .name("Currency " + i)
+                    .build());
+        }
+        currencyRepository.saveAll(currencies);
+
+        LocalDateTime now = LocalDateTime.now();
+        since = now.minusHours(1);
+        List<ExchangeRate> rates = new ArrayList<>(RATES);
+        for (int i = 0; i < RATES; i++) {
+            rates.add(ExchangeRate.builder()
+                    .baseCurrency("USD")
+                    .targetCurrency("EUR")
+                    .rate(new BigDecimal("1.100000").add(BigDecimal.valueOf(i, 6)))
+                    .provider("Provider" + (i % 4))
+                    .timestamp(now.minusSeconds(i))
+                    .build());
+        }
+        exchangeRateRepository.saveAll(rates);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exchangeRateRepository.deleteAllInBatch();
+        currencyRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Projections should allocate less per request than entities")
+    void compareAllocationPerRequest() {
+        long conversionEntity = allocatedBytesPerRequest(() -> readOnlyTx.execute(status -> exchangeRateRepository
+                .findFirstByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+                        "USD", "EUR", since)
+                .map(RateQuote::of)
+                .map(this::toResponse)
+                .orElseThrow()));
+        long conversionProjection = allocatedBytesPerRequest(() -> readOnlyTx.execute(status -> exchangeRateRepository
+                .findFirstQuoteByBaseCurrencyAndTargetCurrencyAndTimestampGreaterThanEqualOrderByTimestampDesc(
+                        "USD", "EUR", since)
+                .map(this::toResponse)
+                .orElseThrow()));
+        long listingEntity = allocatedBytesPerRequest(() -> readOnlyTx.execute(status -> currencyRepository
+                .findAllByOrderByCodeAsc().stream()
+                .map(currency -> new CurrencyResponse(currency.getCode(), currency.getName(),
+                        currency.getCreatedAt(), currency.getUpdatedAt()))
+                .toList()));
+        long listingProjection = allocatedBytesPerRequest(() -> readOnlyTx.execute(status -> currencyRepository
+                .findAllSummariesByOrderByCodeAsc().stream()
+                .map(summary -> new CurrencyResponse(summary.code(), summary.name(),
+                        summary.createdAt(), summary.updatedAt()))
+                .toList()));
+
+        System.out.printf("Bytes allocated per request (%d requests): conversion entity %d, projection %d; "
+                        + "listing of %d currencies entity %d, projection %d%n",
+                REQUESTS, conversionEntity, conversionProjection, CURRENCIES, listingEntity, listingProjection);
+
+        assertThat(conversionProjection).isLessThan(conversionEntity);
+        assertThat(listingProjection).isLessThan(listingEntity);
+    }
+
+    private ExchangeRateResponse toResponse(RateQuote quote) {
+        return ExchangeRateResponse.builder()
+                .from(quote.baseCurrency())
+                .to(quote.targetCurrency())
+                .amount(AMOUNT)
+                .rate(quote.rate())
+                .convertedAmount(AMOUNT.multiply(quote.rate()))
+                .provider(quote.provider())
+                .timestamp(quote.timestamp())
+                .build();
+    }
+
+    private static long allocatedBytesPerRequest(Supplier<?> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.get();
+        }
+        return (THREADS.getCurrentThreadAllocatedBytes() - before) / REQUESTS;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.aidemo1.rollup;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExchangeRateRollupWriter.
+ * Tests folding of rates into OHLC buckets and the batched upsert.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExchangeRateRollupWriter Tests")
+class ExchangeRateRollupWriterTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ExchangeRateRollupWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new ExchangeRateRollupWriter(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should compute open, high, low, close and providers of a bucket")
+    void shouldSummarizeBucket() {
+        // Given - quotes within the same minute, out of order
+        List<ExchangeRate> rates = List.of(
+                rate("USD", "EUR", "1.12", "ProviderB", NOON.plusSeconds(30)),
+                rate("USD", "EUR", "1.10", "ProviderA", NOON.plusSeconds(5)),
+                rate("USD", "EUR", "1.15", "ProviderA", NOON.plusSeconds(10)),
+                rate("USD", "EUR", "1.08", "ProviderC", NOON.plusSeconds(20)));
+
+        // When
+        ExchangeRateRollupWriter.Bucket minute = bucket(ExchangeRateRollupWriter.summarize(rates),
+                RollupGranularity.MINUTE);
+
+        // Then
+        assertThat(minute.key().bucketStart()).isEqualTo(NOON);
+        assertThat(minute.open()).isEqualByComparingTo("1.10");
+        assertThat(minute.high()).isEqualByComparingTo("1.15");
+        assertThat(minute.low()).isEqualByComparingTo("1.08");
+        assertThat(minute.close()).isEqualByComparingTo("1.12");
+        assertThat(minute.samples()).isEqualTo(4);
+        assertThat(minute.providerCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should produce one bucket per pair and granularity")
+    void shouldSummarizePerPairAndGranularity() {
+        // Given - two minutes of the same hour and a second pair
+        List<ExchangeRate> rates = List.of(
+                rate("USD", "EUR", "1.10", "ProviderA", NOON.plusSeconds(5)),
+                rate("USD", "EUR", "1.11", "ProviderA", NOON.plusMinutes(1)),
+                rate("USD", "GBP", "0.80", "ProviderA", NOON.plusSeconds(5)));
+
+        // When
+        Collection<ExchangeRateRollupWriter.Bucket> buckets = ExchangeRateRollupWriter.summarize(rates);
+
+        // Then - USD/EUR: 2 minutes + 1 hour + 1 day; USD/GBP: 1 + 1 + 1
+        assertThat(buckets).hasSize(7);
+        ExchangeRateRollupWriter.Bucket hour = buckets.stream()
+                .filter(b -> b.key().target().equals("EUR") && b.key().granularity() == RollupGranularity.HOUR)
+                .findFirst().orElseThrow();
+        assertThat(hour.samples()).isEqualTo(2);
+        assertThat(hour.close()).isEqualByComparingTo("1.11");
+    }
+
+    @Test
+    @DisplayName("Should upsert all buckets in one batch")
+    void shouldUpsertInOneBatch() {
+        // When
+        writer.record(List.of(rate("USD", "EUR", "1.10", "ProviderA", NOON)));
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(eq(ExchangeRateRollupWriter.UPSERT_SQL),
+                argThat((List<Object[]> rows) -> rows.size() == 3));
+    }
+
+    @Test
+    @DisplayName("Should skip the database for an empty batch")
+    void shouldIgnoreEmptyBatch() {
+        writer.record(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private ExchangeRateRollupWriter.Bucket bucket(Collection<ExchangeRateRollupWriter.Bucket> buckets,
+                                                   RollupGranularity granularity) {
+        return buckets.stream().filter(b -> b.key().granularity() == granularity).findFirst().orElseThrow();
+    }
+
+    private ExchangeRate rate(String base, String target, String value, String provider, LocalDateTime timestamp) {
+        return ExchangeRate.builder()
+                .baseCurrency(base)
+                .targetCurrency(target)
+                .rate(new BigDecimal(value))
+                .provider(provider)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.aidemo1.rollup;
+
+import com.example.aidemo1.cluster.RefreshCycleGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RollupBackfillJob.
+ * Tests the guarded startup backfill, its resume from recorded months and that open buckets
+ * are left to the incremental writer.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RollupBackfillJob Tests")
+class RollupBackfillJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 34, 56);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RefreshCycleGuard refreshCycleGuard;
+
+    private RollupBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new RollupBackfillJob(jdbcTemplate, transactionTemplate, refreshCycleGuard, true);
+    }
+
+    @Test
+    @DisplayName("Should run the startup backfill only through the cluster guard")
+    void shouldBackfillThroughGuard() {
+        // Given - another node holds the guard
+        when(refreshCycleGuard.runIfDue(eq(RollupBackfillJob.CYCLE_NAME), any(Duration.class), any()))
+                .thenReturn(OptionalInt.empty());
+
+        // When
+        job.startBackfill();
+
+        // Then
+        verify(refreshCycleGuard, timeout(1000)).runIfDue(eq(RollupBackfillJob.CYCLE_NAME), any(Duration.class), any());
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should not start a backfill when it is disabled")
+    void shouldNotBackfillWhenDisabled() {
+        // Given
+        job = new RollupBackfillJob(jdbcTemplate, transactionTemplate, refreshCycleGuard, false);
+
+        // When
+        job.backfillIfEmpty();
+
+        // Then
+        verifyNoInteractions(refreshCycleGuard, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should resume after the months recorded as completed")
+    void shouldResumeAfterCompletedMonths() {
+        // Given - history starts in July, July and August were backfilled before a restart
+        givenTransactions();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MIN(timestamp)"), eq(Timestamp.class)))
+                .thenReturn(Timestamp.valueOf("2026-07-14 08:00:00"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT month"), eq(Date.class)))
+                .thenReturn(List.of(Date.valueOf("2026-07-01"), Date.valueOf("2026-08-01")));
+
+        // When
+        int months = job.backfillPending(NOW);
+
+        // Then - September and the current month
+        assertThat(months).isEqualTo(2);
+        verify(jdbcTemplate, never()).update(eq(RollupBackfillJob.BACKFILL_SQL), any(), any(),
+                eq(Timestamp.valueOf("2026-07-01 00:00:00")), any());
+        verify(jdbcTemplate, never()).update(eq(RollupBackfillJob.BACKFILL_SQL), any(), any(),
+                eq(Timestamp.valueOf("2026-08-01 00:00:00")), any());
+        verify(jdbcTemplate, times(RollupGranularity.values().length)).update(eq(RollupBackfillJob.BACKFILL_SQL),
+                any(), any(), eq(Timestamp.valueOf("2026-09-01 00:00:00")), any());
+    }
+
+    @Test
+    @DisplayName("Should backfill nothing when no rates are stored")
+    void shouldSkipWithoutHistory() {
+        // When
+        int months = job.backfillPending(NOW);
+
+        // Then
+        assertThat(months).isZero();
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should backfill closed months completely")
+    void shouldBackfillClosedMonth() {
+        // Given
+        givenTransactions();
+
+        // When
+        job.backfill(YearMonth.of(2026, 9), YearMonth.of(2026, 9), NOW);
+
+        // Then
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            verify(jdbcTemplate).update(RollupBackfillJob.BACKFILL_SQL, granularity.name(), granularity.getSqlUnit(),
+                    Timestamp.valueOf("2026-09-01 00:00:00"), Timestamp.valueOf("2026-10-01 00:00:00"));
+        }
+        verify(jdbcTemplate).update(RollupBackfillJob.MARK_COMPLETED_SQL, Date.valueOf("2026-09-01"),
+                Timestamp.valueOf(NOW));
+    }
+
+    @Test
+    @DisplayName("Should stop before the open bucket of each granularity in the current month")
+    void shouldSkipOpenBuckets() {
+        // Given
+        givenTransactions();
+
+        // When
+        job.backfill(YearMonth.of(2026, 10), YearMonth.of(2026, 10), NOW);
+
+        // Then
+        Timestamp monthStart = Timestamp.valueOf("2026-10-01 00:00:00");
+        verify(jdbcTemplate).update(RollupBackfillJob.BACKFILL_SQL, "MINUTE", "minute",
+                monthStart, Timestamp.valueOf("2026-10-18 12:34:00"));
+        verify(jdbcTemplate).update(RollupBackfillJob.BACKFILL_SQL, "HOUR", "hour",
+                monthStart, Timestamp.valueOf("2026-10-18 12:00:00"));
+        verify(jdbcTemplate).update(RollupBackfillJob.BACKFILL_SQL, "DAY", "day",
+                monthStart, Timestamp.valueOf("2026-10-18 00:00:00"));
+        verify(jdbcTemplate, never()).update(eq(RollupBackfillJob.MARK_COMPLETED_SQL), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should merge backfilled buckets with existing rows instead of replacing them")
+    void shouldMergeExistingBuckets() {
+        assertThat(RollupBackfillJob.BACKFILL_SQL)
+                .contains("high_rate = GREATEST(r.high_rate, EXCLUDED.high_rate)")
+                .contains("low_rate = LEAST(r.low_rate, EXCLUDED.low_rate)")
+                .contains("sample_count = GREATEST(r.sample_count, EXCLUDED.sample_count)")
+                .doesNotContain("open_rate = EXCLUDED.open_rate");
+    }
+
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+}
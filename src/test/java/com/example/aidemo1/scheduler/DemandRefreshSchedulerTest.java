@@ -0,0 +1,125 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.cluster.RefreshCycleGuard;
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.DemandTier;
+import com.example.aidemo1.service.refresh.PairAccessTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DemandRefreshScheduler.
+ * Tests tier-based selection of pairs, leader election and error handling.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DemandRefreshScheduler Tests")
+class DemandRefreshSchedulerTest {
+
+    private static final CurrencyPair HOT_PAIR = new CurrencyPair("USD", "EUR");
+    private static final CurrencyPair WARM_PAIR = new CurrencyPair("USD", "GBP");
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private PairAccessTracker pairAccessTracker;
+
+    @Mock
+    private RefreshCycleGuard refreshCycleGuard;
+
+    private DemandRefreshScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DemandRefreshScheduler(exchangeRateService, pairAccessTracker, refreshCycleGuard, 3, 300_000);
+        // By default this node is the leader and every tick is due
+        lenient().when(refreshCycleGuard.runIfDue(anyString(), any(), any()))
+                .thenAnswer(invocation -> OptionalInt.of(invocation.<IntSupplier>getArgument(2).getAsInt()));
+        lenient().when(pairAccessTracker.rollTiers()).thenReturn(Map.of(
+                DemandTier.HOT, List.of(HOT_PAIR),
+                DemandTier.WARM, List.of(WARM_PAIR)));
+    }
+
+    @Test
+    @DisplayName("Should refresh hot pairs every tick and warm pairs every interval")
+    void shouldRefreshTiersAtTheirIntervals() {
+        // When
+        scheduler.refreshByDemand();
+        scheduler.refreshByDemand();
+        scheduler.refreshByDemand();
+        scheduler.refreshByDemand();
+
+        // Then
+        verify(exchangeRateService, times(2)).refreshPairs(List.of(HOT_PAIR, WARM_PAIR));
+        verify(exchangeRateService, times(2)).refreshPairs(List.of(HOT_PAIR));
+    }
+
+    @Test
+    @DisplayName("Should refresh a pair that was warm between warm refreshes at the next one")
+    void shouldKeepWarmPairsUntilTheNextWarmRefresh() {
+        // Given - the pair is warm only on a tick where warm pairs are not due
+        when(pairAccessTracker.rollTiers()).thenReturn(
+                Map.of(), Map.of(DemandTier.WARM, List.of(WARM_PAIR)), Map.of(), Map.of());
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            scheduler.refreshByDemand();
+        }
+
+        // Then
+        verify(exchangeRateService, times(1)).refreshPairs(List.of(WARM_PAIR));
+        verifyNoMoreInteractions(exchangeRateService);
+    }
+
+    @Test
+    @DisplayName("Should skip the tick on a node that is not the refresh leader")
+    void shouldSkipTickOnNonLeader() {
+        // Given
+        when(refreshCycleGuard.runIfDue(anyString(), any(), any())).thenReturn(OptionalInt.empty());
+
+        // When
+        scheduler.refreshByDemand();
+
+        // Then
+        verify(refreshCycleGuard).runIfDue(eq("demand-refresh"), eq(Duration.ofMinutes(5)), any());
+        verifyNoInteractions(exchangeRateService, pairAccessTracker);
+    }
+
+    @Test
+    @DisplayName("Should not call the service when no pair is due")
+    void shouldSkipWhenNothingIsDue() {
+        // Given
+        when(pairAccessTracker.rollTiers()).thenReturn(Map.of());
+
+        // When
+        scheduler.refreshByDemand();
+
+        // Then
+        verify(exchangeRateService, never()).refreshPairs(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should not propagate refresh failures")
+    void shouldHandleRefreshFailure() {
+        // Given
+        when(exchangeRateService.refreshPairs(anyCollection())).thenThrow(new RuntimeException("Provider down"));
+
+        // When / Then
+        assertThatCode(() -> scheduler.refreshByDemand()).doesNotThrowAnyException();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.aidemo1.scheduler;
 
+import com.example.aidemo1.cluster.RefreshCycleGuard;
 import com.example.aidemo1.service.ExchangeRateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,7 +11,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -25,9 +30,19 @@ class ExchangeRateSchedulerTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private RefreshCycleGuard refreshCycleGuard;
+
     @InjectMocks
     private ExchangeRateScheduler scheduler;
 
+    @BeforeEach
+    void setUp() {
+        // By default this node runs every cycle, like a single instance
+        lenient().when(refreshCycleGuard.runIfDue(anyString(), any(), any()))
+                .thenAnswer(invocation -> OptionalInt.of(invocation.<IntSupplier>getArgument(2).getAsInt()));
+    }
+
     @Nested
     @DisplayName("Constructor Tests")
     class ConstructorTests {
@@ -39,7 +54,7 @@ class ExchangeRateSchedulerTest {
             ExchangeRateService service = mock(ExchangeRateService.class);
 
             // When
-            ExchangeRateScheduler newScheduler = new ExchangeRateScheduler(service);
+            ExchangeRateScheduler newScheduler = new ExchangeRateScheduler(service, mock(RefreshCycleGuard.class));
 
             // Then
             assertThat(newScheduler).isNotNull();
@@ -127,6 +142,19 @@ class ExchangeRateSchedulerTest {
             // Verify it completes without issues even with 0 pairs
         }
 
+        @Test
+        @DisplayName("Should skip refresh when another node runs the cycle")
+        void shouldSkipRefreshWhenGuardDeclines() {
+            // Given
+            when(refreshCycleGuard.runIfDue(anyString(), any(), any())).thenReturn(OptionalInt.empty());
+
+            // When & Then
+            assertThatCode(() -> scheduler.refreshExchangeRates())
+                    .doesNotThrowAnyException();
+
+            verify(exchangeRateService, never()).refreshAllRates();
+        }
+
         @Test
         @DisplayName("Should handle service returning negative count gracefully")
         void shouldHandleNegativeCountGracefully() {
@@ -0,0 +1,114 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.entity.Currency;
+import com.example.aidemo1.exception.ExternalProviderException;
+import com.example.aidemo1.repository.CurrencyRepository;
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.CurrencyAddedEvent;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.example.aidemo1.service.refresh.RefreshPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NewCurrencyRefreshListener.
+ * Tests selection of the new currencies' pairs, async execution and error handling.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NewCurrencyRefreshListener Tests")
+class NewCurrencyRefreshListenerTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private NewCurrencyRefreshListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new NewCurrencyRefreshListener(exchangeRateService, currencyRepository);
+        when(currencyRepository.findAllByOrderByCodeAsc()).thenReturn(currencies("CHF", "EUR", "JPY", "USD"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should refresh only the 2(N-1) pairs of a new currency with high priority")
+    void shouldRefreshPairsOfNewCurrency() {
+        // Given
+        when(exchangeRateService.refreshPairs(anyCollection(), eq(RefreshPriority.HIGH))).thenReturn(6);
+
+        // When
+        int refreshed = listener.refreshNewPairs(List.of("CHF"));
+
+        // Then
+        assertThat(refreshed).isEqualTo(6);
+        assertThat(capturePairs()).containsExactlyInAnyOrder(
+                new CurrencyPair("CHF", "EUR"), new CurrencyPair("EUR", "CHF"),
+                new CurrencyPair("CHF", "JPY"), new CurrencyPair("JPY", "CHF"),
+                new CurrencyPair("CHF", "USD"), new CurrencyPair("USD", "CHF"));
+    }
+
+    @Test
+    @DisplayName("Should not refresh pairs between new currencies twice")
+    void shouldDeduplicatePairsBetweenNewCurrencies() {
+        // When
+        listener.refreshNewPairs(List.of("CHF", "JPY"));
+
+        // Then - 2k(N-k) + k(k-1) = 8 + 2
+        assertThat(capturePairs()).hasSize(10).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should refresh asynchronously when the event is received")
+    void shouldRefreshAsynchronously() {
+        // When
+        listener.onCurrencyAdded(new CurrencyAddedEvent(List.of("CHF")));
+
+        // Then
+        verify(exchangeRateService, timeout(1000)).refreshPairs(anyCollection(), eq(RefreshPriority.HIGH));
+    }
+
+    @Test
+    @DisplayName("Should swallow refresh failures so the next event is still handled")
+    void shouldHandleRefreshFailure() {
+        // Given
+        when(exchangeRateService.refreshPairs(anyCollection(), any()))
+                .thenThrow(new ExternalProviderException("All providers failed"));
+
+        // When & Then
+        assertThatCode(() -> listener.refreshNewPairs(List.of("CHF"))).doesNotThrowAnyException();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<CurrencyPair> capturePairs() {
+        ArgumentCaptor<Collection<CurrencyPair>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(exchangeRateService).refreshPairs(captor.capture(), eq(RefreshPriority.HIGH));
+        return captor.getValue();
+    }
+
+    private List<Currency> currencies(String... codes) {
+        return Arrays.stream(codes)
+                .map(code -> Currency.builder().code(code).name(code).build())
+                .toList();
+    }
+}
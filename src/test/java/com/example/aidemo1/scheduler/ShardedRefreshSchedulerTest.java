@@ -0,0 +1,52 @@
+package com.example.aidemo1.scheduler;
+
+import com.example.aidemo1.service.ExchangeRateService;
+import com.example.aidemo1.service.refresh.RefreshMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShardedRefreshScheduler.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShardedRefreshScheduler Tests")
+class ShardedRefreshSchedulerTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private ShardedRefreshScheduler scheduler;
+
+    @Test
+    @DisplayName("Should refresh only claimed partitions")
+    void shouldRefreshClaimedPartitions() {
+        // Given
+        when(exchangeRateService.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS)).thenReturn(12);
+
+        // When
+        scheduler.refreshClaimedPartitions();
+
+        // Then
+        verify(exchangeRateService).refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+        verify(exchangeRateService, never()).refreshAllRates();
+    }
+
+    @Test
+    @DisplayName("Should not propagate refresh failures")
+    void shouldHandleRefreshFailure() {
+        // Given
+        when(exchangeRateService.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        // When & Then
+        assertThatCode(() -> scheduler.refreshClaimedPartitions()).doesNotThrowAnyException();
+    }
+}
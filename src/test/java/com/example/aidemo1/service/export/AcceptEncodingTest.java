@@ -0,0 +1,46 @@
+package com.example.aidemo1.service.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for AcceptEncoding.
+ * Tests gzip negotiation with quality values and wildcards.
+ */
+@DisplayName("AcceptEncoding Tests")
+class AcceptEncodingTest {
+
+    @Test
+    @DisplayName("Should accept gzip when listed with a non-zero quality")
+    void shouldAcceptListedGzip() {
+        assertThat(AcceptEncoding.acceptsGzip("gzip")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("br, GZIP;q=0.5")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("x-gzip")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should refuse gzip with quality zero")
+    void shouldRefuseGzipWithQualityZero() {
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip ; q=0.000, deflate")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("*, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should use the wildcard for an unlisted gzip")
+    void shouldUseWildcard() {
+        assertThat(AcceptEncoding.acceptsGzip("br, *")).isTrue();
+        assertThat(AcceptEncoding.acceptsGzip("*;q=0")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should refuse gzip when the header is missing or lists other codings only")
+    void shouldRefuseWithoutGzip() {
+        assertThat(AcceptEncoding.acceptsGzip(null)).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("identity, br")).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("gzip;q=abc")).isFalse();
+    }
+}
@@ -2,6 +2,8 @@ package com.example.aidemo1.service.impl;
 
 import com.example.aidemo1.entity.Currency;
 import com.example.aidemo1.repository.CurrencyRepository;
+import com.example.aidemo1.repository.projection.CurrencySummary;
+import com.example.aidemo1.service.refresh.CurrencyAddedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,10 +12,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +35,9 @@ class CurrencyServiceImplTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CurrencyServiceImpl currencyService;
 
@@ -87,6 +94,30 @@ class CurrencyServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("listCurrencies() Tests")
+    class ListCurrenciesTests {
+
+        @Test
+        @DisplayName("Should map currency projections to responses without loading entities")
+        void shouldListCurrenciesFromProjections() {
+            // Arrange
+            var createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+            when(currencyRepository.findAllSummariesByOrderByCodeAsc()).thenReturn(List.of(
+                    new CurrencySummary("EUR", "Euro", createdAt, createdAt),
+                    new CurrencySummary("USD", "US Dollar", createdAt, createdAt)));
+
+            // Act
+            var result = currencyService.listCurrencies();
+
+            // Assert
+            assertThat(result).extracting("code", "name")
+                    .containsExactly(tuple("EUR", "Euro"), tuple("USD", "US Dollar"));
+            assertThat(result.get(0).getCreatedAt()).isEqualTo(createdAt);
+            verify(currencyRepository, never()).findAllByOrderByCodeAsc();
+        }
+    }
+
     @Nested
     @DisplayName("addCurrency() Tests")
     class AddCurrencyTests {
@@ -108,6 +139,7 @@ class CurrencyServiceImplTest {
             assertThat(result.getName()).isEqualTo("US Dollar");
             verify(currencyRepository).existsByCode(currencyCode);
             verify(currencyRepository).save(any(Currency.class));
+            verify(eventPublisher).publishEvent(new CurrencyAddedEvent(List.of("USD")));
         }
 
         @Test
@@ -141,6 +173,7 @@ class CurrencyServiceImplTest {
                     .hasMessageContaining("Currency already exists");
             verify(currencyRepository).existsByCode(currencyCode);
             verify(currencyRepository, never()).save(any(Currency.class));
+            verifyNoInteractions(eventPublisher);
         }
 
         @Test
@@ -244,6 +277,47 @@ class CurrencyServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("addCurrencies() Tests")
+    class AddCurrenciesTests {
+
+        @Test
+        @DisplayName("Should add all currencies and publish a single event")
+        void shouldAddAllCurrenciesAndPublishSingleEvent() {
+            // Arrange
+            when(currencyRepository.existsByCode(anyString())).thenReturn(false);
+            when(currencyRepository.save(any(Currency.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            var result = currencyService.addCurrencies(List.of("chf", "JPY"));
+
+            // Assert
+            assertThat(result).extracting(Currency::getCode).containsExactly("CHF", "JPY");
+            verify(currencyRepository, times(2)).save(any(Currency.class));
+            verify(eventPublisher).publishEvent(new CurrencyAddedEvent(List.of("CHF", "JPY")));
+        }
+
+        @Test
+        @DisplayName("Should reject duplicate codes within the request")
+        void shouldRejectDuplicateCodes() {
+            // Act & Assert
+            assertThatThrownBy(() -> currencyService.addCurrencies(List.of("CHF", "chf")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Duplicate currency code");
+            verify(currencyRepository, never()).save(any(Currency.class));
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when the list is empty")
+        void shouldThrowExceptionWhenListIsEmpty() {
+            // Act & Assert
+            assertThatThrownBy(() -> currencyService.addCurrencies(List.of()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("At least one currency code");
+        }
+    }
+
     @Nested
     @DisplayName("currencyExists() Tests")
     class CurrencyExistsTests {
@@ -335,7 +409,7 @@ class CurrencyServiceImplTest {
         @DisplayName("Should throw NullPointerException when repository is null")
         void shouldThrowExceptionWhenRepositoryIsNull() {
             // Act & Assert
-            assertThatThrownBy(() -> new CurrencyServiceImpl(null))
+            assertThatThrownBy(() -> new CurrencyServiceImpl(null, eventPublisher))
                     .isInstanceOf(NullPointerException.class)
                     .hasMessageContaining("CurrencyRepository must not be null");
         }
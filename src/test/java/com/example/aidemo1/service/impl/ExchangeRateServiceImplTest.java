@@ -0,0 +1,207 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.cluster.PartitionLeaseManager;
+import com.example.aidemo1.entity.Currency;
+import com.example.aidemo1.integration.aggregator.RateAggregatorService;
+import com.example.aidemo1.persistence.LatestRateUpserter;
+import com.example.aidemo1.repository.CurrencyRepository;
+import com.example.aidemo1.repository.ExchangeRateLatestRepository;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.service.refresh.PairAccessTracker;
+import com.example.aidemo1.service.refresh.PairCatalog;
+import com.example.aidemo1.service.refresh.PartitionedRateRefresher;
+import com.example.aidemo1.service.refresh.RefreshJobService;
+import com.example.aidemo1.service.refresh.RefreshMode;
+import com.example.aidemo1.service.refresh.RefreshProgressListener;
+import com.example.aidemo1.service.refresh.RefreshResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExchangeRateServiceImpl.
+ * Tests the claim/complete/release loop of sharded refresh cycles.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExchangeRateServiceImpl Tests")
+class ExchangeRateServiceImplTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateLatestRepository latestRepository;
+
+    @Mock
+    private ObjectProvider<LatestRateUpserter> latestUpserter;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private RateAggregatorService rateAggregatorService;
+
+    @Mock
+    private PartitionedRateRefresher rateRefresher;
+
+    @Mock
+    private PairAccessTracker pairAccessTracker;
+
+    @Mock
+    private PairCatalog pairCatalog;
+
+    @Mock
+    private ObjectProvider<PartitionLeaseManager> partitionLeases;
+
+    @Mock
+    private PartitionLeaseManager leases;
+
+    @Mock
+    private PartitionLeaseManager.LeaseRenewal renewal;
+
+    @Mock
+    private RefreshJobService refreshJobService;
+
+    private ExchangeRateServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExchangeRateServiceImpl(exchangeRateRepository, latestRepository, latestUpserter,
+                currencyRepository, rateAggregatorService, rateRefresher, pairAccessTracker, pairCatalog,
+                partitionLeases, refreshJobService);
+    }
+
+    @Nested
+    @DisplayName("refreshAllRates(CLAIMED_PARTITIONS) Tests")
+    class ClaimedPartitionsTests {
+
+        @BeforeEach
+        void setUp() {
+            when(partitionLeases.getIfAvailable()).thenReturn(leases);
+            when(currencyRepository.findAll()).thenReturn(List.of(currency("EUR"), currency("GBP"), currency("USD")));
+            when(pairCatalog.isEmpty()).thenReturn(true);
+            lenient().when(leases.keepAlive(anyList())).thenReturn(renewal);
+        }
+
+        @Test
+        @DisplayName("Should refresh and complete claimed partitions until none are left")
+        void shouldCompleteClaimedPartitions() {
+            // Given
+            when(leases.claim()).thenReturn(List.of("EUR", "GBP"), List.of("USD"), List.of());
+            when(rateRefresher.refresh(anyMap(), eq(RefreshProgressListener.NONE)))
+                    .thenReturn(result(4, List.of(), List.of()), result(2, List.of(), List.of()));
+
+            // When
+            int refreshed = service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+
+            // Then
+            assertThat(refreshed).isEqualTo(6);
+            verify(rateRefresher).refresh(Map.of("EUR", List.of("GBP", "USD"), "GBP", List.of("EUR", "USD")),
+                    RefreshProgressListener.NONE);
+            verify(rateRefresher).refresh(Map.of("USD", List.of("EUR", "GBP")), RefreshProgressListener.NONE);
+            verify(leases).complete(List.of("EUR", "GBP"));
+            verify(leases).complete(List.of("USD"));
+            verify(leases, times(2)).release(List.of());
+        }
+
+        @Test
+        @DisplayName("Should release failed and timed out partitions and complete the rest")
+        void shouldReleaseUnfinishedPartitions() {
+            // Given
+            when(leases.claim()).thenReturn(List.of("EUR", "GBP", "USD"), List.of());
+            when(rateRefresher.refresh(anyMap(), eq(RefreshProgressListener.NONE)))
+                    .thenReturn(result(2, List.of("EUR"), List.of("USD")));
+
+            // When
+            int refreshed = service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+
+            // Then
+            assertThat(refreshed).isEqualTo(2);
+            verify(leases).release(List.of("EUR", "USD"));
+            verify(leases).complete(List.of("GBP"));
+        }
+
+        @Test
+        @DisplayName("Should renew leases while the claimed partitions are refreshed")
+        void shouldRenewLeasesWhileRefreshing() {
+            // Given
+            when(leases.claim()).thenReturn(List.of("EUR"), List.of());
+            when(rateRefresher.refresh(anyMap(), eq(RefreshProgressListener.NONE)))
+                    .thenReturn(result(2, List.of(), List.of()));
+
+            // When
+            service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+
+            // Then
+            var inOrder = inOrder(leases, rateRefresher, renewal);
+            inOrder.verify(leases).keepAlive(List.of("EUR"));
+            inOrder.verify(rateRefresher).refresh(anyMap(), eq(RefreshProgressListener.NONE));
+            inOrder.verify(renewal).close();
+            inOrder.verify(leases).complete(List.of("EUR"));
+        }
+
+        @Test
+        @DisplayName("Should release all claimed partitions when the refresh throws")
+        void shouldReleaseClaimedPartitionsOnFailure() {
+            // Given
+            when(leases.claim()).thenReturn(List.of("EUR", "GBP"));
+            when(rateRefresher.refresh(anyMap(), eq(RefreshProgressListener.NONE)))
+                    .thenThrow(new IllegalStateException("Refresh executor rejected the partitions"));
+
+            // When & Then
+            assertThatThrownBy(() -> service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS))
+                    .isInstanceOf(IllegalStateException.class);
+            verify(renewal).close();
+            verify(leases).release(List.of("EUR", "GBP"));
+            verify(leases, never()).complete(anyList());
+        }
+
+        @Test
+        @DisplayName("Should complete claimed partitions that have nothing to refresh")
+        void shouldCompletePartitionsWithoutTargets() {
+            // Given - a partition of a currency that has since been removed
+            when(leases.claim()).thenReturn(List.of("CHF"), List.of());
+            when(rateRefresher.refresh(Map.of(), RefreshProgressListener.NONE)).thenReturn(RefreshResult.empty());
+
+            // When
+            int refreshed = service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS);
+
+            // Then
+            assertThat(refreshed).isZero();
+            verify(leases).complete(List.of("CHF"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject claimed partition refresh when sharding is disabled")
+    void shouldRejectClaimedPartitionsWithoutSharding() {
+        // Given
+        when(partitionLeases.getIfAvailable()).thenReturn(null);
+
+        // When & Then
+        assertThatThrownBy(() -> service.refreshAllRates(RefreshMode.CLAIMED_PARTITIONS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exchange.refresh.mode=sharded");
+    }
+
+    private static Currency currency(String code) {
+        return Currency.builder().code(code).name(code).build();
+    }
+
+    private static RefreshResult result(int refreshedPairs, List<String> failed, List<String> timedOut) {
+        return new RefreshResult(refreshedPairs, refreshedPairs, failed, timedOut, Duration.ofSeconds(1));
+    }
+}
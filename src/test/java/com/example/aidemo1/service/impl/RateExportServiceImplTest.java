@@ -0,0 +1,181 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.service.export.ExportFormat;
+import com.example.aidemo1.service.export.RateExportFilter;
+import com.example.aidemo1.service.refresh.CurrencyPair;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateExportServiceImpl.
+ * Tests CSV and NDJSON output, query building for filters and resuming, and filter validation.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateExportServiceImpl Tests")
+class RateExportServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RateExportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RateExportServiceImpl(jdbcTemplate, objectMapper, 1000);
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and one line per row, quoting fields that need it")
+    void shouldExportCsv() throws Exception {
+        // Given
+        givenRows("Provider1", "Provider \"A\", Ltd");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long written = service.export(new RateExportFilter(null, null, null, null, null, null), ExportFormat.CSV, output);
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,base_currency,target_currency,rate,provider,timestamp\n"
+                + "1,USD,EUR,0.920000,Provider1,2026-10-18T12:00\n"
+                + "2,USD,EUR,0.921500,\"Provider \"\"A\"\", Ltd\",2026-10-18T12:01\n");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void shouldExportNdjson() throws Exception {
+        // Given
+        givenRows("Provider1", "Provider2");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long written = service.export(new RateExportFilter(null, null, null, null, null, null), ExportFormat.NDJSON, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asLong()).isEqualTo(2);
+        assertThat(second.get("baseCurrency").asText()).isEqualTo("USD");
+        assertThat(second.get("rate").decimalValue()).isEqualByComparingTo("0.9215");
+        assertThat(second.get("provider").asText()).isEqualTo("Provider2");
+        assertThat(second.get("timestamp").asText()).isEqualTo("2026-10-18T12:01");
+    }
+
+    @Test
+    @DisplayName("Should read through a forward-only cursor with every filter bound as a parameter")
+    void shouldBindFiltersAndResumePosition() throws Exception {
+        // Given
+        RateExportFilter filter = new RateExportFilter(
+                List.of(new CurrencyPair("USD", "EUR"), new CurrencyPair("GBP", "JPY")), List.of("Provider1"),
+                START, START.plusDays(1), START.plusHours(1), 42L);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+        doAnswer(invocation -> {
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // When
+        long written = service.export(filter, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(written).isZero();
+        verify(connection).prepareStatement(argThat(sql -> sql.contains("e.timestamp >= ?")
+                        && sql.contains("e.timestamp < ?")
+                        && sql.contains("(b.code, t.code) IN ((?, ?), (?, ?))")
+                        && sql.contains("p.name IN (?)")
+                        && sql.contains("(e.timestamp, e.id) > (?, ?)")
+                        && sql.endsWith("ORDER BY e.timestamp, e.id")),
+                eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(statement).setFetchSize(1000);
+        verify(statement).setObject(1, Timestamp.valueOf(START));
+        verify(statement).setObject(3, "USD");
+        verify(statement).setObject(6, "JPY");
+        verify(statement).setObject(7, "Provider1");
+        verify(statement).setObject(8, Timestamp.valueOf(START.plusHours(1)));
+        verify(statement).setObject(9, 42L);
+    }
+
+    @Test
+    @DisplayName("Should build an unfiltered query when no filter is given")
+    void shouldBuildUnfilteredQuery() {
+        // Given
+        List<Object> parameters = new ArrayList<>();
+
+        // When
+        String sql = RateExportServiceImpl.buildQuery(new RateExportFilter(null, null, null, null, null, null), parameters);
+
+        // Then
+        assertThat(sql).isEqualTo(RateExportServiceImpl.SELECT_SQL + " ORDER BY e.timestamp, e.id");
+        assertThat(parameters).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject invalid filters, pairs and formats")
+    void shouldRejectInvalidFilters() {
+        assertThatThrownBy(() -> new RateExportFilter(null, null, null, null, START, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateExportFilter(null, null, START, START, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateExportFilter.parsePairs(List.of("USDEUR")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExportFormat.parse("xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(RateExportFilter.parsePairs(List.of("usd/eur"))).containsExactly(new CurrencyPair("USD", "EUR"));
+        assertThat(ExportFormat.parse("NDJson")).isEqualTo(ExportFormat.NDJSON);
+    }
+
+    private void givenRows(String firstProvider, String secondProvider) throws Exception {
+        when(resultSet.getLong("id")).thenReturn(1L, 2L);
+        when(resultSet.getString("base_currency")).thenReturn("USD");
+        when(resultSet.getString("target_currency")).thenReturn("EUR");
+        when(resultSet.getLong("rate_value")).thenReturn(920_000L, 921_500L);
+        when(resultSet.getString("provider")).thenReturn(firstProvider, secondProvider);
+        when(resultSet.getTimestamp("timestamp"))
+                .thenReturn(Timestamp.valueOf(START), Timestamp.valueOf(START.plusMinutes(1)));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.dto.response.RateHistoryResponse;
+import com.example.aidemo1.dto.response.RecentHistoryResponse;
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.exception.ExchangeRateNotFoundException;
+import com.example.aidemo1.recent.RecentRateStore;
+import com.example.aidemo1.repository.ExchangeRateRepository;
+import com.example.aidemo1.service.history.HistoryCursor;
+import com.example.aidemo1.tickstore.TickStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateHistoryServiceImpl.
+ * Tests keyset paging, cursor handling, page size limits, point-in-time reads,
+ * the tick store backend and recent history.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateHistoryServiceImpl Tests")
+class RateHistoryServiceImplTest {
+
+    private static final LocalDateTime NEWEST = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<TickStore> tickStoreProvider;
+
+    @Mock
+    private ObjectProvider<RecentRateStore> recentRatesProvider;
+
+    @TempDir
+    private Path tickDirectory;
+
+    private RateHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RateHistoryServiceImpl(exchangeRateRepository, jdbcTemplate, new ObjectMapper(),
+                tickStoreProvider, recentRatesProvider, "database", 1000, 500, 72);
+    }
+
+    @Test
+    @DisplayName("Should return a cursor positioned at the last row when more rows follow")
+    void shouldReturnNextCursor() {
+        // Given - one row more than the page size exists
+        List<ExchangeRate> rates = rates(4);
+        when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrencyOrderByTimestampDescIdDesc(
+                eq("USD"), eq("EUR"), argThat((Limit limit) -> limit.max() == 4))).thenReturn(rates);
+
+        // When
+        RateHistoryResponse page = service.getHistoryPage("USD", "EUR", null, 3);
+
+        // Then
+        assertThat(page.getRates()).hasSize(3);
+        assertThat(HistoryCursor.decode(page.getNextCursor()))
+                .isEqualTo(new HistoryCursor(rates.get(2).getTimestamp(), rates.get(2).getId()));
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor and end without a next cursor")
+    void shouldContinueAfterCursor() {
+        // Given
+        HistoryCursor cursor = new HistoryCursor(NEWEST.minusMinutes(2), 98L);
+        when(exchangeRateRepository.findHistoryPage(eq("USD"), eq("EUR"), eq(cursor.timestamp()), eq(cursor.id()),
+                argThat((Limit limit) -> limit.max() == 4)))
+                .thenReturn(rates(2));
+
+        // When
+        RateHistoryResponse page = service.getHistoryPage("USD", "EUR", cursor.encode(), 3);
+
+        // Then
+        assertThat(page.getRates()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors and out-of-range page sizes")
+    void shouldRejectInvalidInput() {
+        assertThatThrownBy(() -> service.getHistoryPage("USD", "EUR", "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cursor");
+        assertThatThrownBy(() -> service.getHistoryPage("USD", "EUR", null, 1001))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    @Test
+    @DisplayName("Should return the rate in effect at a point in time")
+    void shouldReturnRateAt() {
+        // Given
+        ExchangeRate rate = rates(1).get(0);
+        when(exchangeRateRepository
+                .findFirstByBaseCurrencyAndTargetCurrencyAndTimestampLessThanEqualOrderByTimestampDescIdDesc(
+                        "USD", "EUR", NEWEST))
+                .thenReturn(Optional.of(rate));
+
+        // When
+        RateHistoryResponse.Entry entry = service.getRateAt("USD", "EUR", NEWEST);
+
+        // Then
+        assertThat(entry.getRate()).isEqualByComparingTo(rate.getRate());
+        assertThat(entry.getTimestamp()).isEqualTo(rate.getTimestamp());
+        assertThatThrownBy(() -> service.getRateAt("USD", "GBP", NEWEST))
+                .isInstanceOf(ExchangeRateNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should page through the tick store when it is the history backend")
+    void shouldPageTickStore() throws IOException {
+        // Given - five ticks, one minute apart
+        TickStore tickStore = new TickStore(new SimpleMeterRegistry(), tickDirectory, 4, 2);
+        tickStore.append(rates(5));
+        when(tickStoreProvider.getIfAvailable()).thenReturn(tickStore);
+        service = new RateHistoryServiceImpl(exchangeRateRepository, jdbcTemplate, new ObjectMapper(),
+                tickStoreProvider, recentRatesProvider, "tickstore", 1000, 500, 72);
+
+        // When
+        RateHistoryResponse first = service.getHistoryPage("USD", "EUR", null, 3);
+        RateHistoryResponse second = service.getHistoryPage("USD", "EUR", first.getNextCursor(), 3);
+
+        // Then
+        assertThat(first.getRates()).extracting(RateHistoryResponse.Entry::getTimestamp)
+                .containsExactly(NEWEST, NEWEST.minusMinutes(1), NEWEST.minusMinutes(2));
+        assertThat(second.getRates()).extracting(RateHistoryResponse.Entry::getTimestamp)
+                .containsExactly(NEWEST.minusMinutes(3), NEWEST.minusMinutes(4));
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(service.getRateAt("USD", "EUR", NEWEST.minusSeconds(90)).getTimestamp())
+                .isEqualTo(NEWEST.minusMinutes(2));
+        verifyNoInteractions(exchangeRateRepository);
+        tickStore.close();
+    }
+
+    @Test
+    @DisplayName("Should require the tick store when it is the configured backend")
+    void shouldRequireTickStore() {
+        assertThatThrownBy(() -> new RateHistoryServiceImpl(exchangeRateRepository, jdbcTemplate, new ObjectMapper(),
+                tickStoreProvider, recentRatesProvider, "tickstore", 1000, 500, 72))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should serve recent history and its average from memory once loaded")
+    void shouldServeRecentHistoryFromMemory() {
+        // Given
+        RecentRateStore recentRates = new RecentRateStore(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 72, 1000, 500);
+        recentRates.load();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        recentRates.record(List.of(rate(now.minusHours(30), "1.30"), rate(now.minusHours(2), "1.10"),
+                rate(now.minusMinutes(5), "1.20")));
+        when(recentRatesProvider.getIfAvailable()).thenReturn(recentRates);
+        service = new RateHistoryServiceImpl(exchangeRateRepository, jdbcTemplate, new ObjectMapper(),
+                tickStoreProvider, recentRatesProvider, "database", 1000, 500, 72);
+
+        // When
+        RecentHistoryResponse recent = service.getRecentHistory("USD", "EUR", Duration.ofHours(24));
+
+        // Then
+        assertThat(recent.getSource()).isEqualTo("MEMORY");
+        assertThat(recent.getRates()).extracting(RateHistoryResponse.Entry::getTimestamp)
+                .containsExactly(now.minusMinutes(5), now.minusHours(2));
+        assertThat(recent.getMovingAverage()).isEqualByComparingTo("1.15");
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    @Test
+    @DisplayName("Should read recent history from the database without the recent rate store")
+    void shouldReadRecentHistoryFromDatabase() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        when(exchangeRateRepository.findByBaseCurrencyAndTargetCurrencyAndTimestampBetweenOrderByTimestampDesc(
+                eq("USD"), eq("EUR"), any(), any()))
+                .thenReturn(List.of(rate(now.minusMinutes(5), "1.20"), rate(now.minusHours(2), "1.10")));
+
+        // When
+        RecentHistoryResponse recent = service.getRecentHistory("USD", "EUR", Duration.ofHours(24));
+
+        // Then
+        assertThat(recent.getSource()).isEqualTo("DATABASE");
+        assertThat(recent.getRates()).hasSize(2);
+        assertThat(recent.getMovingAverage()).isEqualByComparingTo("1.15");
+        assertThatThrownBy(() -> service.getRecentHistory("USD", "EUR", Duration.ofHours(73)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should round-trip cursors through their token")
+    void shouldRoundTripCursor() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2026, 1, 2, 3, 4, 5, 600_000_000), 12345L);
+
+        assertThat(HistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    private ExchangeRate rate(LocalDateTime timestamp, String rate) {
+        return ExchangeRate.builder()
+                .baseCurrency("USD")
+                .targetCurrency("EUR")
+                .rate(new BigDecimal(rate))
+                .provider("Provider1")
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private List<ExchangeRate> rates(int count) {
+        List<ExchangeRate> rates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rates.add(ExchangeRate.builder()
+                    .id(100L - i)
+                    .baseCurrency("USD")
+                    .targetCurrency("EUR")
+                    .rate(new BigDecimal("1.10"))
+                    .provider("Provider1")
+                    .timestamp(NEWEST.minusMinutes(i))
+                    .build());
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.aidemo1.service.impl;
+
+import com.example.aidemo1.dto.request.TrendRequest;
+import com.example.aidemo1.dto.response.TrendResponse;
+import com.example.aidemo1.entity.ExchangeRateRollup;
+import com.example.aidemo1.repository.ExchangeRateRollupRepository;
+import com.example.aidemo1.rollup.RollupGranularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateTrendServiceImpl.
+ * Tests rollup selection, folding into intervals, summary figures and response bounds.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateTrendServiceImpl Tests")
+class RateTrendServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 30);
+
+    @Mock
+    private ExchangeRateRollupRepository rollupRepository;
+
+    private RateTrendServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RateTrendServiceImpl(rollupRepository, 1000);
+    }
+
+    @Test
+    @DisplayName("Should read daily rollups for a one-year daily trend")
+    void shouldUseDailyRollupsForYear() {
+        // Given
+        when(rollupRepository.streamBuckets(eq("USD"), eq("EUR"), eq(RollupGranularity.DAY), any(), any()))
+                .thenReturn(Stream.empty());
+
+        // When
+        TrendResponse response = service.getTrend(request("P1Y", "P1D"), NOW);
+
+        // Then
+        assertThat(response.getSource()).isEqualTo("DAY");
+        assertThat(response.getStart()).isEqualTo(LocalDateTime.of(2025, 10, 19, 0, 0));
+        assertThat(response.getEnd()).isEqualTo(LocalDateTime.of(2026, 10, 19, 0, 0));
+        assertThat(response.getPoints()).isEmpty();
+        assertThat(response.getChangePercent()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fold hourly rollups into four-hour points")
+    void shouldFoldHoursIntoIntervals() {
+        // Given - 01:00 and 03:00 fall into the 00:00 point, 05:00 into the 04:00 point
+        LocalDateTime day = LocalDateTime.of(2026, 10, 18, 0, 0);
+        when(rollupRepository.streamBuckets(eq("USD"), eq("EUR"), eq(RollupGranularity.HOUR), any(), any()))
+                .thenReturn(Stream.of(
+                        rollup(day.plusHours(1), "1.00", "1.05", "0.98", "1.02"),
+                        rollup(day.plusHours(3), "1.02", "1.08", "1.01", "1.04"),
+                        rollup(day.plusHours(5), "1.04", "1.06", "0.95", "1.10")));
+
+        // When
+        TrendResponse response = service.getTrend(request("P1D", "PT4H"), NOW);
+
+        // Then
+        assertThat(response.getSource()).isEqualTo("HOUR");
+        assertThat(response.getPoints()).hasSize(2);
+        TrendResponse.Point first = response.getPoints().get(0);
+        assertThat(first.getStart()).isEqualTo(day);
+        assertThat(first.getOpen()).isEqualByComparingTo("1.00");
+        assertThat(first.getHigh()).isEqualByComparingTo("1.08");
+        assertThat(first.getLow()).isEqualByComparingTo("0.98");
+        assertThat(first.getClose()).isEqualByComparingTo("1.04");
+        assertThat(first.getSamples()).isEqualTo(20);
+        assertThat(response.getPoints().get(1).getStart()).isEqualTo(day.plusHours(4));
+        assertThat(response.getMin()).isEqualByComparingTo("0.95");
+        assertThat(response.getMax()).isEqualByComparingTo("1.08");
+        assertThat(response.getChangePercent()).isEqualByComparingTo("10.0000");
+    }
+
+    @Test
+    @DisplayName("Should reject trends with too many points")
+    void shouldRejectTooManyPoints() {
+        assertThatThrownBy(() -> service.getTrend(request("P1Y", "PT1H"), NOW))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("coarser granularity");
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject granularities that are not whole minutes")
+    void shouldRejectSubMinuteGranularity() {
+        assertThatThrownBy(() -> service.getTrend(request("P1D", "PT30S"), NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should pick the coarsest rollup that tiles the interval")
+    void shouldPickCoarsestRollup() {
+        assertThat(RollupGranularity.coarsestFor(Duration.ofMinutes(15))).isEqualTo(RollupGranularity.MINUTE);
+        assertThat(RollupGranularity.coarsestFor(Duration.ofMinutes(90))).isEqualTo(RollupGranularity.MINUTE);
+        assertThat(RollupGranularity.coarsestFor(Duration.ofHours(6))).isEqualTo(RollupGranularity.HOUR);
+        assertThat(RollupGranularity.coarsestFor(Duration.ofDays(7))).isEqualTo(RollupGranularity.DAY);
+    }
+
+    private TrendRequest request(String period, String granularity) {
+        return TrendRequest.builder()
+                .from("USD")
+                .to("EUR")
+                .period(period)
+                .granularity(granularity)
+                .build();
+    }
+
+    private ExchangeRateRollup rollup(LocalDateTime bucketStart, String open, String high, String low, String close) {
+        return ExchangeRateRollup.builder()
+                .baseCurrency("USD")
+                .targetCurrency("EUR")
+                .granularity(RollupGranularity.HOUR)
+                .bucketStart(bucketStart)
+                .openRate(new BigDecimal(open))
+                .highRate(new BigDecimal(high))
+                .lowRate(new BigDecimal(low))
+                .closeRate(new BigDecimal(close))
+                .openAt(bucketStart)
+                .closeAt(bucketStart.plusMinutes(59))
+                .sampleCount(10)
+                .providers("ProviderA")
+                .providerCount(1)
+                .build();
+    }
+}
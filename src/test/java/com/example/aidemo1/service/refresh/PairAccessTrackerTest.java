@@ -0,0 +1,116 @@
+package com.example.aidemo1.service.refresh;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for PairAccessTracker.
+ * Tests access counting, score decay and tier classification.
+ */
+@DisplayName("PairAccessTracker Tests")
+class PairAccessTrackerTest {
+
+    private static final CurrencyPair USD_EUR = new CurrencyPair("USD", "EUR");
+    private static final CurrencyPair USD_GBP = new CurrencyPair("USD", "GBP");
+
+    private PairAccessTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new PairAccessTracker(0.5, 10, 1);
+    }
+
+    @Test
+    @DisplayName("Should classify pairs by access count")
+    void shouldClassifyPairsByAccessCount() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            tracker.recordAccess("USD", "EUR");
+        }
+        tracker.recordAccess("USD", "GBP");
+
+        // When
+        Map<DemandTier, List<CurrencyPair>> tiers = tracker.rollTiers();
+
+        // Then
+        assertThat(tiers.get(DemandTier.HOT)).containsExactly(USD_EUR);
+        assertThat(tiers.get(DemandTier.WARM)).containsExactly(USD_GBP);
+        assertThat(tiers).doesNotContainKey(DemandTier.COLD);
+    }
+
+    @Test
+    @DisplayName("Should decay scores of pairs that are no longer used")
+    void shouldDecayIdlePairs() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            tracker.recordAccess("USD", "EUR");
+        }
+        tracker.rollTiers();
+
+        // When - one idle tick halves the score
+        Map<DemandTier, List<CurrencyPair>> tiers = tracker.rollTiers();
+
+        // Then
+        assertThat(tracker.getScore(USD_EUR)).isEqualTo(5.0);
+        assertThat(tiers.get(DemandTier.WARM)).containsExactly(USD_EUR);
+        assertThat(tiers).doesNotContainKey(DemandTier.HOT);
+    }
+
+    @Test
+    @DisplayName("Should count concurrent accesses without losing updates")
+    void shouldCountConcurrentAccesses() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> tracker.recordAccess("USD", "EUR"));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        tracker.rollTiers();
+
+        // Then
+        assertThat(tracker.getScore(USD_EUR)).isEqualTo(1000.0);
+    }
+
+    @Test
+    @DisplayName("Should not lose accesses recorded while tiers are rolled")
+    void shouldNotLoseAccessesDuringRoll() throws InterruptedException {
+        // Given - no decay, so the scores of all ticks add up to the access count
+        tracker = new PairAccessTracker(0.0, 10, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 20_000; i++) {
+            executor.submit(() -> tracker.recordAccess("USD", "EUR"));
+        }
+        executor.shutdown();
+
+        // When
+        double total = 0;
+        while (!executor.isTerminated()) {
+            tracker.rollTiers();
+            total += tracker.getScore(USD_EUR);
+        }
+        tracker.rollTiers();
+        total += tracker.getScore(USD_EUR);
+
+        // Then
+        assertThat(total).isEqualTo(20_000.0);
+    }
+
+    @Test
+    @DisplayName("Should reject decay outside [0, 1)")
+    void shouldRejectInvalidDecay() {
+        assertThatThrownBy(() -> new PairAccessTracker(1.0, 10, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aidemo1.service.refresh;
+
+import com.example.aidemo1.entity.CurrencyPairCatalogEntry;
+import com.example.aidemo1.repository.CurrencyPairCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PairCatalog.
+ * Tests per-pair TTL, provider restrictions and refresh intervals.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PairCatalog Tests")
+class PairCatalogTest {
+
+    private static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    @Mock
+    private CurrencyPairCatalogRepository catalogRepository;
+
+    private PairCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new PairCatalog(catalogRepository);
+    }
+
+    @Test
+    @DisplayName("Should be empty and use defaults when no pairs are defined")
+    void shouldUseDefaultsWhenEmpty() {
+        // Given
+        when(catalogRepository.findByEnabledTrue()).thenReturn(List.of());
+
+        // Then
+        assertThat(catalog.isEmpty()).isTrue();
+        assertThat(catalog.getTtl("USD", "EUR", DEFAULT_TTL)).isEqualTo(DEFAULT_TTL);
+        assertThat(catalog.allowsProvider("USD", "EUR", "Fixer")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should apply the TTL and providers of catalog pairs")
+    void shouldApplyPairPolicy() {
+        // Given
+        when(catalogRepository.findByEnabledTrue()).thenReturn(List.of(entry("USD", "EUR", 300, 600, "Fixer")));
+
+        // Then
+        assertThat(catalog.getTtl("USD", "EUR", DEFAULT_TTL)).isEqualTo(Duration.ofSeconds(300));
+        assertThat(catalog.getTtl("EUR", "USD", DEFAULT_TTL)).isEqualTo(DEFAULT_TTL);
+        assertThat(catalog.allowsProvider("USD", "EUR", "Fixer")).isTrue();
+        assertThat(catalog.allowsProvider("USD", "EUR", "MockProvider1")).isFalse();
+        assertThat(catalog.allowsProvider("EUR", "USD", "MockProvider1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should return only pairs whose refresh interval has elapsed")
+    void shouldReturnDuePairs() {
+        // Given
+        when(catalogRepository.findByEnabledTrue()).thenReturn(List.of(
+                entry("USD", "EUR", 300, 600, null),
+                entry("USD", "GBP", 300, 3600, null),
+                entry("EUR", "GBP", 300, 600, "")));
+        Instant now = Instant.now();
+
+        // When - everything was refreshed 15 minutes ago
+        catalog.markRefreshed(List.of(new CurrencyPair("USD", "EUR"), new CurrencyPair("USD", "GBP"),
+                new CurrencyPair("EUR", "GBP")), now.minusSeconds(900));
+        Map<String, List<String>> due = catalog.getDueTargetsByBase(now);
+
+        // Then
+        assertThat(due).containsExactly(
+                Map.entry("EUR", List.of("GBP")),
+                Map.entry("USD", List.of("EUR")));
+    }
+
+    @Test
+    @DisplayName("Should treat never refreshed pairs as due")
+    void shouldTreatNewPairsAsDue() {
+        // Given
+        when(catalogRepository.findByEnabledTrue()).thenReturn(List.of(
+                entry("USD", "EUR", 300, 600, null),
+                entry("USD", "GBP", 300, 600, null)));
+
+        // When
+        Map<String, List<String>> due = catalog.getDueTargetsByBase(Instant.now());
+
+        // Then
+        assertThat(due).containsExactly(Map.entry("USD", List.of("EUR", "GBP")));
+    }
+
+    private static CurrencyPairCatalogEntry entry(String base, String target, int ttlSeconds,
+                                                  int refreshIntervalSeconds, String allowedProviders) {
+        return CurrencyPairCatalogEntry.builder()
+                .baseCurrency(base)
+                .targetCurrency(target)
+                .ttlSeconds(ttlSeconds)
+                .refreshIntervalSeconds(refreshIntervalSeconds)
+                .allowedProviders(allowedProviders)
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.aidemo1.service.refresh;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import com.example.aidemo1.exception.ExternalProviderException;
+import com.example.aidemo1.integration.aggregator.RateAggregatorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PartitionedRateRefresher.
+ * Tests merging of partition results, failure isolation, the cycle deadline and cancellation.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PartitionedRateRefresher Tests")
+class PartitionedRateRefresherTest {
+
+    private static final List<String> CURRENCIES = List.of("USD", "EUR", "GBP");
+
+    @Mock
+    private RateAggregatorService rateAggregatorService;
+
+    private PartitionedRateRefresher refresher;
+
+    @AfterEach
+    void tearDown() {
+        if (refresher != null) {
+            refresher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refresh every base currency and merge the results")
+    void shouldMergePartitionResults() {
+        // Given
+        refresher = new PartitionedRateRefresher(rateAggregatorService, 2, 1, 60);
+        when(rateAggregatorService.fetchAndAggregateMultiple(anyString(), anyList()))
+                .thenAnswer(invocation -> results(invocation.getArgument(1)));
+        List<RefreshProgress> progress = new ArrayList<>();
+
+        // When
+        RefreshResult result = refresher.refresh(CURRENCIES, progress::add);
+
+        // Then
+        assertThat(result.refreshedPairs()).isEqualTo(6);
+        assertThat(result.totalPairs()).isEqualTo(6);
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.failedPartitions()).isEmpty();
+        verify(rateAggregatorService).fetchAndAggregateMultiple("USD", List.of("EUR", "GBP"));
+        assertThat(progress).hasSize(3);
+        assertThat(progress.get(2).fractionComplete()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should report a failed partition and keep the others")
+    void shouldIsolatePartitionFailures() {
+        // Given
+        refresher = new PartitionedRateRefresher(rateAggregatorService, 2, 1, 60);
+        when(rateAggregatorService.fetchAndAggregateMultiple(anyString(), anyList()))
+                .thenAnswer(invocation -> results(invocation.getArgument(1)));
+        when(rateAggregatorService.fetchAndAggregateMultiple(eq("EUR"), anyList()))
+                .thenThrow(new ExternalProviderException("All providers failed"));
+
+        // When
+        RefreshResult result = refresher.refresh(CURRENCIES, RefreshProgressListener.NONE);
+
+        // Then
+        assertThat(result.refreshedPairs()).isEqualTo(4);
+        assertThat(result.failedPartitions()).containsExactly("EUR");
+    }
+
+    @Test
+    @DisplayName("Should cancel partitions that miss the cycle deadline and return once they stopped")
+    void shouldCancelPartitionsAfterDeadline() {
+        // Given
+        refresher = new PartitionedRateRefresher(rateAggregatorService, 3, 1, 1);
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicBoolean stopped = new AtomicBoolean();
+        when(rateAggregatorService.fetchAndAggregateMultiple(anyString(), anyList()))
+                .thenAnswer(invocation -> results(invocation.getArgument(1)));
+        when(rateAggregatorService.fetchAndAggregateMultiple(eq("GBP"), anyList()))
+                .thenAnswer(invocation -> {
+                    try {
+                        never.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // Cleans up before stopping, like a provider call closing its connection
+                        Thread.sleep(200);
+                        stopped.set(true);
+                        throw e;
+                    }
+                    return results(invocation.getArgument(1));
+                });
+
+        // When
+        RefreshResult result = refresher.refresh(CURRENCIES, RefreshProgressListener.NONE);
+
+        // Then
+        assertThat(stopped).isTrue();
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.timedOutPartitions()).containsExactly("GBP");
+        assertThat(result.refreshedPairs()).isEqualTo(4);
+        assertThat(result.duration()).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should run high-priority refreshes while the shared pool is busy")
+    void shouldRunHighPriorityRefreshOnDedicatedPool() throws InterruptedException {
+        // Given - the only shared thread is blocked by a full cycle
+        refresher = new PartitionedRateRefresher(rateAggregatorService, 1, 1, 60);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rateAggregatorService.fetchAndAggregateMultiple(anyString(), anyList()))
+                .thenAnswer(invocation -> results(invocation.getArgument(1)));
+        when(rateAggregatorService.fetchAndAggregateMultiple(eq("USD"), anyList()))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return results(invocation.getArgument(1));
+                });
+        Thread fullCycle = new Thread(() -> refresher.refresh(CURRENCIES, RefreshProgressListener.NONE));
+        fullCycle.start();
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        RefreshResult result = refresher.refresh(Map.of("CHF", List.of("EUR")),
+                RefreshProgressListener.NONE, RefreshPriority.HIGH);
+
+        // Then
+        assertThat(result.refreshedPairs()).isEqualTo(1);
+        assertThat(result.duration()).isLessThan(Duration.ofSeconds(5));
+        release.countDown();
+        fullCycle.join(5000);
+    }
+
+    @Test
+    @DisplayName("Should return an empty result for fewer than two currencies")
+    void shouldSkipSingleCurrency() {
+        refresher = new PartitionedRateRefresher(rateAggregatorService, 2, 1, 60);
+
+        RefreshResult result = refresher.refresh(List.of("USD"), RefreshProgressListener.NONE);
+
+        assertThat(result.totalPairs()).isZero();
+        verifyNoInteractions(rateAggregatorService);
+    }
+
+    private Map<String, ExchangeRate> results(List<String> targets) {
+        Map<String, ExchangeRate> results = new HashMap<>();
+        targets.forEach(target -> results.put(target, new ExchangeRate()));
+        return results;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.aidemo1.service.refresh;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RefreshJobService.
+ * Tests job lifecycle, joining of concurrent triggers, progress and cancellation.
+ */
+@DisplayName("RefreshJobService Tests")
+class RefreshJobServiceTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private RefreshJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new RefreshJobService(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run a job and report its result")
+    void shouldCompleteJob() {
+        // When
+        RefreshJob job = jobService.startOrJoin(listener -> result(6, 6));
+        RefreshResult result = job.await();
+
+        // Then
+        assertThat(result.refreshedPairs()).isEqualTo(6);
+        assertThat(job.getStatus()).isEqualTo(RefreshJobStatus.COMPLETED);
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(jobService.find(job.getId())).contains(job);
+    }
+
+    @Test
+    @DisplayName("Should join the running job instead of starting another")
+    void shouldJoinRunningJob() throws InterruptedException {
+        // Given
+        RefreshJob first = jobService.startOrJoin(this::blockingRefresh);
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        RefreshJob second = jobService.startOrJoin(this::blockingRefresh);
+        release.countDown();
+        first.await();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should expose progress of a running job")
+    void shouldExposeProgress() throws InterruptedException {
+        // Given
+        RefreshJob job = jobService.startOrJoin(listener -> {
+            listener.onProgress(new RefreshProgress(1, 4, 3, 2, 12));
+            return blockingRefresh(listener);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(RefreshJobStatus.RUNNING);
+        assertThat(job.getProgress().failedPairs()).isEqualTo(1);
+        assertThat(job.getProgress().remainingPairs()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should cancel a running job by interrupting it")
+    void shouldCancelRunningJob() throws InterruptedException {
+        // Given
+        RefreshJob job = jobService.startOrJoin(listener -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                return result(12, 12);
+            } catch (InterruptedException e) {
+                return result(3, 12);
+            }
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        jobService.cancel(job.getId());
+        RefreshResult result = job.await();
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(RefreshJobStatus.CANCELLED);
+        assertThat(result.refreshedPairs()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not interrupt the next job when a finished job is cancelled")
+    void shouldNotInterruptNextJob() throws InterruptedException {
+        // Given
+        RefreshJob finished = jobService.startOrJoin(listener -> result(6, 6));
+        finished.await();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        RefreshJob next = jobService.startOrJoin(listener -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return result(6, 6);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        jobService.cancel(finished.getId());
+        release.countDown();
+
+        // Then
+        assertThat(next.await().refreshedPairs()).isEqualTo(6);
+        assertThat(interrupted).isFalse();
+        assertThat(next.getStatus()).isEqualTo(RefreshJobStatus.COMPLETED);
+        assertThat(finished.getStatus()).isEqualTo(RefreshJobStatus.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Should rethrow the failure to callers waiting for the job")
+    void shouldReportFailure() {
+        // When
+        RefreshJob job = jobService.startOrJoin(listener -> {
+            throw new IllegalStateException("Database unavailable");
+        });
+
+        // Then
+        assertThatThrownBy(job::await).isInstanceOf(IllegalStateException.class)
+                .hasMessage("Database unavailable");
+        assertThat(job.getStatus()).isEqualTo(RefreshJobStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should return empty for unknown job ids")
+    void shouldReturnEmptyForUnknownJob() {
+        assertThat(jobService.find("unknown")).isEmpty();
+        assertThat(jobService.cancel("unknown")).isEmpty();
+    }
+
+    private RefreshResult blockingRefresh(RefreshProgressListener listener) {
+        runs.incrementAndGet();
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result(6, 6);
+    }
+
+    private RefreshResult result(int refreshed, int total) {
+        return new RefreshResult(refreshed, total, List.of(), List.of(), Duration.ofMillis(10));
+    }
+}
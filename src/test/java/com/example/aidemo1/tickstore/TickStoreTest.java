@@ -0,0 +1,140 @@
+package com.example.aidemo1.tickstore;
+
+import com.example.aidemo1.entity.ExchangeRate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for TickStore.
+ * Tests appends across segments, time lookups through the sparse index, ordering and reopening.
+ */
+@DisplayName("TickStore Tests")
+class TickStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TickStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        // Small segments and index intervals so the tests cross both boundaries
+        store = new TickStore(meterRegistry, directory, 8, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should return ticks newest first across segment files")
+    void shouldReadAcrossSegments() {
+        // Given
+        store.append(ticks("USD", "EUR", 20));
+
+        // When
+        List<Tick> newest = store.newestFirst("USD", "EUR", Long.MAX_VALUE, 3);
+        List<Tick> older = store.newestFirst("USD", "EUR", 9, 2);
+
+        // Then
+        assertThat(newest).extracting(Tick::sequence).containsExactly(19L, 18L, 17L);
+        assertThat(newest.get(0).timestamp()).isEqualTo(START.plusSeconds(19));
+        assertThat(newest.get(0).rate()).isEqualByComparingTo("1.100019");
+        assertThat(newest.get(0).provider()).isEqualTo("Provider1");
+        assertThat(older).extracting(Tick::sequence).containsExactly(8L, 7L);
+        assertThat(store.newestFirst("USD", "GBP", Long.MAX_VALUE, 3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find the tick in effect at a point in time")
+    void shouldFindTickAt() {
+        // Given
+        store.append(ticks("USD", "EUR", 20));
+
+        // When / Then
+        assertThat(store.tickAt("USD", "EUR", START.plusSeconds(10).plusNanos(500_000_000)))
+                .map(Tick::sequence).contains(10L);
+        assertThat(store.tickAt("USD", "EUR", START.plusSeconds(12))).map(Tick::sequence).contains(12L);
+        assertThat(store.tickAt("USD", "EUR", START.plusHours(1))).map(Tick::sequence).contains(19L);
+        assertThat(store.tickAt("USD", "EUR", START.minusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should sort a batch by time and reject ticks older than the series")
+    void shouldRejectOutOfOrderTicks() {
+        // Given
+        List<ExchangeRate> batch = new ArrayList<>(ticks("USD", "EUR", 3));
+        batch.add(0, batch.remove(2));
+        store.append(batch);
+
+        // When
+        int appended = store.append(List.of(rate("USD", "EUR", START, "1.2")));
+
+        // Then
+        assertThat(appended).isZero();
+        assertThat(store.newestFirst("USD", "EUR", Long.MAX_VALUE, 10)).extracting(Tick::timestamp)
+                .containsExactly(START.plusSeconds(2), START.plusSeconds(1), START);
+        assertThat(meterRegistry.counter("exchange.tickstore.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should recover ticks and providers when reopened")
+    void shouldReopen() throws IOException {
+        // Given
+        store.append(ticks("USD", "EUR", 11));
+        store.close();
+
+        // When
+        store = new TickStore(meterRegistry, directory, 8, 3);
+        store.append(List.of(rate("USD", "EUR", START.plusSeconds(11), "1.5")));
+
+        // Then
+        List<Tick> newest = store.newestFirst("USD", "EUR", Long.MAX_VALUE, 2);
+        assertThat(newest).extracting(Tick::sequence).containsExactly(11L, 10L);
+        assertThat(newest.get(1).provider()).isEqualTo("Provider1");
+        assertThat(store.tickAt("USD", "EUR", START.plusSeconds(4))).map(Tick::sequence).contains(4L);
+    }
+
+    @Test
+    @DisplayName("Should reject currency codes that are not plain codes")
+    void shouldRejectInvalidCodes() {
+        assertThatThrownBy(() -> store.newestFirst("../x", "EUR", Long.MAX_VALUE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<ExchangeRate> ticks(String base, String target, int count) {
+        List<ExchangeRate> rates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rates.add(rate(base, target, START.plusSeconds(i), "1.1000" + String.format("%02d", i)));
+        }
+        return rates;
+    }
+
+    private ExchangeRate rate(String base, String target, LocalDateTime timestamp, String rate) {
+        return ExchangeRate.builder()
+                .baseCurrency(base)
+                .targetCurrency(target)
+                .rate(new BigDecimal(rate))
+                .provider("Provider1")
+                .timestamp(timestamp)
+                .build();
+    }
+}